@@ -1,16 +1,21 @@
 package daro.ide.debug;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import daro.lang.ast.AstNode;
 import daro.lang.interpreter.ExecutionContext;
+import daro.lang.interpreter.ExecutionEvent;
 import daro.lang.interpreter.ExecutionObserver;
-import daro.lang.interpreter.VariableLocation;
 import daro.lang.interpreter.InterpreterException;
 import daro.lang.values.DaroFunction;
 import daro.lang.values.DaroObject;
 
 /**
  * This class implements an {@link ExecutionObserver} that will interrupt
- * execution if the thread it is running in gets interrupted.
+ * execution if the thread it is running in gets interrupted. Every execution
+ * that does not terminate quickly has to either call functions or iterate in
+ * a loop, so it is enough to check for interruption on these events.
  * 
  * @author Roland Bernard
  */
@@ -29,22 +34,12 @@ public class Interrupter implements ExecutionObserver {
     }
 
     @Override
-    public void beforeExecution(AstNode node, ExecutionContext context) {
-        checkForInterruption(node);
-    }
-
-    @Override
-    public void afterExecution(AstNode node, DaroObject value, ExecutionContext context) {
-        checkForInterruption(node);
-    }
-
-    @Override
-    public void beforeLocalization(AstNode node, ExecutionContext context) {
-        checkForInterruption(node);
+    public Set<ExecutionEvent> getEvents() {
+        return EnumSet.of(ExecutionEvent.CALL, ExecutionEvent.ITERATION);
     }
 
     @Override
-    public void afterLocalization(AstNode node, VariableLocation location, ExecutionContext context) {
+    public void onIteration(AstNode node, ExecutionContext context) {
         checkForInterruption(node);
     }
 
@@ -15,9 +15,11 @@ import java.util.stream.Collectors;
 
 import org.fxmisc.richtext.CodeArea;
 import org.fxmisc.richtext.event.MouseOverTextEvent;
+import org.fxmisc.richtext.model.PlainTextChange;
 
 import daro.ide.debug.Interrupter;
 import daro.lang.ast.AstNode;
+import daro.lang.ast.AstSequence;
 import daro.lang.interpreter.DaroException;
 import daro.lang.interpreter.ExecutionContext;
 import daro.lang.interpreter.Interpreter;
@@ -48,9 +50,12 @@ public class TextEditor extends CodeArea {
     private Consumer<String> onChange;
     private Set<Integer> breakpoints;
     private DaroException shownError;
+    private ParsingException syntaxError;
     private Scope shownScope;
     private int shownDebugLine = -1;
     private Thread thread;
+    private AstSequence tree;
+    private PlainTextChange change;
 
     private static final int HOVER_DELAY = 200;
     private static final int HOVER_TIMEOUT = 500;
@@ -68,6 +73,8 @@ public class TextEditor extends CodeArea {
         textProperty().addListener(this::handleTextChange);
         applyHighlighting(initialContent);
         breakpoints = new HashSet<>();
+        plainTextChanges().subscribe(this::handlePlainTextChange);
+        Platform.runLater(this::checkSyntax);
         setParagraphGraphicFactory(number -> {
             Label ret = new Label(Integer.toString(number + 1));
             ret.setAlignment(Pos.CENTER_RIGHT);
@@ -99,6 +106,11 @@ public class TextEditor extends CodeArea {
             if (shownError != null && textPosition >= shownError.getStart() && textPosition <= shownError.getEnd()) {
                 popupMessage.setText(shownError.getMessage());
                 popup.show(this, screenPosition.getX(), screenPosition.getY());
+            } else if (
+                syntaxError != null && textPosition >= syntaxError.getStart() && textPosition <= syntaxError.getEnd()
+            ) {
+                popupMessage.setText(syntaxError.getMessage());
+                popup.show(this, screenPosition.getX(), screenPosition.getY());
             } else if (shownScope != null) {
                 if (getSelectedText().isEmpty()) {
                     String text = getText();
@@ -168,6 +180,8 @@ public class TextEditor extends CodeArea {
             icon.setText("\ue937");
         } else if (shownError != null && line == shownError.getPosition().getLine() - 1) {
             icon.setText("\ue002");
+        } else if (syntaxError != null && line == syntaxError.getPosition().getLine() - 1) {
+            icon.setText("\ue002");
         } else if (breakpoints.contains(line)) {
             icon.setText("\ue868");
         } else {
@@ -213,7 +227,8 @@ public class TextEditor extends CodeArea {
 
     /**
      * Handle a change in the text of the editor. This method handles highlighting
-     * and moving of breakpoints.
+     * and moving of breakpoints. The syntax of the new text is checked after all
+     * listeners have seen the change.
      *
      * @param observableValue The observable value
      * @param oldValue        The old text of the editor
@@ -241,6 +256,7 @@ public class TextEditor extends CodeArea {
         }
         clearHighlighting(newValue);
         applyHighlighting(newValue);
+        Platform.runLater(this::checkSyntax);
         if (onChange != null) {
             onChange.accept(newValue);
         }
@@ -261,6 +277,14 @@ public class TextEditor extends CodeArea {
                 setLineGraphic(line, node);
             }
         }
+        if (syntaxError != null) {
+            int line = syntaxError.getPosition().getLine() - 1;
+            syntaxError = null;
+            if (line < getParagraphs().size()) {
+                Label node = (Label)getParagraphGraphic(line);
+                setLineGraphic(line, node);
+            }
+        }
         if (shownDebugLine >= 0) {
             int line = shownDebugLine;
             if (line < getParagraphs().size()) {
@@ -287,6 +311,16 @@ public class TextEditor extends CodeArea {
                 }
             }
         }
+        if (syntaxError != null) {
+            int line = syntaxError.getPosition().getLine() - 1;
+            if (line < getParagraphs().size() && syntaxError.getEnd() <= text.length()) {
+                Label node = (Label)getParagraphGraphic(line);
+                if (node != null) {
+                    setLineGraphic(line, node);
+                }
+                setStyle(syntaxError.getStart(), syntaxError.getEnd(), List.of("syntax-error"));
+            }
+        }
         if (shownDebugLine >= 0) {
             if (shownDebugLine < getParagraphs().size()) {
                 Label node = (Label)getParagraphGraphic(shownDebugLine);
@@ -304,6 +338,7 @@ public class TextEditor extends CodeArea {
     public void resetHighlighting() {
         clearHighlighting(getText());
         applyHighlighting(getText());
+        Platform.runLater(this::checkSyntax);
     }
 
     /**
@@ -440,6 +475,63 @@ public class TextEditor extends CodeArea {
         }
     }
 
+    /**
+     * Remember a change to the text for updating the tree. Only a single pending
+     * edit is kept, consecutive edits are merged if they are adjacent. If they are
+     * not, the tree is dropped and the text will be parsed again.
+     *
+     * @param latter The change made to the text
+     */
+    private void handlePlainTextChange(PlainTextChange latter) {
+        if (tree != null) {
+            if (change == null) {
+                change = latter;
+            } else {
+                change = change.mergeWith(latter).orElse(null);
+                if (change == null) {
+                    tree = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the ast for the current text. The tree is updated incrementally if
+     * there is only a single pending edit since the tree was last requested. If
+     * the text contains a syntax error, the last valid tree and the pending edit
+     * are kept, so that the tree can be updated once the error has been fixed.
+     *
+     * @return The ast for the current text
+     * @throws ParsingException If the text contains a syntax error
+     */
+    public AstSequence getTree() {
+        if (tree != null && change != null) {
+            tree = Parser.reparseSourceCode(
+                tree, getText(), change.getPosition(), change.getRemoved().length(), change.getInserted().length()
+            );
+            change = null;
+        } else if (tree == null) {
+            tree = Parser.parseSourceCode(getText());
+            change = null;
+        }
+        return tree;
+    }
+
+    /**
+     * Check the syntax of the current text, and highlight the syntax error if
+     * there is one. The highlighted error is removed with all other highlighting
+     * on the next change. The tree is updated incrementally for this check, and
+     * is therefore also up to date for later uses of {@link #getTree()}.
+     */
+    private void checkSyntax() {
+        try {
+            getTree();
+        } catch (ParsingException error) {
+            syntaxError = error;
+            applyHighlighting(getText());
+        }
+    }
+
     /**
      * Get all the breakpoints but adjusted to match the AST better.
      *
@@ -447,7 +539,7 @@ public class TextEditor extends CodeArea {
      */
     public Set<Integer> getAstBreakpoints() {
         try {
-            AstNode tree = Parser.parseSourceCode(getText());
+            AstNode tree = getTree();
             Set<Integer> breaks = new HashSet<>();
             for (int line : breakpoints) {
                 int position = Arrays.stream(getText().split("\n")).limit(line).mapToInt(String::length).sum() + line;
@@ -11,6 +11,7 @@ import java.util.Objects;
 public abstract class AstBinaryNode extends AstNode {
     private final AstNode left;
     private final AstNode right;
+    private Object specialization;
 
     public AstBinaryNode(Position position, AstNode left, AstNode right) {
         super(position);
@@ -26,6 +27,14 @@ public abstract class AstBinaryNode extends AstNode {
         return right;
     }
 
+    public Object getSpecialization() {
+        return specialization;
+    }
+
+    public void setSpecialization(Object specialization) {
+        this.specialization = specialization;
+    }
+
     @Override
     public AstNode[] getChildren() {
         return new AstNode[] {
@@ -7,13 +7,18 @@ package daro.lang.ast;
  * @author Roland Bernard
  */
 public final class AstBlock extends AstSequence {
+    private AstSequence sequence;
 
     public AstBlock(Position position, AstNode[] content) {
         super(position, content);
     }
 
     public AstSequence getSequence() {
-        return new AstSequence(getPosition(), getStatements());
+        if (sequence == null) {
+            // The sequence is reused so that information cached on it is kept
+            sequence = new AstSequence(getPosition(), getStatements());
+        }
+        return sequence;
     }
 
     public <T> T accept(Visitor<T> visitor) {
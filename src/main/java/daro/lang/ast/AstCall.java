@@ -13,6 +13,13 @@ public final class AstCall extends AstNode {
     private final AstNode function;
     private final AstNode[] parameters;
 
+    /**
+     * Whether the value of this call is directly returned from the enclosing
+     * function. This is set by the variable resolver and allows the interpreter
+     * to execute the call without growing the stack.
+     */
+    private boolean tail;
+
     public AstCall(Position position, AstNode function, AstNode[] parameters) {
         super(position);
         this.function = function;
@@ -27,6 +34,24 @@ public final class AstCall extends AstNode {
         return parameters;
     }
 
+    /**
+     * Returns true if the call is in tail position inside of a function.
+     *
+     * @return true if this is a tail call, false otherwise
+     */
+    public boolean isTailCall() {
+        return tail;
+    }
+
+    /**
+     * Mark this call as being in tail position or not.
+     *
+     * @param tail Whether the call is in tail position
+     */
+    public void setTailCall(boolean tail) {
+        this.tail = tail;
+    }
+
     public <T> T accept(Visitor<T> visitor) {
         return visitor.visit(this);
     }
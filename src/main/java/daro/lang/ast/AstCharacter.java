@@ -8,6 +8,11 @@ package daro.lang.ast;
 public final class AstCharacter extends AstNode {
     private final char value;
 
+    /**
+     * The runtime value of this literal, see {@link daro.lang.interpreter.LiteralPool}.
+     */
+    private Object constant;
+
     public AstCharacter(Position position, char value) {
         super(position);
         this.value = value;
@@ -17,6 +22,14 @@ public final class AstCharacter extends AstNode {
         return value;
     }
 
+    public Object getConstant() {
+        return constant;
+    }
+
+    public void setConstant(Object constant) {
+        this.constant = constant;
+    }
+
     public <T> T accept(Visitor<T> visitor) {
         return visitor.visit(this);
     }
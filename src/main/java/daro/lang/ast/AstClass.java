@@ -11,6 +11,12 @@ public final class AstClass extends AstNode {
     private final String name;
     private final AstBlock body;
 
+    /**
+     * The variables captured from the defining scope, as computed by the
+     * variable resolver. This is used to avoid retaining unused scopes.
+     */
+    private Object captures;
+
     public AstClass(Position position, String name, AstBlock body) {
         super(position);
         this.name = name;
@@ -25,6 +31,14 @@ public final class AstClass extends AstNode {
         return body;
     }
 
+    public Object getCaptures() {
+        return captures;
+    }
+
+    public void setCaptures(Object captures) {
+        this.captures = captures;
+    }
+
     public <T> T accept(Visitor<T> visitor) {
         return visitor.visit(this);
     }
@@ -11,6 +11,13 @@ public final class AstFor extends AstNode {
     private final AstNode condition;
     private final AstNode body;
 
+    /**
+     * The compiled condition and body, used by the tiered execution mode to
+     * continue a hot loop in compiled code.
+     */
+    private Object compiledCondition;
+    private Object compiledBody;
+
     public AstFor(Position position, AstNode condition, AstNode body) {
         super(position);
         this.condition = condition;
@@ -25,6 +32,22 @@ public final class AstFor extends AstNode {
         return body;
     }
 
+    public Object getCompiledCondition() {
+        return compiledCondition;
+    }
+
+    public void setCompiledCondition(Object compiledCondition) {
+        this.compiledCondition = compiledCondition;
+    }
+
+    public Object getCompiledBody() {
+        return compiledBody;
+    }
+
+    public void setCompiledBody(Object compiledBody) {
+        this.compiledBody = compiledBody;
+    }
+
     public <T> T accept(Visitor<T> visitor) {
         return visitor.visit(this);
     }
@@ -13,6 +13,12 @@ public final class AstForIn extends AstNode {
     private final AstNode list;
     private final AstNode body;
 
+    /**
+     * The compiled body, used by the tiered execution mode to continue a hot
+     * loop in compiled code.
+     */
+    private Object compiledBody;
+
     public AstForIn(Position position, AstSymbol variable, AstNode list, AstNode body) {
         super(position);
         this.variable = variable;
@@ -32,6 +38,14 @@ public final class AstForIn extends AstNode {
         return body;
     }
 
+    public Object getCompiledBody() {
+        return compiledBody;
+    }
+
+    public void setCompiledBody(Object compiledBody) {
+        this.compiledBody = compiledBody;
+    }
+
     public <T> T accept(Visitor<T> visitor) {
         return visitor.visit(this);
     }
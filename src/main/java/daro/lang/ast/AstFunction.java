@@ -15,6 +15,19 @@ public final class AstFunction extends AstNode {
     private final AstSymbol[] parameters;
     private final AstBlock body;
 
+    /**
+     * The variables captured from the defining scope, as computed by the
+     * variable resolver. This is used to avoid retaining unused scopes.
+     */
+    private Object captures;
+
+    /**
+     * The profile and the compiled body shared by all functions created from this
+     * definition, used by the tiered execution mode.
+     */
+    private Object profile;
+    private Object compiledBody;
+
     public AstFunction(Position position, String name, AstSymbol[] parameters, AstBlock body) {
         super(position);
         this.name = name;
@@ -34,6 +47,30 @@ public final class AstFunction extends AstNode {
         return body;
     }
 
+    public Object getCaptures() {
+        return captures;
+    }
+
+    public void setCaptures(Object captures) {
+        this.captures = captures;
+    }
+
+    public Object getProfile() {
+        return profile;
+    }
+
+    public void setProfile(Object profile) {
+        this.profile = profile;
+    }
+
+    public Object getCompiledBody() {
+        return compiledBody;
+    }
+
+    public void setCompiledBody(Object compiledBody) {
+        this.compiledBody = compiledBody;
+    }
+
     public <T> T accept(Visitor<T> visitor) {
         return visitor.visit(this);
     }
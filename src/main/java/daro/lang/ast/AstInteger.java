@@ -10,6 +10,11 @@ import java.math.BigInteger;
 public final class AstInteger extends AstNode {
     private final BigInteger value;
 
+    /**
+     * The runtime value of this literal, see {@link daro.lang.interpreter.LiteralPool}.
+     */
+    private Object constant;
+
     public AstInteger(Position position, BigInteger value) {
         super(position);
         this.value = value;
@@ -23,6 +28,14 @@ public final class AstInteger extends AstNode {
         return value;
     }
 
+    public Object getConstant() {
+        return constant;
+    }
+
+    public void setConstant(Object constant) {
+        this.constant = constant;
+    }
+
     public <T> T accept(Visitor<T> visitor) {
         return visitor.visit(this);
     }
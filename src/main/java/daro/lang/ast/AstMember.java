@@ -10,6 +10,7 @@ import java.util.Objects;
 public final class AstMember extends AstNode {
     private final AstNode operand;
     private final String name;
+    private Object cache;
 
     public AstMember(Position position, AstNode operand, String name) {
         super(position);
@@ -25,6 +26,14 @@ public final class AstMember extends AstNode {
         return name;
     }
 
+    public Object getCache() {
+        return cache;
+    }
+
+    public void setCache(Object cache) {
+        this.cache = cache;
+    }
+
     public <T> T accept(Visitor<T> visitor) {
         return visitor.visit(this);
     }
@@ -8,6 +8,11 @@ package daro.lang.ast;
 public final class AstReal extends AstNode {
     private final double value;
 
+    /**
+     * The runtime value of this literal, see {@link daro.lang.interpreter.LiteralPool}.
+     */
+    private Object constant;
+
     public AstReal(Position position, double value) {
         super(position);
         this.value = value;
@@ -17,6 +22,14 @@ public final class AstReal extends AstNode {
         return value;
     }
 
+    public Object getConstant() {
+        return constant;
+    }
+
+    public void setConstant(Object constant) {
+        this.constant = constant;
+    }
+
     public <T> T accept(Visitor<T> visitor) {
         return visitor.visit(this);
     }
@@ -10,6 +10,7 @@ import java.util.stream.Collectors;
  */
 public class AstSequence extends AstNode {
     private final AstNode[] statements;
+    private AstNode[] declarations;
 
     public AstSequence(Position position, AstNode[] statements) {
         super(position);
@@ -20,6 +21,14 @@ public class AstSequence extends AstNode {
         return statements;
     }
 
+    public AstNode[] getDeclarations() {
+        return declarations;
+    }
+
+    public void setDeclarations(AstNode[] declarations) {
+        this.declarations = declarations;
+    }
+
     public <T> T accept(Visitor<T> visitor) {
         return visitor.visit(this);
     }
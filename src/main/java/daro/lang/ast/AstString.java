@@ -10,6 +10,11 @@ import java.util.Objects;
 public final class AstString extends AstNode {
     private final String value;
 
+    /**
+     * The runtime value of this literal, see {@link daro.lang.interpreter.LiteralPool}.
+     */
+    private Object constant;
+
     public AstString(Position position, String value) {
         super(position);
         this.value = value;
@@ -19,6 +24,14 @@ public final class AstString extends AstNode {
         return value;
     }
 
+    public Object getConstant() {
+        return constant;
+    }
+
+    public void setConstant(Object constant) {
+        this.constant = constant;
+    }
+
     public <T> T accept(Visitor<T> visitor) {
         return visitor.visit(this);
     }
@@ -10,6 +10,17 @@ import java.util.Objects;
 public final class AstSymbol extends AstNode {
     private final String name;
 
+    /**
+     * The number of frames between the use of this symbol and the frame it was
+     * declared in, or -1 if the symbol has not been resolved statically.
+     */
+    private int depth = -1;
+    /**
+     * The index of the variable inside the declaring frame, or -1 if the symbol
+     * has not been resolved statically.
+     */
+    private int slot = -1;
+
     public AstSymbol(Position position, String name) {
         super(position);
         this.name = name;
@@ -19,6 +30,35 @@ public final class AstSymbol extends AstNode {
         return name;
     }
 
+    /**
+     * Bind this symbol to the variable at the given slot inside the frame that is
+     * depth frames above the frame the symbol is used in.
+     *
+     * @param depth The number of frames to go up
+     * @param slot  The slot inside the frame
+     */
+    public void resolve(int depth, int slot) {
+        this.depth = depth;
+        this.slot = slot;
+    }
+
+    /**
+     * Returns true if the symbol has been bound to a frame slot.
+     *
+     * @return true if the symbol is resolved, false otherwise
+     */
+    public boolean isResolved() {
+        return depth >= 0;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
     public <T> T accept(Visitor<T> visitor) {
         return visitor.visit(this);
     }
@@ -0,0 +1,464 @@
+package daro.lang.ast;
+
+/**
+ * This class maps offsets into a source text to line and column numbers. The
+ * text can be any {@link CharSequence}, e.g. a memory mapped file, and is only
+ * converted into a {@link String} if it is explicitly requested. The
+ * offsets at which the lines start are computed the first time they are needed
+ * and are afterwards shared by all the {@link Position} objects that refer to
+ * the same text. Lines and columns are then found using a binary search.
+ * <p>
+ * An index can also be derived from the index of a text before an edit. The
+ * lines of a derived index are computed from the lines of the previous text and
+ * the inserted text, without scanning the rest of the text again. After a
+ * derived index has replaced the previous one, all positions referring to the
+ * previous text are moved into the edited text the next time they are used.
+ *
+ * @author Roland Bernard
+ */
+public class LineIndex {
+    /**
+     * The number of consecutive edits after which the lines are computed from
+     * the text again, instead of deriving them from the previous lines.
+     */
+    private static final int MAX_DEPTH = 16;
+
+    /**
+     * This variable stores the text that is indexed. It is null after the index
+     * has been replaced by an index for an edited text.
+     */
+    private volatile CharSequence source;
+    /**
+     * This variable stores the text converted to a {@link String}. It is null
+     * until the text is requested.
+     */
+    private volatile String text;
+    /**
+     * This variable stores the start offsets of the lines of the text. It is
+     * null until the first line or column is requested, unless the index has
+     * been derived from a previous one.
+     */
+    private volatile Lines lines;
+    /**
+     * This variable stores the index of the text before the edit, until this
+     * index has replaced it.
+     */
+    private volatile LineIndex previous;
+    /**
+     * This variable stores the index that has replaced this one, or null.
+     */
+    private volatile LineIndex next;
+    /**
+     * The offset in the previous text at which the edit starts.
+     */
+    private final int offset;
+    /**
+     * The number of characters removed from the previous text.
+     */
+    private final int removed;
+    /**
+     * The number of characters inserted into the previous text.
+     */
+    private final int inserted;
+
+    /**
+     * This class stores the start offsets of the lines of a text. The offsets are
+     * either stored directly, or as the lines of the text before an edit, and
+     * the lines inserted by the edit.
+     */
+    private static final class Lines {
+        private final int[] starts;
+        private final Lines previous;
+        private final int offset;
+        private final int removed;
+        private final int inserted;
+        private final int before;
+        private final int removedLines;
+        private final int depth;
+
+        /**
+         * Create the lines of a text with the given line start offsets.
+         *
+         * @param starts The start offsets of all lines
+         */
+        private Lines(int[] starts) {
+            this.starts = starts;
+            this.previous = null;
+            this.offset = 0;
+            this.removed = 0;
+            this.inserted = 0;
+            this.before = 0;
+            this.removedLines = 0;
+            this.depth = 0;
+        }
+
+        /**
+         * Create the lines of a text resulting from an edit of a previous text.
+         *
+         * @param previous The lines of the previous text
+         * @param offset   The offset of the edit in the previous text
+         * @param removed  The number of removed characters
+         * @param inserted The number of inserted characters
+         * @param starts   The start offsets of the lines inside the inserted text
+         */
+        private Lines(Lines previous, int offset, int removed, int inserted, int[] starts) {
+            this.starts = starts;
+            this.previous = previous;
+            this.offset = offset;
+            this.removed = removed;
+            this.inserted = inserted;
+            this.before = previous.lineIndexOf(offset);
+            this.removedLines = previous.lineIndexOf(offset + removed) - before;
+            this.depth = previous.depth + 1;
+        }
+
+        /**
+         * Compute the lines of the given text.
+         *
+         * @param source The text to scan
+         * @return The lines of the text
+         */
+        private static Lines scan(CharSequence source) {
+            int count = 1;
+            for (int i = 0; i < source.length(); i++) {
+                if (source.charAt(i) == '\n') {
+                    count++;
+                }
+            }
+            int[] starts = new int[count];
+            int line = 1;
+            for (int i = 0; i < source.length(); i++) {
+                if (source.charAt(i) == '\n') {
+                    starts[line] = i + 1;
+                    line++;
+                }
+            }
+            return new Lines(starts);
+        }
+
+        /**
+         * Returns the number of the given offsets that are at most the given
+         * value. The offsets must be sorted.
+         *
+         * @param offsets The sorted offsets
+         * @param value   The value to compare to
+         * @return The number of offsets at most value
+         */
+        private static int countUpTo(int[] offsets, int value) {
+            int low = 0;
+            int high = offsets.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (offsets[middle] <= value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Returns the index of the line containing the given offset. The index of
+         * the first line is 0.
+         *
+         * @param offset The offset to find the line of
+         * @return The index of the line
+         */
+        private int lineIndexOf(int offset) {
+            if (previous == null) {
+                return countUpTo(starts, offset) - 1;
+            } else if (offset <= this.offset) {
+                return previous.lineIndexOf(offset);
+            } else if (offset <= this.offset + inserted) {
+                return before + countUpTo(starts, offset);
+            } else {
+                return previous.lineIndexOf(offset - inserted + removed) - removedLines + starts.length;
+            }
+        }
+
+        /**
+         * Returns the offset at which the line with the given index starts.
+         *
+         * @param line The index of the line
+         * @return The start offset of the line
+         */
+        private int lineStart(int line) {
+            if (previous == null) {
+                return starts[line];
+            } else if (line <= before) {
+                return previous.lineStart(line);
+            } else if (line <= before + starts.length) {
+                return starts[line - before - 1];
+            } else {
+                return previous.lineStart(line - starts.length + removedLines) + inserted - removed;
+            }
+        }
+    }
+
+    /**
+     * Create a new {@link LineIndex} for the given text.
+     *
+     * @param text The text to index
+     */
+    public LineIndex(CharSequence text) {
+        this(text, null, 0, 0, 0);
+    }
+
+    /**
+     * Create a new {@link LineIndex} for a text resulting from an edit of the text
+     * of the given index. If no previous index is given, the lines are computed
+     * from the text.
+     *
+     * @param text     The edited text
+     * @param previous The index of the text before the edit, or null
+     * @param offset   The offset in the previous text at which the edit starts
+     * @param removed  The number of characters removed by the edit
+     * @param inserted The number of characters inserted by the edit
+     */
+    private LineIndex(CharSequence text, LineIndex previous, int offset, int removed, int inserted) {
+        if (text == null) {
+            throw new IllegalArgumentException("Text is null");
+        } else {
+            this.source = text;
+            if (text instanceof String) {
+                this.text = (String)text;
+            }
+            this.previous = previous;
+            this.offset = offset;
+            this.removed = removed;
+            this.inserted = inserted;
+            if (previous != null && previous.getLines().depth < MAX_DEPTH) {
+                int count = 0;
+                for (int i = offset; i < offset + inserted; i++) {
+                    if (text.charAt(i) == '\n') {
+                        count++;
+                    }
+                }
+                int[] starts = new int[count];
+                count = 0;
+                for (int i = offset; i < offset + inserted; i++) {
+                    if (text.charAt(i) == '\n') {
+                        starts[count] = i + 1;
+                        count++;
+                    }
+                }
+                this.lines = new Lines(previous.getLines(), offset, removed, inserted, starts);
+            }
+        }
+    }
+
+    /**
+     * Returns the index that the given index is replaced by after all the edits
+     * that have been applied to it.
+     *
+     * @param index The index to start from
+     * @return The latest index
+     */
+    private static LineIndex getLatest(LineIndex index) {
+        LineIndex current = index;
+        while (current.next != null) {
+            current = current.next;
+        }
+        return current;
+    }
+
+    /**
+     * Create the index for the text that results from applying an edit to the
+     * text of this index. The new index is derived from this one, but positions
+     * in this text are only moved into the edited text after
+     * {@link #replacePrevious()} has been called on the new index.
+     *
+     * @param text     The edited text
+     * @param offset   The offset in this text at which the edit starts
+     * @param removed  The number of characters removed by the edit
+     * @param inserted The number of characters inserted by the edit
+     * @return The index of the edited text
+     */
+    public LineIndex edit(CharSequence text, int offset, int removed, int inserted) {
+        int length = getSource().length();
+        if (next != null) {
+            throw new IllegalStateException("The index has already been replaced");
+        } else if (offset < 0 || removed < 0 || inserted < 0 || offset + removed > length) {
+            throw new IllegalArgumentException("The edit is outside of the text");
+        } else if (text.length() != length - removed + inserted) {
+            throw new IllegalArgumentException("The text does not match the edit");
+        } else {
+            return new LineIndex(text, this, offset, removed, inserted);
+        }
+    }
+
+    /**
+     * Replace the index this index has been derived from by this one. All the
+     * positions that refer to the previous text are moved into the text of this
+     * index the next time they are used. The previous text is released.
+     */
+    public void replacePrevious() {
+        LineIndex replaced = previous;
+        if (replaced == null) {
+            throw new IllegalStateException("The index has no previous index to replace");
+        } else if (replaced.next != null) {
+            throw new IllegalStateException("The previous index has already been replaced");
+        } else {
+            replaced.next = this;
+            replaced.source = null;
+            replaced.text = null;
+            replaced.lines = null;
+            previous = null;
+        }
+    }
+
+    /**
+     * Returns the newer of the two given indices, if one of them has been derived
+     * from the other, and the first one otherwise. This is used for positions
+     * spanning over nodes of an edited text, some of which come from the text
+     * before the edit.
+     *
+     * @param first  The first index
+     * @param second The second index
+     * @return The newer index
+     */
+    static LineIndex getNewer(LineIndex first, LineIndex second) {
+        if (first != null && second != null && second.previous == first) {
+            return second;
+        } else {
+            return first;
+        }
+    }
+
+    /**
+     * Returns the index that replaced this one, or null if it has not been
+     * replaced.
+     *
+     * @return The next index
+     */
+    LineIndex getNext() {
+        return next;
+    }
+
+    /**
+     * Returns the index this index has been derived from, as long as it has not
+     * replaced it.
+     *
+     * @return The previous index
+     */
+    LineIndex getPrevious() {
+        return previous;
+    }
+
+    /**
+     * Move the offset of the start of a position in the previous text into this
+     * text. Offsets inside of the removed text are moved to the start of the
+     * edit.
+     *
+     * @param offset The offset in the previous text
+     * @return The offset in this text
+     */
+    int moveStart(int offset) {
+        if (offset < this.offset) {
+            return offset;
+        } else if (offset >= this.offset + removed) {
+            return offset + inserted - removed;
+        } else {
+            return this.offset;
+        }
+    }
+
+    /**
+     * Move the offset of the end of a position in the previous text into this
+     * text. Offsets inside of the removed text are moved to the end of the
+     * inserted text.
+     *
+     * @param offset The offset in the previous text
+     * @return The offset in this text
+     */
+    int moveEnd(int offset) {
+        if (offset <= this.offset) {
+            return offset;
+        } else if (offset >= this.offset + removed) {
+            return offset + inserted - removed;
+        } else {
+            return this.offset + inserted;
+        }
+    }
+
+    /**
+     * Returns the text that is indexed by this {@link LineIndex}, without
+     * converting it to a {@link String}. If this index has been replaced, the
+     * text of the replacing index is returned.
+     *
+     * @return The indexed text
+     */
+    public CharSequence getSource() {
+        CharSequence result = source;
+        if (result == null) {
+            return getLatest(this).getSource();
+        } else {
+            return result;
+        }
+    }
+
+    /**
+     * Returns the text that is indexed by this {@link LineIndex}. If the text is
+     * not a {@link String}, it is converted the first time this is called. If
+     * this index has been replaced, the text of the replacing index is returned.
+     *
+     * @return The indexed text
+     */
+    public String getText() {
+        if (next != null) {
+            return getLatest(this).getText();
+        } else {
+            if (text == null) {
+                text = source.toString();
+            }
+            return text;
+        }
+    }
+
+    /**
+     * Returns the start offsets of the lines of the text, computing them if that
+     * has not been done yet.
+     *
+     * @return The lines of the text
+     */
+    private Lines getLines() {
+        if (lines == null) {
+            lines = Lines.scan(source);
+        }
+        return lines;
+    }
+
+    /**
+     * This method computes the line number of the given offset. The first line
+     * has the number 1. If this index has been replaced, the offset is moved
+     * into the text of the replacing index first.
+     *
+     * @param offset The offset to check the line number of
+     * @return The line number of the offset
+     */
+    public int lineFromOffset(int offset) {
+        if (next != null) {
+            return next.lineFromOffset(next.moveStart(offset));
+        } else {
+            return getLines().lineIndexOf(offset) + 1;
+        }
+    }
+
+    /**
+     * This method computes the column number of the given offset. The first
+     * column has the number 1. If this index has been replaced, the offset is
+     * moved into the text of the replacing index first.
+     *
+     * @param offset The offset to check the column number of
+     * @return The column number of the offset
+     */
+    public int columnFromOffset(int offset) {
+        if (next != null) {
+            return next.columnFromOffset(next.moveStart(offset));
+        } else {
+            Lines current = getLines();
+            return offset - current.lineStart(current.lineIndexOf(offset)) + 1;
+        }
+    }
+}
@@ -3,7 +3,11 @@ package daro.lang.ast;
 import java.nio.file.Path;
 
 /**
- * Class representing the source code position of a {@link AstNode}.
+ * Class representing the source code position of a {@link AstNode}. If the
+ * {@link LineIndex} of the position is replaced by the index of an edited text,
+ * the position is moved into the edited text the next time it is used. This
+ * allows the incremental parser to keep the nodes that have not been affected
+ * by an edit.
  *
  * @author Roland Bernard
  */
@@ -11,19 +15,20 @@ public class Position {
     /**
      * This variable stores the start of the source position.
      */
-    private final int start;
+    private int start;
     /**
      * This variable stores the end (exclusive) of the source position.
      */
-    private final int end;
+    private int end;
     /**
      * This variable stores the file in which the position lies
      */
     private final Path file;
     /**
-     * The text the position refers to
+     * The line index of the text the position refers to. It is written only after
+     * the offsets, so that the offsets are up to date if the index is.
      */
-    private final String text;
+    private volatile LineIndex lines;
 
     /**
      * Create a position which only specifies a {@link Path}. This should be uses if
@@ -34,7 +39,7 @@ public class Position {
     public Position(Path file) {
         this.start = -1;
         this.end = -1;
-        this.text = null;
+        this.lines = null;
         this.file = file;
     }
 
@@ -44,7 +49,7 @@ public class Position {
      * @param start The starting position
      */
     public Position(int start) {
-        this(start, start, null, null);
+        this(start, start, (String)null, null);
     }
 
     /**
@@ -54,7 +59,7 @@ public class Position {
      * @param end   The end position
      */
     public Position(int start, int end) {
-        this(start, end, null, null);
+        this(start, end, (String)null, null);
     }
 
     /**
@@ -77,6 +82,20 @@ public class Position {
      * @param file  The file the position is in
      */
     public Position(int start, int end, String text, Path file) {
+        this(start, end, text != null ? new LineIndex(text) : null, file);
+    }
+
+    /**
+     * Create a source {@link Position} in a text with an existing
+     * {@link LineIndex}. All positions created with the same line index share
+     * the line offsets computed for the text.
+     * 
+     * @param start The starting position
+     * @param end   The end position
+     * @param lines The line index of the text the position is in
+     * @param file  The file the position is in
+     */
+    public Position(int start, int end, LineIndex lines, Path file) {
         if (start < 0) {
             throw new IllegalArgumentException("Position start must be non-negative");
         } else if (end < start) {
@@ -84,7 +103,7 @@ public class Position {
         } else {
             this.start = start;
             this.end = end;
-            this.text = text;
+            this.lines = lines;
             this.file = file;
         }
     }
@@ -98,7 +117,20 @@ public class Position {
      * @param end   The position to end at
      */
     public Position(Position start, Position end) {
-        this(start.getStart(), end.getEnd(), start.getText(), start.getFile());
+        this(start, end, LineIndex.getNewer(start.getLineIndex(), end.getLineIndex()));
+    }
+
+    /**
+     * Create a new position that covers the area defined by the two extreme
+     * positions in the text of the given {@link LineIndex}. The given positions
+     * may refer to the text from which the index has been derived.
+     * 
+     * @param start The position to start at
+     * @param end   The position to end at
+     * @param lines The line index of the new position
+     */
+    private Position(Position start, Position end, LineIndex lines) {
+        this(start.getStartIn(lines), end.getEndIn(lines), lines, start.getFile());
     }
 
     /**
@@ -109,14 +141,7 @@ public class Position {
      * @return The line number of the offset
      */
     public static int lineFromOffset(int offset, String text) {
-        String[] lines = text.split("\n");
-        int current = 0;
-        int line = 0;
-        while (line < lines.length && current <= offset) {
-            current += lines[line].length() + 1;
-            line++;
-        }
-        return line;
+        return new LineIndex(text).lineFromOffset(offset);
     }
 
     /**
@@ -127,16 +152,57 @@ public class Position {
      * @return The column number of the offset
      */
     public static int columnFromOffset(int offset, String text) {
-        String[] lines = text.split("\n");
-        int current = 0;
-        int line = 0;
-        while (line < lines.length && current <= offset) {
-            current += lines[line].length() + 1;
-            line++;
+        return new LineIndex(text).columnFromOffset(offset);
+    }
+
+    /**
+     * Move the position into the latest text, if its {@link LineIndex} has been
+     * replaced by the index of an edited text.
+     */
+    private void resolve() {
+        LineIndex current = lines;
+        if (current != null && current.getNext() != null) {
+            synchronized (this) {
+                while (lines.getNext() != null) {
+                    LineIndex next = lines.getNext();
+                    start = next.moveStart(start);
+                    end = Math.max(start, next.moveEnd(end));
+                    lines = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the start of this position in the text of the given index, which
+     * may have been derived from the index of this position.
+     * 
+     * @param index The index of the text
+     * @return The start in the given text
+     */
+    private int getStartIn(LineIndex index) {
+        LineIndex current = getLineIndex();
+        if (index != null && current != index && index.getPrevious() == current) {
+            return index.moveStart(start);
+        } else {
+            return start;
+        }
+    }
+
+    /**
+     * Returns the end of this position in the text of the given index, which
+     * may have been derived from the index of this position.
+     * 
+     * @param index The index of the text
+     * @return The end in the given text
+     */
+    private int getEndIn(LineIndex index) {
+        LineIndex current = getLineIndex();
+        if (index != null && current != index && index.getPrevious() == current) {
+            return index.moveEnd(end);
+        } else {
+            return end;
         }
-        line--;
-        current -= lines[line].length() + 1;
-        return offset - current + 1;
     }
 
     /**
@@ -146,6 +212,7 @@ public class Position {
      * @return The start position
      */
     public int getStart() {
+        resolve();
         return start;
     }
 
@@ -157,6 +224,7 @@ public class Position {
      * @return The end position
      */
     public int getEnd() {
+        resolve();
         return end;
     }
 
@@ -166,6 +234,7 @@ public class Position {
      * @return The length position
      */
     public int getLength() {
+        resolve();
         return end - start;
     }
 
@@ -175,7 +244,38 @@ public class Position {
      * @return The text of the position
      */
     public String getText() {
-        return text;
+        resolve();
+        if (lines != null) {
+            return lines.getText();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the text the {@link Position} refers to, without converting it to
+     * a {@link String}. This could be null.
+     * 
+     * @return The text of the position
+     */
+    public CharSequence getSource() {
+        resolve();
+        if (lines != null) {
+            return lines.getSource();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the {@link LineIndex} of the text the {@link Position} refers to.
+     * This could be null.
+     * 
+     * @return The line index of the position
+     */
+    public LineIndex getLineIndex() {
+        resolve();
+        return lines;
     }
 
     /**
@@ -193,8 +293,9 @@ public class Position {
      * @return The line position
      */
     public int getLine() {
-        if (text != null) {
-            return lineFromOffset(start, text);
+        resolve();
+        if (lines != null) {
+            return lines.lineFromOffset(start);
         } else {
             return 1;
         }
@@ -206,8 +307,9 @@ public class Position {
      * @return The line position
      */
     public int getEndLine() {
-        if (text != null) {
-            return lineFromOffset(end, text);
+        resolve();
+        if (lines != null) {
+            return lines.lineFromOffset(end);
         } else {
             return 1;
         }
@@ -215,6 +317,7 @@ public class Position {
 
     @Override
     public int hashCode() {
+        resolve();
         return (997 * Integer.hashCode(start)) ^ (991 * Integer.hashCode(end));
     }
 
@@ -222,8 +325,8 @@ public class Position {
     public boolean equals(Object obj) {
         if (obj instanceof Position) {
             Position position = (Position)obj;
-            return start == position.getStart() && end == position.getEnd() && text == position.getText()
-                && file == position.getFile();
+            return getStart() == position.getStart() && getEnd() == position.getEnd()
+                && getSource() == position.getSource() && file == position.getFile();
         } else {
             return false;
         }
@@ -231,9 +334,10 @@ public class Position {
 
     @Override
     public String toString() {
+        resolve();
         if (start == -1) {
             return file.toString();
-        } else if (text == null) {
+        } else if (lines == null) {
             String ret = "";
             if (file != null) {
                 ret += file.toString() + ":";
@@ -245,9 +349,9 @@ public class Position {
             if (file != null) {
                 ret += file.toString() + ":";
             }
-            ret += lineFromOffset(start, text) + ":" + columnFromOffset(start, text);
+            ret += lines.lineFromOffset(start) + ":" + lines.columnFromOffset(start);
             if (start < end - 1) {
-                ret += ".." + lineFromOffset(end - 1, text) + ":" + columnFromOffset(end - 1, text);
+                ret += ".." + lines.lineFromOffset(end - 1) + ":" + lines.columnFromOffset(end - 1);
             }
             return ret;
         }
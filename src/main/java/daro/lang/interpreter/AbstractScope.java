@@ -1,9 +1,16 @@
 package daro.lang.interpreter;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Supplier;
 
 import daro.lang.values.DaroObject;
@@ -11,6 +18,14 @@ import daro.lang.values.DaroObject;
 /**
  * This is the superclass of most scopes. A scope is a collection of variables
  * (with names and values).
+ * <p>
+ * Variables are searched for in the scope itself and then in its parents,
+ * depth first and in the order of the parents. This order is computed once and
+ * stored as a flat array, so that a lookup is a single loop over the scopes
+ * without any recursion. The stored orders are invalidated whenever the parents
+ * of a scope that is part of one of them change. Only the orders of scopes that
+ * are connected to the changed scope are affected, because every connected
+ * graph of scopes shares its own version.
  *
  * @author Roland Bernard
  */
@@ -19,6 +34,25 @@ public abstract class AbstractScope implements Scope {
     protected Scope[] parents;
     protected int baseParents;
 
+    /**
+     * The graph this scope is part of. All scopes that can appear in the lookup
+     * order of this scope are part of the same graph.
+     */
+    private ScopeGraph graph;
+
+    private Scope[] lookupOrder;
+    private int lookupVersion;
+
+    /**
+     * Whether the parents of this scope have been used to compute a lookup order.
+     */
+    private boolean linked = false;
+
+    /**
+     * The innermost {@link FrameScope} enclosing this scope.
+     */
+    private final FrameScope frame;
+
     /**
      * Used to allow for recursive scopes. Be careful if you use it!
      */
@@ -44,6 +78,77 @@ public abstract class AbstractScope implements Scope {
         this.parents = parent;
         this.variables = variables;
         this.baseParents = parent.length;
+        if (parent.length > 0 && parent[0] instanceof AbstractScope) {
+            this.frame = ((AbstractScope)parent[0]).getFrame();
+            this.graph = ((AbstractScope)parent[0]).graph;
+        } else {
+            this.frame = null;
+            this.graph = new ScopeGraph();
+        }
+        for (int i = 1; i < parent.length; i++) {
+            connect(parent[i]);
+        }
+    }
+
+    /**
+     * This class identifies a connected graph of scopes. It holds the version
+     * of the lookup orders inside the graph, which is incremented every time
+     * the parents of a scope in the graph change. When two graphs get connected
+     * they are merged, using the version of the graph they are forwarded to.
+     */
+    private static final class ScopeGraph {
+        private int version;
+        private ScopeGraph merged;
+
+        /**
+         * Returns the graph this graph has been merged into, or this graph if it
+         * has not been merged.
+         *
+         * @return The representative of the graph
+         */
+        private ScopeGraph find() {
+            ScopeGraph root = this;
+            while (root.merged != null) {
+                root = root.merged;
+            }
+            ScopeGraph current = this;
+            while (current.merged != null) {
+                ScopeGraph next = current.merged;
+                current.merged = root;
+                current = next;
+            }
+            return root;
+        }
+    }
+
+    /**
+     * Merge the graph of the given scope into the graph of this scope. Lookup
+     * orders computed before in either of the graphs are no longer valid after
+     * merging.
+     *
+     * @param scope The scope that is connected to this scope
+     */
+    private void connect(Scope scope) {
+        if (scope instanceof AbstractScope) {
+            ScopeGraph own = graph.find();
+            ScopeGraph other = ((AbstractScope)scope).graph.find();
+            if (own != other) {
+                other.merged = own;
+                own.version = Math.max(own.version, other.version) + 1;
+            }
+            graph = own;
+        }
+    }
+
+    /**
+     * Returns the innermost {@link FrameScope} that encloses this scope. The frame
+     * is found by following the first parent of every scope, i.e. the parent the
+     * scope was lexically created in.
+     *
+     * @return The enclosing frame, or null if there is none
+     */
+    public FrameScope getFrame() {
+        return frame;
     }
 
     /**
@@ -58,6 +163,155 @@ public abstract class AbstractScope implements Scope {
             newParents[parents.length + i] = parent[i];
         }
         parents = newParents;
+        for (int i = 0; i < parent.length; i++) {
+            connect(parent[i]);
+        }
+        invalidate();
+    }
+
+    /**
+     * Remove all parents that have been added to the scope using
+     * {@link #addParent(Scope...)}, leaving only the parents the scope has been
+     * created with.
+     */
+    protected void resetParents() {
+        if (parents.length != baseParents) {
+            parents = Arrays.copyOf(parents, baseParents);
+            invalidate();
+        }
+    }
+
+    /**
+     * Invalidate all lookup orders that might depend on the parents of this
+     * scope. This must be called every time the parents are changed.
+     */
+    private void invalidate() {
+        if (linked) {
+            graph.find().version++;
+        }
+    }
+
+    /**
+     * Returns the order in which the scopes have to be searched when looking for
+     * a variable starting from this scope. The first element of the order is
+     * always this scope. Every scope is included only once, even if it is
+     * reachable on multiple paths or the scope graph is circular. Scopes that
+     * are not an {@link AbstractScope} are included without their parents, they
+     * are searched using their own implementation.
+     *
+     * @return The lookup order of the scope
+     */
+    private Scope[] getLookupOrder() {
+        ScopeGraph current = graph.find();
+        graph = current;
+        int version = current.version;
+        if (lookupOrder == null || lookupVersion != version) {
+            linked = true;
+            if (baseParents == 1 && parents.length == 1 && parents[0] instanceof AbstractScope) {
+                // The parent was given on construction, and can therefore not be
+                // part of a cycle. This scope might still appear again later in
+                // the order, which is harmless for lookups.
+                Scope[] rest = ((AbstractScope)parents[0]).getLookupOrder();
+                lookupOrder = new Scope[rest.length + 1];
+                lookupOrder[0] = this;
+                System.arraycopy(rest, 0, lookupOrder, 1, rest.length);
+            } else {
+                List<Scope> order = new ArrayList<>();
+                Set<Scope> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+                Deque<Scope> pending = new ArrayDeque<>();
+                pending.push(this);
+                while (!pending.isEmpty()) {
+                    Scope scope = pending.pop();
+                    if (seen.add(scope)) {
+                        order.add(scope);
+                        if (scope instanceof AbstractScope) {
+                            AbstractScope abstractScope = (AbstractScope)scope;
+                            abstractScope.linked = true;
+                            for (int i = abstractScope.parents.length - 1; i >= 0; i--) {
+                                pending.push(abstractScope.parents[i]);
+                            }
+                        }
+                    }
+                }
+                lookupOrder = order.toArray(new Scope[order.size()]);
+            }
+            lookupVersion = version;
+        }
+        return lookupOrder;
+    }
+
+    /**
+     * Returns the scope that contains the variable with the given name and is
+     * visible from this scope. The returned scope is either an
+     * {@link AbstractScope} containing the variable itself, or some other kind
+     * of {@link Scope} containing the variable in itself or its parents.
+     *
+     * @param name The name of the variable
+     * @return The scope containing the variable, or null if there is none
+     */
+    protected Scope findVariableScope(String name) {
+        if (containsLocalVariable(name)) {
+            return this;
+        } else if (parents.length == 0) {
+            return null;
+        } else {
+            Scope[] order;
+            int start;
+            if (parents.length == 1 && parents[0] instanceof AbstractScope) {
+                // Avoid computing the order for scopes with a single parent, e.g. frames
+                order = ((AbstractScope)parents[0]).getLookupOrder();
+                start = 0;
+            } else {
+                order = getLookupOrder();
+                start = 1;
+            }
+            for (int i = start; i < order.length; i++) {
+                Scope scope = order[i];
+                if (scope instanceof AbstractScope) {
+                    if (((AbstractScope)scope).containsLocalVariable(name)) {
+                        return scope;
+                    }
+                } else if (scope.containsVariable(name)) {
+                    return scope;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if the variable with the given name is defined in this scope
+     * itself, without considering any of the parents.
+     *
+     * @param name The name of the variable
+     * @return true if the scope itself contains the variable, false otherwise
+     */
+    protected boolean containsLocalVariable(String name) {
+        return variables.containsKey(name);
+    }
+
+    /**
+     * Returns the value of the variable with the given name that is defined in
+     * this scope itself, without considering any of the parents.
+     *
+     * @param name The name of the variable
+     * @return The value of the variable
+     */
+    protected DaroObject getLocalVariableValue(String name) {
+        return variables.get(name);
+    }
+
+    /**
+     * Returns the location of the variable with the given name that is defined
+     * in this scope itself, without considering any of the parents.
+     *
+     * @param name The name of the variable
+     * @return The location of the variable, or null if it can not be written to
+     */
+    protected VariableLocation getLocalVariableLocation(String name) {
+        return value -> {
+            variables.put(name, value);
+        };
     }
 
     /**
@@ -92,34 +346,19 @@ public abstract class AbstractScope implements Scope {
 
     @Override
     public boolean containsVariable(String name) {
-        return safeRecursion(() -> {
-            if (variables.containsKey(name)) {
-                return true;
-            } else {
-                for (Scope parent : parents) {
-                    if (parent.containsVariable(name)) {
-                        return true;
-                    }
-                }
-                return false;
-            }
-        }, false);
+        return findVariableScope(name) != null;
     }
 
     @Override
     public DaroObject getVariableValue(String name) {
-        return safeRecursion(() -> {
-            if (variables.containsKey(name)) {
-                return variables.get(name);
-            } else {
-                for (Scope parent : parents) {
-                    if (parent.containsVariable(name)) {
-                        return parent.getVariableValue(name);
-                    }
-                }
-                return null;
-            }
-        }, null);
+        Scope scope = findVariableScope(name);
+        if (scope instanceof AbstractScope) {
+            return ((AbstractScope)scope).getLocalVariableValue(name);
+        } else if (scope != null) {
+            return scope.getVariableValue(name);
+        } else {
+            return null;
+        }
     }
 
     @Override
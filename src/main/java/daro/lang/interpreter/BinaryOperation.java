@@ -0,0 +1,181 @@
+package daro.lang.interpreter;
+
+import java.util.function.BinaryOperator;
+
+import daro.lang.values.DaroBoolean;
+import daro.lang.values.DaroInteger;
+import daro.lang.values.DaroObject;
+import daro.lang.values.DaroReal;
+
+/**
+ * This class represents an arithmetic or comparison operation that can be
+ * specialized on the types of its operands. Besides the generic implementation
+ * in {@link Operations}, every operation has an implementation for two integers
+ * and one for two reals. A node executing the operation remembers which kind
+ * of operands it has seen, using a {@link Specialization}, and executes the
+ * operation without dispatching over the types as long as the operands keep
+ * having the same types. If the operands of a specialized node ever have
+ * different types, the node falls back to the generic implementation for the
+ * rest of its lifetime.
+ * <p>
+ * The state of the specialization is kept by the {@link SpecializingBinaryNode}
+ * in the compiled engines, and on the ast node itself in the {@link Executor}.
+ *
+ * @author Roland Bernard
+ */
+final class BinaryOperation {
+    static final BinaryOperation ADD = new BinaryOperation(
+        (a, b) -> a.add(b), (a, b) -> new DaroReal(a + b), Operations::add
+    );
+    static final BinaryOperation SUBTRACT = new BinaryOperation(
+        (a, b) -> a.subtract(b), (a, b) -> new DaroReal(a - b), Operations::subtract
+    );
+    static final BinaryOperation MULTIPLY = new BinaryOperation(
+        (a, b) -> a.multiply(b), (a, b) -> new DaroReal(a * b), Operations::multiply
+    );
+    static final BinaryOperation DIVIDE = new BinaryOperation(
+        (a, b) -> a.divide(b), (a, b) -> new DaroReal(a / b), Operations::divide
+    );
+    static final BinaryOperation REMAINDER = new BinaryOperation(
+        (a, b) -> a.remainder(b), (a, b) -> new DaroReal(a % b), Operations::remainder
+    );
+    static final BinaryOperation POWER = new BinaryOperation(
+        (a, b) -> a.pow(b.intValue()), (a, b) -> new DaroReal(Math.pow(a, b)), Operations::power
+    );
+    static final BinaryOperation EQUAL = new BinaryOperation(
+        (a, b) -> DaroBoolean.valueOf(a.equals(b)), (a, b) -> DaroBoolean.valueOf(a == b), Operations::equal
+    );
+    static final BinaryOperation LESS_THAN = new BinaryOperation(
+        (a, b) -> DaroBoolean.valueOf(a.compareTo(b) < 0), (a, b) -> DaroBoolean.valueOf(a < b),
+        Operations::lessThan
+    );
+    static final BinaryOperation LESS_OR_EQUAL = new BinaryOperation(
+        (a, b) -> DaroBoolean.valueOf(a.compareTo(b) <= 0), (a, b) -> DaroBoolean.valueOf(a <= b),
+        Operations::lessOrEqual
+    );
+    static final BinaryOperation MORE_THAN = new BinaryOperation(
+        (a, b) -> DaroBoolean.valueOf(a.compareTo(b) > 0), (a, b) -> DaroBoolean.valueOf(a > b),
+        Operations::moreThan
+    );
+    static final BinaryOperation MORE_OR_EQUAL = new BinaryOperation(
+        (a, b) -> DaroBoolean.valueOf(a.compareTo(b) >= 0), (a, b) -> DaroBoolean.valueOf(a >= b),
+        Operations::moreOrEqual
+    );
+
+    private final IntegerOperation integers;
+    private final RealOperation reals;
+    private final BinaryOperator<DaroObject> generic;
+
+    /**
+     * The kinds of operands a node can be specialized for.
+     */
+    static enum Specialization {
+        NONE, INTEGER, REAL, GENERIC
+    }
+
+    /**
+     * This interface represents the implementation of an operation for two
+     * integer operands.
+     */
+    static interface IntegerOperation {
+
+        /**
+         * Compute the result of the operation.
+         *
+         * @param left  The left operand
+         * @param right The right operand
+         * @return The result of the operation
+         */
+        public DaroObject apply(DaroInteger left, DaroInteger right);
+    }
+
+    /**
+     * This interface represents the implementation of an operation for two real
+     * operands.
+     */
+    static interface RealOperation {
+
+        /**
+         * Compute the result of the operation.
+         *
+         * @param left  The value of the left operand
+         * @param right The value of the right operand
+         * @return The result of the operation
+         */
+        public DaroObject apply(double left, double right);
+    }
+
+    /**
+     * Create a new operation from the given implementations. All of the
+     * implementations must have the same semantics as the generic one for the
+     * operands they accept.
+     *
+     * @param integers The implementation for two integers
+     * @param reals    The implementation for two reals
+     * @param generic  The implementation for any operands, e.g. from {@link Operations}
+     */
+    BinaryOperation(IntegerOperation integers, RealOperation reals, BinaryOperator<DaroObject> generic) {
+        this.integers = integers;
+        this.reals = reals;
+        this.generic = generic;
+    }
+
+    /**
+     * Returns whether the given operands can be handled by a node with the given
+     * specialization.
+     *
+     * @param specialization The current specialization of the node
+     * @param left           The left operand
+     * @param right          The right operand
+     * @return true if the specialization accepts the operands, false otherwise
+     */
+    static boolean accepts(Specialization specialization, DaroObject left, DaroObject right) {
+        if (specialization == Specialization.INTEGER) {
+            return left instanceof DaroInteger && right instanceof DaroInteger;
+        } else if (specialization == Specialization.REAL) {
+            return left instanceof DaroReal && right instanceof DaroReal;
+        } else {
+            return specialization == Specialization.GENERIC;
+        }
+    }
+
+    /**
+     * Choose the next specialization of a node for the given operands. This is
+     * used on the first execution, and whenever the operands are not accepted by
+     * the current specialization.
+     *
+     * @param specialization The current specialization of the node
+     * @param left           The left operand
+     * @param right          The right operand
+     * @return The new specialization
+     */
+    static Specialization specialize(Specialization specialization, DaroObject left, DaroObject right) {
+        if (specialization == Specialization.NONE && left instanceof DaroInteger && right instanceof DaroInteger) {
+            return Specialization.INTEGER;
+        } else if (specialization == Specialization.NONE && left instanceof DaroReal && right instanceof DaroReal) {
+            return Specialization.REAL;
+        } else {
+            // Either the operands are mixed, or their types have changed
+            return Specialization.GENERIC;
+        }
+    }
+
+    /**
+     * Execute the operation using the implementation for the given
+     * specialization. The specialization must accept the operands.
+     *
+     * @param specialization The specialization to use
+     * @param left           The left operand
+     * @param right          The right operand
+     * @return The result of the operation, or null if it is not supported
+     */
+    DaroObject apply(Specialization specialization, DaroObject left, DaroObject right) {
+        if (specialization == Specialization.INTEGER) {
+            return integers.apply((DaroInteger)left, (DaroInteger)right);
+        } else if (specialization == Specialization.REAL) {
+            return reals.apply(((DaroReal)left).getValue(), ((DaroReal)right).getValue());
+        } else {
+            return generic.apply(left, right);
+        }
+    }
+}
@@ -2,17 +2,34 @@ package daro.lang.interpreter;
 
 import daro.lang.values.DaroObject;
 
-import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This class implements a simple scope. A scope is a collection of variables
  * (with names and values). A scope also has a parent which will be inspected if
  * a variable is not found in the current scope.
+ * <p>
+ * Closures created inside the scope record the variables they might access
+ * using {@link #retain(String[])}. When the execution leaves the scope, all
+ * other variables are removed using {@link #release()}, so that the closures do
+ * not keep the temporaries of the scope alive.
  * 
  * @author Roland Bernard
  */
 public class BlockScope extends AbstractScope {
+    private Retained retained;
+
+    /**
+     * This class records the variables of a scope that closures created inside
+     * of it might access.
+     */
+    private static final class Retained {
+        private Set<String> names = new HashSet<>();
+        private boolean all;
+        private String[] last;
+    }
 
     /**
      * Creates a new {@link BlockScope} with the given parent.
@@ -25,12 +42,12 @@ public class BlockScope extends AbstractScope {
 
     /**
      * Creates a new {@link BlockScope} with the given parent and internal map. This
-     * constructor is only to be used internally by this class.
+     * constructor is only to be used internally by this class and its subclasses.
      * 
      * @param variables The internal variables map
      * @param parent    The parent scope
      */
-    private BlockScope(Map<String, DaroObject> variables, Scope ...parent) {
+    protected BlockScope(Map<String, DaroObject> variables, Scope ...parent) {
         super(variables, parent);
     }
 
@@ -39,8 +56,78 @@ public class BlockScope extends AbstractScope {
         return new BlockScope(variables);
     }
 
+    /**
+     * Record that a closure created inside this scope might access the variables
+     * with the given names. If the names are null, all variables are retained.
+     *
+     * @param names The names of the variables to retain, or null
+     */
+    public void retain(String[] names) {
+        if (retained == null) {
+            retained = new Retained();
+        }
+        if (!retained.all && retained.last != names) {
+            if (names == null) {
+                retained.all = true;
+            } else {
+                for (String name : names) {
+                    retained.names.add(name);
+                }
+                retained.last = names;
+            }
+        }
+    }
+
+    /**
+     * Remove all variables that are not retained by a closure. This must only be
+     * called after the execution has left the scope. If no closure has been
+     * created inside the scope, nothing is removed, because nothing else
+     * references the scope anymore.
+     */
+    public void release() {
+        if (retained != null && !retained.all) {
+            releaseExcept(retained.names);
+        }
+    }
+
+    /**
+     * Remove all variables of this scope except the ones with the given names.
+     *
+     * @param names The names of the variables to keep
+     */
+    protected void releaseExcept(Set<String> names) {
+        variables.keySet().retainAll(names);
+    }
+
     @Override
     public VariableLocation getVariableLocation(String name) {
+        Scope scope = findVariableScope(name);
+        if (scope == null) {
+            return getLocalVariableLocation(name);
+        } else {
+            VariableLocation location;
+            if (scope instanceof AbstractScope) {
+                location = ((AbstractScope)scope).getLocalVariableLocation(name);
+            } else {
+                location = scope.getVariableLocation(name);
+            }
+            if (location != null) {
+                return location;
+            } else {
+                return getShadowingLocation(name);
+            }
+        }
+    }
+
+    /**
+     * Returns the location for writing to a variable that exists in some parent
+     * but can not be written to. The variable will be shadowed by a new variable
+     * in the scope that is the closest to the existing one.
+     *
+     * @param name The name of the variable
+     * @return The location of the shadowing variable
+     */
+    private VariableLocation getShadowingLocation(String name) {
         return safeRecursion(() -> {
             if (!variables.containsKey(name)) {
                 for (Scope parent : parents) {
@@ -54,16 +141,14 @@ public class BlockScope extends AbstractScope {
                     }
                 }
             }
-            return value -> {
-                variables.put(name, value);
-            };
+            return getLocalVariableLocation(name);
         }, null);
     }
 
     @Override
     public void reset() {
         safeRecursion(() -> {
-            parents = Arrays.copyOf(parents, baseParents);
+            resetParents();
             for (Scope parent : parents) {
                 parent.reset();
             }
@@ -0,0 +1,213 @@
+package daro.lang.interpreter;
+
+import daro.lang.ast.AstClass;
+import daro.lang.ast.AstFunction;
+
+/**
+ * This class contains the result of the capture analysis of a single function
+ * or class, performed by the {@link VariableResolver}. It records the names of
+ * all the free variables used inside the definition, i.e. the variables that
+ * are looked up in the scope the definition is evaluated in.
+ * <p>
+ * The captures are used to trim the scope a function or class is linked to.
+ * The frames and blocks that were created for executing the code surrounding
+ * the definition are only retained if they might be needed for finding a free
+ * variable. Frames are always retained, because resolved symbols find them by
+ * their depth, but they are replaced by a copy that shares the variables of the
+ * original frame and skips the blocks that are not needed. Blocks that contain
+ * none of the free variables are dropped. The trimming stops at the first scope
+ * that is retained, or that is not a plain block or frame (e.g. the global
+ * scope or the scope of a class instance).
+ * <p>
+ * All blocks and frames surrounding the definition are told which variables it
+ * might access, so that the other variables can be removed once the execution
+ * has left them.
+ * The copies of the frames are reused by all definitions created in the same
+ * frames, e.g. closures created inside of a loop.
+ *
+ * @author Roland Bernard
+ */
+public final class Captures {
+    private final String[] names;
+    private final String[] required;
+
+    /**
+     * Create new captures for a definition. The required variables are free
+     * variables that might be defined later by one of the blocks surrounding the
+     * definition. They must already exist when the definition is evaluated,
+     * otherwise the scope is not trimmed.
+     *
+     * @param names    The names of all free variables
+     * @param required The names of the free variables that must already exist
+     */
+    public Captures(String[] names, String[] required) {
+        this.names = names;
+        this.required = required;
+    }
+
+    /**
+     * Returns the names of all the free variables of the definition.
+     *
+     * @return The names of the free variables
+     */
+    public String[] getNames() {
+        return names;
+    }
+
+    /**
+     * Returns the names of the free variables that must exist when the definition
+     * is evaluated for the scope to be trimmed.
+     *
+     * @return The names of the required variables
+     */
+    public String[] getRequired() {
+        return required;
+    }
+
+    /**
+     * Trim the given scope for linking it to a function created from the given
+     * ast. If the function has not been analyzed, the scope is returned
+     * unchanged.
+     *
+     * @param ast   The function that is created
+     * @param scope The scope the function is created in
+     * @return The scope the function should be linked to
+     */
+    public static Scope trim(AstFunction ast, Scope scope) {
+        Object captures = ast.getCaptures();
+        if (captures instanceof Captures) {
+            return ((Captures)captures).trim(scope);
+        } else {
+            retain(scope, null);
+            return scope;
+        }
+    }
+
+    /**
+     * Trim the given scope for linking it to a class created from the given ast.
+     * If the class has not been analyzed, the scope is returned unchanged.
+     *
+     * @param ast   The class that is created
+     * @param scope The scope the class is created in
+     * @return The scope the class should be linked to
+     */
+    public static Scope trim(AstClass ast, Scope scope) {
+        Object captures = ast.getCaptures();
+        if (captures instanceof Captures) {
+            return ((Captures)captures).trim(scope);
+        } else {
+            retain(scope, null);
+            return scope;
+        }
+    }
+
+    /**
+     * Record in all blocks and frames enclosing the given scope that the
+     * variables with the given names might be accessed by a definition created
+     * in the scope.
+     *
+     * @param scope The scope the definition is created in
+     * @param names The names of the accessed variables, or null for all variables
+     */
+    private static void retain(Scope scope, String[] names) {
+        Scope current = scope;
+        while (current.getClass() == BlockScope.class || current.getClass() == FrameScope.class) {
+            BlockScope block = (BlockScope)current;
+            block.retain(names);
+            if (block.parents.length == 0) {
+                break;
+            }
+            current = block.parents[0];
+        }
+    }
+
+    /**
+     * Returns true if the given scope is a plain block or frame that has not been
+     * extended by {@code use}.
+     *
+     * @param scope The scope to test
+     * @return true if the scope can be trimmed, false otherwise
+     */
+    private static boolean isTrimmable(Scope scope) {
+        if (scope.getClass() == BlockScope.class || scope.getClass() == FrameScope.class) {
+            AbstractScope abstractScope = (AbstractScope)scope;
+            return abstractScope.baseParents == 1 && abstractScope.parents.length == 1;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Returns true if the given scope itself contains one of the free variables.
+     *
+     * @param scope The scope to test
+     * @return true if the scope contains a free variable, false otherwise
+     */
+    private boolean containsAny(AbstractScope scope) {
+        for (String name : names) {
+            if (scope.containsLocalVariable(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Trim the given scope, such that only the scopes that might be needed to
+     * find the free variables are retained.
+     *
+     * @param scope The scope to trim
+     * @return The trimmed scope
+     */
+    public Scope trim(Scope scope) {
+        retain(scope, names);
+        boolean dropped = false;
+        Scope current = scope;
+        while (isTrimmable(current)) {
+            AbstractScope abstractScope = (AbstractScope)current;
+            Scope parent = abstractScope.parents[0];
+            if (!(current instanceof FrameScope)) {
+                if (isTrimmable(parent) && !containsAny(abstractScope)) {
+                    // The parent of a dropped block must be writable, so that writes
+                    // shadowing a constant end up in the same scope
+                    dropped = true;
+                } else {
+                    break;
+                }
+            }
+            current = parent;
+        }
+        if (!dropped) {
+            return scope;
+        } else {
+            for (String name : required) {
+                if (!scope.containsVariable(name)) {
+                    // The variable might still be defined by one of the dropped blocks
+                    return scope;
+                }
+            }
+            return retainFrames(scope, current);
+        }
+    }
+
+    /**
+     * Returns the scope resulting from removing all scopes that are not frames
+     * between the given scope and the given retained scope.
+     *
+     * @param scope    The scope to start from
+     * @param retained The first scope that is retained with all its parents
+     * @return The trimmed scope
+     */
+    private static Scope retainFrames(Scope scope, Scope retained) {
+        if (scope == retained) {
+            return retained;
+        } else {
+            Scope parent = retainFrames(((AbstractScope)scope).parents[0], retained);
+            if (scope instanceof FrameScope) {
+                return ((FrameScope)scope).withParent(parent);
+            } else {
+                return parent;
+            }
+        }
+    }
+}
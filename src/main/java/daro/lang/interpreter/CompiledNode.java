@@ -0,0 +1,22 @@
+package daro.lang.interpreter;
+
+import daro.lang.values.DaroObject;
+
+/**
+ * This interface represents a piece of code that has been compiled by the
+ * {@link NodeCompiler}. All the decisions that depend only on the ast have
+ * already been made during compilation, so the node only has to perform the
+ * actual computation.
+ * 
+ * @author Roland Bernard
+ */
+public interface CompiledNode {
+
+    /**
+     * Execute the compiled code in the given {@link ExecutionContext}.
+     * 
+     * @param context The context to execute in
+     * @return The result of the execution
+     */
+    public DaroObject execute(ExecutionContext context);
+}
@@ -2,7 +2,6 @@ package daro.lang.interpreter;
 
 import daro.lang.values.DaroObject;
 
-import java.util.Arrays;
 import java.util.Map;
 
 /**
@@ -50,10 +49,15 @@ public class ConstantScope extends AbstractScope {
         }, null);
     }
 
+    @Override
+    protected VariableLocation getLocalVariableLocation(String name) {
+        return null;
+    }
+
     @Override
     public void reset() {
         safeRecursion(() -> {
-            parents = Arrays.copyOf(parents, baseParents);
+            resetParents();
             for (Scope parent : parents) {
                 parent.reset();
             }
@@ -0,0 +1,373 @@
+package daro.lang.interpreter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import daro.lang.ast.*;
+
+/**
+ * This class is used by the {@link ScopeInitializer} to find the declarations
+ * of functions and classes inside an ast. The search does not enter blocks,
+ * because they define their own scope.
+ * 
+ * @author Roland Bernard
+ */
+final class DeclarationCollector implements Visitor<Void> {
+    private static final AstNode[] NO_DECLARATIONS = new AstNode[0];
+
+    private final List<AstNode> declarations;
+
+    /**
+     * Create a new empty {@link DeclarationCollector}.
+     */
+    private DeclarationCollector() {
+        this.declarations = new ArrayList<>();
+    }
+
+    /**
+     * Search the given {@link AstNode} for declarations.
+     * 
+     * @param program The {@link AstNode} to search in
+     * @return The declarations inside the node, in the order they appear in
+     */
+    static AstNode[] collectDeclarations(AstNode program) {
+        DeclarationCollector collector = new DeclarationCollector();
+        collector.collect(program);
+        if (collector.declarations.isEmpty()) {
+            return NO_DECLARATIONS;
+        } else {
+            return collector.declarations.toArray(new AstNode[0]);
+        }
+    }
+
+    /**
+     * Collect the declarations inside the given {@link AstNode}.
+     * 
+     * @param program The {@link AstNode} to search in
+     */
+    private void collect(AstNode program) {
+        if (program != null) {
+            program.accept(this);
+        }
+    }
+
+    @Override
+    public Void visit(AstInteger ast) {
+        return null;
+    }
+
+    @Override
+    public Void visit(AstReal ast) {
+        return null;
+    }
+
+    @Override
+    public Void visit(AstString ast) {
+        return null;
+    }
+
+    @Override
+    public Void visit(AstCharacter ast) {
+        return null;
+    }
+
+    /**
+     * Utility function to collect the declarations of a binary ast node.
+     * 
+     * @param ast The ast to search in
+     */
+    private void collectBinary(AstBinaryNode ast) {
+        collect(ast.getLeft());
+        collect(ast.getRight());
+    }
+
+    @Override
+    public Void visit(AstAddition ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstSubtract ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstMultiply ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstDivide ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstRemainder ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstShiftLeft ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstShiftRight ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstEqual ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstNotEqual ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstLessThan ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstLessOrEqual ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstMoreThan ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstMoreOrEqual ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstBitwiseAnd ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstBitwiseOr ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstBitwiseXor ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstAnd ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstOr ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstPositive ast) {
+        collect(ast.getOperand());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstNegative ast) {
+        collect(ast.getOperand());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstBitwiseNot ast) {
+        collect(ast.getOperand());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstNot ast) {
+        collect(ast.getOperand());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstReturn ast) {
+        collect(ast.getOperand());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstClass ast) {
+        if (ast.getName() != null) {
+            declarations.add(ast);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(AstFunction ast) {
+        if (ast.getName() != null) {
+            declarations.add(ast);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(AstBlock ast) {
+        // Searching stops at scope boundaries
+        return null;
+    }
+
+    @Override
+    public Void visit(AstSequence ast) {
+        for (AstNode statement : ast.getStatements()) {
+            collect(statement);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(AstAssignment ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstSymbol ast) {
+        return null;
+    }
+
+    @Override
+    public Void visit(AstMember ast) {
+        collect(ast.getOperand());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstCall ast) {
+        collect(ast.getFunction());
+        for (AstNode parameter : ast.getParameters()) {
+            collect(parameter);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(AstIndex ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstNew ast) {
+        collect(ast.getType());
+        collect(ast.getInitializer());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstArray ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstIfElse ast) {
+        collect(ast.getCondition());
+        collect(ast.getIf());
+        collect(ast.getElse());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstFor ast) {
+        collect(ast.getCondition());
+        collect(ast.getBody());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstForIn ast) {
+        collect(ast.getVariable());
+        collect(ast.getList());
+        collect(ast.getBody());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstInitializer ast) {
+        for (AstNode parameter : ast.getValues()) {
+            collect(parameter);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(AstPower ast) {
+        collectBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstUse ast) {
+        collect(ast.getOperand());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstFrom ast) {
+        collect(ast.getOperand());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstMatch ast) {
+        collect(ast.getValue());
+        for (AstMatchCase node : ast.getCases()) {
+            collect(node);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(AstMatchCase ast) {
+        if (ast.getValues() != null) {
+            for (AstNode node : ast.getValues()) {
+                collect(node);
+            }
+        }
+        collect(ast.getStatement());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstIndexRange ast) {
+        collect(ast.getArray());
+        collect(ast.getStart());
+        collect(ast.getEnd());
+        return null;
+    }
+}
@@ -6,6 +6,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+import daro.lang.ast.AstNode;
 import daro.lang.values.DaroModule;
 
 /**
@@ -14,10 +15,19 @@ import daro.lang.values.DaroModule;
  * @author Roland Bernard
  */
 public class ExecutionContext {
+    /**
+     * The maximum call depth that is used if the system property
+     * {@code daro.depth} is not set.
+     */
+    public static final int DEFAULT_CALL_DEPTH = 1 << 16;
+
     private final Scope scope;
     private final Map<Path, DaroModule> modules;
     private final PrintStream output;
-    private final ExecutionObserver[] observers;
+    private final ObserverSet observers;
+    private final ExecutionMode mode;
+    private final FunctionProfile profile;
+    private final int callDepth;
 
     /**
      * Create a new {@link ExecutionContext} for execution in the given scope and
@@ -32,10 +42,13 @@ public class ExecutionContext {
         if (observers.length == 0) {
             this.observers = null;
         } else {
-            this.observers = observers;
+            this.observers = new ObserverSet(observers);
         }
         this.output = output;
         this.modules = new HashMap<>();
+        this.mode = ExecutionMode.getDefault();
+        this.profile = null;
+        this.callDepth = Integer.getInteger("daro.depth", DEFAULT_CALL_DEPTH);
     }
 
     /**
@@ -50,6 +63,9 @@ public class ExecutionContext {
         this.observers = context.observers;
         this.output = context.output;
         this.modules = context.modules;
+        this.mode = context.mode;
+        this.profile = context.profile;
+        this.callDepth = context.callDepth;
     }
 
     /**
@@ -64,15 +80,71 @@ public class ExecutionContext {
         if (observers.length == 0) {
             this.observers = context.observers;
         } else if (context.observers == null) {
-            this.observers = observers;
+            this.observers = new ObserverSet(observers);
         } else {
-            this.observers = Arrays.copyOf(context.observers, context.observers.length + observers.length);
+            ExecutionObserver[] previous = context.observers.getAll();
+            ExecutionObserver[] combined = Arrays.copyOf(previous, previous.length + observers.length);
             for (int i = 0; i < observers.length; i++) {
-                this.observers[context.observers.length + i] = observers[i];
+                combined[previous.length + i] = observers[i];
             }
+            this.observers = new ObserverSet(combined);
         }
         this.output = context.output;
         this.modules = context.modules;
+        this.mode = context.mode;
+        this.profile = context.profile;
+        this.callDepth = context.callDepth;
+    }
+
+    /**
+     * Create a new {@link ExecutionContext} using the given execution mode but
+     * copying other data from the given context.
+     * 
+     * @param context The context to copy data from
+     * @param mode    The execution mode to use
+     */
+    private ExecutionContext(ExecutionContext context, ExecutionMode mode) {
+        this.scope = context.scope;
+        this.observers = context.observers;
+        this.output = context.output;
+        this.modules = context.modules;
+        this.mode = mode;
+        this.profile = context.profile;
+        this.callDepth = context.callDepth;
+    }
+
+    /**
+     * Create a new {@link ExecutionContext} collecting into the given
+     * {@link FunctionProfile} but copying other data from the given context.
+     * 
+     * @param context The context to copy data from
+     * @param profile The profile to collect into
+     */
+    private ExecutionContext(ExecutionContext context, FunctionProfile profile) {
+        this.scope = context.scope;
+        this.observers = context.observers;
+        this.output = context.output;
+        this.modules = context.modules;
+        this.mode = context.mode;
+        this.profile = profile;
+        this.callDepth = context.callDepth;
+    }
+
+    /**
+     * Create a new {@link ExecutionContext} with the given maximum call depth but
+     * copying other data from the given context.
+     * 
+     * @param context   The context to copy data from
+     * @param callDepth The maximum call depth
+     */
+    private ExecutionContext(ExecutionContext context, int callDepth) {
+        this.scope = context.scope;
+        this.observers = context.observers;
+        this.output = context.output;
+        this.modules = context.modules;
+        this.mode = context.mode;
+        this.profile = context.profile;
+        this.callDepth = callDepth;
     }
 
     /**
@@ -99,7 +171,86 @@ public class ExecutionContext {
      * @return The observers for this context
      */
     public ExecutionObserver[] getObservers() {
-        return observers;
+        return observers == null ? null : observers.getAll();
+    }
+
+    /**
+     * Returns whether any of the {@link ExecutionObserver}s of this context
+     * subscribed to the given event.
+     * 
+     * @param event The event to test for
+     * @return true if the event is observed, false otherwise
+     */
+    public boolean isObserved(ExecutionEvent event) {
+        return observers != null && observers.observes(event);
+    }
+
+    /**
+     * Returns whether any of the {@link ExecutionObserver}s of this context
+     * subscribed to any event. Only if this is not the case can the program be
+     * executed by the compiled engines, which do not notify observers.
+     * 
+     * @return true if some event is observed, false otherwise
+     */
+    public boolean isObserved() {
+        return observers != null && observers.observesAny();
+    }
+
+    /**
+     * Returns whether any of the {@link ExecutionObserver}s of this context
+     * subscribed to an event that happens for every node, i.e. the execution,
+     * localization or exceptions of nodes. These observers expect to see the
+     * program as it was written, executed one node after the other. Observers of
+     * only calls and iterations do not prevent optimizations or tail calls.
+     * 
+     * @return true if the nodes are observed, false otherwise
+     */
+    public boolean areNodesObserved() {
+        return observers != null && observers.observesNodes();
+    }
+
+    /**
+     * Return the {@link ExecutionObserver}s that must be notified of the given
+     * event for the given node.
+     * 
+     * @param event The event that happens
+     * @param node  The node the event happens for
+     * @return The observers to notify, or null if there are none
+     */
+    public ExecutionObserver[] getObservers(ExecutionEvent event, AstNode node) {
+        return observers == null ? null : observers.get(event, node);
+    }
+
+    /**
+     * Return the {@link ExecutionMode} used for executing programs in this
+     * context.
+     * 
+     * @return The execution mode for this context
+     */
+    public ExecutionMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Return the maximum number of nested calls that may be active at the same
+     * time. This limit is enforced by the {@link daro.lang.vm.Machine}, which keeps
+     * its call frames on the heap instead of the Java stack. The default can be
+     * changed by setting the system property {@code daro.depth}.
+     * 
+     * @return The maximum call depth
+     */
+    public int getCallDepth() {
+        return callDepth;
+    }
+
+    /**
+     * Return the {@link FunctionProfile} of the function that is currently being
+     * executed in this context.
+     * 
+     * @return The profile of the current function, or null
+     */
+    public FunctionProfile getProfile() {
+        return profile;
     }
 
     /**
@@ -133,6 +284,39 @@ public class ExecutionContext {
         return new ExecutionContext(this, observers);
     }
 
+    /**
+     * Create a new context that uses the same data as this, but executes programs
+     * using the given {@link ExecutionMode}.
+     *
+     * @param mode The execution mode for the resulting context
+     * @return The new {@link ExecutionContext}
+     */
+    public ExecutionContext withMode(ExecutionMode mode) {
+        return new ExecutionContext(this, mode);
+    }
+
+    /**
+     * Create a new context that uses the same data as this, but allows the given
+     * number of nested calls.
+     *
+     * @param callDepth The maximum call depth for the resulting context
+     * @return The new {@link ExecutionContext}
+     */
+    public ExecutionContext withCallDepth(int callDepth) {
+        return new ExecutionContext(this, callDepth);
+    }
+
+    /**
+     * Create a new context that uses the same data as this, but collects the
+     * profiling information into the given {@link FunctionProfile}.
+     *
+     * @param profile The profile for the resulting context
+     * @return The new {@link ExecutionContext}
+     */
+    public ExecutionContext withProfile(FunctionProfile profile) {
+        return new ExecutionContext(this, profile);
+    }
+
     /**
      * Reset the execution context, by resting the scope and module registry. This
      * method will retain all observers registered for the context.
@@ -0,0 +1,37 @@
+package daro.lang.interpreter;
+
+/**
+ * This enum represents the kinds of events an {@link ExecutionObserver} can
+ * subscribe to. The engine only notifies an observer of the events it has
+ * subscribed to using {@link ExecutionObserver#getEvents()}.
+ *
+ * @author Roland Bernard
+ */
+public enum ExecutionEvent {
+    /**
+     * The execution of an ast node, i.e.
+     * {@link ExecutionObserver#beforeExecution} and
+     * {@link ExecutionObserver#afterExecution}.
+     */
+    EXECUTION,
+    /**
+     * The localization of an ast node, i.e.
+     * {@link ExecutionObserver#beforeLocalization} and
+     * {@link ExecutionObserver#afterLocalization}.
+     */
+    LOCALIZATION,
+    /**
+     * An exception thrown during execution or localization, i.e. both variants
+     * of {@link ExecutionObserver#onException}.
+     */
+    EXCEPTION,
+    /**
+     * The call of a function, i.e. {@link ExecutionObserver#beforeCall} and
+     * {@link ExecutionObserver#afterCall}.
+     */
+    CALL,
+    /**
+     * A single iteration of a loop, i.e. {@link ExecutionObserver#onIteration}.
+     */
+    ITERATION;
+}
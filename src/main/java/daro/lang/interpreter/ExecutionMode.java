@@ -0,0 +1,53 @@
+package daro.lang.interpreter;
+
+/**
+ * This enum represents the engine that is used by the {@link Interpreter} to
+ * execute programs.
+ * 
+ * @author Roland Bernard
+ */
+public enum ExecutionMode {
+    /**
+     * Execute the program by walking the ast using the {@link Executor}. This has
+     * the lowest setup time.
+     */
+    INTERPRETED,
+    /**
+     * Compile the program into a tree of {@link CompiledNode}s using the
+     * {@link NodeCompiler} before executing it. Whenever observers subscribe to
+     * any event, the execution will fall back to the {@link Executor}.
+     */
+    COMPILED,
+    /**
+     * Execute the program using the {@link Executor}, but compile functions using
+     * the {@link NodeCompiler} once they have been invoked or looped often enough.
+     * The collected information is stored in a {@link FunctionProfile}.
+     */
+    TIERED,
+    /**
+     * Compile the program into bytecode using the {@link daro.lang.vm.BytecodeCompiler}
+     * and execute it on a {@link daro.lang.vm.Machine}. Calls between compiled
+     * functions do not use the Java stack, so deep recursion is only limited by
+     * {@link ExecutionContext#getCallDepth()}. Whenever observers subscribe to
+     * any event, the execution will fall back to the {@link Executor}.
+     */
+    BYTECODE;
+
+    /**
+     * Returns the default execution mode. The default can be changed by setting
+     * the system property {@code daro.mode} to the name of one of the modes.
+     * 
+     * @return The default execution mode
+     */
+    public static ExecutionMode getDefault() {
+        String mode = System.getProperty("daro.mode");
+        if (mode != null) {
+            for (ExecutionMode value : values()) {
+                if (value.name().equalsIgnoreCase(mode)) {
+                    return value;
+                }
+            }
+        }
+        return INTERPRETED;
+    }
+}
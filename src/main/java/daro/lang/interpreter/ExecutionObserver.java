@@ -1,5 +1,8 @@
 package daro.lang.interpreter;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import daro.lang.ast.AstNode;
 import daro.lang.values.DaroFunction;
 import daro.lang.values.DaroObject;
@@ -7,17 +10,43 @@ import daro.lang.values.DaroObject;
 /**
  * This interface can be implemented by classes that wish to observe the
  * execution of a program inside the daro interpreter. This interface can be
- * used to implement breakpoint or profiling for the executed code.
+ * used to implement breakpoint or profiling for the executed code. Observers
+ * only receive the events they subscribe to using {@link #getEvents()} and
+ * {@link #getNodeTypes()}. If no installed observer subscribed to an event, the
+ * engine does not pay any cost for it.
  *
  * @author Roland Bernard
  */
 public interface ExecutionObserver {
 
+    /**
+     * Returns the events this observer wants to be notified of. The result must
+     * not change after the observer has been installed. By default all events are
+     * observed.
+     * 
+     * @return The observed events
+     */
+    default public Set<ExecutionEvent> getEvents() {
+        return EnumSet.allOf(ExecutionEvent.class);
+    }
+
+    /**
+     * Returns the types of ast nodes this observer wants to be notified of, or null
+     * if the observer wants to be notified for all nodes. The result must not
+     * change after the observer has been installed.
+     * 
+     * @return The observed node types, or null
+     */
+    default public Set<Class<? extends AstNode>> getNodeTypes() {
+        return null;
+    }
+
     /**
      * This method is called after an exception is thrown during execution of the
      * given ast node. If this method does not throw another exception, the return
      * value of the lasts succeeding observer will be used as the return value of
-     * the given ast.
+     * the given ast. The control flow of return statements is not reported as
+     * an exception.
      * 
      * @param node    The node that was executed
      * @param error   The error that was thrown
@@ -59,7 +88,8 @@ public interface ExecutionObserver {
      * This method is called after an exception is thrown during localization of the
      * given ast node. If this method does not throw another exception, the return
      * value of the lasts succeeding observer will be used as the return value of
-     * the given ast.
+     * the given ast. The control flow of return statements is not reported as
+     * an exception.
      * 
      * @param node    The node that was executed
      * @param error   The error that was thrown
@@ -112,12 +142,15 @@ public interface ExecutionObserver {
 
     /**
      * This method is called after exiting a function, and before calling the
-     * respective afterExecution.
+     * respective afterExecution. Unless nodes are observed as well, a function
+     * that was called in tail position and itself ends with a tail call is
+     * exited before the function it calls is entered.
      * 
      * @param node     The node that is being executed
      * @param function The function that was executed
      * @param params   The parameters the function was called with
-     * @param value    The value returned by the function execution
+     * @param value    The value returned by the function execution, or null if
+     *                 it was exited for a tail call
      * @param context  The context the execution is in
      */
     default public void afterCall(
@@ -125,4 +158,15 @@ public interface ExecutionObserver {
     ) {
         // Do nothing by default
     }
+
+    /**
+     * This method is called before every iteration of a loop, i.e. before
+     * executing the body of the loop.
+     * 
+     * @param node    The loop that is being executed
+     * @param context The context the execution is in
+     */
+    default public void onIteration(AstNode node, ExecutionContext context) {
+        // Do nothing by default
+    }
 }
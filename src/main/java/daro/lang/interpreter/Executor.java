@@ -1,19 +1,20 @@
 package daro.lang.interpreter;
 
 import java.io.IOException;
-import java.math.BigInteger;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
-import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
-import java.util.function.Function;
 import java.util.function.UnaryOperator;
 
 import daro.lang.ast.*;
+import daro.lang.interpreter.BinaryOperation.Specialization;
+import daro.lang.optimizer.Optimizer;
+import daro.lang.parser.MappedSource;
 import daro.lang.parser.Parser;
 import daro.lang.parser.ParsingException;
 import daro.lang.values.*;
+import daro.lang.vm.BytecodeCompiler;
 
 /**
  * This class is used to execute an ast inside a given scope. It is implemented
@@ -22,8 +23,8 @@ import daro.lang.values.*;
  * @author Roland Bernard
  */
 public class Executor implements Visitor<DaroObject> {
-    private final ExecutionContext context;
-    private final ExecutionObserver[] observers;
+    private ExecutionContext context;
+    private boolean nodesObserved;
 
     /**
      * Create a new {@link Executor} for execution in the given
@@ -33,7 +34,7 @@ public class Executor implements Visitor<DaroObject> {
      */
     public Executor(ExecutionContext context) {
         this.context = context;
-        this.observers = context.getObservers();
+        this.nodesObserved = context.areNodesObserved();
     }
 
     /**
@@ -71,6 +72,89 @@ public class Executor implements Visitor<DaroObject> {
         return (new Executor(context)).executeFileInScope(context.getScope(), file);
     }
 
+    /**
+     * Run the given program in the given {@link ExecutionContext}. This will first
+     * optimize the program, resolve its variables and initialize the scope of the
+     * context with the declarations of the program. Depending on the
+     * {@link ExecutionMode} of the context, the program is either executed
+     * directly or compiled using the {@link NodeCompiler} first. Programs are only
+     * optimized if no observers of individual nodes are installed, because these
+     * observers expect to see the program as it was written. The compiled engines
+     * are only used if no events are observed at all.
+     * 
+     * @param context The context to execute in
+     * @param source  The program to execute
+     * @return The result of the execution
+     */
+    public static DaroObject executeProgram(ExecutionContext context, AstNode source) {
+        AstNode program = context.areNodesObserved() ? source : Optimizer.optimizeProgram(source);
+        VariableResolver.resolveProgram(program);
+        if (context.getMode() == ExecutionMode.COMPILED && !context.isObserved()) {
+            return NodeCompiler.compileProgram(program).execute(context);
+        } else if (context.getMode() == ExecutionMode.BYTECODE && !context.isObserved()) {
+            return BytecodeCompiler.compileProgram(program).execute(context);
+        } else {
+            ScopeInitializer.initialize(context.getScope(), program);
+            return execute(context, program);
+        }
+    }
+
+    /**
+     * Convert the given error that was thrown during execution of the given
+     * {@link AstNode} into the exception that should be propagated. Exceptions
+     * without positional information are assigned the position of the node.
+     * 
+     * @param program The {@link AstNode} that was executed
+     * @param error   The error that was thrown
+     * @return The exception to throw
+     */
+    public static RuntimeException locateException(AstNode program, Throwable error) {
+        if (error instanceof ParsingException) {
+            return (ParsingException)error;
+        } else if (error instanceof InterpreterException) {
+            InterpreterException exception = (InterpreterException)error;
+            if (exception.getPosition() == null) {
+                // Some exceptions are thrown in locations without positional information.
+                return new InterpreterException(program.getPosition(), exception.getMessage());
+            } else {
+                return exception;
+            }
+        } else {
+            // All other exceptions should be converted to {@link InterpreterException}
+            InterpreterException exception;
+            if (error.getMessage() != null) {
+                exception = new InterpreterException(program.getPosition(), error.getMessage());
+            } else {
+                exception = new InterpreterException(program.getPosition(), error.getClass().getSimpleName());
+            }
+            exception.initCause(error);
+            return exception;
+        }
+    }
+
+    /**
+     * Run the {@link AstNode} in the given {@link ExecutionContext}, reusing this
+     * {@link Executor}. The executor returns to its previous context afterwards,
+     * even if the execution fails. This avoids creating a new executor for every
+     * block, loop iteration and function call.
+     * 
+     * @param context The context to execute in
+     * @param program The {@link AstNode} to execute
+     * @return The result of the execution
+     */
+    public DaroObject executeIn(ExecutionContext context, AstNode program) {
+        ExecutionContext outerContext = this.context;
+        boolean outerNodesObserved = this.nodesObserved;
+        this.context = context;
+        this.nodesObserved = context.areNodesObserved();
+        try {
+            return execute(program);
+        } finally {
+            this.context = outerContext;
+            this.nodesObserved = outerNodesObserved;
+        }
+    }
+
     /**
      * Run the {@link AstNode} in the scope of the {@link Executor}
      * 
@@ -80,45 +164,43 @@ public class Executor implements Visitor<DaroObject> {
     public DaroObject execute(AstNode program) {
         if (program != null) {
             try {
-                if (observers == null) {
+                if (!nodesObserved) {
                     return program.accept(this);
                 } else {
-                    for (ExecutionObserver observer : observers) {
-                        observer.beforeExecution(program, context);
+                    ExecutionObserver[] execution = context.getObservers(ExecutionEvent.EXECUTION, program);
+                    ExecutionObserver[] exception = context.getObservers(ExecutionEvent.EXCEPTION, program);
+                    if (execution == null && exception == null) {
+                        return program.accept(this);
+                    }
+                    if (execution != null) {
+                        for (ExecutionObserver observer : execution) {
+                            observer.beforeExecution(program, context);
+                        }
                     }
                     DaroObject result = null;
                     try {
                         result = program.accept(this);
+                    } catch (ReturnException returned) {
+                        // Returns are not errors and must not be reported to the observers
+                        throw returned;
                     } catch (RuntimeException error) {
-                        for (ExecutionObserver observer : observers) {
+                        if (exception == null) {
+                            throw error;
+                        }
+                        for (ExecutionObserver observer : exception) {
                             result = observer.onException(program, error, result, context);
                         }
                         return result;
                     }
-                    for (ExecutionObserver observer : observers) {
-                        observer.afterExecution(program, result, context);
+                    if (execution != null) {
+                        for (ExecutionObserver observer : execution) {
+                            observer.afterExecution(program, result, context);
+                        }
                     }
                     return result;
                 }
-            } catch (ParsingException error) {
-                throw error;
-            } catch (InterpreterException error) {
-                if (error.getPosition() == null) {
-                    // Some exceptions are thrown in locations without positional information.
-                    throw new InterpreterException(program.getPosition(), error.getMessage());
-                } else {
-                    throw error;
-                }
             } catch (Exception | Error error) {
-                // All other exceptions should be converted to {@link InterpreterException}
-                InterpreterException exception;
-                if (error.getMessage() != null) {
-                    exception = new InterpreterException(program.getPosition(), error.getMessage());
-                } else {
-                    exception = new InterpreterException(program.getPosition(), error.getClass().getSimpleName());
-                }
-                exception.initCause(error);
-                throw exception;
+                throw locateException(program, error);
             }
         } else {
             return null;
@@ -143,238 +225,198 @@ public class Executor implements Visitor<DaroObject> {
 
     @Override
     public DaroObject visit(AstInteger ast) {
-        return new DaroInteger(ast.getValue());
+        return LiteralPool.valueOf(ast);
     }
 
     @Override
     public DaroObject visit(AstReal ast) {
-        return new DaroReal(ast.getValue());
+        return LiteralPool.valueOf(ast);
     }
 
     @Override
     public DaroObject visit(AstString ast) {
-        return new DaroString(ast.getValue());
+        return LiteralPool.valueOf(ast);
     }
 
     @Override
     public DaroObject visit(AstCharacter ast) {
-        return new DaroInteger(BigInteger.valueOf((long)ast.getValue()));
+        return LiteralPool.valueOf(ast);
     }
 
     /**
-     * This is a utility function for execution of binary functions with different
-     * operations for different types of objects.
+     * This is a utility function for execution of binary operations. The operation
+     * is implemented in {@link Operations} and returns null if the operands are not
+     * supported.
      * 
-     * @param ast     The ast to execute
-     * @param integer The function to execute for integers
-     * @param number  The function to execute for numbers
-     * @param all     The function to execute for all other objects
+     * @param ast       The ast to execute
+     * @param operation The operation to execute
      * @return The result of the operation
      */
-    private DaroObject executeBinary(
-        AstBinaryNode ast, BiFunction<DaroInteger, DaroInteger, DaroObject> integer,
-        BiFunction<DaroNumber, DaroNumber, DaroObject> number, BinaryOperator<DaroObject> all
-    ) {
+    private DaroObject executeBinary(AstBinaryNode ast, BinaryOperator<DaroObject> operation) {
         DaroObject left = require(ast.getLeft());
         DaroObject right = require(ast.getRight());
-        if (integer != null && left instanceof DaroInteger && right instanceof DaroInteger) {
-            DaroInteger a = (DaroInteger)left;
-            DaroInteger b = (DaroInteger)right;
-            return integer.apply(a, b);
-        } else if (number != null && left instanceof DaroNumber && right instanceof DaroNumber) {
-            DaroNumber a = (DaroNumber)left;
-            DaroNumber b = (DaroNumber)right;
-            return number.apply(a, b);
-        } else if (all != null) {
-            return all.apply(left, right);
+        DaroObject result = operation.apply(left, right);
+        if (result != null) {
+            return result;
         } else {
-            throw new InterpreterException(
-                ast.getPosition(),
-                "Objects of types `" + left.getType().toString() + "` and `" + right.getType().toString()
-                    + "` do not support this operation."
+            throw new InterpreterException(ast.getPosition(), Operations.unsupported(left, right).getMessage());
+        }
+    }
+
+    /**
+     * Utility function to execute a binary operation that specializes itself on
+     * the types of its operands, see {@link BinaryOperation}. The specialization
+     * is stored on the ast node.
+     * 
+     * @param ast       The ast node to execute
+     * @param operation The operation to execute
+     * @return The result of the operation
+     */
+    private DaroObject executeSpecialized(AstBinaryNode ast, BinaryOperation operation) {
+        DaroObject left = require(ast.getLeft());
+        DaroObject right = require(ast.getRight());
+        Specialization specialization = (Specialization)ast.getSpecialization();
+        if (specialization == null || !BinaryOperation.accepts(specialization, left, right)) {
+            specialization = BinaryOperation.specialize(
+                specialization == null ? Specialization.NONE : specialization, left, right
             );
+            ast.setSpecialization(specialization);
+        }
+        DaroObject result = operation.apply(specialization, left, right);
+        if (result != null) {
+            return result;
+        } else {
+            throw new InterpreterException(ast.getPosition(), Operations.unsupported(left, right).getMessage());
         }
     }
 
     @Override
     public DaroObject visit(AstAddition ast) {
-        return executeBinary(
-            ast, (a, b) -> new DaroInteger(a.getValue().add(b.getValue())),
-            (a, b) -> new DaroReal(a.doubleValue() + b.doubleValue()),
-            (a, b) -> new DaroString(a.toString() + b.toString())
-        );
+        return executeSpecialized(ast, BinaryOperation.ADD);
     }
 
     @Override
     public DaroObject visit(AstSubtract ast) {
-        return executeBinary(
-            ast, (a, b) -> new DaroInteger(a.getValue().subtract(b.getValue())),
-            (a, b) -> new DaroReal(a.doubleValue() - b.doubleValue()), null
-        );
+        return executeSpecialized(ast, BinaryOperation.SUBTRACT);
     }
 
     @Override
     public DaroObject visit(AstMultiply ast) {
-        return executeBinary(
-            ast, (a, b) -> new DaroInteger(a.getValue().multiply(b.getValue())),
-            (a, b) -> new DaroReal(a.doubleValue() * b.doubleValue()), null
-        );
+        return executeSpecialized(ast, BinaryOperation.MULTIPLY);
     }
 
     @Override
     public DaroObject visit(AstDivide ast) {
-        return executeBinary(
-            ast, (a, b) -> new DaroInteger(a.getValue().divide(b.getValue())),
-            (a, b) -> new DaroReal(a.doubleValue() / b.doubleValue()), null
-        );
+        return executeSpecialized(ast, BinaryOperation.DIVIDE);
     }
 
     @Override
     public DaroObject visit(AstRemainder ast) {
-        return executeBinary(
-            ast, (a, b) -> new DaroInteger(a.getValue().remainder(b.getValue())),
-            (a, b) -> new DaroReal(a.doubleValue() % b.doubleValue()), null
-        );
+        return executeSpecialized(ast, BinaryOperation.REMAINDER);
     }
 
     @Override
     public DaroObject visit(AstShiftLeft ast) {
-        return executeBinary(
-            ast, (a, b) -> new DaroInteger(a.getValue().shiftLeft(b.getValue().intValue())), null, null
-        );
+        return executeBinary(ast, Operations::shiftLeft);
     }
 
     @Override
     public DaroObject visit(AstShiftRight ast) {
-        return executeBinary(
-            ast, (a, b) -> new DaroInteger(a.getValue().shiftRight(b.getValue().intValue())), null, null
-        );
+        return executeBinary(ast, Operations::shiftRight);
     }
 
     @Override
     public DaroObject visit(AstEqual ast) {
-        return executeBinary(
-            ast, (a, b) -> new DaroBoolean(a.equals(b)), (a, b) -> new DaroBoolean(a.doubleValue() == b.doubleValue()),
-            (a, b) -> new DaroBoolean(a.equals(b))
-        );
+        return executeSpecialized(ast, BinaryOperation.EQUAL);
     }
 
     @Override
     public DaroObject visit(AstNotEqual ast) {
-        return executeBinary(ast, null, null, (a, b) -> new DaroBoolean(!a.equals(b)));
+        return executeBinary(ast, Operations::notEqual);
     }
 
     @Override
     public DaroObject visit(AstLessThan ast) {
-        return executeBinary(
-            ast, (a, b) -> new DaroBoolean(a.getValue().compareTo(b.getValue()) < 0),
-            (a, b) -> new DaroBoolean(a.doubleValue() < b.doubleValue()),
-            (a, b) -> new DaroBoolean(a.toString().compareTo(b.toString()) < 0)
-        );
+        return executeSpecialized(ast, BinaryOperation.LESS_THAN);
     }
 
     @Override
     public DaroObject visit(AstLessOrEqual ast) {
-        return executeBinary(
-            ast, (a, b) -> new DaroBoolean(a.getValue().compareTo(b.getValue()) <= 0),
-            (a, b) -> new DaroBoolean(a.doubleValue() <= b.doubleValue()),
-            (a, b) -> new DaroBoolean(a.toString().compareTo(b.toString()) <= 0)
-        );
+        return executeSpecialized(ast, BinaryOperation.LESS_OR_EQUAL);
     }
 
     @Override
     public DaroObject visit(AstMoreThan ast) {
-        return executeBinary(
-            ast, (a, b) -> new DaroBoolean(a.getValue().compareTo(b.getValue()) > 0),
-            (a, b) -> new DaroBoolean(a.doubleValue() > b.doubleValue()),
-            (a, b) -> new DaroBoolean(a.toString().compareTo(b.toString()) > 0)
-        );
+        return executeSpecialized(ast, BinaryOperation.MORE_THAN);
     }
 
     @Override
     public DaroObject visit(AstMoreOrEqual ast) {
-        return executeBinary(
-            ast, (a, b) -> new DaroBoolean(a.getValue().compareTo(b.getValue()) >= 0),
-            (a, b) -> new DaroBoolean(a.doubleValue() >= b.doubleValue()),
-            (a, b) -> new DaroBoolean(a.toString().compareTo(b.toString()) >= 0)
-        );
+        return executeSpecialized(ast, BinaryOperation.MORE_OR_EQUAL);
     }
 
     @Override
     public DaroObject visit(AstBitwiseAnd ast) {
-        return executeBinary(ast, (a, b) -> new DaroInteger(a.getValue().and(b.getValue())), null, null);
+        return executeBinary(ast, Operations::bitwiseAnd);
     }
 
     @Override
     public DaroObject visit(AstBitwiseOr ast) {
-        return executeBinary(ast, (a, b) -> new DaroInteger(a.getValue().or(b.getValue())), null, null);
+        return executeBinary(ast, Operations::bitwiseOr);
     }
 
     @Override
     public DaroObject visit(AstBitwiseXor ast) {
-        return executeBinary(ast, (a, b) -> new DaroInteger(a.getValue().xor(b.getValue())), null, null);
+        return executeBinary(ast, Operations::bitwiseXor);
     }
 
     @Override
     public DaroObject visit(AstAnd ast) {
-        return new DaroBoolean(require(ast.getLeft()).isTrue() && require(ast.getRight()).isTrue());
+        return DaroBoolean.valueOf(require(ast.getLeft()).isTrue() && require(ast.getRight()).isTrue());
     }
 
     @Override
     public DaroObject visit(AstOr ast) {
-        return new DaroBoolean(require(ast.getLeft()).isTrue() || require(ast.getRight()).isTrue());
+        return DaroBoolean.valueOf(require(ast.getLeft()).isTrue() || require(ast.getRight()).isTrue());
     }
 
     /**
-     * This is a utility function for execution of unary functions with different
-     * operations for different types of objects.
+     * This is a utility function for execution of unary operations. The operation
+     * is implemented in {@link Operations} and returns null if the operand is not
+     * supported.
      * 
-     * @param ast     The ast to execute
-     * @param integer The function to execute for integers
-     * @param number  The function to execute for numbers
-     * @param all     The function to execute for all other objects
+     * @param ast       The ast to execute
+     * @param operation The operation to execute
      * @return The result of the operation
      */
-    private DaroObject executeUnary(
-        AstUnaryNode ast, Function<DaroInteger, ? extends DaroObject> integer,
-        Function<DaroNumber, ? extends DaroObject> number, UnaryOperator<DaroObject> all
-    ) {
+    private DaroObject executeUnary(AstUnaryNode ast, UnaryOperator<DaroObject> operation) {
         DaroObject value = require(ast.getOperand());
-        if (integer != null && value instanceof DaroInteger) {
-            DaroInteger a = (DaroInteger)value;
-            return integer.apply(a);
-        } else if (number != null && value instanceof DaroNumber) {
-            DaroNumber a = (DaroNumber)value;
-            return number.apply(a);
-        } else if (all != null) {
-            return all.apply(value);
+        DaroObject result = operation.apply(value);
+        if (result != null) {
+            return result;
         } else {
-            throw new InterpreterException(
-                ast.getPosition(), "Objects of type `" + value.getType().toString() + "` do not support this operation."
-            );
+            throw new InterpreterException(ast.getPosition(), Operations.unsupported(value).getMessage());
         }
     }
 
     @Override
     public DaroObject visit(AstPositive ast) {
-        return executeUnary(ast, Function.identity(), Function.identity(), null);
+        return executeUnary(ast, Operations::positive);
     }
 
     @Override
     public DaroObject visit(AstNegative ast) {
-        return executeUnary(
-            ast, a -> new DaroInteger(a.getValue().negate()), a -> new DaroReal(-a.doubleValue()), null
-        );
+        return executeUnary(ast, Operations::negative);
     }
 
     @Override
     public DaroObject visit(AstBitwiseNot ast) {
-        return executeUnary(ast, a -> new DaroInteger(a.getValue().not()), null, null);
+        return executeUnary(ast, Operations::bitwiseNot);
     }
 
     @Override
     public DaroObject visit(AstNot ast) {
-        return executeUnary(ast, null, null, a -> new DaroBoolean(!a.isTrue()));
+        return executeUnary(ast, Operations::not);
     }
 
     @Override
@@ -409,7 +451,11 @@ public class Executor implements Visitor<DaroObject> {
         BlockScope innerScope = new BlockScope(context.getScope());
         AstSequence sequence = ast.getSequence();
         ScopeInitializer.initialize(innerScope, sequence);
-        return execute(context.forScope(innerScope), sequence);
+        try {
+            return executeIn(context.forScope(innerScope), sequence);
+        } finally {
+            innerScope.release();
+        }
     }
 
     @Override
@@ -423,6 +469,20 @@ public class Executor implements Visitor<DaroObject> {
 
     @Override
     public DaroObject visit(AstAssignment ast) {
+        if (
+            !context.isObserved(ExecutionEvent.LOCALIZATION) && !context.isObserved(ExecutionEvent.EXCEPTION)
+                && ast.getLeft() instanceof AstSymbol
+        ) {
+            AstSymbol symbol = (AstSymbol)ast.getLeft();
+            if (symbol.isResolved()) {
+                FrameScope frame = FrameScope.find(context.getScope(), symbol.getDepth());
+                if (frame != null && symbol.getSlot() < frame.getSlotCount()) {
+                    DaroObject value = require(ast.getRight());
+                    frame.setSlotValue(symbol.getSlot(), value);
+                    return value;
+                }
+            }
+        }
         VariableLocation location = LocationEvaluator.execute(context, ast.getLeft());
         if (location != null) {
             DaroObject value = require(ast.getRight());
@@ -435,7 +495,17 @@ public class Executor implements Visitor<DaroObject> {
 
     @Override
     public DaroObject visit(AstSymbol ast) {
-        DaroObject value = context.getScope().getVariableValue(ast.getName());
+        DaroObject value = null;
+        if (ast.isResolved()) {
+            FrameScope frame = FrameScope.find(context.getScope(), ast.getDepth());
+            if (frame != null && ast.getSlot() < frame.getSlotCount()) {
+                value = frame.getSlotValue(ast.getSlot());
+            } else {
+                value = context.getScope().getVariableValue(ast.getName());
+            }
+        } else {
+            value = context.getScope().getVariableValue(ast.getName());
+        }
         if (value == null) {
             throw new InterpreterException(ast.getPosition(), "Variable `" + ast.getName() + "` is undefined");
         } else {
@@ -446,7 +516,7 @@ public class Executor implements Visitor<DaroObject> {
     @Override
     public DaroObject visit(AstMember ast) {
         DaroObject left = require(ast.getOperand());
-        DaroObject value = left.getMemberScope().getVariableValue(ast.getName());
+        DaroObject value = MemberCache.getMember(ast, left);
         if (value == null) {
             throw new InterpreterException(ast.getPosition(), "Member variable `" + ast.getName() + "` is undefined");
         } else {
@@ -467,15 +537,22 @@ public class Executor implements Visitor<DaroObject> {
                 for (int i = 0; i < parameters.length; i++) {
                     params[i] = require(parameters[i]);
                 }
-                if (observers == null) {
+                ExecutionObserver[] call = context.getObservers(ExecutionEvent.CALL, ast);
+                if (ast.isTailCall() && !nodesObserved && function instanceof DaroAstFunction) {
+                    // The call will be executed, and observed, by the invocation of the enclosing function
+                    throw new TailCallException(ast, (DaroAstFunction)function, params);
+                } else if (call == null && !nodesObserved && function instanceof DaroAstFunction) {
+                    // The arguments are not used after the call and can become the parameters
+                    return ((DaroAstFunction)function).call(params, context, this);
+                } else if (call == null) {
                     return function.execute(params, context);
                 } else {
-                    for (ExecutionObserver observer : observers) {
+                    for (ExecutionObserver observer : call) {
                         observer.beforeCall(ast, function, params, context);
                     }
                     DaroObject result = null;
                     result = function.execute(params, context);
-                    for (ExecutionObserver observer : observers) {
+                    for (ExecutionObserver observer : call) {
                         observer.afterCall(ast, function, params, result, context);
                     }
                     return result;
@@ -491,7 +568,7 @@ public class Executor implements Visitor<DaroObject> {
         DaroObject left = require(ast.getLeft());
         DaroObject right = require(ast.getRight());
         if (right instanceof DaroInteger) {
-            int index = ((DaroInteger)right).getValue().intValue();
+            int index = ((DaroInteger)right).intValue();
             if (left instanceof DaroArray) {
                 DaroArray array = (DaroArray)left;
                 if (array.getLength() == 0) {
@@ -541,7 +618,7 @@ public class Executor implements Visitor<DaroObject> {
                 return new DaroTypeStrictArray(type);
             } else if (size instanceof DaroInteger) {
                 DaroInteger integer = (DaroInteger)size;
-                return new DaroTypeStrictArray(integer.getValue().intValue(), type);
+                return new DaroTypeStrictArray(integer.intValue(), type);
             } else {
                 throw new InterpreterException(ast.getLeft().getPosition(), "Size is not an integer");
             }
@@ -559,26 +636,100 @@ public class Executor implements Visitor<DaroObject> {
         }
     }
 
+    /**
+     * Notify the given observers that a new iteration of the given loop is about
+     * to start.
+     * 
+     * @param observers The observers to notify, or null
+     * @param loop      The loop that is being executed
+     */
+    private void notifyIteration(ExecutionObserver[] observers, AstNode loop) {
+        if (observers != null) {
+            for (ExecutionObserver observer : observers) {
+                observer.onIteration(loop, context);
+            }
+        }
+    }
+
+    /**
+     * Returns the profile the iterations of loops are counted in. Loops that are
+     * not inside a profiled function, e.g. at the top level or in the body of a
+     * class, get a profile of their own in {@link ExecutionMode#TIERED} mode.
+     *
+     * @return The profile for the loop, or null if it should not be profiled
+     */
+    private FunctionProfile getLoopProfile() {
+        FunctionProfile profile = context.getProfile();
+        if (profile == null && context.getMode() == ExecutionMode.TIERED && !context.isObserved()) {
+            profile = new FunctionProfile();
+        }
+        return profile;
+    }
+
     @Override
     public DaroObject visit(AstFor ast) {
         DaroObject value = null;
+        FunctionProfile profile = getLoopProfile();
+        ExecutionObserver[] iteration = context.getObservers(ExecutionEvent.ITERATION, ast);
         while (require(ast.getCondition()).isTrue()) {
+            notifyIteration(iteration, ast);
             value = execute(ast.getBody());
+            if (profile != null) {
+                profile.countBackEdge();
+                if (profile.isHot()) {
+                    // Continue with the next iteration in compiled code
+                    if (ast.getCompiledBody() == null) {
+                        ast.setCompiledCondition(NodeCompiler.compileRequired(ast.getCondition()));
+                        ast.setCompiledBody(new NodeCompiler().compile(ast.getBody()));
+                    }
+                    CompiledNode condition = (CompiledNode)ast.getCompiledCondition();
+                    CompiledNode body = (CompiledNode)ast.getCompiledBody();
+                    while (condition.execute(context).isTrue()) {
+                        value = body.execute(context);
+                    }
+                    return value;
+                }
+            }
         }
         return value;
     }
 
     @Override
     public DaroObject visit(AstForIn ast) {
-        BlockScope innerScope = new BlockScope(context.getScope());
+        FrameScope innerScope = new FrameScope(new String[] {
+            ast.getVariable().getName()
+        }, context.getScope());
+        ExecutionContext innerContext = context.forScope(innerScope);
         DaroObject value = require(ast.getList());
         if (value instanceof DaroArray) {
             DaroObject ret = null;
             DaroArray array = (DaroArray)value;
-            for (int i = 0; i < array.getLength(); i++) {
-                DaroObject item = array.getValueAt(i);
-                innerScope.newVariableInFinal(ast.getVariable().getName(), item);
-                ret = execute(context.forScope(innerScope), ast.getBody());
+            FunctionProfile profile = getLoopProfile();
+            ExecutionObserver[] iteration = context.getObservers(ExecutionEvent.ITERATION, ast);
+            try {
+                CompiledNode body = null;
+                for (int i = 0; i < array.getLength(); i++) {
+                    DaroObject item = array.getValueAt(i);
+                    innerScope.setSlotValue(0, item);
+                    if (body != null) {
+                        ret = body.execute(innerContext);
+                    } else {
+                        notifyIteration(iteration, ast);
+                        ret = executeIn(innerContext, ast.getBody());
+                        if (profile != null) {
+                            profile.countBackEdge();
+                            if (profile.isHot()) {
+                                // Execute the following iterations in compiled code
+                                if (ast.getCompiledBody() == null) {
+                                    ast.setCompiledBody(new NodeCompiler().compile(ast.getBody()));
+                                }
+                                body = (CompiledNode)ast.getCompiledBody();
+                            }
+                        }
+                    }
+                }
+            } finally {
+                innerScope.release();
             }
             return ret;
         } else {
@@ -593,10 +744,7 @@ public class Executor implements Visitor<DaroObject> {
 
     @Override
     public DaroObject visit(AstPower ast) {
-        return executeBinary(
-            ast, (a, b) -> new DaroInteger(a.getValue().pow(b.getValue().intValue())),
-            (a, b) -> new DaroReal(Math.pow(a.doubleValue(), b.doubleValue())), null
-        );
+        return executeSpecialized(ast, BinaryOperation.POWER);
     }
 
     @Override
@@ -660,17 +808,16 @@ public class Executor implements Visitor<DaroObject> {
         Path path = searchForImport(file, search);
         Map<Path, DaroModule> modules = context.getModules();
         if (!modules.containsKey(path)) {
-            String content;
+            CharSequence content;
             try {
-                content = Files.readString(path);
+                content = MappedSource.read(path);
             } catch (IOException e) {
                 throw new InterpreterException(new Position(file), "Failed to load file");
             }
             DaroModule pack = new DaroModule(scope);
             modules.put(path.normalize(), pack);
             AstNode program = Parser.parseSourceCode(content, path.normalize());
-            ScopeInitializer.initialize(scope, program);
-            execute(context.forScope(scope), program);
+            executeProgram(context.forScope(scope), program);
         }
         return modules.get(path);
     }
@@ -734,8 +881,8 @@ public class Executor implements Visitor<DaroObject> {
         }
         if (object instanceof DaroArray) {
             DaroArray array = (DaroArray)object;
-            int index = start != null ? ((DaroInteger)start).getValue().intValue() : 0;
-            int stop = end != null ? ((DaroInteger)end).getValue().intValue() : array.getLength();
+            int index = start != null ? ((DaroInteger)start).intValue() : 0;
+            int stop = end != null ? ((DaroInteger)end).intValue() : array.getLength();
             if (array.getLength() == 0 && index != stop) {
                 throw new InterpreterException(ast.getPosition(), "Index out of bounds");
             } else {
@@ -743,8 +890,8 @@ public class Executor implements Visitor<DaroObject> {
             }
         } else if (object instanceof DaroString) {
             DaroString string = (DaroString)object;
-            int index = start != null ? ((DaroInteger)start).getValue().intValue() : 0;
-            int stop = end != null ? ((DaroInteger)end).getValue().intValue() : string.getValue().length();
+            int index = start != null ? ((DaroInteger)start).intValue() : 0;
+            int stop = end != null ? ((DaroInteger)end).intValue() : string.getValue().length();
             int length = string.getValue().length();
             if (length == 0 && index != stop) {
                 throw new InterpreterException(ast.getPosition(), "Index out of bounds");
@@ -0,0 +1,281 @@
+package daro.lang.interpreter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import daro.lang.values.DaroObject;
+
+/**
+ * This class implements a scope for a function call or a for-in loop. The
+ * variables that are declared statically (i.e. the parameters or the loop
+ * variable) are stored inside an array and can be accessed by their slot index
+ * using the resolution computed by the {@link VariableResolver}. All other
+ * variables behave like they would inside a {@link BlockScope}.
+ *
+ * @author Roland Bernard
+ */
+public class FrameScope extends BlockScope {
+    private final String[] names;
+    private final DaroObject[] slots;
+
+    /**
+     * The frame owning the slots and variables. Closures created inside copies
+     * of a frame retain their variables in the original frame.
+     */
+    private final FrameScope original;
+
+    /**
+     * The last copy created by {@link #withParent(Scope)}.
+     */
+    private FrameScope copy;
+
+    /**
+     * Creates a new {@link FrameScope} with the given slot names and initial
+     * values, and the given parent.
+     *
+     * @param names  The names of the slots
+     * @param values The initial values of the slots
+     * @param parent The parent scope
+     */
+    public FrameScope(String[] names, DaroObject[] values, Scope ...parent) {
+        super(new HashMap<>(), parent);
+        this.names = names;
+        this.slots = values;
+        this.original = this;
+    }
+
+    /**
+     * Creates a new {@link FrameScope} with the given slot names and the given
+     * parent. All slots are initially empty.
+     *
+     * @param names  The names of the slots
+     * @param parent The parent scope
+     */
+    public FrameScope(String[] names, Scope ...parent) {
+        this(names, new DaroObject[names.length], parent);
+    }
+
+    /**
+     * Creates a new {@link FrameScope} sharing the given slots and internal map.
+     * This constructor is only to be used internally by this class.
+     *
+     * @param original The frame whose slots and variables are shared
+     * @param parent   The parent scope
+     */
+    private FrameScope(FrameScope original, Scope ...parent) {
+        super(original.variables, parent);
+        this.names = original.names;
+        this.slots = original.slots;
+        this.original = original;
+    }
+
+    /**
+     * Find the frame that is the given number of frames above the innermost frame
+     * enclosing the given scope. This will return null if no such frame exists.
+     *
+     * @param scope The scope to start searching from
+     * @param depth The number of frames to go up
+     * @return The frame at the given depth, or null
+     */
+    public static FrameScope find(Scope scope, int depth) {
+        if (scope instanceof AbstractScope) {
+            FrameScope frame = ((AbstractScope)scope).getFrame();
+            for (int i = 0; i < depth && frame != null; i++) {
+                frame = frame.getParentFrame();
+            }
+            return frame;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the index of the slot with the given name. If the name appears
+     * multiple times, the last slot will shadow the others.
+     *
+     * @param name The name to search for
+     * @return The slot index, or -1 if there is no such slot
+     */
+    public int getSlotIndex(String name) {
+        for (int i = names.length - 1; i >= 0; i--) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of slots in this frame.
+     *
+     * @return The number of slots
+     */
+    public int getSlotCount() {
+        return slots.length;
+    }
+
+    /**
+     * Returns the value stored in the slot at the given index.
+     *
+     * @param slot The index of the slot
+     * @return The value in the slot, or null if it is empty
+     */
+    public DaroObject getSlotValue(int slot) {
+        return slots[slot];
+    }
+
+    /**
+     * Store the given value in the slot at the given index.
+     *
+     * @param slot  The index of the slot
+     * @param value The value to store
+     */
+    public void setSlotValue(int slot, DaroObject value) {
+        slots[slot] = value;
+    }
+
+    /**
+     * Returns a {@link VariableLocation} that writes into the slot at the given
+     * index.
+     *
+     * @param slot The index of the slot
+     * @return The location of the slot
+     */
+    public VariableLocation getSlotLocation(int slot) {
+        return value -> {
+            slots[slot] = value;
+        };
+    }
+
+    /**
+     * Returns the frame enclosing this frame.
+     *
+     * @return The parent frame, or null if there is none
+     */
+    public FrameScope getParentFrame() {
+        return super.getFrame();
+    }
+
+    /**
+     * Returns a frame that shares the slots and the variables of this frame, but
+     * has the given parent instead of the parents of this frame. If the last
+     * frame returned has the same parent, it is reused.
+     *
+     * @param parent The parent of the new frame
+     * @return The frame with the given parent
+     */
+    public FrameScope withParent(Scope parent) {
+        if (copy == null || copy.parents[0] != parent) {
+            copy = new FrameScope(original, parent);
+        }
+        return copy;
+    }
+
+    @Override
+    public FrameScope getFrame() {
+        return this;
+    }
+
+    @Override
+    public Scope getFinalLevel() {
+        return new FrameScope(original);
+    }
+
+    @Override
+    public void retain(String[] names) {
+        if (original == this) {
+            super.retain(names);
+        } else {
+            original.retain(names);
+        }
+    }
+
+    @Override
+    protected void releaseExcept(Set<String> names) {
+        super.releaseExcept(names);
+        for (int i = 0; i < this.names.length; i++) {
+            if (!names.contains(this.names[i])) {
+                slots[i] = null;
+            }
+        }
+    }
+
+    @Override
+    protected boolean containsLocalVariable(String name) {
+        int slot = getSlotIndex(name);
+        if (slot >= 0 && slots[slot] != null) {
+            return true;
+        } else {
+            return super.containsLocalVariable(name);
+        }
+    }
+
+    @Override
+    protected DaroObject getLocalVariableValue(String name) {
+        int slot = getSlotIndex(name);
+        if (slot >= 0 && slots[slot] != null) {
+            return slots[slot];
+        } else {
+            return super.getLocalVariableValue(name);
+        }
+    }
+
+    @Override
+    protected VariableLocation getLocalVariableLocation(String name) {
+        int slot = getSlotIndex(name);
+        if (slot >= 0) {
+            return getSlotLocation(slot);
+        } else {
+            return super.getLocalVariableLocation(name);
+        }
+    }
+
+    @Override
+    public VariableLocation getVariableLocation(String name) {
+        int slot = getSlotIndex(name);
+        if (slot >= 0) {
+            return getSlotLocation(slot);
+        } else {
+            return super.getVariableLocation(name);
+        }
+    }
+
+    @Override
+    public Map<String, DaroObject> getCompleteMapping() {
+        Map<String, DaroObject> result = super.getCompleteMapping();
+        for (int i = 0; i < names.length; i++) {
+            if (slots[i] != null) {
+                result.put(names[i], slots[i]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        Arrays.fill(slots, null);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = super.hashCode();
+        return safeRecursion(() -> {
+            return hash ^ (997 * Arrays.hashCode(slots));
+        }, hash);
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (object instanceof FrameScope && super.equals(object)) {
+            FrameScope scope = (FrameScope)object;
+            return safeRecursion(() -> {
+                return Arrays.equals(names, scope.names) && Arrays.equals(slots, scope.slots);
+            }, this == object);
+        } else {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package daro.lang.interpreter;
+
+/**
+ * This class is used to collect the number of invocations and loop iterations
+ * of a function while it is executed by the {@link Executor}. It is used by the
+ * {@link ExecutionMode#TIERED} mode to decide when a function should be compiled
+ * using the {@link NodeCompiler}.
+ *
+ * @author Roland Bernard
+ */
+public class FunctionProfile {
+    /**
+     * The default number of invocations and loop iterations after which a function
+     * is considered hot. The default can be changed by setting the system property
+     * {@code daro.tier.threshold}.
+     */
+    public static final int DEFAULT_THRESHOLD = Integer.getInteger("daro.tier.threshold", 1000);
+
+    private final int threshold;
+    private int invocations;
+    private int backEdges;
+
+    /**
+     * Create a new empty {@link FunctionProfile} using the given threshold.
+     *
+     * @param threshold The threshold after which the function is hot
+     */
+    public FunctionProfile(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Create a new empty {@link FunctionProfile} using the default threshold.
+     */
+    public FunctionProfile() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Record a single invocation of the function.
+     */
+    public void countInvocation() {
+        invocations++;
+    }
+
+    /**
+     * Record a single iteration of a loop inside the function.
+     */
+    public void countBackEdge() {
+        backEdges++;
+    }
+
+    /**
+     * Returns the number of recorded invocations.
+     *
+     * @return The number of invocations
+     */
+    public int getInvocations() {
+        return invocations;
+    }
+
+    /**
+     * Returns the number of recorded loop iterations.
+     *
+     * @return The number of loop iterations
+     */
+    public int getBackEdges() {
+        return backEdges;
+    }
+
+    /**
+     * Returns whether the function has been executed often enough to be
+     * compiled. Both invocations and loop iterations count towards the
+     * threshold.
+     *
+     * @return true if the function is hot, false otherwise
+     */
+    public boolean isHot() {
+        return invocations + backEdges >= threshold;
+    }
+}
@@ -11,7 +11,11 @@ import daro.lang.values.DaroObject;
  * This is the main interface into the daro interpreter. This class implements a
  * simple low setup time interpreter for the Daro language. It is implemented
  * using multiple visitors ({@link Executor}, {@link LocationEvaluator},
- * {@link ScopeInitializer}) that should not be used manually by the user.
+ * {@link ScopeInitializer}, {@link VariableResolver}, {@link NodeCompiler})
+ * that should not be used manually by the user. The {@link ExecutionMode}
+ * selects whether programs are walked directly or compiled first, either into
+ * a tree of {@link CompiledNode}s or into bytecode for the machine in
+ * {@link daro.lang.vm}.
  * 
  * @author Roland Bernard
  */
@@ -37,6 +41,28 @@ public class Interpreter {
         this(new ExecutionContext(new BlockScope(new RootScope()), output));
     }
 
+    /**
+     * Create a new {@link Interpreter} using the given {@link PrintStream} as an
+     * output for print functions and executing programs using the given
+     * {@link ExecutionMode}.
+     * 
+     * @param output The output stream for print functions
+     * @param mode   The execution mode to use
+     */
+    public Interpreter(PrintStream output, ExecutionMode mode) {
+        this(new ExecutionContext(new BlockScope(new RootScope()), output).withMode(mode));
+    }
+
+    /**
+     * Create a new {@link Interpreter} executing programs using the given
+     * {@link ExecutionMode}.
+     * 
+     * @param mode The execution mode to use
+     */
+    public Interpreter(ExecutionMode mode) {
+        this(System.out, mode);
+    }
+
     /**
      * Create a new {@link Interpreter}. Each interpreter has it's own context in
      * which every execute method will execute. This method will initialize the
@@ -65,8 +91,7 @@ public class Interpreter {
      * @throws InterpreterException It the code causes an exception during execution
      */
     public DaroObject execute(AstNode ast, ExecutionObserver ...observers) {
-        ScopeInitializer.initialize(context.getScope(), ast);
-        return Executor.execute(context.withObservers(observers), ast);
+        return Executor.executeProgram(context.withObservers(observers), ast);
     }
 
     /**
@@ -0,0 +1,79 @@
+package daro.lang.interpreter;
+
+import daro.lang.ast.*;
+import daro.lang.values.*;
+
+/**
+ * This class is used to obtain the runtime values of literal ast nodes. The
+ * values of literals are immutable, so the value is created only once and then
+ * stored on the ast node itself. All later evaluations of the same node, in
+ * any of the execution engines, return the same instance.
+ *
+ * @author Roland Bernard
+ */
+public final class LiteralPool {
+
+    private LiteralPool() {
+        // This class should not be instantiated
+    }
+
+    /**
+     * Returns the value of the given integer literal.
+     *
+     * @param ast The integer literal
+     * @return The value of the literal
+     */
+    public static DaroInteger valueOf(AstInteger ast) {
+        Object constant = ast.getConstant();
+        if (constant == null) {
+            constant = DaroInteger.valueOf(ast.getValue());
+            ast.setConstant(constant);
+        }
+        return (DaroInteger)constant;
+    }
+
+    /**
+     * Returns the value of the given real literal.
+     *
+     * @param ast The real literal
+     * @return The value of the literal
+     */
+    public static DaroReal valueOf(AstReal ast) {
+        Object constant = ast.getConstant();
+        if (constant == null) {
+            constant = new DaroReal(ast.getValue());
+            ast.setConstant(constant);
+        }
+        return (DaroReal)constant;
+    }
+
+    /**
+     * Returns the value of the given string literal.
+     *
+     * @param ast The string literal
+     * @return The value of the literal
+     */
+    public static DaroString valueOf(AstString ast) {
+        Object constant = ast.getConstant();
+        if (constant == null) {
+            constant = new DaroString(ast.getValue());
+            ast.setConstant(constant);
+        }
+        return (DaroString)constant;
+    }
+
+    /**
+     * Returns the value of the given character literal.
+     *
+     * @param ast The character literal
+     * @return The value of the literal
+     */
+    public static DaroInteger valueOf(AstCharacter ast) {
+        Object constant = ast.getConstant();
+        if (constant == null) {
+            constant = DaroInteger.valueOf(ast.getValue());
+            ast.setConstant(constant);
+        }
+        return (DaroInteger)constant;
+    }
+}
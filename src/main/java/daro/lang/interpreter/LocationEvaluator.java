@@ -42,24 +42,35 @@ public class LocationEvaluator implements Visitor<VariableLocation> {
      */
     public VariableLocation execute(AstNode program) {
         if (program != null) {
-            ExecutionObserver[] observers = context.getObservers();
-            if (observers == null) {
+            ExecutionObserver[] localization = context.getObservers(ExecutionEvent.LOCALIZATION, program);
+            ExecutionObserver[] exception = context.getObservers(ExecutionEvent.EXCEPTION, program);
+            if (localization == null && exception == null) {
                 return program.accept(this);
             } else {
-                for (ExecutionObserver observer : observers) {
-                    observer.beforeLocalization(program, context);
+                if (localization != null) {
+                    for (ExecutionObserver observer : localization) {
+                        observer.beforeLocalization(program, context);
+                    }
                 }
                 VariableLocation result = null;
                 try {
                     result = program.accept(this);
+                } catch (ReturnException returned) {
+                    // Returns are not errors and must not be reported to the observers
+                    throw returned;
                 } catch (RuntimeException error) {
-                    for (ExecutionObserver observer : observers) {
+                    if (exception == null) {
+                        throw error;
+                    }
+                    for (ExecutionObserver observer : exception) {
                         result = observer.onException(program, error, result, context);
                     }
                     return result;
                 }
-                for (ExecutionObserver observer : observers) {
-                    observer.afterLocalization(program, result, context);
+                if (localization != null) {
+                    for (ExecutionObserver observer : localization) {
+                        observer.afterLocalization(program, result, context);
+                    }
                 }
                 return result;
             }
@@ -230,6 +241,12 @@ public class LocationEvaluator implements Visitor<VariableLocation> {
 
     @Override
     public VariableLocation visit(AstSymbol ast) {
+        if (ast.isResolved()) {
+            FrameScope frame = FrameScope.find(context.getScope(), ast.getDepth());
+            if (frame != null && ast.getSlot() < frame.getSlotCount()) {
+                return frame.getSlotLocation(ast.getSlot());
+            }
+        }
         return context.getScope().getVariableLocation(ast.getName());
     }
 
@@ -253,7 +270,7 @@ public class LocationEvaluator implements Visitor<VariableLocation> {
         DaroObject left = Executor.execute(context, ast.getLeft());
         DaroObject right = Executor.execute(context, ast.getRight());
         if (right instanceof DaroInteger) {
-            int index = ((DaroInteger)right).getValue().intValue();
+            int index = ((DaroInteger)right).intValue();
             if (left instanceof DaroArray) {
                 DaroArray array = (DaroArray)left;
                 if (array.getLength() == 0) {
@@ -345,8 +362,8 @@ public class LocationEvaluator implements Visitor<VariableLocation> {
         }
         if (object instanceof DaroArray) {
             DaroArray array = (DaroArray)object;
-            int index = start != null ? ((DaroInteger)start).getValue().intValue() : 0;
-            int stop = end != null ? ((DaroInteger)end).getValue().intValue() : array.getLength();
+            int index = start != null ? ((DaroInteger)start).intValue() : 0;
+            int stop = end != null ? ((DaroInteger)end).intValue() : array.getLength();
             List<DaroObject> view = array.subList(index, stop);
             return value -> {
                 if (value instanceof DaroArray) {
@@ -0,0 +1,107 @@
+package daro.lang.interpreter;
+
+import daro.lang.ast.AstMember;
+import daro.lang.values.DaroObject;
+import daro.lang.values.MemberAccessor;
+
+/**
+ * This class implements an inline cache for a single member access. The cache
+ * remembers the {@link MemberAccessor} for every member layout (see
+ * {@link DaroObject#getMemberLayout()}) it has seen, up to a small limit. If a
+ * receiver has a layout that is already in the cache, the member is read using
+ * the cached accessor instead of searching the member scope by name. Receivers
+ * without a layout, and all receivers seen after the cache is full, use the
+ * generic lookup through {@link DaroObject#getMemberScope()}.
+ * <p>
+ * The cache of an access is stored on the {@link AstMember} node, so that it is
+ * shared by all execution engines. Because member calls evaluate the called
+ * function using the same node, they use the same cache.
+ *
+ * @author Roland Bernard
+ */
+public final class MemberCache {
+    /**
+     * The maximum number of layouts that are cached for a single access.
+     */
+    public static final int MAX_ENTRIES = 4;
+
+    private final String name;
+    private final Object[] layouts;
+    private final MemberAccessor[] accessors;
+    private int size;
+
+    /**
+     * Create a new empty cache for accessing the member with the given name.
+     *
+     * @param name The name of the accessed member
+     */
+    public MemberCache(String name) {
+        this.name = name;
+        this.layouts = new Object[MAX_ENTRIES];
+        this.accessors = new MemberAccessor[MAX_ENTRIES];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the cache stored on the given {@link AstMember}. If the node does not
+     * have a cache yet, a new empty one is created.
+     *
+     * @param ast The member access
+     * @return The cache for the access
+     */
+    public static MemberCache forNode(AstMember ast) {
+        Object cache = ast.getCache();
+        if (cache == null) {
+            cache = new MemberCache(ast.getName());
+            ast.setCache(cache);
+        }
+        return (MemberCache)cache;
+    }
+
+    /**
+     * Read the member accessed by the given {@link AstMember} from the receiver.
+     *
+     * @param ast      The member access
+     * @param receiver The object to read the member from
+     * @return The value of the member, or null if it is undefined
+     */
+    public static DaroObject getMember(AstMember ast, DaroObject receiver) {
+        return forNode(ast).getValue(receiver);
+    }
+
+    /**
+     * Returns the number of layouts that are currently cached.
+     *
+     * @return The number of cached layouts
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Read the member from the given receiver.
+     *
+     * @param receiver The object to read the member from
+     * @return The value of the member, or null if it is undefined
+     */
+    public DaroObject getValue(DaroObject receiver) {
+        Object layout = receiver.getMemberLayout();
+        if (layout != null) {
+            for (int i = 0; i < size; i++) {
+                if (layouts[i] == layout) {
+                    return accessors[i].getValue(receiver);
+                }
+            }
+            if (size < MAX_ENTRIES) {
+                MemberAccessor accessor = receiver.getMemberAccessor(name);
+                if (accessor != null) {
+                    layouts[size] = layout;
+                    accessors[size] = accessor;
+                    size++;
+                    return accessor.getValue(receiver);
+                }
+            }
+        }
+        return receiver.getMemberScope().getVariableValue(name);
+    }
+}
@@ -182,13 +182,13 @@ public class NativeScope implements Scope {
             if (expected.isInstance(integer.getValue())) {
                 return integer.getValue();
             } else if (expected.isAssignableFrom(Long.TYPE)) {
-                return integer.getValue().longValue();
+                return integer.longValue();
             } else if (expected.isAssignableFrom(Integer.TYPE)) {
-                return integer.getValue().intValue();
+                return integer.intValue();
             } else if (expected.isAssignableFrom(Short.TYPE)) {
                 return integer.getValue().shortValue();
             } else if (expected.isAssignableFrom(Character.TYPE)) {
-                return (char)integer.getValue().intValue();
+                return (char)integer.intValue();
             } else if (expected.isAssignableFrom(Double.TYPE)) {
                 return (char)integer.getValue().doubleValue();
             } else if (expected.isAssignableFrom(Float.TYPE)) {
@@ -247,19 +247,19 @@ public class NativeScope implements Scope {
      */
     public static DaroObject tryToWrap(Object object) {
         if (object == null) {
-            return new DaroNull();
+            return DaroNull.NULL;
         } else if (object instanceof DaroObject) {
             return (DaroObject)object;
         } else if (object instanceof BigInteger) {
-            return new DaroInteger((BigInteger)object);
+            return DaroInteger.valueOf((BigInteger)object);
         } else if (object instanceof Long) {
-            return new DaroInteger(BigInteger.valueOf((Long)object));
+            return DaroInteger.valueOf((Long)object);
         } else if (object instanceof Integer) {
-            return new DaroInteger(BigInteger.valueOf((Integer)object));
+            return DaroInteger.valueOf((Integer)object);
         } else if (object instanceof Short) {
-            return new DaroInteger(BigInteger.valueOf((Short)object));
+            return DaroInteger.valueOf((Short)object);
         } else if (object instanceof Character) {
-            return new DaroInteger(BigInteger.valueOf((Character)object));
+            return DaroInteger.valueOf((Character)object);
         } else if (object instanceof Double) {
             return new DaroReal((Double)object);
         } else if (object instanceof Float) {
@@ -275,7 +275,7 @@ public class NativeScope implements Scope {
             }
             return new DaroArray(list);
         } else if (object instanceof Boolean) {
-            return new DaroBoolean((Boolean)object);
+            return DaroBoolean.valueOf((Boolean)object);
         } else if (object instanceof String) {
             return new DaroString((String)object);
         } else if (object instanceof Class) {
@@ -0,0 +1,1004 @@
+package daro.lang.interpreter;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import daro.lang.ast.*;
+import daro.lang.values.*;
+
+/**
+ * This class is used to compile an ast into a tree of {@link CompiledNode}s.
+ * All decisions that depend only on the ast (e.g. the operation of a binary
+ * node, the slot of a resolved variable or the value of a literal) are made
+ * once during compilation, such that the execution does not require any
+ * dispatch over the kind of the node. The compiled code has the same semantics
+ * as the {@link Executor}, but does not support {@link ExecutionObserver}s.
+ * Arithmetic and comparison operations are compiled into
+ * {@link SpecializingBinaryNode}s, which additionally avoid the dispatch over
+ * the types of the operands, as long as the types do not change.
+ *
+ * @author Roland Bernard
+ */
+public class NodeCompiler implements Visitor<CompiledNode> {
+    private final Deque<List<CompiledNode>> declarations;
+
+    /**
+     * This interface represents a compiled ast that is used as the target of an
+     * assignment. It is the compiled equivalent of the {@link LocationEvaluator}.
+     */
+    private interface CompiledLocation {
+
+        /**
+         * Evaluate the location in the given {@link ExecutionContext}.
+         *
+         * @param context The context to execute in
+         * @return The location to write to, or null if there is none
+         */
+        public VariableLocation locate(ExecutionContext context);
+    }
+
+    /**
+     * Create a new {@link NodeCompiler}.
+     */
+    public NodeCompiler() {
+        this.declarations = new ArrayDeque<>();
+    }
+
+    /**
+     * Compile the given program. Executing the result will first initialize the
+     * scope of the context with the declarations of the program, similar to the
+     * {@link ScopeInitializer}, and then execute the program.
+     *
+     * @param program The {@link AstNode} to compile
+     * @return The compiled program
+     */
+    public static CompiledNode compileProgram(AstNode program) {
+        NodeCompiler compiler = new NodeCompiler();
+        return compiler.positioned(program, compiler.compileWithDeclarations(program));
+    }
+
+    /**
+     * Compile the body of the given function. The result has to be executed in
+     * the scope containing the parameters of the function.
+     *
+     * @param function The function to compile
+     * @return The compiled body of the function
+     */
+    public static CompiledNode compileFunction(AstFunction function) {
+        return new NodeCompiler().compile(function.getBody());
+    }
+
+    /**
+     * Compile the given {@link AstNode}, such that executing the result fails if
+     * the node results in an undefined value. This is used by the {@link Executor}
+     * to continue hot loops in compiled code.
+     *
+     * @param node The {@link AstNode} to compile
+     * @return The compiled node
+     */
+    public static CompiledNode compileRequired(AstNode node) {
+        return new NodeCompiler().require(node);
+    }
+
+    /**
+     * Compile the given {@link AstNode}.
+     *
+     * @param program The {@link AstNode} to compile
+     * @return The compiled node
+     */
+    public CompiledNode compile(AstNode program) {
+        if (program != null) {
+            return program.accept(this);
+        } else {
+            return context -> null;
+        }
+    }
+
+    /**
+     * Compile the given {@link AstNode} such that the result will initialize the
+     * current scope with all the declarations of the node before executing it.
+     *
+     * @param program The {@link AstNode} to compile
+     * @return The compiled node
+     */
+    private CompiledNode compileWithDeclarations(AstNode program) {
+        CompiledNode body;
+        CompiledNode[] hoisted;
+        declarations.push(new ArrayList<>());
+        try {
+            body = compile(program);
+        } finally {
+            hoisted = declarations.pop().toArray(CompiledNode[]::new);
+        }
+        if (hoisted.length == 0) {
+            return body;
+        } else {
+            return context -> {
+                for (CompiledNode declaration : hoisted) {
+                    declaration.execute(context);
+                }
+                return body.execute(context);
+            };
+        }
+    }
+
+    /**
+     * Register the given node as a declaration of the innermost enclosing scope.
+     *
+     * @param declaration The node executing the declaration
+     */
+    private void declare(CompiledNode declaration) {
+        if (!declarations.isEmpty()) {
+            declarations.peek().add(declaration);
+        }
+    }
+
+    /**
+     * This is a utility function that wraps the given compiled node, such that all
+     * the exceptions thrown during its execution are converted in the same way
+     * they would be by the {@link Executor}.
+     *
+     * @param ast  The ast the node was compiled from
+     * @param node The compiled node
+     * @return The wrapped node
+     */
+    private CompiledNode positioned(AstNode ast, CompiledNode node) {
+        return context -> {
+            try {
+                return node.execute(context);
+            } catch (Exception | Error error) {
+                throw Executor.locateException(ast, error);
+            }
+        };
+    }
+
+    /**
+     * This is a utility function that compiles the given {@link AstNode} such
+     * that the result throws a {@link InterpreterException} if the value is
+     * undefined.
+     *
+     * @param ast The {@link AstNode} to compile
+     * @return The compiled node
+     */
+    private CompiledNode require(AstNode ast) {
+        CompiledNode node = compile(ast);
+        if (
+            ast instanceof AstInteger || ast instanceof AstReal || ast instanceof AstString
+                || ast instanceof AstCharacter || ast instanceof AstSymbol
+        ) {
+            // These nodes never result in an undefined value
+            return node;
+        } else {
+            Position position = ast.getPosition();
+            return context -> {
+                DaroObject value = node.execute(context);
+                if (value != null) {
+                    return value;
+                } else {
+                    throw new InterpreterException(position, "Value must not be undefined");
+                }
+            };
+        }
+    }
+
+    /**
+     * This is a utility function for checking the result of a binary operation.
+     *
+     * @param ast    The ast of the operation
+     * @param left   The left operand
+     * @param right  The right operand
+     * @param result The result of the operation
+     * @return The result, if the operation was supported
+     */
+    static DaroObject checkBinary(AstNode ast, DaroObject left, DaroObject right, DaroObject result) {
+        if (result != null) {
+            return result;
+        } else {
+            throw new InterpreterException(ast.getPosition(), Operations.unsupported(left, right).getMessage());
+        }
+    }
+
+    /**
+     * This is a utility function for checking the result of a unary operation.
+     *
+     * @param ast    The ast of the operation
+     * @param value  The operand
+     * @param result The result of the operation
+     * @return The result, if the operation was supported
+     */
+    private static DaroObject checkUnary(AstNode ast, DaroObject value, DaroObject result) {
+        if (result != null) {
+            return result;
+        } else {
+            throw new InterpreterException(ast.getPosition(), Operations.unsupported(value).getMessage());
+        }
+    }
+
+    @Override
+    public CompiledNode visit(AstInteger ast) {
+        DaroObject value = LiteralPool.valueOf(ast);
+        return context -> value;
+    }
+
+    @Override
+    public CompiledNode visit(AstReal ast) {
+        DaroObject value = LiteralPool.valueOf(ast);
+        return context -> value;
+    }
+
+    @Override
+    public CompiledNode visit(AstString ast) {
+        DaroObject value = LiteralPool.valueOf(ast);
+        return context -> value;
+    }
+
+    @Override
+    public CompiledNode visit(AstCharacter ast) {
+        DaroObject value = LiteralPool.valueOf(ast);
+        return context -> value;
+    }
+
+    @Override
+    public CompiledNode visit(AstAddition ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return positioned(ast, new SpecializingBinaryNode(ast, left, right, BinaryOperation.ADD));
+    }
+
+    @Override
+    public CompiledNode visit(AstSubtract ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return positioned(ast, new SpecializingBinaryNode(ast, left, right, BinaryOperation.SUBTRACT));
+    }
+
+    @Override
+    public CompiledNode visit(AstMultiply ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return positioned(ast, new SpecializingBinaryNode(ast, left, right, BinaryOperation.MULTIPLY));
+    }
+
+    @Override
+    public CompiledNode visit(AstDivide ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return positioned(ast, new SpecializingBinaryNode(ast, left, right, BinaryOperation.DIVIDE));
+    }
+
+    @Override
+    public CompiledNode visit(AstRemainder ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return positioned(ast, new SpecializingBinaryNode(ast, left, right, BinaryOperation.REMAINDER));
+    }
+
+    @Override
+    public CompiledNode visit(AstShiftLeft ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return positioned(ast, context -> {
+            DaroObject a = left.execute(context);
+            DaroObject b = right.execute(context);
+            return checkBinary(ast, a, b, Operations.shiftLeft(a, b));
+        });
+    }
+
+    @Override
+    public CompiledNode visit(AstShiftRight ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return positioned(ast, context -> {
+            DaroObject a = left.execute(context);
+            DaroObject b = right.execute(context);
+            return checkBinary(ast, a, b, Operations.shiftRight(a, b));
+        });
+    }
+
+    @Override
+    public CompiledNode visit(AstEqual ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return positioned(ast, new SpecializingBinaryNode(ast, left, right, BinaryOperation.EQUAL));
+    }
+
+    @Override
+    public CompiledNode visit(AstNotEqual ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return positioned(ast, context -> {
+            DaroObject a = left.execute(context);
+            DaroObject b = right.execute(context);
+            return checkBinary(ast, a, b, Operations.notEqual(a, b));
+        });
+    }
+
+    @Override
+    public CompiledNode visit(AstLessThan ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return positioned(ast, new SpecializingBinaryNode(ast, left, right, BinaryOperation.LESS_THAN));
+    }
+
+    @Override
+    public CompiledNode visit(AstLessOrEqual ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return positioned(ast, new SpecializingBinaryNode(ast, left, right, BinaryOperation.LESS_OR_EQUAL));
+    }
+
+    @Override
+    public CompiledNode visit(AstMoreThan ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return positioned(ast, new SpecializingBinaryNode(ast, left, right, BinaryOperation.MORE_THAN));
+    }
+
+    @Override
+    public CompiledNode visit(AstMoreOrEqual ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return positioned(ast, new SpecializingBinaryNode(ast, left, right, BinaryOperation.MORE_OR_EQUAL));
+    }
+
+    @Override
+    public CompiledNode visit(AstBitwiseAnd ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return positioned(ast, context -> {
+            DaroObject a = left.execute(context);
+            DaroObject b = right.execute(context);
+            return checkBinary(ast, a, b, Operations.bitwiseAnd(a, b));
+        });
+    }
+
+    @Override
+    public CompiledNode visit(AstBitwiseOr ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return positioned(ast, context -> {
+            DaroObject a = left.execute(context);
+            DaroObject b = right.execute(context);
+            return checkBinary(ast, a, b, Operations.bitwiseOr(a, b));
+        });
+    }
+
+    @Override
+    public CompiledNode visit(AstBitwiseXor ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return positioned(ast, context -> {
+            DaroObject a = left.execute(context);
+            DaroObject b = right.execute(context);
+            return checkBinary(ast, a, b, Operations.bitwiseXor(a, b));
+        });
+    }
+
+    @Override
+    public CompiledNode visit(AstPower ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return positioned(ast, new SpecializingBinaryNode(ast, left, right, BinaryOperation.POWER));
+    }
+
+    @Override
+    public CompiledNode visit(AstAnd ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return context -> DaroBoolean.valueOf(left.execute(context).isTrue() && right.execute(context).isTrue());
+    }
+
+    @Override
+    public CompiledNode visit(AstOr ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return context -> DaroBoolean.valueOf(left.execute(context).isTrue() || right.execute(context).isTrue());
+    }
+
+    @Override
+    public CompiledNode visit(AstPositive ast) {
+        CompiledNode operand = require(ast.getOperand());
+        return positioned(ast, context -> {
+            DaroObject value = operand.execute(context);
+            return checkUnary(ast, value, Operations.positive(value));
+        });
+    }
+
+    @Override
+    public CompiledNode visit(AstNegative ast) {
+        CompiledNode operand = require(ast.getOperand());
+        return positioned(ast, context -> {
+            DaroObject value = operand.execute(context);
+            return checkUnary(ast, value, Operations.negative(value));
+        });
+    }
+
+    @Override
+    public CompiledNode visit(AstBitwiseNot ast) {
+        CompiledNode operand = require(ast.getOperand());
+        return positioned(ast, context -> {
+            DaroObject value = operand.execute(context);
+            return checkUnary(ast, value, Operations.bitwiseNot(value));
+        });
+    }
+
+    @Override
+    public CompiledNode visit(AstNot ast) {
+        CompiledNode operand = require(ast.getOperand());
+        return positioned(ast, context -> {
+            DaroObject value = operand.execute(context);
+            return checkUnary(ast, value, Operations.not(value));
+        });
+    }
+
+    @Override
+    public CompiledNode visit(AstReturn ast) {
+        Position position = ast.getPosition();
+        if (ast.getOperand() == null) {
+            return context -> {
+                throw new ReturnException(position, null);
+            };
+        } else {
+            CompiledNode operand = require(ast.getOperand());
+            return context -> {
+                throw new ReturnException(position, operand.execute(context));
+            };
+        }
+    }
+
+    @Override
+    public CompiledNode visit(AstClass ast) {
+        ClassPrototype prototype = new ClassPrototype(ast);
+        AstFunction[] methods = prototype.getMethods();
+        CompiledNode[] bodies = new CompiledNode[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            bodies[i] = compile(methods[i].getBody());
+        }
+        ClassPrototype compiled = prototype.withCompiledCode(compileWithDeclarations(prototype.getFields()), bodies);
+        String name = ast.getName();
+        CompiledNode node = context -> {
+            DaroTypeClass value = new DaroTypeClass(context.getScope(), ast, compiled);
+            if (name != null) {
+                context.getScope().newVariableInFinal(name, value);
+            }
+            return value;
+        };
+        if (name != null) {
+            declare(node);
+        }
+        return node;
+    }
+
+    @Override
+    public CompiledNode visit(AstFunction ast) {
+        CompiledNode body = compile(ast.getBody());
+        String name = ast.getName();
+        CompiledNode node = context -> {
+            DaroAstFunction value = new DaroAstFunction(context.getScope(), ast, body);
+            if (name != null) {
+                context.getScope().newVariableInFinal(name, value);
+            }
+            return value;
+        };
+        if (name != null) {
+            declare(node);
+        }
+        return node;
+    }
+
+    @Override
+    public CompiledNode visit(AstBlock ast) {
+        CompiledNode sequence = compileWithDeclarations(ast.getSequence());
+        return context -> {
+            BlockScope innerScope = new BlockScope(context.getScope());
+            try {
+                return sequence.execute(context.forScope(innerScope));
+            } finally {
+                innerScope.release();
+            }
+        };
+    }
+
+    @Override
+    public CompiledNode visit(AstSequence ast) {
+        AstNode[] statements = ast.getStatements();
+        CompiledNode[] nodes = new CompiledNode[statements.length];
+        for (int i = 0; i < statements.length; i++) {
+            nodes[i] = compile(statements[i]);
+        }
+        if (nodes.length == 0) {
+            return context -> null;
+        } else if (nodes.length == 1) {
+            return nodes[0];
+        } else {
+            return context -> {
+                DaroObject value = null;
+                for (CompiledNode node : nodes) {
+                    value = node.execute(context);
+                }
+                return value;
+            };
+        }
+    }
+
+    /**
+     * Compile the given {@link AstNode} as the target of an assignment.
+     *
+     * @param ast The {@link AstNode} to compile
+     * @return The compiled location
+     */
+    private CompiledLocation compileLocation(AstNode ast) {
+        if (ast instanceof AstSymbol) {
+            AstSymbol symbol = (AstSymbol)ast;
+            String name = symbol.getName();
+            if (symbol.isResolved()) {
+                int depth = symbol.getDepth();
+                int slot = symbol.getSlot();
+                return context -> {
+                    FrameScope frame = FrameScope.find(context.getScope(), depth);
+                    if (frame != null && slot < frame.getSlotCount()) {
+                        return frame.getSlotLocation(slot);
+                    } else {
+                        return context.getScope().getVariableLocation(name);
+                    }
+                };
+            } else {
+                return context -> context.getScope().getVariableLocation(name);
+            }
+        } else if (ast instanceof AstMember) {
+            AstMember member = (AstMember)ast;
+            CompiledNode operand = compile(member.getOperand());
+            String name = member.getName();
+            return context -> {
+                DaroObject left = operand.execute(context);
+                if (left == null) {
+                    throw new InterpreterException(
+                        member.getOperand().getPosition(), "Can not access member of undefined"
+                    );
+                } else {
+                    return left.getMemberScope().getVariableLocation(name);
+                }
+            };
+        } else if (ast instanceof AstIndex) {
+            AstIndex index = (AstIndex)ast;
+            CompiledNode left = compile(index.getLeft());
+            CompiledNode right = compile(index.getRight());
+            return context -> {
+                DaroObject array = left.execute(context);
+                DaroObject position = right.execute(context);
+                if (position instanceof DaroInteger) {
+                    int offset = ((DaroInteger)position).intValue();
+                    if (array instanceof DaroArray) {
+                        DaroArray cast = (DaroArray)array;
+                        if (cast.getLength() == 0) {
+                            throw new InterpreterException(index.getPosition(), "Index out of bounds");
+                        } else {
+                            return value -> {
+                                cast.putValueAt(offset, value);
+                            };
+                        }
+                    } else {
+                        throw new InterpreterException(index.getLeft().getPosition(), "Value is not an array");
+                    }
+                } else {
+                    throw new InterpreterException(index.getRight().getPosition(), "Index is not an integer");
+                }
+            };
+        } else {
+            // All other locations are rare enough to be evaluated directly
+            return context -> LocationEvaluator.execute(context, ast);
+        }
+    }
+
+    /**
+     * This is a utility function that executes an assignment to the given
+     * location.
+     *
+     * @param context  The context to execute in
+     * @param ast      The ast of the assignment
+     * @param location The compiled location to write to
+     * @param value    The compiled value to write
+     * @return The value that was written
+     */
+    private static DaroObject assign(
+        ExecutionContext context, AstAssignment ast, CompiledLocation location, CompiledNode value
+    ) {
+        VariableLocation target = location.locate(context);
+        if (target != null) {
+            DaroObject result = value.execute(context);
+            target.storeValue(result);
+            return result;
+        } else {
+            throw new InterpreterException(ast.getLeft().getPosition(), "Expression can not be written to");
+        }
+    }
+
+    @Override
+    public CompiledNode visit(AstAssignment ast) {
+        CompiledLocation left = compileLocation(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        if (ast.getLeft() instanceof AstSymbol && ((AstSymbol)ast.getLeft()).isResolved()) {
+            AstSymbol symbol = (AstSymbol)ast.getLeft();
+            int depth = symbol.getDepth();
+            int slot = symbol.getSlot();
+            return positioned(ast, context -> {
+                FrameScope frame = FrameScope.find(context.getScope(), depth);
+                if (frame != null && slot < frame.getSlotCount()) {
+                    DaroObject value = right.execute(context);
+                    frame.setSlotValue(slot, value);
+                    return value;
+                } else {
+                    return assign(context, ast, left, right);
+                }
+            });
+        } else {
+            return positioned(ast, context -> assign(context, ast, left, right));
+        }
+    }
+
+    @Override
+    public CompiledNode visit(AstSymbol ast) {
+        String name = ast.getName();
+        Position position = ast.getPosition();
+        if (ast.isResolved()) {
+            int depth = ast.getDepth();
+            int slot = ast.getSlot();
+            return context -> {
+                DaroObject value;
+                FrameScope frame = FrameScope.find(context.getScope(), depth);
+                if (frame != null && slot < frame.getSlotCount()) {
+                    value = frame.getSlotValue(slot);
+                } else {
+                    value = context.getScope().getVariableValue(name);
+                }
+                if (value == null) {
+                    throw new InterpreterException(position, "Variable `" + name + "` is undefined");
+                } else {
+                    return value;
+                }
+            };
+        } else {
+            return context -> {
+                DaroObject value = context.getScope().getVariableValue(name);
+                if (value == null) {
+                    throw new InterpreterException(position, "Variable `" + name + "` is undefined");
+                } else {
+                    return value;
+                }
+            };
+        }
+    }
+
+    @Override
+    public CompiledNode visit(AstMember ast) {
+        CompiledNode operand = require(ast.getOperand());
+        String name = ast.getName();
+        MemberCache cache = MemberCache.forNode(ast);
+        return positioned(ast, context -> {
+            DaroObject value = cache.getValue(operand.execute(context));
+            if (value == null) {
+                throw new InterpreterException(ast.getPosition(), "Member variable `" + name + "` is undefined");
+            } else {
+                return value;
+            }
+        });
+    }
+
+    @Override
+    public CompiledNode visit(AstCall ast) {
+        CompiledNode function = require(ast.getFunction());
+        AstNode[] parameters = ast.getParameters();
+        CompiledNode[] nodes = new CompiledNode[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            nodes[i] = require(parameters[i]);
+        }
+        Position position = ast.getFunction().getPosition();
+        boolean tail = ast.isTailCall();
+        return positioned(ast, context -> {
+            DaroObject left = function.execute(context);
+            if (left instanceof DaroFunction) {
+                DaroFunction called = (DaroFunction)left;
+                if (!called.allowsParamCount(nodes.length)) {
+                    throw new InterpreterException(position, "Wrong number of parameters");
+                } else {
+                    DaroObject[] params = new DaroObject[nodes.length];
+                    for (int i = 0; i < nodes.length; i++) {
+                        params[i] = nodes[i].execute(context);
+                    }
+                    if (tail && called instanceof DaroAstFunction) {
+                        // The call will be executed by the invocation of the enclosing function
+                        throw new TailCallException(ast, (DaroAstFunction)called, params);
+                    } else if (called instanceof DaroAstFunction) {
+                        // The arguments are not used after the call and can become the parameters
+                        return ((DaroAstFunction)called).call(params, context, null);
+                    } else {
+                        return called.execute(params, context);
+                    }
+                }
+            } else {
+                throw new InterpreterException(position, "Value is not a function");
+            }
+        });
+    }
+
+    @Override
+    public CompiledNode visit(AstIndex ast) {
+        CompiledNode left = require(ast.getLeft());
+        CompiledNode right = require(ast.getRight());
+        return positioned(ast, context -> {
+            DaroObject object = left.execute(context);
+            DaroObject position = right.execute(context);
+            if (position instanceof DaroInteger) {
+                int index = ((DaroInteger)position).intValue();
+                if (object instanceof DaroArray) {
+                    DaroArray array = (DaroArray)object;
+                    if (array.getLength() == 0) {
+                        throw new InterpreterException(ast.getPosition(), "Index out of bounds");
+                    } else {
+                        return array.getValueAt(index);
+                    }
+                } else if (object instanceof DaroString) {
+                    DaroString string = (DaroString)object;
+                    int length = string.getValue().length();
+                    if (length == 0) {
+                        throw new InterpreterException(ast.getPosition(), "Index out of bounds");
+                    } else {
+                        int actualIndex = (index % length + length) % length;
+                        return new DaroString(string.getValue().substring(actualIndex, actualIndex + 1));
+                    }
+                } else {
+                    throw new InterpreterException(ast.getLeft().getPosition(), "Value is not an array or string");
+                }
+            } else {
+                throw new InterpreterException(ast.getRight().getPosition(), "Index is not an integer");
+            }
+        });
+    }
+
+    @Override
+    public CompiledNode visit(AstNew ast) {
+        CompiledNode type = require(ast.getType());
+        AstInitializer initializer = ast.getInitializer();
+        if (initializer != null) {
+            // The initializer is evaluated by the type, but it may still contain declarations
+            for (AstNode value : initializer.getValues()) {
+                compile(value);
+            }
+        }
+        return positioned(ast, context -> {
+            DaroObject kind = type.execute(context);
+            if (kind instanceof DaroType) {
+                DaroType cast = (DaroType)kind;
+                if (initializer != null) {
+                    return cast.instantiate(context, initializer);
+                } else {
+                    return cast.instantiate(context);
+                }
+            } else {
+                throw new InterpreterException(ast.getType().getPosition(), "Value is not a type");
+            }
+        });
+    }
+
+    @Override
+    public CompiledNode visit(AstArray ast) {
+        CompiledNode right = require(ast.getRight());
+        CompiledNode left = compile(ast.getLeft());
+        return positioned(ast, context -> {
+            DaroObject value = right.execute(context);
+            if (value instanceof DaroType) {
+                DaroType type = (DaroType)value;
+                DaroObject size = left.execute(context);
+                if (size == null) {
+                    return new DaroTypeStrictArray(type);
+                } else if (size instanceof DaroInteger) {
+                    DaroInteger integer = (DaroInteger)size;
+                    return new DaroTypeStrictArray(integer.intValue(), type);
+                } else {
+                    throw new InterpreterException(ast.getLeft().getPosition(), "Size is not an integer");
+                }
+            } else {
+                throw new InterpreterException(ast.getRight().getPosition(), "Value is not a type");
+            }
+        });
+    }
+
+    @Override
+    public CompiledNode visit(AstIfElse ast) {
+        CompiledNode condition = require(ast.getCondition());
+        CompiledNode ifBranch = compile(ast.getIf());
+        CompiledNode elseBranch = compile(ast.getElse());
+        return context -> {
+            if (condition.execute(context).isTrue()) {
+                return ifBranch.execute(context);
+            } else {
+                return elseBranch.execute(context);
+            }
+        };
+    }
+
+    @Override
+    public CompiledNode visit(AstFor ast) {
+        CompiledNode condition = require(ast.getCondition());
+        CompiledNode body = compile(ast.getBody());
+        return context -> {
+            DaroObject value = null;
+            while (condition.execute(context).isTrue()) {
+                value = body.execute(context);
+            }
+            return value;
+        };
+    }
+
+    @Override
+    public CompiledNode visit(AstForIn ast) {
+        String[] names = new String[] {
+            ast.getVariable().getName()
+        };
+        CompiledNode list = require(ast.getList());
+        CompiledNode body = compile(ast.getBody());
+        return positioned(ast, context -> {
+            FrameScope innerScope = new FrameScope(names, context.getScope());
+            ExecutionContext innerContext = context.forScope(innerScope);
+            DaroObject value = list.execute(context);
+            if (value instanceof DaroArray) {
+                DaroObject ret = null;
+                DaroArray array = (DaroArray)value;
+                try {
+                    for (int i = 0; i < array.getLength(); i++) {
+                        innerScope.setSlotValue(0, array.getValueAt(i));
+                        ret = body.execute(innerContext);
+                    }
+                } finally {
+                    innerScope.release();
+                }
+                return ret;
+            } else {
+                throw new InterpreterException(ast.getList().getPosition(), "Value is not an array");
+            }
+        });
+    }
+
+    @Override
+    public CompiledNode visit(AstInitializer ast) {
+        Position position = ast.getPosition();
+        return context -> {
+            throw new InterpreterException(position, "Execution error");
+        };
+    }
+
+    @Override
+    public CompiledNode visit(AstUse ast) {
+        CompiledNode operand = require(ast.getOperand());
+        return positioned(ast, context -> {
+            DaroObject value = operand.execute(context);
+            Scope scope = context.getScope();
+            if (scope instanceof AbstractScope) {
+                AbstractScope cast = (AbstractScope)scope;
+                cast.addParent(value.getMemberScope());
+                return null;
+            } else {
+                throw new InterpreterException(ast.getPosition(), "Use can not be used in the surrounding context");
+            }
+        });
+    }
+
+    @Override
+    public CompiledNode visit(AstFrom ast) {
+        CompiledNode operand = require(ast.getOperand());
+        return positioned(ast, context -> {
+            DaroObject value = operand.execute(context);
+            if (value instanceof DaroString) {
+                DaroString string = (DaroString)value;
+                Path path = Path.of(string.getValue());
+                Path importFrom = ast.getPosition().getFile();
+                if (importFrom != null && importFrom.getParent() != null) {
+                    return new Executor(context).executeFile(path, importFrom.getParent());
+                } else {
+                    return new Executor(context).executeFile(path);
+                }
+            } else {
+                throw new InterpreterException(ast.getPosition(), "Expected a string object");
+            }
+        });
+    }
+
+    @Override
+    public CompiledNode visit(AstMatch ast) {
+        CompiledNode value = require(ast.getValue());
+        AstMatchCase[] cases = ast.getCases();
+        CompiledNode[][] values = new CompiledNode[cases.length][];
+        CompiledNode[] statements = new CompiledNode[cases.length];
+        for (int i = 0; i < cases.length; i++) {
+            if (cases[i].getValues() != null) {
+                values[i] = new CompiledNode[cases[i].getValues().length];
+                for (int j = 0; j < values[i].length; j++) {
+                    values[i][j] = require(cases[i].getValues()[j]);
+                }
+            }
+            statements[i] = compile(cases[i].getStatement());
+        }
+        return positioned(ast, context -> {
+            DaroObject object = value.execute(context);
+            for (int i = 0; i < statements.length; i++) {
+                if (values[i] == null) {
+                    return statements[i].execute(context);
+                } else {
+                    for (CompiledNode comparison : values[i]) {
+                        if (object.equals(comparison.execute(context))) {
+                            return statements[i].execute(context);
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public CompiledNode visit(AstMatchCase ast) {
+        Position position = ast.getPosition();
+        return context -> {
+            throw new InterpreterException(position, "Execution error");
+        };
+    }
+
+    @Override
+    public CompiledNode visit(AstIndexRange ast) {
+        CompiledNode array = require(ast.getArray());
+        CompiledNode start = ast.getStart() != null ? require(ast.getStart()) : null;
+        CompiledNode end = ast.getEnd() != null ? require(ast.getEnd()) : null;
+        return positioned(ast, context -> {
+            DaroObject object = array.execute(context);
+            DaroObject from = null;
+            if (start != null) {
+                from = start.execute(context);
+                if (!(from instanceof DaroInteger)) {
+                    throw new InterpreterException(ast.getStart().getPosition(), "Index is not an integer");
+                }
+            }
+            DaroObject to = null;
+            if (end != null) {
+                to = end.execute(context);
+                if (!(to instanceof DaroInteger)) {
+                    throw new InterpreterException(ast.getEnd().getPosition(), "Index is not an integer");
+                }
+            }
+            if (object instanceof DaroArray) {
+                DaroArray cast = (DaroArray)object;
+                int index = from != null ? ((DaroInteger)from).intValue() : 0;
+                int stop = to != null ? ((DaroInteger)to).intValue() : cast.getLength();
+                if (cast.getLength() == 0 && index != stop) {
+                    throw new InterpreterException(ast.getPosition(), "Index out of bounds");
+                } else {
+                    return new DaroArray(cast.subList(index, stop));
+                }
+            } else if (object instanceof DaroString) {
+                DaroString string = (DaroString)object;
+                int index = from != null ? ((DaroInteger)from).intValue() : 0;
+                int stop = to != null ? ((DaroInteger)to).intValue() : string.getValue().length();
+                int length = string.getValue().length();
+                if (length == 0 && index != stop) {
+                    throw new InterpreterException(ast.getPosition(), "Index out of bounds");
+                } else {
+                    StringBuilder result = new StringBuilder();
+                    for (int i = 0; i < Math.abs(stop - index); i++) {
+                        int actualIndex;
+                        if (index <= stop) {
+                            actualIndex = ((index + i) % length + length) % length;
+                        } else {
+                            actualIndex = ((index - i) % length + length) % length;
+                        }
+                        result.append(string.getValue().charAt(actualIndex));
+                    }
+                    return new DaroString(result.toString());
+                }
+            } else {
+                throw new InterpreterException(ast.getArray().getPosition(), "Value is not an array");
+            }
+        });
+    }
+}
@@ -0,0 +1,130 @@
+package daro.lang.interpreter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import daro.lang.ast.AstNode;
+
+/**
+ * This class holds the {@link ExecutionObserver}s of an {@link ExecutionContext}
+ * grouped by the {@link ExecutionEvent}s they subscribed to. The observers that
+ * must be notified for a given event and node type are computed only once for
+ * every type of node and then cached.
+ *
+ * @author Roland Bernard
+ */
+final class ObserverSet {
+    private static final ExecutionObserver[] NONE = new ExecutionObserver[0];
+
+    private final ExecutionObserver[] observers;
+    private final ExecutionObserver[][] events;
+    private final List<Map<Class<?>, ExecutionObserver[]>> cache;
+    private final boolean nodes;
+    private final boolean any;
+
+    /**
+     * Create a new {@link ObserverSet} for the given observers.
+     *
+     * @param observers The observers to group
+     */
+    ObserverSet(ExecutionObserver[] observers) {
+        this.observers = observers;
+        ExecutionEvent[] kinds = ExecutionEvent.values();
+        this.events = new ExecutionObserver[kinds.length][];
+        this.cache = new ArrayList<>();
+        for (ExecutionEvent event : kinds) {
+            List<ExecutionObserver> subscribed = new ArrayList<>();
+            for (ExecutionObserver observer : observers) {
+                if (observer.getEvents().contains(event)) {
+                    subscribed.add(observer);
+                }
+            }
+            if (!subscribed.isEmpty()) {
+                events[event.ordinal()] = subscribed.toArray(new ExecutionObserver[0]);
+            }
+            cache.add(new ConcurrentHashMap<>());
+        }
+        this.nodes = observes(ExecutionEvent.EXECUTION) || observes(ExecutionEvent.LOCALIZATION)
+            || observes(ExecutionEvent.EXCEPTION);
+        this.any = nodes || observes(ExecutionEvent.CALL) || observes(ExecutionEvent.ITERATION);
+    }
+
+    /**
+     * Returns all of the observers in this set.
+     *
+     * @return The observers
+     */
+    public ExecutionObserver[] getAll() {
+        return observers;
+    }
+
+    /**
+     * Returns whether any of the observers subscribed to the given event.
+     *
+     * @param event The event to test for
+     * @return true if the event is observed, false otherwise
+     */
+    public boolean observes(ExecutionEvent event) {
+        return events[event.ordinal()] != null;
+    }
+
+    /**
+     * Returns whether any of the observers subscribed to an event that happens
+     * for every node, i.e. {@link ExecutionEvent#EXECUTION},
+     * {@link ExecutionEvent#LOCALIZATION} or {@link ExecutionEvent#EXCEPTION}.
+     *
+     * @return true if the nodes are observed, false otherwise
+     */
+    public boolean observesNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns whether any of the observers subscribed to any event.
+     *
+     * @return true if some event is observed, false otherwise
+     */
+    public boolean observesAny() {
+        return any;
+    }
+
+    /**
+     * Returns the observers that must be notified of the given event for the
+     * given node.
+     *
+     * @param event The event that happens
+     * @param node  The node the event happens for
+     * @return The observers to notify, or null if there are none
+     */
+    public ExecutionObserver[] get(ExecutionEvent event, AstNode node) {
+        ExecutionObserver[] subscribed = events[event.ordinal()];
+        if (subscribed == null) {
+            return null;
+        } else {
+            ExecutionObserver[] result = cache.get(event.ordinal())
+                .computeIfAbsent(node.getClass(), type -> filter(subscribed, type));
+            return result.length == 0 ? null : result;
+        }
+    }
+
+    /**
+     * Select the observers that are interested in nodes of the given type.
+     *
+     * @param subscribed The observers to select from
+     * @param type       The type of node
+     * @return The observers interested in the type
+     */
+    private static ExecutionObserver[] filter(ExecutionObserver[] subscribed, Class<?> type) {
+        List<ExecutionObserver> result = new ArrayList<>();
+        for (ExecutionObserver observer : subscribed) {
+            Set<Class<? extends AstNode>> types = observer.getNodeTypes();
+            if (types == null || types.contains(type)) {
+                result.add(observer);
+            }
+        }
+        return result.isEmpty() ? NONE : result.toArray(new ExecutionObserver[0]);
+    }
+}
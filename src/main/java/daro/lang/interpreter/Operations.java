@@ -0,0 +1,376 @@
+package daro.lang.interpreter;
+
+import daro.lang.values.*;
+
+/**
+ * This class contains the implementation of the unary and binary operators of
+ * the Daro language. It is shared by all the execution engines, so that the
+ * semantics of the operators are defined in only one place. All of the methods
+ * return null if the operation is not supported for the given operands.
+ *
+ * @author Roland Bernard
+ */
+public final class Operations {
+
+    private Operations() {
+        // This class should not be instantiated
+    }
+
+    /**
+     * Build the exception that is thrown if a binary operation is not supported for
+     * the given operands.
+     *
+     * @param left  The left operand
+     * @param right The right operand
+     * @return The exception to throw
+     */
+    public static InterpreterException unsupported(DaroObject left, DaroObject right) {
+        return new InterpreterException(
+            "Objects of types `" + left.getType().toString() + "` and `" + right.getType().toString()
+                + "` do not support this operation."
+        );
+    }
+
+    /**
+     * Build the exception that is thrown if a unary operation is not supported for
+     * the given operand.
+     *
+     * @param value The operand
+     * @return The exception to throw
+     */
+    public static InterpreterException unsupported(DaroObject value) {
+        return new InterpreterException(
+            "Objects of type `" + value.getType().toString() + "` do not support this operation."
+        );
+    }
+
+    /**
+     * Compute the sum of the two objects. If the objects are not numbers, their
+     * string representations are concatenated.
+     *
+     * @param left  The left operand
+     * @param right The right operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject add(DaroObject left, DaroObject right) {
+        if (left instanceof DaroInteger && right instanceof DaroInteger) {
+            return ((DaroInteger)left).add(((DaroInteger)right));
+        } else if (left instanceof DaroNumber && right instanceof DaroNumber) {
+            return new DaroReal(((DaroNumber)left).doubleValue() + ((DaroNumber)right).doubleValue());
+        } else {
+            return new DaroString(left.toString() + right.toString());
+        }
+    }
+
+    /**
+     * Compute the difference of the two objects.
+     *
+     * @param left  The left operand
+     * @param right The right operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject subtract(DaroObject left, DaroObject right) {
+        if (left instanceof DaroInteger && right instanceof DaroInteger) {
+            return ((DaroInteger)left).subtract(((DaroInteger)right));
+        } else if (left instanceof DaroNumber && right instanceof DaroNumber) {
+            return new DaroReal(((DaroNumber)left).doubleValue() - ((DaroNumber)right).doubleValue());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Compute the product of the two objects.
+     *
+     * @param left  The left operand
+     * @param right The right operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject multiply(DaroObject left, DaroObject right) {
+        if (left instanceof DaroInteger && right instanceof DaroInteger) {
+            return ((DaroInteger)left).multiply(((DaroInteger)right));
+        } else if (left instanceof DaroNumber && right instanceof DaroNumber) {
+            return new DaroReal(((DaroNumber)left).doubleValue() * ((DaroNumber)right).doubleValue());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Compute the quotient of the two objects.
+     *
+     * @param left  The left operand
+     * @param right The right operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject divide(DaroObject left, DaroObject right) {
+        if (left instanceof DaroInteger && right instanceof DaroInteger) {
+            return ((DaroInteger)left).divide(((DaroInteger)right));
+        } else if (left instanceof DaroNumber && right instanceof DaroNumber) {
+            return new DaroReal(((DaroNumber)left).doubleValue() / ((DaroNumber)right).doubleValue());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Compute the remainder of the division of the two objects.
+     *
+     * @param left  The left operand
+     * @param right The right operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject remainder(DaroObject left, DaroObject right) {
+        if (left instanceof DaroInteger && right instanceof DaroInteger) {
+            return ((DaroInteger)left).remainder(((DaroInteger)right));
+        } else if (left instanceof DaroNumber && right instanceof DaroNumber) {
+            return new DaroReal(((DaroNumber)left).doubleValue() % ((DaroNumber)right).doubleValue());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Raise the left object to the power of the right object.
+     *
+     * @param left  The left operand
+     * @param right The right operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject power(DaroObject left, DaroObject right) {
+        if (left instanceof DaroInteger && right instanceof DaroInteger) {
+            return ((DaroInteger)left).pow(((DaroInteger)right).intValue());
+        } else if (left instanceof DaroNumber && right instanceof DaroNumber) {
+            return new DaroReal(Math.pow(((DaroNumber)left).doubleValue(), ((DaroNumber)right).doubleValue()));
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Shift the bits of the left integer to the left.
+     *
+     * @param left  The left operand
+     * @param right The right operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject shiftLeft(DaroObject left, DaroObject right) {
+        if (left instanceof DaroInteger && right instanceof DaroInteger) {
+            return ((DaroInteger)left).shiftLeft(((DaroInteger)right).intValue());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Shift the bits of the left integer to the right.
+     *
+     * @param left  The left operand
+     * @param right The right operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject shiftRight(DaroObject left, DaroObject right) {
+        if (left instanceof DaroInteger && right instanceof DaroInteger) {
+            return ((DaroInteger)left).shiftRight(((DaroInteger)right).intValue());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Compute the bitwise and of the two integers.
+     *
+     * @param left  The left operand
+     * @param right The right operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject bitwiseAnd(DaroObject left, DaroObject right) {
+        if (left instanceof DaroInteger && right instanceof DaroInteger) {
+            return ((DaroInteger)left).and(((DaroInteger)right));
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Compute the bitwise or of the two integers.
+     *
+     * @param left  The left operand
+     * @param right The right operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject bitwiseOr(DaroObject left, DaroObject right) {
+        if (left instanceof DaroInteger && right instanceof DaroInteger) {
+            return ((DaroInteger)left).or(((DaroInteger)right));
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Compute the bitwise exclusive or of the two integers.
+     *
+     * @param left  The left operand
+     * @param right The right operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject bitwiseXor(DaroObject left, DaroObject right) {
+        if (left instanceof DaroInteger && right instanceof DaroInteger) {
+            return ((DaroInteger)left).xor(((DaroInteger)right));
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Test whether the two objects are equal. Numbers are compared by value
+     * regardless of their type.
+     *
+     * @param left  The left operand
+     * @param right The right operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject equal(DaroObject left, DaroObject right) {
+        if (left instanceof DaroInteger && right instanceof DaroInteger) {
+            return DaroBoolean.valueOf(left.equals(right));
+        } else if (left instanceof DaroNumber && right instanceof DaroNumber) {
+            return DaroBoolean.valueOf(((DaroNumber)left).doubleValue() == ((DaroNumber)right).doubleValue());
+        } else {
+            return DaroBoolean.valueOf(left.equals(right));
+        }
+    }
+
+    /**
+     * Test whether the two objects are not equal.
+     *
+     * @param left  The left operand
+     * @param right The right operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject notEqual(DaroObject left, DaroObject right) {
+        return DaroBoolean.valueOf(!left.equals(right));
+    }
+
+    /**
+     * Test whether the left object is less than the right object. Objects that
+     * are not numbers are compared by their string representation.
+     *
+     * @param left  The left operand
+     * @param right The right operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject lessThan(DaroObject left, DaroObject right) {
+        if (left instanceof DaroInteger && right instanceof DaroInteger) {
+            return DaroBoolean.valueOf(((DaroInteger)left).compareTo(((DaroInteger)right)) < 0);
+        } else if (left instanceof DaroNumber && right instanceof DaroNumber) {
+            return DaroBoolean.valueOf(((DaroNumber)left).doubleValue() < ((DaroNumber)right).doubleValue());
+        } else {
+            return DaroBoolean.valueOf(left.toString().compareTo(right.toString()) < 0);
+        }
+    }
+
+    /**
+     * Test whether the left object is less than or equal to the right object.
+     *
+     * @param left  The left operand
+     * @param right The right operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject lessOrEqual(DaroObject left, DaroObject right) {
+        if (left instanceof DaroInteger && right instanceof DaroInteger) {
+            return DaroBoolean.valueOf(((DaroInteger)left).compareTo(((DaroInteger)right)) <= 0);
+        } else if (left instanceof DaroNumber && right instanceof DaroNumber) {
+            return DaroBoolean.valueOf(((DaroNumber)left).doubleValue() <= ((DaroNumber)right).doubleValue());
+        } else {
+            return DaroBoolean.valueOf(left.toString().compareTo(right.toString()) <= 0);
+        }
+    }
+
+    /**
+     * Test whether the left object is more than the right object.
+     *
+     * @param left  The left operand
+     * @param right The right operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject moreThan(DaroObject left, DaroObject right) {
+        if (left instanceof DaroInteger && right instanceof DaroInteger) {
+            return DaroBoolean.valueOf(((DaroInteger)left).compareTo(((DaroInteger)right)) > 0);
+        } else if (left instanceof DaroNumber && right instanceof DaroNumber) {
+            return DaroBoolean.valueOf(((DaroNumber)left).doubleValue() > ((DaroNumber)right).doubleValue());
+        } else {
+            return DaroBoolean.valueOf(left.toString().compareTo(right.toString()) > 0);
+        }
+    }
+
+    /**
+     * Test whether the left object is more than or equal to the right object.
+     *
+     * @param left  The left operand
+     * @param right The right operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject moreOrEqual(DaroObject left, DaroObject right) {
+        if (left instanceof DaroInteger && right instanceof DaroInteger) {
+            return DaroBoolean.valueOf(((DaroInteger)left).compareTo(((DaroInteger)right)) >= 0);
+        } else if (left instanceof DaroNumber && right instanceof DaroNumber) {
+            return DaroBoolean.valueOf(((DaroNumber)left).doubleValue() >= ((DaroNumber)right).doubleValue());
+        } else {
+            return DaroBoolean.valueOf(left.toString().compareTo(right.toString()) >= 0);
+        }
+    }
+
+    /**
+     * Return the value of the given number unchanged.
+     *
+     * @param value The operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject positive(DaroObject value) {
+        if (value instanceof DaroNumber) {
+            return value;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Negate the given number.
+     *
+     * @param value The operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject negative(DaroObject value) {
+        if (value instanceof DaroInteger) {
+            return ((DaroInteger)value).negate();
+        } else if (value instanceof DaroNumber) {
+            return new DaroReal(-((DaroNumber)value).doubleValue());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Compute the bitwise not of the given integer.
+     *
+     * @param value The operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject bitwiseNot(DaroObject value) {
+        if (value instanceof DaroInteger) {
+            return ((DaroInteger)value).not();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Compute the logical negation of the given object.
+     *
+     * @param value The operand
+     * @return The result, or null if the operation is not supported
+     */
+    public static DaroObject not(DaroObject value) {
+        return DaroBoolean.valueOf(!value.isTrue());
+    }
+}
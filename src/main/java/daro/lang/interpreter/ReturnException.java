@@ -7,7 +7,10 @@ import daro.lang.values.DaroObject;
  * This represents an exception that is thrown if a return is encountered by the
  * {@link Executor}. This simplifies the implementation by using the Java VMs
  * unrolling mechanism. If this exception is not handled by the executor the
- * return statement was unexpected, i.e. not inside a function call.
+ * return statement was unexpected, i.e. not inside a function call. Because
+ * returns are part of the normal control flow, this exception does not record
+ * a stack trace. Filling in the stack trace would otherwise be the most
+ * expensive part of most function calls.
  *
  * @author Roland Bernard
  */
@@ -34,4 +37,10 @@ public class ReturnException extends InterpreterException {
     public DaroObject getReturnValue() {
         return value;
     }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        // The stack trace is never used for control flow
+        return this;
+    }
 }
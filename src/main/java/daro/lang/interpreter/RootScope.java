@@ -30,18 +30,18 @@ public class RootScope extends ConstantScope {
     private static Map<String, DaroObject> buildRootVariables() {
         Map<String, DaroObject> variables = new HashMap<>();
         // Types
-        variables.put("int", new DaroTypeInteger());
-        variables.put("real", new DaroTypeReal());
-        variables.put("bool", new DaroTypeBoolean());
-        variables.put("string", new DaroTypeString());
-        variables.put("type", new DaroTypeType());
-        variables.put("function", new DaroTypeFunction());
-        variables.put("array", new DaroTypeArray());
-        variables.put("module", new DaroTypeModule());
+        variables.put("int", DaroTypeInteger.INSTANCE);
+        variables.put("real", DaroTypeReal.INSTANCE);
+        variables.put("bool", DaroTypeBoolean.INSTANCE);
+        variables.put("string", DaroTypeString.INSTANCE);
+        variables.put("type", DaroTypeType.INSTANCE);
+        variables.put("function", DaroTypeFunction.INSTANCE);
+        variables.put("array", DaroTypeArray.INSTANCE);
+        variables.put("module", DaroTypeModule.INSTANCE);
         // Values
-        variables.put("null", new DaroNull());
-        variables.put("true", new DaroBoolean(true));
-        variables.put("false", new DaroBoolean(false));
+        variables.put("null", DaroNull.NULL);
+        variables.put("true", DaroBoolean.TRUE);
+        variables.put("false", DaroBoolean.FALSE);
         // Functions
         variables.put("typeof", new DaroLambdaFunction(1, params -> {
             return params[0].getType();
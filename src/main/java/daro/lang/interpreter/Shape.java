@@ -0,0 +1,150 @@
+package daro.lang.interpreter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class represents the layout of the variables inside a
+ * {@link ShapedScope}. A shape maps every variable name to the index of the
+ * slot that stores its value. Shapes are immutable and shared by all scopes
+ * that have the same variables, added in the same order. Adding a variable to
+ * a scope transitions it to a new shape, which is created only the first time
+ * the transition is taken and reused afterwards.
+ * <p>
+ * All shapes reachable from a root shape form a tree. A shape can remember the
+ * size scopes starting with it are expected to reach, e.g. the number of fields
+ * of a class instance after running the class body, so that new scopes can
+ * allocate their slots once instead of growing them while their variables are
+ * added.
+ *
+ * @author Roland Bernard
+ */
+public final class Shape {
+    private final Shape root;
+    private final String[] names;
+    private final Map<String, Integer> indices;
+    private final Map<String, Shape> transitions;
+    private int expectedSize;
+
+    /**
+     * Create a new empty root shape.
+     */
+    public Shape() {
+        this.root = this;
+        this.names = new String[0];
+        this.indices = Map.of();
+        this.transitions = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Create a new shape containing the variables of the given shape and a new
+     * variable with the given name. This constructor is only to be used by
+     * {@link #withVariable(String)}.
+     *
+     * @param parent The shape this shape transitions from
+     * @param name   The name of the added variable
+     */
+    private Shape(Shape parent, String name) {
+        this.root = parent.root;
+        this.names = new String[parent.names.length + 1];
+        System.arraycopy(parent.names, 0, names, 0, parent.names.length);
+        this.names[parent.names.length] = name;
+        this.indices = new HashMap<>(parent.indices);
+        this.indices.put(name, parent.names.length);
+        this.transitions = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the number of variables in this shape.
+     *
+     * @return The number of variables
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns the index of the slot storing the variable with the given name.
+     *
+     * @param name The name of the variable
+     * @return The index of the variable, or -1 if it is not part of the shape
+     */
+    public int getIndex(String name) {
+        Integer index = indices.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the name of the variable stored at the given index.
+     *
+     * @param index The index of the slot
+     * @return The name of the variable
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Returns the root of the tree this shape is part of.
+     *
+     * @return The root shape
+     */
+    public Shape getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the number of variables scopes starting with this shape are
+     * expected to reach. This is the number of slots new scopes should allocate.
+     *
+     * @return The expected number of variables
+     */
+    public int getExpectedSize() {
+        return Math.max(expectedSize, names.length);
+    }
+
+    /**
+     * Record the number of variables a scope starting with this shape has
+     * reached, e.g. after it has been initialized. New scopes starting with this
+     * shape will be expecting the same size.
+     *
+     * @param size The size reached by the scope
+     */
+    public void setExpectedSize(int size) {
+        expectedSize = size;
+    }
+
+    /**
+     * Returns the shape that results from adding a variable with the given name
+     * to this shape. The variable must not already be part of this shape.
+     *
+     * @param name The name of the new variable
+     * @return The shape including the new variable
+     */
+    public Shape withVariable(String name) {
+        Shape next = transitions.get(name);
+        if (next == null) {
+            next = transitions.computeIfAbsent(name, key -> new Shape(this, key));
+        }
+        return next;
+    }
+
+    /**
+     * Returns the shape that results from removing the variable with the given
+     * name from this shape. The remaining variables keep their order, but their
+     * indices may change.
+     *
+     * @param name The name of the variable to remove
+     * @return The shape without the variable
+     */
+    public Shape withoutVariable(String name) {
+        Shape result = root;
+        for (String variable : names) {
+            if (!variable.equals(name)) {
+                result = result.withVariable(variable);
+            }
+        }
+        return result;
+    }
+}
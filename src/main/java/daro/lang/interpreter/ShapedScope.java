@@ -0,0 +1,60 @@
+package daro.lang.interpreter;
+
+import daro.lang.values.DaroObject;
+
+/**
+ * This class implements a {@link BlockScope} that stores its variables using a
+ * shared {@link Shape}. Scopes that are created from the same root shape and
+ * define the same variables in the same order share their shape, and store
+ * only the values of the variables. This is used for the instances of classes,
+ * of which there are usually many with the same variables.
+ * 
+ * @author Roland Bernard
+ */
+public class ShapedScope extends BlockScope {
+    private final SlotMap slots;
+
+    /**
+     * Creates a new empty {@link ShapedScope} with the given root shape and
+     * parent.
+     * 
+     * @param shape  The root shape of the scope
+     * @param parent The parent scope
+     */
+    public ShapedScope(Shape shape, Scope ...parent) {
+        this(new SlotMap(shape), parent);
+    }
+
+    /**
+     * Creates a new {@link ShapedScope} using the given slots and parent. This
+     * constructor is only to be used internally by this class.
+     * 
+     * @param slots  The internal variables map
+     * @param parent The parent scope
+     */
+    private ShapedScope(SlotMap slots, Scope ...parent) {
+        super(slots, parent);
+        this.slots = slots;
+    }
+
+    /**
+     * Returns the current shape of the scope. The shape changes whenever a new
+     * variable is defined in the scope.
+     * 
+     * @return The current shape
+     */
+    public Shape getShape() {
+        return slots.getShape();
+    }
+
+    /**
+     * Returns the value of the variable stored at the given index of the current
+     * shape of the scope.
+     * 
+     * @param index The index of the variable in the current shape
+     * @return The value of the variable
+     */
+    public DaroObject getSlotValue(int index) {
+        return slots.getSlot(index);
+    }
+}
@@ -0,0 +1,147 @@
+package daro.lang.interpreter;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import daro.lang.values.DaroObject;
+
+/**
+ * This class implements the variables map of a {@link ShapedScope}. The names
+ * of the variables are stored in a shared {@link Shape}, only the values are
+ * stored in the map itself, inside a compact array.
+ *
+ * @author Roland Bernard
+ */
+final class SlotMap extends AbstractMap<String, DaroObject> {
+    private Shape shape;
+    private DaroObject[] values;
+
+    /**
+     * Create a new empty map starting with the given shape. The slots are
+     * allocated for the size the shape expects the map to reach.
+     *
+     * @param shape The shape of the empty map
+     */
+    SlotMap(Shape shape) {
+        this.shape = shape;
+        this.values = new DaroObject[shape.getExpectedSize()];
+    }
+
+    /**
+     * Returns the current shape of the map.
+     *
+     * @return The shape of the map
+     */
+    Shape getShape() {
+        return shape;
+    }
+
+    /**
+     * Returns the value stored at the given index of the current shape.
+     *
+     * @param index The index of the slot
+     * @return The value in the slot
+     */
+    DaroObject getSlot(int index) {
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return shape.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && shape.getIndex((String)key) >= 0;
+    }
+
+    @Override
+    public DaroObject get(Object key) {
+        if (key instanceof String) {
+            int index = shape.getIndex((String)key);
+            return index < 0 ? null : values[index];
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public DaroObject put(String key, DaroObject value) {
+        int index = shape.getIndex(key);
+        if (index < 0) {
+            shape = shape.withVariable(key);
+            index = shape.size() - 1;
+            if (index >= values.length) {
+                values = Arrays.copyOf(values, Math.max(index + 1, 2 * values.length));
+            }
+            values[index] = value;
+            return null;
+        } else {
+            DaroObject old = values[index];
+            values[index] = value;
+            return old;
+        }
+    }
+
+    @Override
+    public DaroObject remove(Object key) {
+        if (containsKey(key)) {
+            Shape old = shape;
+            DaroObject[] oldValues = values;
+            shape = old.withoutVariable((String)key);
+            values = new DaroObject[shape.size()];
+            for (int i = 0; i < shape.size(); i++) {
+                values[i] = oldValues[old.getIndex(shape.getName(i))];
+            }
+            return oldValues[old.getIndex((String)key)];
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public void clear() {
+        shape = shape.getRoot();
+        Arrays.fill(values, null);
+    }
+
+    @Override
+    public Set<Entry<String, DaroObject>> entrySet() {
+        return new AbstractSet<Entry<String, DaroObject>>() {
+
+            @Override
+            public int size() {
+                return shape.size();
+            }
+
+            @Override
+            public Iterator<Entry<String, DaroObject>> iterator() {
+                return new Iterator<Entry<String, DaroObject>>() {
+                    private final Shape current = shape;
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < current.size();
+                    }
+
+                    @Override
+                    public Entry<String, DaroObject> next() {
+                        if (index < current.size()) {
+                            String name = current.getName(index);
+                            index++;
+                            return new SimpleImmutableEntry<>(name, get(name));
+                        } else {
+                            throw new NoSuchElementException();
+                        }
+                    }
+                };
+            }
+        };
+    }
+}
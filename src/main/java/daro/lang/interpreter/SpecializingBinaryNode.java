@@ -0,0 +1,55 @@
+package daro.lang.interpreter;
+
+import daro.lang.ast.AstNode;
+import daro.lang.interpreter.BinaryOperation.Specialization;
+import daro.lang.values.DaroObject;
+
+/**
+ * This class implements a compiled arithmetic or comparison operation that
+ * specializes itself on the types of the operands it sees, as described in
+ * {@link BinaryOperation}.
+ *
+ * @author Roland Bernard
+ */
+final class SpecializingBinaryNode implements CompiledNode {
+    private final AstNode ast;
+    private final CompiledNode left;
+    private final CompiledNode right;
+    private final BinaryOperation operation;
+    private Specialization specialization;
+
+    /**
+     * Create a new unspecialized node for the given operation.
+     *
+     * @param ast       The ast the node is compiled from
+     * @param left      The node computing the left operand
+     * @param right     The node computing the right operand
+     * @param operation The operation to execute
+     */
+    SpecializingBinaryNode(AstNode ast, CompiledNode left, CompiledNode right, BinaryOperation operation) {
+        this.ast = ast;
+        this.left = left;
+        this.right = right;
+        this.operation = operation;
+        this.specialization = Specialization.NONE;
+    }
+
+    /**
+     * Returns the kind of operands the node is currently specialized for.
+     *
+     * @return The current specialization
+     */
+    Specialization getSpecialization() {
+        return specialization;
+    }
+
+    @Override
+    public DaroObject execute(ExecutionContext context) {
+        DaroObject a = left.execute(context);
+        DaroObject b = right.execute(context);
+        if (!BinaryOperation.accepts(specialization, a, b)) {
+            specialization = BinaryOperation.specialize(specialization, a, b);
+        }
+        return NodeCompiler.checkBinary(ast, a, b, operation.apply(specialization, a, b));
+    }
+}
@@ -0,0 +1,70 @@
+package daro.lang.interpreter;
+
+import daro.lang.ast.AstCall;
+import daro.lang.values.DaroAstFunction;
+import daro.lang.values.DaroObject;
+
+/**
+ * This represents an exception that is thrown by the execution engines for a
+ * call in tail position. Instead of calling the function directly, the stack is
+ * unrolled up to the invocation of the enclosing {@link DaroAstFunction}, which
+ * will then execute the called function in its place. This way tail recursive
+ * functions run in constant stack space. Like the {@link ReturnException} this
+ * exception does not record a stack trace.
+ *
+ * @author Roland Bernard
+ */
+public class TailCallException extends InterpreterException {
+    private static final long serialVersionUID = 1L;
+    private final AstCall call;
+    private final DaroAstFunction function;
+    private final DaroObject[] parameters;
+
+    /**
+     * Create a {@link TailCallException} for the given call, function and
+     * parameters.
+     * 
+     * @param call       The {@link AstCall} that is executed
+     * @param function   The function that should be called
+     * @param parameters The parameters of the call
+     */
+    public TailCallException(AstCall call, DaroAstFunction function, DaroObject[] parameters) {
+        super(call.getPosition(), "Unexpected tail call");
+        this.call = call;
+        this.function = function;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Get the {@link AstCall} that is executed.
+     * 
+     * @return The call node
+     */
+    public AstCall getCall() {
+        return call;
+    }
+
+    /**
+     * Get the function that should be called.
+     * 
+     * @return The called function
+     */
+    public DaroAstFunction getFunction() {
+        return function;
+    }
+
+    /**
+     * Get the parameters the function should be called with.
+     * 
+     * @return The parameters of the call
+     */
+    public DaroObject[] getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        // The stack trace is never used for control flow
+        return this;
+    }
+}
@@ -0,0 +1,649 @@
+package daro.lang.interpreter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import daro.lang.ast.*;
+
+/**
+ * This class is used to statically bind symbols to the slots of the
+ * {@link FrameScope} they will be found in during execution. Only variables
+ * that are known to exist before execution (i.e. function parameters and
+ * for-in loop variables) are resolved. All other symbols are left to be looked
+ * up by name.
+ * <p>
+ * The resolver also performs the capture analysis of functions and classes,
+ * recording the free variables of every definition as {@link Captures}.
+ * 
+ * @author Roland Bernard
+ */
+public class VariableResolver implements Visitor<Void> {
+    private final Deque<StaticScope> scopes;
+    private boolean inFunction;
+
+    /**
+     * This class represents a scope as seen by the {@link VariableResolver}.
+     */
+    private static class StaticScope {
+        private final String[] slots;
+        private final Set<String> declared;
+        private final boolean barrier;
+        private final Set<String> assigned;
+        private final boolean extensible;
+        private final Set<String> free;
+
+        /**
+         * Create a new {@link StaticScope}.
+         * 
+         * @param slots    The names of the slots if this is a frame, null otherwise
+         * @param declared The names that are declared by name in this scope
+         * @param barrier  Whether variables outside this scope might be shadowed
+         */
+        public StaticScope(String[] slots, Set<String> declared, boolean barrier) {
+            this(slots, declared, barrier, Set.of(), false, false);
+        }
+
+        /**
+         * Create a new {@link StaticScope} with information for the capture
+         * analysis.
+         * 
+         * @param slots      The names of the slots if this is a frame, null otherwise
+         * @param declared   The names that are declared by name in this scope
+         * @param barrier    Whether variables outside this scope might be shadowed
+         * @param assigned   The names that are assigned to directly in this scope
+         * @param extensible Whether this scope might be extended using {@code use}
+         * @param capturing  Whether the free variables of this scope should be collected
+         */
+        public StaticScope(
+            String[] slots, Set<String> declared, boolean barrier, Set<String> assigned, boolean extensible,
+            boolean capturing
+        ) {
+            this.slots = slots;
+            this.declared = declared;
+            this.barrier = barrier;
+            this.assigned = assigned;
+            this.extensible = extensible;
+            this.free = capturing ? new LinkedHashSet<>() : null;
+        }
+
+        public boolean isFrame() {
+            return slots != null;
+        }
+
+        public boolean isBarrier() {
+            return barrier;
+        }
+
+        public boolean declares(String name) {
+            return declared.contains(name);
+        }
+
+        public boolean assigns(String name) {
+            return assigned.contains(name);
+        }
+
+        public boolean isExtensible() {
+            return extensible;
+        }
+
+        public boolean binds(String name) {
+            return declares(name) || (isFrame() && getSlotIndex(name) >= 0);
+        }
+
+        public int getSlotIndex(String name) {
+            for (int i = slots.length - 1; i >= 0; i--) {
+                if (slots[i].equals(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Create a new {@link VariableResolver}.
+     */
+    public VariableResolver() {
+        this.scopes = new ArrayDeque<>();
+    }
+
+    /**
+     * Resolve all the symbols inside the given {@link AstNode}.
+     * 
+     * @param program The {@link AstNode} to resolve
+     */
+    public static void resolveProgram(AstNode program) {
+        (new VariableResolver()).resolve(program);
+    }
+
+    /**
+     * Resolve all the symbols inside the given {@link AstNode}.
+     * 
+     * @param program The {@link AstNode} to resolve
+     */
+    public void resolve(AstNode program) {
+        if (program != null) {
+            program.accept(this);
+        }
+    }
+
+    /**
+     * Collect the names of all the functions and classes that will be defined
+     * directly inside the scope executing the given {@link AstNode}. This uses the
+     * same rules as the {@link ScopeInitializer}.
+     * 
+     * @param node  The node to search in
+     * @param names The set to add the names to
+     */
+    private static void collectDeclarations(AstNode node, Set<String> names) {
+        if (node instanceof AstFunction) {
+            AstFunction function = (AstFunction)node;
+            if (function.getName() != null) {
+                names.add(function.getName());
+            }
+        } else if (node instanceof AstClass) {
+            AstClass classNode = (AstClass)node;
+            if (classNode.getName() != null) {
+                names.add(classNode.getName());
+            }
+        } else if (node != null && !(node instanceof AstBlock)) {
+            for (AstNode child : node.getChildren()) {
+                collectDeclarations(child, names);
+            }
+        }
+    }
+
+    /**
+     * Collect the names of all the variables that are assigned to directly
+     * inside the scope executing the given {@link AstNode}.
+     * 
+     * @param node  The node to search in
+     * @param names The set to add the names to
+     * @return true if the node contains a {@code use} statement, false otherwise
+     */
+    private static boolean collectAssignments(AstNode node, Set<String> names) {
+        if (node instanceof AstUse || node instanceof AstFrom) {
+            return true;
+        } else if (
+            node != null && !(node instanceof AstBlock || node instanceof AstFunction || node instanceof AstClass)
+        ) {
+            boolean extensible = false;
+            if (node instanceof AstAssignment && ((AstAssignment)node).getLeft() instanceof AstSymbol) {
+                names.add(((AstSymbol)((AstAssignment)node).getLeft()).getName());
+            }
+            for (AstNode child : node.getChildren()) {
+                extensible |= collectAssignments(child, names);
+            }
+            return extensible;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Compute the {@link Captures} of a function or class from its free variables
+     * and the scopes surrounding it. The result is null if the definition might
+     * see variables that are defined later by a surrounding scope, in a way that
+     * can not be detected when the definition is evaluated.
+     * 
+     * @param free The free variables of the definition
+     * @return The captures of the definition, or null
+     */
+    private Captures computeCaptures(Set<String> free) {
+        Set<String> required = new LinkedHashSet<>();
+        for (StaticScope scope : scopes) {
+            if (scope.isBarrier()) {
+                // The instance scope of a class is never trimmed
+                break;
+            } else if (scope.isExtensible()) {
+                return null;
+            }
+            for (String name : free) {
+                if (scope.declares(name)) {
+                    // Hoisting might define the variable only after the definition
+                    return null;
+                } else if (scope.assigns(name)) {
+                    required.add(name);
+                }
+            }
+        }
+        return new Captures(free.toArray(new String[free.size()]), required.toArray(new String[required.size()]));
+    }
+
+    /**
+     * Mark all the calls whose value will become the value of the given
+     * {@link AstNode} as tail calls. The node must itself be in tail position, i.e.
+     * its value must be directly returned from the enclosing function.
+     * 
+     * @param node The node in tail position
+     */
+    private static void markTailCalls(AstNode node) {
+        if (node instanceof AstCall) {
+            ((AstCall)node).setTailCall(true);
+        } else if (node instanceof AstSequence) {
+            AstNode[] statements = ((AstSequence)node).getStatements();
+            if (statements.length > 0) {
+                markTailCalls(statements[statements.length - 1]);
+            }
+        } else if (node instanceof AstIfElse) {
+            AstIfElse ifElse = (AstIfElse)node;
+            markTailCalls(ifElse.getIf());
+            markTailCalls(ifElse.getElse());
+        } else if (node instanceof AstMatch) {
+            for (AstMatchCase option : ((AstMatch)node).getCases()) {
+                markTailCalls(option.getStatement());
+            }
+        }
+    }
+
+    @Override
+    public Void visit(AstInteger ast) {
+        return null;
+    }
+
+    @Override
+    public Void visit(AstReal ast) {
+        return null;
+    }
+
+    @Override
+    public Void visit(AstString ast) {
+        return null;
+    }
+
+    @Override
+    public Void visit(AstCharacter ast) {
+        return null;
+    }
+
+    /**
+     * Utility function to resolve a binary ast node.
+     * 
+     * @param ast The ast to resolve
+     */
+    public void resolveBinary(AstBinaryNode ast) {
+        resolve(ast.getLeft());
+        resolve(ast.getRight());
+    }
+
+    @Override
+    public Void visit(AstAddition ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstSubtract ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstMultiply ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstDivide ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstRemainder ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstShiftLeft ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstShiftRight ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstEqual ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstNotEqual ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstLessThan ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstLessOrEqual ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstMoreThan ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstMoreOrEqual ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstBitwiseAnd ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstBitwiseOr ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstBitwiseXor ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstAnd ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstOr ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstPositive ast) {
+        resolve(ast.getOperand());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstNegative ast) {
+        resolve(ast.getOperand());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstBitwiseNot ast) {
+        resolve(ast.getOperand());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstNot ast) {
+        resolve(ast.getOperand());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstReturn ast) {
+        resolve(ast.getOperand());
+        if (inFunction) {
+            markTailCalls(ast.getOperand());
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(AstClass ast) {
+        // The members of a class instance may shadow any variable outside the class
+        boolean wasInFunction = inFunction;
+        inFunction = false;
+        StaticScope scope = new StaticScope(null, Set.of(), true, Set.of(), false, true);
+        scopes.push(scope);
+        resolve(ast.getBody());
+        scopes.pop();
+        ast.setCaptures(computeCaptures(scope.free));
+        inFunction = wasInFunction;
+        return null;
+    }
+
+    @Override
+    public Void visit(AstFunction ast) {
+        AstSymbol[] parameters = ast.getParameters();
+        String[] names = new String[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            names[i] = parameters[i].getName();
+        }
+        boolean wasInFunction = inFunction;
+        inFunction = true;
+        StaticScope scope = new StaticScope(names, Set.of(), false, Set.of(), false, true);
+        scopes.push(scope);
+        resolve(ast.getBody());
+        scopes.pop();
+        // Tail calls are marked after resolving the body, which clears all marks
+        markTailCalls(ast.getBody());
+        ast.setCaptures(computeCaptures(scope.free));
+        // A reused definition must not run code compiled for its previous context
+        ast.setCompiledBody(null);
+        ast.setProfile(null);
+        inFunction = wasInFunction;
+        return null;
+    }
+
+    @Override
+    public Void visit(AstBlock ast) {
+        Set<String> declared = new HashSet<>();
+        Set<String> assigned = new HashSet<>();
+        boolean extensible = false;
+        for (AstNode statement : ast.getStatements()) {
+            collectDeclarations(statement, declared);
+            extensible |= collectAssignments(statement, assigned);
+        }
+        scopes.push(new StaticScope(null, declared, false, assigned, extensible, false));
+        for (AstNode statement : ast.getStatements()) {
+            resolve(statement);
+        }
+        scopes.pop();
+        return null;
+    }
+
+    @Override
+    public Void visit(AstSequence ast) {
+        for (AstNode statement : ast.getStatements()) {
+            resolve(statement);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(AstAssignment ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstSymbol ast) {
+        capture(ast.getName());
+        int depth = 0;
+        for (StaticScope scope : scopes) {
+            if (scope.isBarrier() || scope.declares(ast.getName())) {
+                break;
+            } else if (scope.isFrame()) {
+                int slot = scope.getSlotIndex(ast.getName());
+                if (slot >= 0) {
+                    ast.resolve(depth, slot);
+                    return null;
+                }
+                depth++;
+            }
+        }
+        // The variable can only be found dynamically
+        ast.resolve(-1, -1);
+        return null;
+    }
+
+    /**
+     * Record the given variable as free in all the functions and classes
+     * enclosing the current position, up to the scope that binds it.
+     * 
+     * @param name The name of the variable
+     */
+    private void capture(String name) {
+        for (StaticScope scope : scopes) {
+            if (scope.binds(name)) {
+                break;
+            } else if (scope.free != null) {
+                scope.free.add(name);
+            }
+        }
+    }
+
+    @Override
+    public Void visit(AstMember ast) {
+        resolve(ast.getOperand());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstCall ast) {
+        // The call is marked again if it is still in tail position
+        ast.setTailCall(false);
+        resolve(ast.getFunction());
+        for (AstNode parameter : ast.getParameters()) {
+            resolve(parameter);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(AstIndex ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstNew ast) {
+        resolve(ast.getType());
+        if (ast.getInitializer() != null) {
+            for (AstNode value : ast.getInitializer().getValues()) {
+                if (value instanceof AstAssignment) {
+                    // The left side might be evaluated inside the member scope of a class instance
+                    resolve(((AstAssignment)value).getRight());
+                } else {
+                    resolve(value);
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(AstArray ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstIfElse ast) {
+        resolve(ast.getCondition());
+        resolve(ast.getIf());
+        resolve(ast.getElse());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstFor ast) {
+        resolve(ast.getCondition());
+        resolve(ast.getBody());
+        ast.setCompiledCondition(null);
+        ast.setCompiledBody(null);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstForIn ast) {
+        resolve(ast.getList());
+        Set<String> declared = new HashSet<>();
+        Set<String> assigned = new HashSet<>();
+        collectDeclarations(ast.getBody(), declared);
+        boolean extensible = collectAssignments(ast.getBody(), assigned);
+        scopes.push(new StaticScope(new String[] {
+            ast.getVariable().getName()
+        }, declared, false, assigned, extensible, false));
+        resolve(ast.getBody());
+        scopes.pop();
+        ast.setCompiledBody(null);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstInitializer ast) {
+        for (AstNode parameter : ast.getValues()) {
+            resolve(parameter);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(AstPower ast) {
+        resolveBinary(ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstUse ast) {
+        resolve(ast.getOperand());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstFrom ast) {
+        resolve(ast.getOperand());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstMatch ast) {
+        resolve(ast.getValue());
+        for (AstMatchCase node : ast.getCases()) {
+            resolve(node);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(AstMatchCase ast) {
+        if (ast.getValues() != null) {
+            for (AstNode node : ast.getValues()) {
+                resolve(node);
+            }
+        }
+        resolve(ast.getStatement());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstIndexRange ast) {
+        resolve(ast.getArray());
+        resolve(ast.getStart());
+        resolve(ast.getEnd());
+        return null;
+    }
+}
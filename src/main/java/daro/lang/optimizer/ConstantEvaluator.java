@@ -0,0 +1,422 @@
+package daro.lang.optimizer;
+
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
+
+import daro.lang.ast.*;
+import daro.lang.interpreter.LiteralPool;
+import daro.lang.interpreter.Operations;
+import daro.lang.values.*;
+
+/**
+ * This class is used to compute the value of constant expressions at compile
+ * time. The operations are implemented by {@link Operations}, so the result is
+ * always the same as the one computed by the execution engines. An expression
+ * that is not constant, or whose execution would fail, has no value.
+ * <p>
+ * The evaluator expects the operands of numeric and string operations to have
+ * already been folded into literals by the {@link Optimizer}. Only the
+ * operands that result in booleans, which can not be represented by a literal,
+ * are evaluated recursively.
+ *
+ * @author Roland Bernard
+ */
+class ConstantEvaluator implements Visitor<DaroObject> {
+    /**
+     * The maximum number of bits of a result that is computed at compile time
+     * by an exponentiation or a left shift. Larger results are computed at
+     * runtime, if they are needed at all.
+     */
+    private static final int MAX_BITS = 1 << 12;
+
+    private static final ConstantEvaluator INSTANCE = new ConstantEvaluator();
+
+    private ConstantEvaluator() {
+        // Instances are stateless, use evaluate instead
+    }
+
+    /**
+     * Compute the value of the given {@link AstNode}.
+     *
+     * @param node The node to evaluate
+     * @return The value of the node, or null if it is not constant
+     */
+    public static DaroObject evaluate(AstNode node) {
+        if (node != null) {
+            return node.accept(INSTANCE);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if the given {@link AstNode} always results in a boolean value.
+     *
+     * @param node The node to test
+     * @return true if the node results in a boolean, false otherwise
+     */
+    static boolean isBoolean(AstNode node) {
+        return node instanceof AstEqual || node instanceof AstNotEqual || node instanceof AstLessThan
+            || node instanceof AstLessOrEqual || node instanceof AstMoreThan || node instanceof AstMoreOrEqual
+            || node instanceof AstAnd || node instanceof AstOr || node instanceof AstNot;
+    }
+
+    /**
+     * Returns the value of the given operand. The operand must either be a
+     * literal or an operation that results in a boolean.
+     *
+     * @param node The operand to evaluate
+     * @return The value of the operand, or null if it is not constant
+     */
+    private DaroObject operand(AstNode node) {
+        if (
+            node instanceof AstInteger || node instanceof AstReal || node instanceof AstString
+                || node instanceof AstCharacter || isBoolean(node)
+        ) {
+            return node.accept(this);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * This is a utility function for evaluating binary operations.
+     *
+     * @param ast       The ast to evaluate
+     * @param operation The operation to execute
+     * @return The result of the operation, or null
+     */
+    private DaroObject evaluateBinary(AstBinaryNode ast, BinaryOperator<DaroObject> operation) {
+        DaroObject left = operand(ast.getLeft());
+        if (left != null) {
+            DaroObject right = operand(ast.getRight());
+            if (right != null) {
+                try {
+                    return operation.apply(left, right);
+                } catch (RuntimeException error) {
+                    // The error will be raised at runtime, if the expression is executed
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This is a utility function for evaluating unary operations.
+     *
+     * @param ast       The ast to evaluate
+     * @param operation The operation to execute
+     * @return The result of the operation, or null
+     */
+    private DaroObject evaluateUnary(AstUnaryNode ast, UnaryOperator<DaroObject> operation) {
+        DaroObject value = operand(ast.getOperand());
+        if (value != null) {
+            try {
+                return operation.apply(value);
+            } catch (RuntimeException error) {
+                // The error will be raised at runtime, if the expression is executed
+                return null;
+            }
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if the given value is an integer with an absolute value that is
+     * at most {@link #MAX_BITS}.
+     *
+     * @param value The value to test
+     * @return true if the value is a small integer, false otherwise
+     */
+    private static boolean isSmallInteger(DaroObject value) {
+        if (value instanceof DaroInteger) {
+            DaroInteger integer = (DaroInteger)value;
+            return integer.isLong() && Math.abs(integer.longValue()) <= MAX_BITS;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public DaroObject visit(AstInteger ast) {
+        return LiteralPool.valueOf(ast);
+    }
+
+    @Override
+    public DaroObject visit(AstReal ast) {
+        return LiteralPool.valueOf(ast);
+    }
+
+    @Override
+    public DaroObject visit(AstString ast) {
+        return LiteralPool.valueOf(ast);
+    }
+
+    @Override
+    public DaroObject visit(AstCharacter ast) {
+        return LiteralPool.valueOf(ast);
+    }
+
+    @Override
+    public DaroObject visit(AstAddition ast) {
+        return evaluateBinary(ast, Operations::add);
+    }
+
+    @Override
+    public DaroObject visit(AstSubtract ast) {
+        return evaluateBinary(ast, Operations::subtract);
+    }
+
+    @Override
+    public DaroObject visit(AstMultiply ast) {
+        return evaluateBinary(ast, Operations::multiply);
+    }
+
+    @Override
+    public DaroObject visit(AstDivide ast) {
+        return evaluateBinary(ast, Operations::divide);
+    }
+
+    @Override
+    public DaroObject visit(AstRemainder ast) {
+        return evaluateBinary(ast, Operations::remainder);
+    }
+
+    @Override
+    public DaroObject visit(AstShiftLeft ast) {
+        return evaluateBinary(ast, (left, right) -> {
+            if (left instanceof DaroInteger && !isSmallInteger(right)) {
+                // The result might be too large to be computed eagerly
+                return null;
+            } else {
+                return Operations.shiftLeft(left, right);
+            }
+        });
+    }
+
+    @Override
+    public DaroObject visit(AstShiftRight ast) {
+        return evaluateBinary(ast, (left, right) -> {
+            if (left instanceof DaroInteger && !isSmallInteger(right)) {
+                // Negative distances result in a left shift
+                return null;
+            } else {
+                return Operations.shiftRight(left, right);
+            }
+        });
+    }
+
+    @Override
+    public DaroObject visit(AstEqual ast) {
+        return evaluateBinary(ast, Operations::equal);
+    }
+
+    @Override
+    public DaroObject visit(AstNotEqual ast) {
+        return evaluateBinary(ast, Operations::notEqual);
+    }
+
+    @Override
+    public DaroObject visit(AstLessThan ast) {
+        return evaluateBinary(ast, Operations::lessThan);
+    }
+
+    @Override
+    public DaroObject visit(AstLessOrEqual ast) {
+        return evaluateBinary(ast, Operations::lessOrEqual);
+    }
+
+    @Override
+    public DaroObject visit(AstMoreThan ast) {
+        return evaluateBinary(ast, Operations::moreThan);
+    }
+
+    @Override
+    public DaroObject visit(AstMoreOrEqual ast) {
+        return evaluateBinary(ast, Operations::moreOrEqual);
+    }
+
+    @Override
+    public DaroObject visit(AstBitwiseAnd ast) {
+        return evaluateBinary(ast, Operations::bitwiseAnd);
+    }
+
+    @Override
+    public DaroObject visit(AstBitwiseOr ast) {
+        return evaluateBinary(ast, Operations::bitwiseOr);
+    }
+
+    @Override
+    public DaroObject visit(AstBitwiseXor ast) {
+        return evaluateBinary(ast, Operations::bitwiseXor);
+    }
+
+    @Override
+    public DaroObject visit(AstAnd ast) {
+        DaroObject left = operand(ast.getLeft());
+        if (left != null && !left.isTrue()) {
+            return DaroBoolean.FALSE;
+        } else if (left != null) {
+            DaroObject right = operand(ast.getRight());
+            return right == null ? null : DaroBoolean.valueOf(right.isTrue());
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public DaroObject visit(AstOr ast) {
+        DaroObject left = operand(ast.getLeft());
+        if (left != null && left.isTrue()) {
+            return DaroBoolean.TRUE;
+        } else if (left != null) {
+            DaroObject right = operand(ast.getRight());
+            return right == null ? null : DaroBoolean.valueOf(right.isTrue());
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public DaroObject visit(AstPositive ast) {
+        return evaluateUnary(ast, Operations::positive);
+    }
+
+    @Override
+    public DaroObject visit(AstNegative ast) {
+        return evaluateUnary(ast, Operations::negative);
+    }
+
+    @Override
+    public DaroObject visit(AstBitwiseNot ast) {
+        return evaluateUnary(ast, Operations::bitwiseNot);
+    }
+
+    @Override
+    public DaroObject visit(AstNot ast) {
+        return evaluateUnary(ast, Operations::not);
+    }
+
+    @Override
+    public DaroObject visit(AstReturn ast) {
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstClass ast) {
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstFunction ast) {
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstBlock ast) {
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstSequence ast) {
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstAssignment ast) {
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstSymbol ast) {
+        // Symbols are never constant, even `true` and `false` can be shadowed
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstMember ast) {
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstCall ast) {
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstIndex ast) {
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstNew ast) {
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstArray ast) {
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstIfElse ast) {
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstFor ast) {
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstForIn ast) {
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstInitializer ast) {
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstPower ast) {
+        return evaluateBinary(ast, (left, right) -> {
+            if (left instanceof DaroInteger && right instanceof DaroInteger) {
+                DaroInteger base = (DaroInteger)left;
+                int bits = base.isLong() ? Long.SIZE - Long.numberOfLeadingZeros(Math.abs(base.longValue())) : MAX_BITS;
+                if (!isSmallInteger(right) || (long)bits * ((DaroInteger)right).longValue() > MAX_BITS) {
+                    // The result might be too large to be computed eagerly
+                    return null;
+                }
+            }
+            return Operations.power(left, right);
+        });
+    }
+
+    @Override
+    public DaroObject visit(AstUse ast) {
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstFrom ast) {
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstMatch ast) {
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstMatchCase ast) {
+        return null;
+    }
+
+    @Override
+    public DaroObject visit(AstIndexRange ast) {
+        return null;
+    }
+}
@@ -0,0 +1,682 @@
+package daro.lang.optimizer;
+
+import daro.lang.ast.*;
+import daro.lang.values.*;
+
+/**
+ * This class implements an optimization pass over the ast that is run before a
+ * program is executed. It folds constant expressions into literals, removes the
+ * branches of {@link AstIfElse}, {@link AstFor} and {@link AstMatch} that can
+ * never be executed, and simplifies redundant unary operations.
+ * <p>
+ * The optimizer never changes the behavior of a program. Expressions whose
+ * evaluation would fail are left to fail at runtime, and the nodes that remain
+ * in the tree keep their original positions. Because the ast nodes are
+ * immutable, the optimizer builds a new tree, reusing all the subtrees that
+ * have not been changed.
+ *
+ * @author Roland Bernard
+ */
+public class Optimizer implements Visitor<AstNode> {
+
+    /**
+     * This interface is used to rebuild binary nodes of any type.
+     */
+    private static interface BinaryConstructor {
+        /**
+         * Create a new binary node with the given position and operands.
+         *
+         * @param position The position of the node
+         * @param left     The left operand
+         * @param right    The right operand
+         * @return The new node
+         */
+        public AstNode create(Position position, AstNode left, AstNode right);
+    }
+
+    /**
+     * This interface is used to rebuild unary nodes of any type.
+     */
+    private static interface UnaryConstructor {
+        /**
+         * Create a new unary node with the given position and operand.
+         *
+         * @param position The position of the node
+         * @param operand  The operand
+         * @return The new node
+         */
+        public AstNode create(Position position, AstNode operand);
+    }
+
+    /**
+     * Optimize the given program.
+     *
+     * @param program The program to optimize
+     * @return The optimized program
+     */
+    public static AstNode optimizeProgram(AstNode program) {
+        return (new Optimizer()).optimize(program);
+    }
+
+    /**
+     * Optimize the given {@link AstNode}.
+     *
+     * @param node The node to optimize
+     * @return The optimized node, or null if the node was null
+     */
+    public AstNode optimize(AstNode node) {
+        if (node != null) {
+            return node.accept(this);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Optimize all of the given {@link AstNode}s. The array is only copied if any
+     * of the nodes changed.
+     *
+     * @param nodes The nodes to optimize
+     * @return The optimized nodes
+     */
+    private AstNode[] optimizeAll(AstNode[] nodes) {
+        AstNode[] result = nodes;
+        for (int i = 0; i < nodes.length; i++) {
+            AstNode optimized = optimize(nodes[i]);
+            if (optimized != nodes[i]) {
+                if (result == nodes) {
+                    result = nodes.clone();
+                }
+                result[i] = optimized;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the literal representing the given value, or null if the value can
+     * not be represented by a literal.
+     *
+     * @param position The position of the literal
+     * @param value    The value of the literal
+     * @return The literal node, or null
+     */
+    private static AstNode literal(Position position, DaroObject value) {
+        if (value instanceof DaroInteger) {
+            return new AstInteger(position, ((DaroInteger)value).getValue());
+        } else if (value instanceof DaroReal) {
+            return new AstReal(position, ((DaroReal)value).getValue());
+        } else if (value instanceof DaroString) {
+            return new AstString(position, ((DaroString)value).getValue());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Replace the given node with a literal if it is a constant expression that
+     * can be represented by a literal.
+     *
+     * @param node The node to fold
+     * @return The literal, or the unchanged node
+     */
+    private static AstNode fold(AstNode node) {
+        AstNode literal = literal(node.getPosition(), ConstantEvaluator.evaluate(node));
+        if (literal != null) {
+            return literal;
+        } else {
+            return node;
+        }
+    }
+
+    /**
+     * Returns a node that does nothing and results in an undefined value.
+     *
+     * @param position The position of the node
+     * @return The empty node
+     */
+    private static AstNode empty(Position position) {
+        return new AstSequence(position, new AstNode[0]);
+    }
+
+    /**
+     * Returns true if the given node is a literal that is used as the condition
+     * of a loop or branch.
+     *
+     * @param node The node to test
+     * @return true if the node is a literal, false otherwise
+     */
+    private static boolean isLiteral(AstNode node) {
+        return node instanceof AstInteger || node instanceof AstReal || node instanceof AstString
+            || node instanceof AstCharacter;
+    }
+
+    /**
+     * Returns a condition with the same truth value as the given constant condition
+     * that can be tested without executing any operation.
+     *
+     * @param condition The constant condition
+     * @param value     The value of the condition
+     * @return The simplified condition
+     */
+    private static AstNode condition(AstNode condition, DaroObject value) {
+        if (isLiteral(condition)) {
+            return condition;
+        } else {
+            return new AstInteger(condition.getPosition(), value.isTrue() ? 1 : 0);
+        }
+    }
+
+    /**
+     * Returns true if executing the given node will declare a function or class
+     * in the surrounding scope. Such nodes can not be removed, even if they are
+     * never executed, because the declarations are hoisted.
+     *
+     * @param node The node to test
+     * @return true if the node contains declarations, false otherwise
+     */
+    private static boolean containsDeclarations(AstNode node) {
+        if (node instanceof AstFunction) {
+            return ((AstFunction)node).getName() != null;
+        } else if (node instanceof AstClass) {
+            return ((AstClass)node).getName() != null;
+        } else if (node != null && !(node instanceof AstBlock)) {
+            for (AstNode child : node.getChildren()) {
+                if (containsDeclarations(child)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the given node always results in a number, if it does not
+     * fail.
+     *
+     * @param node The node to test
+     * @return true if the node results in a number, false otherwise
+     */
+    private static boolean isNumber(AstNode node) {
+        return isInteger(node) || node instanceof AstReal || node instanceof AstSubtract
+            || node instanceof AstMultiply || node instanceof AstDivide || node instanceof AstRemainder
+            || node instanceof AstPower || node instanceof AstPositive || node instanceof AstNegative;
+    }
+
+    /**
+     * Returns true if the given node always results in an integer, if it does not
+     * fail.
+     *
+     * @param node The node to test
+     * @return true if the node results in an integer, false otherwise
+     */
+    private static boolean isInteger(AstNode node) {
+        return node instanceof AstInteger || node instanceof AstCharacter || node instanceof AstShiftLeft
+            || node instanceof AstShiftRight || node instanceof AstBitwiseAnd || node instanceof AstBitwiseOr
+            || node instanceof AstBitwiseXor || node instanceof AstBitwiseNot;
+    }
+
+    /**
+     * This is a utility function for optimizing binary operations.
+     *
+     * @param ast         The ast to optimize
+     * @param constructor The constructor for the node type
+     * @return The optimized node
+     */
+    private AstNode optimizeBinary(AstBinaryNode ast, BinaryConstructor constructor) {
+        AstNode left = optimize(ast.getLeft());
+        AstNode right = optimize(ast.getRight());
+        if (left == ast.getLeft() && right == ast.getRight()) {
+            return ast;
+        } else {
+            return constructor.create(ast.getPosition(), left, right);
+        }
+    }
+
+    /**
+     * This is a utility function for optimizing unary operations.
+     *
+     * @param ast         The ast to optimize
+     * @param constructor The constructor for the node type
+     * @return The optimized node
+     */
+    private AstNode optimizeUnary(AstUnaryNode ast, UnaryConstructor constructor) {
+        AstNode operand = optimize(ast.getOperand());
+        if (operand == ast.getOperand()) {
+            return ast;
+        } else {
+            return constructor.create(ast.getPosition(), operand);
+        }
+    }
+
+    @Override
+    public AstNode visit(AstInteger ast) {
+        return ast;
+    }
+
+    @Override
+    public AstNode visit(AstReal ast) {
+        return ast;
+    }
+
+    @Override
+    public AstNode visit(AstString ast) {
+        return ast;
+    }
+
+    @Override
+    public AstNode visit(AstCharacter ast) {
+        return ast;
+    }
+
+    @Override
+    public AstNode visit(AstAddition ast) {
+        return fold(optimizeBinary(ast, AstAddition::new));
+    }
+
+    @Override
+    public AstNode visit(AstSubtract ast) {
+        return fold(optimizeBinary(ast, AstSubtract::new));
+    }
+
+    @Override
+    public AstNode visit(AstMultiply ast) {
+        return fold(optimizeBinary(ast, AstMultiply::new));
+    }
+
+    @Override
+    public AstNode visit(AstDivide ast) {
+        return fold(optimizeBinary(ast, AstDivide::new));
+    }
+
+    @Override
+    public AstNode visit(AstRemainder ast) {
+        return fold(optimizeBinary(ast, AstRemainder::new));
+    }
+
+    @Override
+    public AstNode visit(AstShiftLeft ast) {
+        return fold(optimizeBinary(ast, AstShiftLeft::new));
+    }
+
+    @Override
+    public AstNode visit(AstShiftRight ast) {
+        return fold(optimizeBinary(ast, AstShiftRight::new));
+    }
+
+    @Override
+    public AstNode visit(AstEqual ast) {
+        return optimizeBinary(ast, AstEqual::new);
+    }
+
+    @Override
+    public AstNode visit(AstNotEqual ast) {
+        return optimizeBinary(ast, AstNotEqual::new);
+    }
+
+    @Override
+    public AstNode visit(AstLessThan ast) {
+        return optimizeBinary(ast, AstLessThan::new);
+    }
+
+    @Override
+    public AstNode visit(AstLessOrEqual ast) {
+        return optimizeBinary(ast, AstLessOrEqual::new);
+    }
+
+    @Override
+    public AstNode visit(AstMoreThan ast) {
+        return optimizeBinary(ast, AstMoreThan::new);
+    }
+
+    @Override
+    public AstNode visit(AstMoreOrEqual ast) {
+        return optimizeBinary(ast, AstMoreOrEqual::new);
+    }
+
+    @Override
+    public AstNode visit(AstBitwiseAnd ast) {
+        return fold(optimizeBinary(ast, AstBitwiseAnd::new));
+    }
+
+    @Override
+    public AstNode visit(AstBitwiseOr ast) {
+        return fold(optimizeBinary(ast, AstBitwiseOr::new));
+    }
+
+    @Override
+    public AstNode visit(AstBitwiseXor ast) {
+        return fold(optimizeBinary(ast, AstBitwiseXor::new));
+    }
+
+    @Override
+    public AstNode visit(AstAnd ast) {
+        return optimizeBinary(ast, AstAnd::new);
+    }
+
+    @Override
+    public AstNode visit(AstOr ast) {
+        return optimizeBinary(ast, AstOr::new);
+    }
+
+    @Override
+    public AstNode visit(AstPositive ast) {
+        AstNode node = fold(optimizeUnary(ast, AstPositive::new));
+        if (node instanceof AstPositive && isNumber(((AstPositive)node).getOperand())) {
+            // The operand is returned unchanged if it is a number
+            return ((AstPositive)node).getOperand();
+        } else {
+            return node;
+        }
+    }
+
+    @Override
+    public AstNode visit(AstNegative ast) {
+        AstNode node = fold(optimizeUnary(ast, AstNegative::new));
+        if (node instanceof AstNegative && ((AstNegative)node).getOperand() instanceof AstNegative) {
+            AstNode operand = ((AstNegative)((AstNegative)node).getOperand()).getOperand();
+            if (isNumber(operand)) {
+                return operand;
+            }
+        }
+        return node;
+    }
+
+    @Override
+    public AstNode visit(AstBitwiseNot ast) {
+        AstNode node = fold(optimizeUnary(ast, AstBitwiseNot::new));
+        if (node instanceof AstBitwiseNot && ((AstBitwiseNot)node).getOperand() instanceof AstBitwiseNot) {
+            AstNode operand = ((AstBitwiseNot)((AstBitwiseNot)node).getOperand()).getOperand();
+            if (isInteger(operand)) {
+                return operand;
+            }
+        }
+        return node;
+    }
+
+    @Override
+    public AstNode visit(AstNot ast) {
+        AstNode node = optimizeUnary(ast, AstNot::new);
+        if (node instanceof AstNot && ((AstNot)node).getOperand() instanceof AstNot) {
+            AstNode operand = ((AstNot)((AstNot)node).getOperand()).getOperand();
+            if (ConstantEvaluator.isBoolean(operand)) {
+                return operand;
+            }
+        }
+        return node;
+    }
+
+    @Override
+    public AstNode visit(AstReturn ast) {
+        return optimizeUnary(ast, AstReturn::new);
+    }
+
+    @Override
+    public AstNode visit(AstClass ast) {
+        AstBlock body = (AstBlock)optimize(ast.getBody());
+        if (body == ast.getBody()) {
+            return ast;
+        } else {
+            return new AstClass(ast.getPosition(), ast.getName(), body);
+        }
+    }
+
+    @Override
+    public AstNode visit(AstFunction ast) {
+        AstBlock body = (AstBlock)optimize(ast.getBody());
+        if (body == ast.getBody()) {
+            return ast;
+        } else {
+            return new AstFunction(ast.getPosition(), ast.getName(), ast.getParameters(), body);
+        }
+    }
+
+    @Override
+    public AstNode visit(AstBlock ast) {
+        AstNode[] statements = optimizeAll(ast.getStatements());
+        if (statements == ast.getStatements()) {
+            return ast;
+        } else {
+            return new AstBlock(ast.getPosition(), statements);
+        }
+    }
+
+    @Override
+    public AstNode visit(AstSequence ast) {
+        AstNode[] statements = optimizeAll(ast.getStatements());
+        if (statements == ast.getStatements()) {
+            return ast;
+        } else {
+            return new AstSequence(ast.getPosition(), statements);
+        }
+    }
+
+    @Override
+    public AstNode visit(AstAssignment ast) {
+        return optimizeBinary(ast, AstAssignment::new);
+    }
+
+    @Override
+    public AstNode visit(AstSymbol ast) {
+        return ast;
+    }
+
+    @Override
+    public AstNode visit(AstMember ast) {
+        AstNode operand = optimize(ast.getOperand());
+        if (operand == ast.getOperand()) {
+            return ast;
+        } else {
+            return new AstMember(ast.getPosition(), operand, ast.getName());
+        }
+    }
+
+    @Override
+    public AstNode visit(AstCall ast) {
+        AstNode function = optimize(ast.getFunction());
+        AstNode[] parameters = optimizeAll(ast.getParameters());
+        if (function == ast.getFunction() && parameters == ast.getParameters()) {
+            return ast;
+        } else {
+            return new AstCall(ast.getPosition(), function, parameters);
+        }
+    }
+
+    @Override
+    public AstNode visit(AstIndex ast) {
+        return optimizeBinary(ast, AstIndex::new);
+    }
+
+    @Override
+    public AstNode visit(AstNew ast) {
+        AstNode type = optimize(ast.getType());
+        AstInitializer initializer = (AstInitializer)optimize(ast.getInitializer());
+        if (type == ast.getType() && initializer == ast.getInitializer()) {
+            return ast;
+        } else {
+            return new AstNew(ast.getPosition(), type, initializer);
+        }
+    }
+
+    @Override
+    public AstNode visit(AstArray ast) {
+        return optimizeBinary(ast, AstArray::new);
+    }
+
+    @Override
+    public AstNode visit(AstIfElse ast) {
+        AstNode condition = optimize(ast.getCondition());
+        AstNode ifBlock = optimize(ast.getIf());
+        AstNode elseBlock = optimize(ast.getElse());
+        DaroObject value = ConstantEvaluator.evaluate(condition);
+        if (value != null) {
+            AstNode taken = value.isTrue() ? ifBlock : elseBlock;
+            AstNode skipped = value.isTrue() ? elseBlock : ifBlock;
+            if (!containsDeclarations(skipped)) {
+                return taken != null ? taken : empty(ast.getPosition());
+            } else {
+                condition = condition(condition, value);
+            }
+        }
+        if (condition == ast.getCondition() && ifBlock == ast.getIf() && elseBlock == ast.getElse()) {
+            return ast;
+        } else {
+            return new AstIfElse(ast.getPosition(), condition, ifBlock, elseBlock);
+        }
+    }
+
+    @Override
+    public AstNode visit(AstFor ast) {
+        AstNode condition = optimize(ast.getCondition());
+        AstNode body = optimize(ast.getBody());
+        DaroObject value = ConstantEvaluator.evaluate(condition);
+        if (value != null) {
+            if (!value.isTrue() && !containsDeclarations(body)) {
+                return empty(ast.getPosition());
+            } else {
+                condition = condition(condition, value);
+            }
+        }
+        if (condition == ast.getCondition() && body == ast.getBody()) {
+            return ast;
+        } else {
+            return new AstFor(ast.getPosition(), condition, body);
+        }
+    }
+
+    @Override
+    public AstNode visit(AstForIn ast) {
+        AstNode list = optimize(ast.getList());
+        AstNode body = optimize(ast.getBody());
+        if (list == ast.getList() && body == ast.getBody()) {
+            return ast;
+        } else {
+            return new AstForIn(ast.getPosition(), ast.getVariable(), list, body);
+        }
+    }
+
+    @Override
+    public AstNode visit(AstInitializer ast) {
+        AstNode[] values = optimizeAll(ast.getValues());
+        if (values == ast.getValues()) {
+            return ast;
+        } else {
+            return new AstInitializer(ast.getPosition(), values);
+        }
+    }
+
+    @Override
+    public AstNode visit(AstPower ast) {
+        return fold(optimizeBinary(ast, AstPower::new));
+    }
+
+    @Override
+    public AstNode visit(AstUse ast) {
+        return optimizeUnary(ast, AstUse::new);
+    }
+
+    @Override
+    public AstNode visit(AstFrom ast) {
+        return optimizeUnary(ast, AstFrom::new);
+    }
+
+    @Override
+    public AstNode visit(AstMatch ast) {
+        AstNode value = optimize(ast.getValue());
+        AstMatchCase[] cases = ast.getCases().clone();
+        boolean changed = value != ast.getValue();
+        for (int i = 0; i < cases.length; i++) {
+            cases[i] = (AstMatchCase)optimize(cases[i]);
+            changed |= cases[i] != ast.getCases()[i];
+        }
+        DaroObject constant = ConstantEvaluator.evaluate(value);
+        if (constant != null) {
+            AstMatchCase selected = selectCase(constant, cases);
+            if (selected != null || allCasesAreConstant(cases)) {
+                boolean removable = true;
+                for (AstMatchCase option : cases) {
+                    if (option != selected && containsDeclarations(option.getStatement())) {
+                        removable = false;
+                    }
+                }
+                if (removable) {
+                    return selected != null ? selected.getStatement() : empty(ast.getPosition());
+                }
+            }
+        }
+        if (changed) {
+            return new AstMatch(ast.getPosition(), value, cases);
+        } else {
+            return ast;
+        }
+    }
+
+    /**
+     * Find the case that will be selected by a match on the given constant
+     * value. The cases are searched in order, and the search stops at the first
+     * value that is not constant.
+     *
+     * @param value The value that is matched
+     * @param cases The cases of the match
+     * @return The selected case, or null if it can not be determined statically
+     */
+    private static AstMatchCase selectCase(DaroObject value, AstMatchCase[] cases) {
+        for (AstMatchCase option : cases) {
+            if (option.getValues() == null) {
+                return option;
+            } else {
+                for (AstNode comparison : option.getValues()) {
+                    DaroObject compare = ConstantEvaluator.evaluate(comparison);
+                    if (compare == null) {
+                        return null;
+                    } else if (value.equals(compare)) {
+                        return option;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if all values of all the given cases are constant.
+     *
+     * @param cases The cases to test
+     * @return true if all values are constant, false otherwise
+     */
+    private static boolean allCasesAreConstant(AstMatchCase[] cases) {
+        for (AstMatchCase option : cases) {
+            if (option.getValues() != null) {
+                for (AstNode comparison : option.getValues()) {
+                    if (ConstantEvaluator.evaluate(comparison) == null) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public AstNode visit(AstMatchCase ast) {
+        AstNode[] values = ast.getValues() != null ? optimizeAll(ast.getValues()) : null;
+        AstNode statement = optimize(ast.getStatement());
+        if (values == ast.getValues() && statement == ast.getStatement()) {
+            return ast;
+        } else {
+            return new AstMatchCase(ast.getPosition(), values, statement);
+        }
+    }
+
+    @Override
+    public AstNode visit(AstIndexRange ast) {
+        AstNode array = optimize(ast.getArray());
+        AstNode start = optimize(ast.getStart());
+        AstNode end = optimize(ast.getEnd());
+        if (array == ast.getArray() && start == ast.getStart() && end == ast.getEnd()) {
+            return ast;
+        } else {
+            return new AstIndexRange(ast.getPosition(), array, start, end);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package daro.lang.parser;
+
+import java.util.Objects;
+
+/**
+ * This class is a view of the text that results from applying an edit to a
+ * previous text. It is used by the incremental parser if only the inserted text
+ * is given, so that the previous text does not have to be copied for every
+ * edit. The previous text may itself be an {@link EditedSource}, but after a
+ * number of consecutive edits the text is copied once, so that accessing a
+ * character stays cheap.
+ *
+ * @author Roland Bernard
+ */
+final class EditedSource implements CharSequence {
+    private static final int MAX_DEPTH = 16;
+
+    private final CharSequence previous;
+    private final int offset;
+    private final int removed;
+    private final String inserted;
+    private final int depth;
+
+    /**
+     * Create a new view of the edited text.
+     *
+     * @param previous The text before the edit
+     * @param offset   The offset in the previous text at which the edit starts
+     * @param removed  The number of characters removed by the edit
+     * @param inserted The text inserted by the edit
+     * @param depth    The number of edits applied to the last copied text
+     */
+    private EditedSource(CharSequence previous, int offset, int removed, String inserted, int depth) {
+        this.previous = previous;
+        this.offset = offset;
+        this.removed = removed;
+        this.inserted = inserted;
+        this.depth = depth;
+    }
+
+    /**
+     * Returns the text that results from applying the given edit to the given
+     * text.
+     *
+     * @param previous The text before the edit
+     * @param offset   The offset in the previous text at which the edit starts
+     * @param removed  The number of characters removed by the edit
+     * @param inserted The text inserted by the edit
+     * @return The edited text
+     */
+    static CharSequence of(CharSequence previous, int offset, int removed, String inserted) {
+        if (previous instanceof EditedSource) {
+            int depth = ((EditedSource)previous).depth;
+            if (depth < MAX_DEPTH) {
+                return new EditedSource(previous, offset, removed, inserted, depth + 1);
+            } else {
+                return new EditedSource(previous.toString(), offset, removed, inserted, 1);
+            }
+        } else {
+            return new EditedSource(previous, offset, removed, inserted, 1);
+        }
+    }
+
+    @Override
+    public int length() {
+        return previous.length() - removed + inserted.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, length());
+        if (index < offset) {
+            return previous.charAt(index);
+        } else if (index < offset + inserted.length()) {
+            return inserted.charAt(index - offset);
+        } else {
+            return previous.charAt(index - inserted.length() + removed);
+        }
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        Objects.checkFromToIndex(start, end, length());
+        return new SourceSlice(this, start, end);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(length());
+        builder.append(previous, 0, offset);
+        builder.append(inserted);
+        builder.append(previous, offset + removed, previous.length());
+        return builder.toString();
+    }
+}
@@ -0,0 +1,300 @@
+package daro.lang.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * This class implements a {@link CharSequence} over a memory mapped source
+ * file. Source files are not decoded or copied, every character is read
+ * directly from the mapped file when it is needed. Subsequences share the
+ * mapped file. Files that contain only ASCII characters are accessed directly,
+ * files that contain other characters are decoded from UTF-8 on demand using
+ * a sparse index of the character offsets.
+ * <p>
+ * The sequence reads the file while it is being used, so the file should not
+ * be modified while the source is still in use, e.g. by the positions of a
+ * parsed ast.
+ *
+ * @author Roland Bernard
+ */
+public final class MappedSource implements CharSequence {
+    /**
+     * This is the size in bytes from which on files are memory mapped by
+     * {@link #read(Path)}. Smaller files are cheaper to read into a
+     * {@link String}, and do not keep the file mapped.
+     */
+    public static final long MAPPING_THRESHOLD = 1 << 20;
+
+    private final ByteBuffer buffer;
+    private final Utf8Index index;
+    private final int start;
+    private final int length;
+
+    /**
+     * Create a new {@link MappedSource} for a part of the given buffer. If no
+     * index is given, all bytes in the buffer must be ASCII characters.
+     *
+     * @param buffer The buffer to read from
+     * @param index  The index of the characters in the buffer, or null
+     * @param start  The offset of the first character in the buffer
+     * @param length The number of characters
+     */
+    private MappedSource(ByteBuffer buffer, Utf8Index index, int start, int length) {
+        this.buffer = buffer;
+        this.index = index;
+        this.start = start;
+        this.length = length;
+    }
+
+    /**
+     * This class allows random access to the characters of a UTF-8 encoded
+     * buffer without decoding it. It stores the position of every
+     * {@value #STEP}th character, and decodes starting at the closest stored
+     * position. The position of the last access is remembered, so that reading
+     * the characters in order decodes every character only once.
+     */
+    private static final class Utf8Index {
+        private static final int STEP = 1024;
+
+        private final ByteBuffer buffer;
+        private final int length;
+        private int[] characters;
+        private int[] bytes;
+
+        /**
+         * The character and byte offset of the last accessed code point, stored in
+         * the upper and lower half.
+         */
+        private volatile long last;
+
+        /**
+         * Create the index for the given buffer, validating that it contains only
+         * valid UTF-8.
+         *
+         * @param buffer The buffer to index
+         * @throws IOException If the buffer is not valid UTF-8
+         */
+        private Utf8Index(ByteBuffer buffer) throws IOException {
+            this.buffer = buffer;
+            this.characters = new int[16];
+            this.bytes = new int[16];
+            int count = 0;
+            int checkpoints = 0;
+            int offset = 0;
+            while (offset < buffer.limit()) {
+                if (count >= checkpoints * STEP) {
+                    if (checkpoints == characters.length) {
+                        characters = Arrays.copyOf(characters, 2 * checkpoints);
+                        bytes = Arrays.copyOf(bytes, 2 * checkpoints);
+                    }
+                    characters[checkpoints] = count;
+                    bytes[checkpoints] = offset;
+                    checkpoints++;
+                }
+                int size = validate(offset);
+                count += size == 4 ? 2 : 1;
+                offset += size;
+            }
+            this.length = count;
+        }
+
+        /**
+         * Returns the number of bytes of the sequence starting with the given byte.
+         *
+         * @param lead The first byte of the sequence
+         * @return The length of the sequence, or 0 if the byte can not start one
+         */
+        private static int getSequenceLength(int lead) {
+            if (lead < 0x80) {
+                return 1;
+            } else if (lead >= 0xc2 && lead <= 0xdf) {
+                return 2;
+            } else if (lead >= 0xe0 && lead <= 0xef) {
+                return 3;
+            } else if (lead >= 0xf0 && lead <= 0xf4) {
+                return 4;
+            } else {
+                return 0;
+            }
+        }
+
+        /**
+         * Validate the sequence starting at the given offset, rejecting
+         * truncated, overlong and surrogate sequences.
+         *
+         * @param offset The offset of the sequence in the buffer
+         * @return The length of the sequence
+         * @throws IOException If the sequence is not valid UTF-8
+         */
+        private int validate(int offset) throws IOException {
+            int lead = buffer.get(offset) & 0xff;
+            int size = getSequenceLength(lead);
+            if (size == 0 || offset + size > buffer.limit()) {
+                throw new IOException("File is not valid UTF-8");
+            }
+            for (int i = 1; i < size; i++) {
+                if ((buffer.get(offset + i) & 0xc0) != 0x80) {
+                    throw new IOException("File is not valid UTF-8");
+                }
+            }
+            if (size > 2) {
+                int second = buffer.get(offset + 1) & 0xff;
+                if (
+                    (lead == 0xe0 && second < 0xa0) || (lead == 0xed && second >= 0xa0)
+                        || (lead == 0xf0 && second < 0x90) || (lead == 0xf4 && second >= 0x90)
+                ) {
+                    throw new IOException("File is not valid UTF-8");
+                }
+            }
+            return size;
+        }
+
+        /**
+         * Decode the code point starting at the given offset.
+         *
+         * @param offset The offset of the code point in the buffer
+         * @return The code point
+         */
+        private int decode(int offset) {
+            int lead = buffer.get(offset) & 0xff;
+            if (lead < 0x80) {
+                return lead;
+            } else if (lead < 0xe0) {
+                return ((lead & 0x1f) << 6) | (buffer.get(offset + 1) & 0x3f);
+            } else if (lead < 0xf0) {
+                return ((lead & 0x0f) << 12) | ((buffer.get(offset + 1) & 0x3f) << 6)
+                    | (buffer.get(offset + 2) & 0x3f);
+            } else {
+                return ((lead & 0x07) << 18) | ((buffer.get(offset + 1) & 0x3f) << 12)
+                    | ((buffer.get(offset + 2) & 0x3f) << 6) | (buffer.get(offset + 3) & 0x3f);
+            }
+        }
+
+        /**
+         * Returns the character at the given index. Characters outside of the
+         * basic multilingual plane are returned as two surrogates.
+         *
+         * @param index The index of the character
+         * @return The character at the index
+         */
+        private char charAt(int index) {
+            long position = last;
+            int character = (int)(position >>> 32);
+            int offset = (int)position;
+            if (index < character || index - character >= STEP) {
+                int checkpoint = index / STEP;
+                if (characters[checkpoint] > index) {
+                    // The checkpoint is placed after a surrogate pair
+                    checkpoint--;
+                }
+                character = characters[checkpoint];
+                offset = bytes[checkpoint];
+            }
+            while (true) {
+                int size = getSequenceLength(buffer.get(offset) & 0xff);
+                int count = size == 4 ? 2 : 1;
+                if (index < character + count) {
+                    break;
+                }
+                character += count;
+                offset += size;
+            }
+            last = ((long)character << 32) | offset;
+            int codePoint = decode(offset);
+            if (codePoint < 0x10000) {
+                return (char)codePoint;
+            } else if (index == character) {
+                return Character.highSurrogate(codePoint);
+            } else {
+                return Character.lowSurrogate(codePoint);
+            }
+        }
+    }
+
+    /**
+     * Read the source code of the given file. Large files are memory mapped
+     * using {@link #map(Path)}, smaller ones are read into a {@link String}.
+     *
+     * @param file The file to read
+     * @return The content of the file
+     * @throws IOException If the file can not be read or is not valid UTF-8
+     */
+    public static CharSequence read(Path file) throws IOException {
+        if (Files.size(file) >= MAPPING_THRESHOLD) {
+            return map(file);
+        } else {
+            return Files.readString(file);
+        }
+    }
+
+    /**
+     * Memory map the given file and return its content as a
+     * {@link CharSequence}. The file must be encoded in UTF-8. The content is
+     * not copied, but if the file contains other than ASCII characters, it is
+     * indexed once to allow random access to the characters.
+     *
+     * @param file The file to map
+     * @return The content of the file
+     * @throws IOException If the file can not be read or is not valid UTF-8
+     */
+    public static CharSequence map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large");
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            for (int i = 0; i < buffer.limit(); i++) {
+                if (buffer.get(i) < 0) {
+                    // This is not an ASCII character, so the file has to be decoded
+                    Utf8Index index = new Utf8Index(buffer);
+                    return new MappedSource(buffer, index, 0, index.length);
+                }
+            }
+            return new MappedSource(buffer, null, 0, buffer.limit());
+        }
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, length);
+        if (this.index == null) {
+            return (char)buffer.get(start + index);
+        } else {
+            return this.index.charAt(start + index);
+        }
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        Objects.checkFromToIndex(start, end, length);
+        return new MappedSource(buffer, index, this.start + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        if (index == null) {
+            byte[] bytes = new byte[length];
+            buffer.duplicate().position(start).get(bytes);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        } else {
+            StringBuilder builder = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                builder.append(index.charAt(start + i));
+            }
+            return builder.toString();
+        }
+    }
+}
@@ -3,16 +3,17 @@ package daro.lang.parser;
 import java.math.BigInteger;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.function.BinaryOperator;
-import java.util.function.Supplier;
+import java.util.Arrays;
 
 import daro.lang.ast.*;
 
 /**
  * This class implements the parser of the Daro language. It is implement as a
- * recursive decent parser. All methods are private except for the
- * parseSourceCode class method, that can be used by consumers of the class to
- * parse Daro source code into a ast tree.
+ * recursive decent parser, that decides which rule to apply by looking only at
+ * the next token. Binary operations are parsed using precedence climbing, so
+ * that an operand does not have to descend through every precedence level. All
+ * methods are private except for the parseSourceCode class method, that can be
+ * used by consumers of the class to parse Daro source code into a ast tree.
  * 
  * @author Roland Bernard
  */
@@ -23,6 +24,12 @@ public class Parser {
      * object.
      */
     private final Scanner scanner;
+    /**
+     * This variable stores the statements of a previous tree that can be reused
+     * instead of being parsed again. It is null unless an edited source is
+     * parsed incrementally.
+     */
+    private final ReusedStatements reused;
 
     /**
      * Create a Parser object for the given source.
@@ -30,55 +37,155 @@ public class Parser {
      * @param source The source code for the parser
      * @param file   The file for error message positions
      */
-    private Parser(String source, Path file) {
-        scanner = new Scanner(source, file);
+    private Parser(CharSequence source, Path file) {
+        this(new Scanner(source, file), null);
+    }
+
+    /**
+     * Create a Parser object using the given scanner, reusing the given
+     * statements of a previous tree.
+     * 
+     * @param scanner The scanner for the parser
+     * @param reused  The statements that can be reused, or null
+     */
+    private Parser(Scanner scanner, ReusedStatements reused) {
+        this.scanner = scanner;
+        this.reused = reused;
     }
 
     /**
-     * Parse the source code found in the given {@link String} into a ast tree using
-     * the types in daro.lang.ast. Errors during parsing will throw a
-     * {@link ParsingException}. A empty source does not constitute an syntax error
-     * and will return an empty {@link AstSequence} node.
+     * Parse the source code found in the given {@link CharSequence} into a ast
+     * tree using the types in daro.lang.ast. Errors during parsing will throw a
+     * {@link ParsingException}. A empty source does not constitute an syntax
+     * error and will return an empty {@link AstSequence} node.
      * 
      * @param source The source code that should be parsed
      * @return The root node for the resulting ast tree
      */
-    public static AstSequence parseSourceCode(String source) {
+    public static AstSequence parseSourceCode(CharSequence source) {
         return parseSourceCode(source, null);
     }
 
     /**
-     * Parse the source code found in the given {@link String} into a ast tree using
-     * the types in daro.lang.ast. Errors during parsing will throw a
-     * {@link ParsingException}. A empty source does not constitute an syntax error
-     * and will return an empty {@link AstSequence} node.
+     * Parse the source code found in the given {@link CharSequence} into a ast
+     * tree using the types in daro.lang.ast. Errors during parsing will throw a
+     * {@link ParsingException}. A empty source does not constitute an syntax
+     * error and will return an empty {@link AstSequence} node.
      * 
      * @param source The source code that should be parsed
      * @param file   The file for error message positions
      * @return The root node for the resulting ast tree
      */
-    public static AstSequence parseSourceCode(String source, Path file) {
+    public static AstSequence parseSourceCode(CharSequence source, Path file) {
         Parser parser = new Parser(source, file);
         return parser.parseRoot();
     }
 
     /**
-     * Utility function that returns the first option that does not resolve to null.
+     * Parse the source code that results from applying an edit to the source of
+     * a previously parsed ast tree. This is the same as calling
+     * {@link #reparseSourceCode(AstSequence, CharSequence, int, int, int)} with
+     * the edited source, which is not copied, but only viewed through the edit.
      * 
-     * @param <T>     The type of parameter returned by the supplies
-     * @param options The different suppliers that should be tested
-     * @return The first option in options that return non-null or null if all
-     *         return null
+     * @param previous The ast tree returned for the source before the edit
+     * @param offset   The offset in the previous source at which the edit starts
+     * @param removed  The number of characters removed by the edit
+     * @param inserted The text inserted by the edit
+     * @return The root node for the ast tree of the edited source
      */
-    @SafeVarargs
-    private static <T> T firstNonNull(Supplier<T> ...options) {
-        for (var option : options) {
-            T result = option.get();
-            if (result != null) {
-                return result;
+    public static AstSequence reparseSourceCode(AstSequence previous, int offset, int removed, String inserted) {
+        CharSequence text = previous.getPosition().getSource();
+        if (text == null) {
+            throw new IllegalArgumentException("The previous tree has no source text");
+        } else if (offset < 0 || removed < 0 || offset + removed > text.length()) {
+            throw new IllegalArgumentException("The edit is outside of the previous source text");
+        }
+        CharSequence source = EditedSource.of(text, offset, removed, inserted);
+        return reparseSourceCode(previous, source, offset, removed, inserted.length());
+    }
+
+    /**
+     * Parse the given source code, which results from applying an edit to the
+     * source of a previously parsed ast tree. The result is the same as parsing
+     * the edited source using parseSourceCode, including the
+     * {@link ParsingException} that is thrown for syntax errors, but only the
+     * statements that might be affected by the edit are scanned and parsed again.
+     * All other statements, at the top-level as well as inside of the bodies of
+     * functions and classes, are taken from the previous tree by reference.
+     * <p>
+     * The positions of the reused statements are moved into the edited source
+     * using a {@link LineIndex} derived from the previous one. The previous tree
+     * therefore refers to the edited source afterwards, and must not be used for
+     * parsing another edit. If the edited source contains a syntax error, the
+     * previous tree is left unchanged.
+     * 
+     * @param previous The ast tree returned for the source before the edit
+     * @param source   The edited source code
+     * @param offset   The offset in the previous source at which the edit starts
+     * @param removed  The number of characters removed by the edit
+     * @param inserted The number of characters inserted by the edit
+     * @return The root node for the ast tree of the edited source
+     */
+    public static AstSequence reparseSourceCode(
+        AstSequence previous, CharSequence source, int offset, int removed, int inserted
+    ) {
+        Position position = previous.getPosition();
+        if (position.getLineIndex() == null) {
+            throw new IllegalArgumentException("The previous tree has no source text");
+        }
+        LineIndex lines = position.getLineIndex().edit(source, offset, removed, inserted);
+        ReusedStatements reused = new ReusedStatements(previous, offset, removed, inserted);
+        int first = reused.getPrefixLength();
+        int start = first == 0 ? 0 : previous.getStatements()[first].getPosition().getStart();
+        Parser parser = new Parser(new Scanner(source, position.getFile(), lines, start), reused);
+        AstSequence result = parser.parseRemainingRoot(first);
+        lines.replacePrevious();
+        return result;
+    }
+
+    /**
+     * Parse the remainder of a root element of a Daro source code unit, after the
+     * given number of statements that are reused from the previous tree. Whenever
+     * a new statement would start at the moved start of one of the statements
+     * of the previous tree that lie after the edit, the remaining statements are
+     * taken from the previous tree instead of being parsed.
+     * 
+     * @param first The number of statements reused from the previous tree
+     * @return The parsed ast for the source
+     */
+    private AstSequence parseRemainingRoot(int first) {
+        AstNode[] old = reused.getStatements();
+        ArrayList<AstNode> statements = new ArrayList<>(Arrays.asList(old).subList(0, first));
+        boolean finished = false;
+        AstNode statement = null;
+        do {
+            while (scanner.accept(TokenKind.SEMICOLON) != null) {
+                // Consume all semicolons
             }
+            Token token = scanner.peek();
+            if (token != null) {
+                int index = reused.findRemaining(token.getPosition().getStart());
+                if (index >= 0) {
+                    // The rest of the source is unchanged, and so is its ast
+                    statements.addAll(Arrays.asList(old).subList(index, old.length));
+                    finished = true;
+                    break;
+                }
+            }
+            statement = parserStatement();
+            if (statement != null) {
+                statements.add(statement);
+            }
+        } while (statement != null);
+        if (!finished && scanner.hasNext()) {
+            throw new ParsingException(scanner.next().getPosition(), "Expected another statement (or the end)");
+        } else if (statements.isEmpty()) {
+            return new AstSequence(scanner.getPosition(), new AstNode[0]);
+        } else {
+            Position position =
+                new Position(statements.get(0).getPosition(), statements.get(statements.size() - 1).getPosition());
+            return new AstSequence(position, statements.toArray(new AstNode[statements.size()]));
         }
-        return null;
     }
 
     /**
@@ -126,7 +233,21 @@ public class Parser {
      * @return The parsed statement's ast, or null
      */
     private AstNode parserStatement() {
-        return firstNonNull(this::parseReturn, this::parseUse, this::parseExpression);
+        Token next = scanner.peek();
+        if (reused != null && next != null) {
+            AstNode statement = reused.find(next.getPosition().getStart());
+            if (statement != null) {
+                scanner.skipTo(reused.getEnd(statement));
+                return statement;
+            }
+        }
+        if (next != null && next.getKind() == TokenKind.RETURN) {
+            return parseReturn();
+        } else if (next != null && next.getKind() == TokenKind.USE) {
+            return parseUse();
+        } else {
+            return parseExpression();
+        }
     }
 
     /**
@@ -140,9 +261,14 @@ public class Parser {
             Token name = scanner.accept(TokenKind.IDENTIFIER);
             Token opening = scanner.accept(TokenKind.OPEN_PAREN);
             if (opening == null) {
-                throw new ParsingException(
-                    new Position(token.getPosition(), name.getPosition()), "Expected opening `(` after function name"
-                );
+                if (name != null) {
+                    throw new ParsingException(
+                        new Position(token.getPosition(), name.getPosition()),
+                        "Expected opening `(` after function name"
+                    );
+                } else {
+                    throw new ParsingException(token.getPosition(), "Expected opening `(` or name after `fn`");
+                }
             }
             ArrayList<AstSymbol> parameters = new ArrayList<>();
             Token parameter;
@@ -165,7 +291,7 @@ public class Parser {
             AstBlock body = parseCodeBlock();
             if (body == null) {
                 throw new ParsingException(
-                    new Position(token.getPosition(), name.getPosition()), "Expected body after parameter list"
+                    new Position(token.getPosition(), closing.getPosition()), "Expected body after parameter list"
                 );
             }
             return new AstFunction(
@@ -441,43 +567,100 @@ public class Parser {
     }
 
     /**
-     * This is a utility function that is able to parse binary expressions and is
-     * used for parsing most of the binary operations in this parser. It will accept
-     * binary infix operations where the operator is one of the tokens in operators.
-     * Both sides of will be generated by nextLevel and if a operation was found the
-     * ast node will be generated using the corresponding operator in build. (i.e.
-     * if we find operators[i] we will use build[i] to generate the resulting node
-     * given the left and right ast nodes)
+     * Returns the precedence of the binary operation represented by the given
+     * {@link TokenKind}. Operations with higher precedence bind stronger. If the
+     * token is not a binary operator, 0 is returned.
      * 
-     * @param nextLevel The next higher precedence level
-     * @param operators The operators that will be parsed
-     * @param build     The operators to generate the ast node
-     * @return The root node of the parsed ast tree
+     * @param kind The kind of the operator token
+     * @return The precedence of the operation, or 0
      */
-    @SafeVarargs
-    private AstNode parseBinaryExpression(
-        Supplier<AstNode> nextLevel, TokenKind[] operators, BinaryOperator<AstNode> ...build
-    ) {
-        AstNode ret = nextLevel.get();
-        if (ret != null) {
-            while (scanner.hasNext(operators)) {
-                Token token = scanner.next();
-                AstNode right = nextLevel.get();
-                if (right == null) {
-                    throw new ParsingException(
-                        new Position(ret.getPosition(), token.getPosition()),
-                        "Expected an expression after `" + token.getSource() + "`"
-                    );
-                }
-                for (int i = 0; i < operators.length; i++) {
-                    if (token.getKind() == operators[i]) {
-                        ret = build[i].apply(ret, right);
-                        break;
-                    }
-                }
-            }
+    private static int binaryPrecedence(TokenKind kind) {
+        switch (kind) {
+            case DOUBLE_PIPE:
+                return 1;
+            case DOUBLE_AND:
+                return 2;
+            case EQUAL:
+            case UNEQUAL:
+            case LESS:
+            case LESS_EQUAL:
+            case MORE:
+            case MORE_EQUAL:
+                return 3;
+            case PIPE:
+                return 4;
+            case CARET:
+                return 5;
+            case AND:
+                return 6;
+            case SHIFT_LEFT:
+            case SHIFT_RIGHT:
+                return 7;
+            case PLUS:
+            case MINUS:
+                return 8;
+            case ASTERISK:
+            case SLASH:
+            case PERCENT:
+                return 9;
+            case DOUBLE_ASTERISK:
+                return 10;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Create the ast node for the binary operation represented by the given
+     * {@link TokenKind}.
+     * 
+     * @param kind  The kind of the operator token
+     * @param left  The left operand
+     * @param right The right operand
+     * @return The ast node of the operation
+     */
+    private static AstNode createBinary(TokenKind kind, AstNode left, AstNode right) {
+        Position position = new Position(left.getPosition(), right.getPosition());
+        switch (kind) {
+            case DOUBLE_PIPE:
+                return new AstOr(position, left, right);
+            case DOUBLE_AND:
+                return new AstAnd(position, left, right);
+            case EQUAL:
+                return new AstEqual(position, left, right);
+            case UNEQUAL:
+                return new AstNotEqual(position, left, right);
+            case LESS:
+                return new AstLessThan(position, left, right);
+            case LESS_EQUAL:
+                return new AstLessOrEqual(position, left, right);
+            case MORE:
+                return new AstMoreThan(position, left, right);
+            case MORE_EQUAL:
+                return new AstMoreOrEqual(position, left, right);
+            case PIPE:
+                return new AstBitwiseOr(position, left, right);
+            case CARET:
+                return new AstBitwiseXor(position, left, right);
+            case AND:
+                return new AstBitwiseAnd(position, left, right);
+            case SHIFT_LEFT:
+                return new AstShiftLeft(position, left, right);
+            case SHIFT_RIGHT:
+                return new AstShiftRight(position, left, right);
+            case PLUS:
+                return new AstAddition(position, left, right);
+            case MINUS:
+                return new AstSubtract(position, left, right);
+            case ASTERISK:
+                return new AstMultiply(position, left, right);
+            case SLASH:
+                return new AstDivide(position, left, right);
+            case PERCENT:
+                return new AstRemainder(position, left, right);
+            default:
+                return new AstPower(position, left, right);
         }
-        return ret;
     }
 
     /**
@@ -489,14 +672,9 @@ public class Parser {
     private AstNode parseAssignmentExpression() {
         // This does not use parseBinaryExpression, because precedence goes
         // right-to-left. e.g. x = a = 5
-        AstNode ret = parseLazyOrExpression();
-        boolean hasAssignment = scanner.hasNext(new TokenKind[] {
-            TokenKind.ASSIGN, TokenKind.SHIFT_LEFT_ASSIGN, TokenKind.SHIFT_RIGHT_ASSIGN, TokenKind.PLUS_ASSIGN,
-            TokenKind.MINUS_ASSIGN, TokenKind.ASTERISK_ASSIGN, TokenKind.SLASH_ASSIGN, TokenKind.PERCENT_ASSIGN,
-            TokenKind.PIPE_ASSIGN, TokenKind.AND_ASSIGN, TokenKind.CARET_ASSIGN, TokenKind.DOUBLE_PIPE_ASSIGN,
-            TokenKind.DOUBLE_AND_ASSIGN,
-        });
-        if (ret != null && hasAssignment) {
+        AstNode ret = parseBinaryExpression(1);
+        Token next = scanner.peek();
+        if (ret != null && next != null && isAssignment(next.getKind())) {
             Token token = scanner.next();
             AstNode right = parseAssignmentExpression();
             if (right == null) {
@@ -539,137 +717,61 @@ public class Parser {
     }
 
     /**
-     * Parses a expression containing only operations with a precedence equal or
-     * higher than the boolean or operation. i.e. {@code ||}
-     * 
-     * @return The root node of the parsed ast tree
-     */
-    private AstNode parseLazyOrExpression() {
-        return parseBinaryExpression(this::parseLazyAndExpression, new TokenKind[] {
-            TokenKind.DOUBLE_PIPE
-        }, (left, right) -> new AstOr(new Position(left.getPosition(), right.getPosition()), left, right));
-    }
-
-    /**
-     * Parses a expression containing only operations with a precedence equal or
-     * higher than the boolean and operation. i.e. {@code &&}
-     * 
-     * @return The root node of the parsed ast tree
-     */
-    private AstNode parseLazyAndExpression() {
-        return parseBinaryExpression(this::parseComparisonExpression, new TokenKind[] {
-            TokenKind.DOUBLE_AND
-        }, (left, right) -> new AstAnd(new Position(left.getPosition(), right.getPosition()), left, right));
-    }
-
-    /**
-     * Parses a expression containing only operations with a precedence equal or
-     * higher than the comparison operations. i.e. {@code == != < <= > >=}
+     * Returns true if the given {@link TokenKind} is one of the assignment
+     * operators, e.g. {@code =} or {@code +=}.
      * 
-     * @return The root node of the parsed ast tree
+     * @param kind The kind of the token
+     * @return true if the token is an assignment operator, otherwise false
      */
-    private AstNode parseComparisonExpression() {
-        return parseBinaryExpression(this::parseBitwiseOrExpression, new TokenKind[] {
-            TokenKind.EQUAL, TokenKind.UNEQUAL, TokenKind.LESS, TokenKind.LESS_EQUAL, TokenKind.MORE,
-            TokenKind.MORE_EQUAL
-        }, (left, right) -> new AstEqual(new Position(left.getPosition(), right.getPosition()), left, right),
-            (left, right) -> new AstNotEqual(new Position(left.getPosition(), right.getPosition()), left, right),
-            (left, right) -> new AstLessThan(new Position(left.getPosition(), right.getPosition()), left, right),
-            (left, right) -> new AstLessOrEqual(new Position(left.getPosition(), right.getPosition()), left, right),
-            (left, right) -> new AstMoreThan(new Position(left.getPosition(), right.getPosition()), left, right),
-            (left, right) -> new AstMoreOrEqual(new Position(left.getPosition(), right.getPosition()), left, right)
-        );
-    }
-
-    /**
-     * Parses a expression containing only operations with a precedence equal or
-     * higher than the bitwise or operation. i.e. {@code |}
-     * 
-     * @return The root node of the parsed ast tree
-     */
-    private AstNode parseBitwiseOrExpression() {
-        return parseBinaryExpression(this::parseBitwiseXorExpression, new TokenKind[] {
-            TokenKind.PIPE
-        }, (left, right) -> new AstBitwiseOr(new Position(left.getPosition(), right.getPosition()), left, right));
-    }
-
-    /**
-     * Parses a expression containing only operations with a precedence equal or
-     * higher than the bitwise xor operation. i.e. {@code ^}
-     * 
-     * @return The root node of the parsed ast tree
-     */
-    private AstNode parseBitwiseXorExpression() {
-        return parseBinaryExpression(this::parseBitwiseAndExpression, new TokenKind[] {
-            TokenKind.CARET
-        }, (left, right) -> new AstBitwiseXor(new Position(left.getPosition(), right.getPosition()), left, right));
-    }
-
-    /**
-     * Parses a expression containing only operations with a precedence equal or
-     * higher than the bitwise and operation. i.e. {@code &}
-     * 
-     * @return The root node of the parsed ast tree
-     */
-    private AstNode parseBitwiseAndExpression() {
-        return parseBinaryExpression(this::parseShiftExpression, new TokenKind[] {
-            TokenKind.AND
-        }, (left, right) -> new AstBitwiseAnd(new Position(left.getPosition(), right.getPosition()), left, right));
-    }
-
-    /**
-     * Parses a expression containing only operations with a precedence equal or
-     * higher than the shift operations. i.e. {@code << >>}
-     * 
-     * @return The root node of the parsed ast tree
-     */
-    private AstNode parseShiftExpression() {
-        return parseBinaryExpression(this::parseAdditiveExpression, new TokenKind[] {
-            TokenKind.SHIFT_LEFT, TokenKind.SHIFT_RIGHT
-        }, (left, right) -> new AstShiftLeft(new Position(left.getPosition(), right.getPosition()), left, right),
-            (left, right) -> new AstShiftRight(new Position(left.getPosition(), right.getPosition()), left, right)
-        );
-    }
-
-    /**
-     * Parses a expression containing only operations with a precedence equal or
-     * higher than the additive operations. i.e. {@code + -}
-     * 
-     * @return The root node of the parsed ast tree
-     */
-    private AstNode parseAdditiveExpression() {
-        return parseBinaryExpression(this::parseMultiplicativeExpression, new TokenKind[] {
-            TokenKind.PLUS, TokenKind.MINUS
-        }, (left, right) -> new AstAddition(new Position(left.getPosition(), right.getPosition()), left, right),
-            (left, right) -> new AstSubtract(new Position(left.getPosition(), right.getPosition()), left, right)
-        );
+    private static boolean isAssignment(TokenKind kind) {
+        switch (kind) {
+            case ASSIGN:
+            case SHIFT_LEFT_ASSIGN:
+            case SHIFT_RIGHT_ASSIGN:
+            case PLUS_ASSIGN:
+            case MINUS_ASSIGN:
+            case ASTERISK_ASSIGN:
+            case SLASH_ASSIGN:
+            case PERCENT_ASSIGN:
+            case PIPE_ASSIGN:
+            case AND_ASSIGN:
+            case CARET_ASSIGN:
+            case DOUBLE_PIPE_ASSIGN:
+            case DOUBLE_AND_ASSIGN:
+                return true;
+            default:
+                return false;
+        }
     }
 
     /**
-     * Parses a expression containing only operations with a precedence equal or
-     * higher than the multiplication operation. i.e. {@code * / %}
+     * Parses a expression containing only binary operations with a precedence
+     * equal or higher than the given one. This uses precedence climbing. The
+     * operand are parsed using parseUnaryPrefixExpression and all binary
+     * operations are left-associative. (i.e. {@code a - b - c} is parsed as
+     * {@code (a - b) - c})
      * 
+     * @param precedence The minimum precedence of the operations to parse
      * @return The root node of the parsed ast tree
      */
-    private AstNode parseMultiplicativeExpression() {
-        return parseBinaryExpression(this::parsePowerExpression, new TokenKind[] {
-            TokenKind.ASTERISK, TokenKind.SLASH, TokenKind.PERCENT
-        }, (left, right) -> new AstMultiply(new Position(left.getPosition(), right.getPosition()), left, right),
-            (left, right) -> new AstDivide(new Position(left.getPosition(), right.getPosition()), left, right),
-            (left, right) -> new AstRemainder(new Position(left.getPosition(), right.getPosition()), left, right)
-        );
-    }
-
-    /**
-     * Parses a expression containing only operations with a precedence equal or
-     * higher than the power operation. i.e. {@code **}
-     *
-     * @return The root node of the parsed ast tree
-     */
-    private AstNode parsePowerExpression() {
-        return parseBinaryExpression(this::parseUnaryPrefixExpression, new TokenKind[] {
-            TokenKind.DOUBLE_ASTERISK
-        }, (left, right) -> new AstPower(new Position(left.getPosition(), right.getPosition()), left, right));
+    private AstNode parseBinaryExpression(int precedence) {
+        AstNode ret = parseUnaryPrefixExpression();
+        if (ret != null) {
+            Token token = scanner.peek();
+            while (token != null && binaryPrecedence(token.getKind()) >= precedence) {
+                scanner.next();
+                AstNode right = parseBinaryExpression(binaryPrecedence(token.getKind()) + 1);
+                if (right == null) {
+                    throw new ParsingException(
+                        new Position(ret.getPosition(), token.getPosition()),
+                        "Expected an expression after `" + token.getSource() + "`"
+                    );
+                }
+                ret = createBinary(token.getKind(), ret, right);
+                token = scanner.peek();
+            }
+        }
+        return ret;
     }
 
     /**
@@ -679,58 +781,69 @@ public class Parser {
      * @return The root node of the parsed ast tree
      */
     private AstNode parseUnaryPrefixExpression() {
-        if (scanner.hasNext(TokenKind.PLUS)) {
-            Token token = scanner.next();
-            AstNode operand = parseUnaryPrefixExpression();
-            if (operand == null) {
-                throw new ParsingException(token.getPosition(), "Expected an expression after unary `+`");
-            }
-            return new AstPositive(new Position(token.getPosition(), operand.getPosition()), operand);
-        } else if (scanner.hasNext(TokenKind.MINUS)) {
-            Token token = scanner.next();
-            AstNode operand = parseUnaryPrefixExpression();
-            if (operand == null) {
-                throw new ParsingException(token.getPosition(), "Expected an expression after unary `-`");
+        Token token = scanner.peek();
+        if (token == null) {
+            return null;
+        }
+        switch (token.getKind()) {
+            case PLUS: {
+                scanner.next();
+                AstNode operand = parseUnaryPrefixExpression();
+                if (operand == null) {
+                    throw new ParsingException(token.getPosition(), "Expected an expression after unary `+`");
+                }
+                return new AstPositive(new Position(token.getPosition(), operand.getPosition()), operand);
             }
-            return new AstNegative(new Position(token.getPosition(), operand.getPosition()), operand);
-        } else if (scanner.hasNext(TokenKind.TILDE)) {
-            Token token = scanner.next();
-            AstNode operand = parseUnaryPrefixExpression();
-            if (operand == null) {
-                throw new ParsingException(token.getPosition(), "Expected an expression after `~`");
+            case MINUS: {
+                scanner.next();
+                AstNode operand = parseUnaryPrefixExpression();
+                if (operand == null) {
+                    throw new ParsingException(token.getPosition(), "Expected an expression after unary `-`");
+                }
+                return new AstNegative(new Position(token.getPosition(), operand.getPosition()), operand);
             }
-            return new AstBitwiseNot(new Position(token.getPosition(), operand.getPosition()), operand);
-        } else if (scanner.hasNext(TokenKind.BANG)) {
-            Token token = scanner.next();
-            AstNode operand = parseUnaryPrefixExpression();
-            if (operand == null) {
-                throw new ParsingException(token.getPosition(), "Expected an expression after `!`");
+            case TILDE: {
+                scanner.next();
+                AstNode operand = parseUnaryPrefixExpression();
+                if (operand == null) {
+                    throw new ParsingException(token.getPosition(), "Expected an expression after `~`");
+                }
+                return new AstBitwiseNot(new Position(token.getPosition(), operand.getPosition()), operand);
             }
-            return new AstNot(new Position(token.getPosition(), operand.getPosition()), operand);
-        } else if (scanner.hasNext(TokenKind.OPEN_BRACKET)) {
-            Token token = scanner.next();
-            AstNode size = parseExpression();
-            if (!scanner.hasNext(TokenKind.CLOSE_BRACKET)) {
-                throw new ParsingException(token.getPosition(), "Expected a closing `]` after opening `[`");
+            case BANG: {
+                scanner.next();
+                AstNode operand = parseUnaryPrefixExpression();
+                if (operand == null) {
+                    throw new ParsingException(token.getPosition(), "Expected an expression after `!`");
+                }
+                return new AstNot(new Position(token.getPosition(), operand.getPosition()), operand);
             }
-            Token closing = scanner.next();
-            AstNode operand = parseUnaryPrefixExpression();
-            if (operand == null) {
-                throw new ParsingException(
-                    new Position(token.getPosition(), closing.getPosition()),
-                    "Expected an expression after unary prefix `[]`"
-                );
+            case OPEN_BRACKET: {
+                scanner.next();
+                AstNode size = parseExpression();
+                if (!scanner.hasNext(TokenKind.CLOSE_BRACKET)) {
+                    throw new ParsingException(token.getPosition(), "Expected a closing `]` after opening `[`");
+                }
+                Token closing = scanner.next();
+                AstNode operand = parseUnaryPrefixExpression();
+                if (operand == null) {
+                    throw new ParsingException(
+                        new Position(token.getPosition(), closing.getPosition()),
+                        "Expected an expression after unary prefix `[]`"
+                    );
+                }
+                return new AstArray(new Position(token.getPosition(), operand.getPosition()), size, operand);
             }
-            return new AstArray(new Position(token.getPosition(), operand.getPosition()), size, operand);
-        } else if (scanner.hasNext(TokenKind.FROM)) {
-            Token token = scanner.next();
-            AstNode operand = parseUnaryPrefixExpression();
-            if (operand == null) {
-                throw new ParsingException(token.getPosition(), "Expected an expression after `from`");
+            case FROM: {
+                scanner.next();
+                AstNode operand = parseUnaryPrefixExpression();
+                if (operand == null) {
+                    throw new ParsingException(token.getPosition(), "Expected an expression after `from`");
+                }
+                return new AstFrom(new Position(token.getPosition(), operand.getPosition()), operand);
             }
-            return new AstFrom(new Position(token.getPosition(), operand.getPosition()), operand);
-        } else {
-            return parseUnarySuffixExpression();
+            default:
+                return parseUnarySuffixExpression();
         }
     }
 
@@ -743,10 +856,12 @@ public class Parser {
     private AstNode parseUnarySuffixExpression() {
         AstNode operand = parseBaseExpression();
         if (operand != null) {
-            while (scanner.hasNext(new TokenKind[] {
-                TokenKind.OPEN_PAREN, TokenKind.OPEN_BRACKET, TokenKind.DOT
-            })) {
-                if (scanner.hasNext(TokenKind.OPEN_PAREN)) {
+            Token next = scanner.peek();
+            while (
+                next != null && (next.getKind() == TokenKind.OPEN_PAREN || next.getKind() == TokenKind.OPEN_BRACKET
+                    || next.getKind() == TokenKind.DOT)
+            ) {
+                if (next.getKind() == TokenKind.OPEN_PAREN) {
                     Token open = scanner.next();
                     ArrayList<AstNode> parameters = new ArrayList<>();
                     AstNode parameter;
@@ -771,7 +886,7 @@ public class Parser {
                         new Position(operand.getPosition(), closing.getPosition()), operand,
                         parameters.toArray(new AstNode[parameters.size()])
                     );
-                } else if (scanner.hasNext(TokenKind.OPEN_BRACKET)) {
+                } else if (next.getKind() == TokenKind.OPEN_BRACKET) {
                     Token open = scanner.next();
                     AstNode index = parseExpression();
                     if (scanner.hasNext(TokenKind.COLON)) {
@@ -817,6 +932,7 @@ public class Parser {
                         new Position(operand.getPosition(), member.getPosition()), operand, member.getSource()
                     );
                 }
+                next = scanner.peek();
             }
             return operand;
         } else {
@@ -825,17 +941,19 @@ public class Parser {
     }
 
     /**
-     * This is a utility function that converts a string containing escaped
-     * characters with `\` into a string containing the actual characters. e.g.
-     * {@code \\\"} will be transformed into {@code \"}
+     * This is a utility function that converts a part of a string containing
+     * escaped characters with `\` into a string containing the actual characters.
+     * e.g. {@code \\\"} will be transformed into {@code \"}
      * 
      * @param input The string that should be converted
+     * @param start The offset of the first character to convert
+     * @param end   The offset after the last character to convert
      * @return The converted string
      */
-    private static String resolveEscapeCharacters(String input) {
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0; i < input.length(); i++) {
-            if (input.charAt(i) == '\\' && i + 1 < input.length()) {
+    private static String resolveEscapeCharacters(CharSequence input, int start, int end) {
+        StringBuilder builder = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            if (input.charAt(i) == '\\' && i + 1 < end) {
                 i++;
                 switch (input.charAt(i)) {
                     case 'b':
@@ -872,11 +990,40 @@ public class Parser {
      * @return The root node of the parsed ast tree
      */
     private AstNode parseBaseExpression() {
-        return firstNonNull(
-            this::parseIfElse, this::parseForLoop, this::parseMatch, this::parseCodeBlock,
-            this::parseFunctionDefinition, this::parseClassDefinition, this::parseParenthesis, this::parseNew,
-            this::parseInteger, this::parseReal, this::parseString, this::parseCharacter, this::parseSymbol
-        );
+        Token next = scanner.peek();
+        if (next == null) {
+            return null;
+        }
+        switch (next.getKind()) {
+            case IF:
+                return parseIfElse();
+            case FOR:
+                return parseForLoop();
+            case MATCH:
+                return parseMatch();
+            case OPEN_BRACE:
+                return parseCodeBlock();
+            case FN:
+                return parseFunctionDefinition();
+            case CLASS:
+                return parseClassDefinition();
+            case OPEN_PAREN:
+                return parseParenthesis();
+            case NEW:
+                return parseNew();
+            case INTEGER:
+                return parseInteger();
+            case REAL:
+                return parseReal();
+            case STRING:
+                return parseString();
+            case CHARACTER:
+                return parseCharacter();
+            case IDENTIFIER:
+                return parseSymbol();
+            default:
+                return null;
+        }
     }
 
     /**
@@ -934,16 +1081,16 @@ public class Parser {
     private AstInteger parseInteger() {
         if (scanner.hasNext(TokenKind.INTEGER)) {
             Token token = scanner.next();
-            String source = token.getSource();
+            CharSequence source = token.getSourceSequence();
             BigInteger value;
-            if (source.startsWith("0b")) {
-                value = new BigInteger(source.substring(2), 2);
-            } else if (source.startsWith("0o")) {
-                value = new BigInteger(source.substring(2), 8);
-            } else if (source.startsWith("0x")) {
-                value = new BigInteger(source.substring(2), 16);
+            if (source.length() >= 2 && source.charAt(0) == '0' && source.charAt(1) == 'b') {
+                value = parseIntegerValue(source, 2, 2);
+            } else if (source.length() >= 2 && source.charAt(0) == '0' && source.charAt(1) == 'o') {
+                value = parseIntegerValue(source, 2, 8);
+            } else if (source.length() >= 2 && source.charAt(0) == '0' && source.charAt(1) == 'x') {
+                value = parseIntegerValue(source, 2, 16);
             } else {
-                value = new BigInteger(source);
+                value = parseIntegerValue(source, 0, 10);
             }
             return new AstInteger(token.getPosition(), value);
         } else {
@@ -951,6 +1098,24 @@ public class Parser {
         }
     }
 
+    /**
+     * Parses the digits of an integer literal. Literals that fit into a long are
+     * parsed without copying their source.
+     * 
+     * @param source The source of the literal
+     * @param start  The offset of the first digit
+     * @param radix  The radix of the literal
+     * @return The value of the literal
+     */
+    private static BigInteger parseIntegerValue(CharSequence source, int start, int radix) {
+        int bits = Integer.SIZE - Integer.numberOfLeadingZeros(radix - 1);
+        if ((source.length() - start) * bits < Long.SIZE - 1) {
+            return BigInteger.valueOf(Long.parseLong(source, start, source.length(), radix));
+        } else {
+            return new BigInteger(source.subSequence(start, source.length()).toString(), radix);
+        }
+    }
+
     /**
      * Parses a real literal. e.g. 12e-3
      * 
@@ -959,8 +1124,12 @@ public class Parser {
     private AstReal parseReal() {
         if (scanner.hasNext(TokenKind.REAL)) {
             Token token = scanner.next();
-            double value = Double.valueOf(token.getSource());
-            return new AstReal(token.getPosition(), value);
+            try {
+                double value = Double.valueOf(token.getSource());
+                return new AstReal(token.getPosition(), value);
+            } catch (NumberFormatException e) {
+                throw new ParsingException(token.getPosition(), "Expected digits in the exponent of a real literal");
+            }
         } else {
             return null;
         }
@@ -974,13 +1143,12 @@ public class Parser {
     private AstString parseString() {
         if (scanner.hasNext(TokenKind.STRING)) {
             Token token = scanner.next();
-            String source = token.getSource();
+            CharSequence source = token.getSourceSequence();
+            int end = source.length();
             if (source.length() >= 2 && source.charAt(source.length() - 1) == '"') {
-                source = source.substring(1, source.length() - 1);
-            } else {
-                source = source.substring(1);
+                end--;
             }
-            String value = resolveEscapeCharacters(source);
+            String value = resolveEscapeCharacters(source, 1, end);
             return new AstString(token.getPosition(), value);
         } else {
             return null;
@@ -995,13 +1163,12 @@ public class Parser {
     private AstCharacter parseCharacter() {
         if (scanner.hasNext(TokenKind.CHARACTER)) {
             Token token = scanner.next();
-            String source = token.getSource();
+            CharSequence source = token.getSourceSequence();
+            int end = source.length();
             if (source.length() >= 2 && source.charAt(source.length() - 1) == '\'') {
-                source = source.substring(1, source.length() - 1);
-            } else {
-                source = source.substring(1);
+                end--;
             }
-            String value = resolveEscapeCharacters(source);
+            String value = resolveEscapeCharacters(source, 1, end);
             if (value.length() != 1) {
                 throw new ParsingException(
                     token.getPosition(), "Character literals should include exactly one character"
@@ -1033,7 +1200,12 @@ public class Parser {
      * @return The parsed ast node
      */
     private AstNode parseInitializerElement() {
-        AstNode value = firstNonNull(this::parseInitializer, this::parseSequence);
+        AstNode value;
+        if (scanner.hasNext(TokenKind.OPEN_BRACE)) {
+            value = parseInitializer();
+        } else {
+            value = parseSequence();
+        }
         if (value instanceof AstSequence) {
             AstSequence seq = (AstSequence)value;
             if (seq.getStatements().length == 0) {
@@ -0,0 +1,265 @@
+package daro.lang.parser;
+
+import java.nio.file.Path;
+
+import daro.lang.ast.*;
+
+/**
+ * This class is used by the incremental parser to find the statements of a
+ * previous tree that can be reused by reference in the tree for an edited
+ * source. A statement can be reused if the new parse starts a statement at its
+ * start moved into the edited source, if neither the statement nor the token
+ * following it touch the edit, and if the statement covers exactly the tokens
+ * it has been parsed from. The statements are searched in the top-level
+ * sequence and in all code blocks, e.g. the bodies of functions and classes,
+ * descending only into the statements containing the searched offset.
+ *
+ * @author Roland Bernard
+ */
+final class ReusedStatements {
+    private final AstSequence previous;
+    private final CharSequence source;
+    private final Path file;
+    private final LineIndex lines;
+    private final int offset;
+    private final int removed;
+    private final int inserted;
+
+    /**
+     * Create a new {@link ReusedStatements} for the given tree and edit. The
+     * positions of the tree must still refer to the source before the edit.
+     *
+     * @param previous The ast tree of the source before the edit
+     * @param offset   The offset in the previous source at which the edit starts
+     * @param removed  The number of characters removed by the edit
+     * @param inserted The number of characters inserted by the edit
+     */
+    ReusedStatements(AstSequence previous, int offset, int removed, int inserted) {
+        Position position = previous.getPosition();
+        this.previous = previous;
+        this.source = position.getSource();
+        this.file = position.getFile();
+        this.lines = position.getLineIndex();
+        this.offset = offset;
+        this.removed = removed;
+        this.inserted = inserted;
+    }
+
+    /**
+     * Returns the top-level statements of the previous tree.
+     *
+     * @return The previous statements
+     */
+    AstNode[] getStatements() {
+        return previous.getStatements();
+    }
+
+    /**
+     * Returns the number of top-level statements at the start of the previous
+     * tree that are not affected by the edit. Parsing of the edited source can
+     * continue at the start of the statement following them.
+     *
+     * @return The number of unaffected statements
+     */
+    int getPrefixLength() {
+        AstNode[] statements = previous.getStatements();
+        // A statement can be reused if the token following it ends before the
+        // edit. The first token of the next statement ends before that statement.
+        int low = 1;
+        int high = statements.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (statements[middle].getPosition().getEnd() < offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int count = Math.max(0, low - 1);
+        while (count > 0 && !startsStatement(statements, count, 0)) {
+            count--;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the index of the top-level statement of the previous tree that
+     * starts at the given offset of the edited source, if that statement and all
+     * the statements following it lie after the edit and can be reused.
+     *
+     * @param start The offset in the edited source
+     * @return The index of the statement, or -1 if there is none
+     */
+    int findRemaining(int start) {
+        if (start >= offset + inserted) {
+            int position = start - inserted + removed;
+            AstNode[] statements = previous.getStatements();
+            int index = findLast(statements, position);
+            if (
+                index >= 0 && statements[index].getPosition().getStart() == position
+                    && startsStatement(statements, index, 0)
+            ) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the statement of the previous tree that starts at the given offset
+     * of the edited source and can be reused, if there is one. The statement can
+     * be located at the top-level or inside of any code block.
+     *
+     * @param start The offset in the edited source
+     * @return The reusable statement, or null if there is none
+     */
+    AstNode find(int start) {
+        int position;
+        if (start < offset) {
+            position = start;
+        } else if (start >= offset + inserted) {
+            position = start - inserted + removed;
+        } else {
+            return null;
+        }
+        AstNode[] statements = previous.getStatements();
+        int from = 0;
+        int to = source.length();
+        while (true) {
+            int index = findLast(statements, position);
+            if (index < 0) {
+                return null;
+            }
+            AstNode statement = statements[index];
+            if (statement.getPosition().getStart() == position) {
+                return isReusable(statements, index, from, to) ? statement : null;
+            } else if (position < statement.getPosition().getEnd()) {
+                AstBlock block = findBlock(statement, position);
+                if (block == null) {
+                    return null;
+                }
+                statements = block.getStatements();
+                from = block.getPosition().getStart() + 1;
+                to = block.getPosition().getEnd() - 1;
+            } else {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Returns the end of the given reused statement in the edited source.
+     *
+     * @param statement The reused statement
+     * @return The end of the statement
+     */
+    int getEnd(AstNode statement) {
+        int end = statement.getPosition().getEnd();
+        if (end <= offset) {
+            return end;
+        } else {
+            return end + inserted - removed;
+        }
+    }
+
+    /**
+     * Returns the index of the last of the given statements that starts at or
+     * before the given offset.
+     *
+     * @param statements The statements, ordered by their position
+     * @param position   The offset in the previous source
+     * @return The index of the statement, or -1 if there is none
+     */
+    private static int findLast(AstNode[] statements, int position) {
+        int low = 0;
+        int high = statements.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (statements[middle].getPosition().getStart() <= position) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * Returns the outermost code block inside of the given node that contains the
+     * given offset.
+     *
+     * @param node     The node to search in
+     * @param position The offset in the previous source
+     * @return The block containing the offset, or null if there is none
+     */
+    private static AstBlock findBlock(AstNode node, int position) {
+        if (node instanceof AstBlock) {
+            return (AstBlock)node;
+        } else {
+            for (AstNode child : node.getChildren()) {
+                if (
+                    child != null && child.getPosition().getStart() <= position
+                        && position < child.getPosition().getEnd()
+                ) {
+                    return findBlock(child, position);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if the statement with the given index started exactly at the
+     * start of its position. This is not the case for example for statements in
+     * parens. It is tested by scanning the previous source between the previous
+     * statement and the given one, which may only contain semicolons.
+     *
+     * @param statements The statements containing the statement
+     * @param index      The index of the statement
+     * @param from       The offset at which the first of the statements may start
+     * @return true if the statement started at its position, otherwise false
+     */
+    private boolean startsStatement(AstNode[] statements, int index, int from) {
+        int start = index == 0 ? from : statements[index - 1].getPosition().getEnd();
+        Scanner scanner = new Scanner(source, file, lines, start);
+        Token token = scanner.next();
+        while (token != null && token.getKind() == TokenKind.SEMICOLON) {
+            token = scanner.next();
+        }
+        return token != null && token.getPosition().getStart() == statements[index].getPosition().getStart();
+    }
+
+    /**
+     * Returns true if the statement with the given index can be reused in the
+     * edited source. The statement must start and end exactly at its position,
+     * i.e. the source between it and the surrounding statements may only
+     * contain semicolons. If the statement is located before the edit, the token
+     * following it, which decided where the statement ends, must also be located
+     * before the edit.
+     *
+     * @param statements The statements containing the statement
+     * @param index      The index of the statement
+     * @param from       The offset at which the first of the statements may start
+     * @param to         The offset at which the last of the statements must end
+     * @return true if the statement can be reused, otherwise false
+     */
+    private boolean isReusable(AstNode[] statements, int index, int from, int to) {
+        Position position = statements[index].getPosition();
+        if (!startsStatement(statements, index, from)) {
+            return false;
+        }
+        int end = index + 1 < statements.length ? statements[index + 1].getPosition().getStart() : to;
+        Scanner scanner = new Scanner(source, file, lines, position.getEnd());
+        Token token = scanner.next();
+        if (position.getStart() < offset && (token == null || token.getPosition().getEnd() >= offset)) {
+            return false;
+        }
+        while (token != null && token.getPosition().getStart() < end) {
+            if (token.getKind() != TokenKind.SEMICOLON) {
+                return false;
+            }
+            token = scanner.next();
+        }
+        return true;
+    }
+}
@@ -2,11 +2,14 @@ package daro.lang.parser;
 
 import java.nio.file.Path;
 
+import daro.lang.ast.LineIndex;
 import daro.lang.ast.Position;
 
 /**
  * This class can be used to tokenize the input string into {@link Token}
- * objects for easier parsing afterwards.
+ * objects for easier parsing afterwards. The input can be any
+ * {@link CharSequence}, so that large sources do not have to be copied into a
+ * {@link String} first (see {@link MappedSource}).
  *
  * @author Roland Bernard
  */
@@ -14,13 +17,18 @@ public class Scanner {
     /**
      * This variable stores the string on which the scanner will operate.
      */
-    private final String string;
+    private final CharSequence string;
     /**
      * This variable stores the file on which the scanner will operate. This value
      * is only used to generate the positional information of the tokens that is
      * later used for error messages.
      */
     private final Path file;
+    /**
+     * This variable stores the line index of the string. It is shared by the
+     * positions of all tokens generated by this scanner.
+     */
+    private final LineIndex lines;
     /**
      * This variable stores the current offset of the next (non-cached) token.
      */
@@ -31,27 +39,60 @@ public class Scanner {
     private Token nextToken;
 
     /**
-     * Create a scanner to operate on the given {@link String}.
+     * Create a scanner to operate on the given {@link CharSequence}.
      * 
      * @param string The string to operate on
      */
-    public Scanner(String string) {
+    public Scanner(CharSequence string) {
         this(string, null);
     }
 
     /**
-     * Create a scanner to operate on the given {@link String}.
+     * Create a scanner to operate on the given {@link CharSequence}.
+     * 
+     * @param string The string to operate on
+     * @param file   The file the string belongs to (used for error positions)
+     */
+    public Scanner(CharSequence string, Path file) {
+        this(string, file, new LineIndex(string), 0);
+    }
+
+    /**
+     * Create a scanner to operate on the given {@link CharSequence}, starting at
+     * the given offset. This is used for parsing only a part of a source.
      * 
      * @param string The string to operate on
      * @param file   The file the string belongs to (used for error positions)
+     * @param lines  The line index of the string
+     * @param offset The offset to start scanning at
      */
-    public Scanner(String string, Path file) {
+    Scanner(CharSequence string, Path file, LineIndex lines, int offset) {
         this.string = string;
         this.file = file;
-        offset = 0;
+        this.lines = lines;
+        this.offset = offset;
         nextToken = null;
     }
 
+    /**
+     * Test if the string continues with the given prefix at the current offset.
+     * 
+     * @param prefix The prefix to test for
+     * @return true if the prefix is found at the offset, otherwise false
+     */
+    private boolean startsWith(String prefix) {
+        if (offset + prefix.length() > string.length()) {
+            return false;
+        } else {
+            for (int i = 0; i < prefix.length(); i++) {
+                if (string.charAt(offset + i) != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     /**
      * Skip the next whitespace character in the scanner and return if a whitespace
      * was consumed.
@@ -74,7 +115,7 @@ public class Scanner {
      * @return true if a comment was found, otherwise false
      */
     private boolean skipComments() {
-        if (offset + 1 < string.length() && string.substring(offset, offset + 2).equals("//")) {
+        if (startsWith("//")) {
             // Skip a line comment (e.g. // Comment)
             while (offset < string.length() && string.charAt(offset) != '\n') {
                 offset++;
@@ -84,14 +125,14 @@ public class Scanner {
                 offset = string.length();
             }
             return true;
-        } else if (offset + 1 < string.length() && string.substring(offset, offset + 2).equals("/*")) {
+        } else if (startsWith("/*")) {
             // Skip block comment (e.g. /* Comment /* nested */ */)
             int depth = 0; // Store the current nesting level
             offset += 2;
-            while (offset + 1 < string.length() && (depth != 0 || !string.substring(offset, offset + 2).equals("*/"))) {
-                if (string.substring(offset, offset + 2).equals("/*")) {
+            while (offset + 1 < string.length() && (depth != 0 || !startsWith("*/"))) {
+                if (startsWith("/*")) {
                     depth++;
-                } else if (string.substring(offset, offset + 2).equals("*/")) {
+                } else if (startsWith("*/")) {
                     depth--;
                 }
                 offset++;
@@ -138,30 +179,30 @@ public class Scanner {
             if (string.charAt(offset) >= '0' && string.charAt(offset) <= '9') {
                 // Don't use Character.isDigit here, because it includes not ASCII digits
                 // This is a number literal (either integer or real)
-                if (offset + 1 < string.length() && string.substring(offset, offset + 2).equals("0b")) {
+                if (startsWith("0b")) {
                     // Binary integer literal (e.g. 0b100100)
                     offset += 2;
                     while (offset < string.length() && string.charAt(offset) >= '0' && string.charAt(offset) <= '1') {
                         offset++;
                     }
-                    Position position = new Position(start, offset, string, file);
-                    return new Token(TokenKind.INTEGER, position, string.substring(start, offset));
-                } else if (offset + 1 < string.length() && string.substring(offset, offset + 2).equals("0o")) {
+                    Position position = new Position(start, offset, lines, file);
+                    return new Token(TokenKind.INTEGER, position, new SourceSlice(string, start, offset));
+                } else if (startsWith("0o")) {
                     // Octal integer literal (e.g. 0o7711)
                     offset += 2;
                     while (offset < string.length() && string.charAt(offset) >= '0' && string.charAt(offset) <= '7') {
                         offset++;
                     }
-                    Position position = new Position(start, offset, string, file);
-                    return new Token(TokenKind.INTEGER, position, string.substring(start, offset));
-                } else if (offset + 1 < string.length() && string.substring(offset, offset + 2).equals("0x")) {
+                    Position position = new Position(start, offset, lines, file);
+                    return new Token(TokenKind.INTEGER, position, new SourceSlice(string, start, offset));
+                } else if (startsWith("0x")) {
                     // Hexadecimal integer literal (e.g. 0xffaa)
                     offset += 2;
                     while (offset < string.length() && isHexDigit(string.charAt(offset))) {
                         offset++;
                     }
-                    Position position = new Position(start, offset, string, file);
-                    return new Token(TokenKind.INTEGER, position, string.substring(start, offset));
+                    Position position = new Position(start, offset, lines, file);
+                    return new Token(TokenKind.INTEGER, position, new SourceSlice(string, start, offset));
                 } else {
                     boolean isFloat = false;
                     while (offset < string.length() && string.charAt(offset) >= '0' && string.charAt(offset) <= '9') {
@@ -192,12 +233,12 @@ public class Scanner {
                         }
                         isFloat = true;
                     }
-                    Position position = new Position(start, offset, string, file);
+                    Position position = new Position(start, offset, lines, file);
                     if (isFloat) {
-                        return new Token(TokenKind.REAL, position, string.substring(start, offset));
+                        return new Token(TokenKind.REAL, position, new SourceSlice(string, start, offset));
                     } else {
                         // Decimal integer literal (e.g. 12)
-                        return new Token(TokenKind.INTEGER, position, string.substring(start, offset));
+                        return new Token(TokenKind.INTEGER, position, new SourceSlice(string, start, offset));
                     }
                 }
             } else if (string.charAt(offset) == '"') {
@@ -213,8 +254,8 @@ public class Scanner {
                 if (offset > string.length()) {
                     offset = string.length();
                 }
-                Position position = new Position(start, offset, string, file);
-                return new Token(TokenKind.STRING, position, string.substring(start, offset));
+                Position position = new Position(start, offset, lines, file);
+                return new Token(TokenKind.STRING, position, new SourceSlice(string, start, offset));
             } else if (string.charAt(offset) == '\'') {
                 // This is a character literal. (e.g. 'a', '\n')
                 // The tokenizer is more permissive than the language. Errors will be thrown in
@@ -231,8 +272,8 @@ public class Scanner {
                 if (offset > string.length()) {
                     offset = string.length();
                 }
-                Position position = new Position(start, offset, string, file);
-                return new Token(TokenKind.CHARACTER, position, string.substring(start, offset));
+                Position position = new Position(start, offset, lines, file);
+                return new Token(TokenKind.CHARACTER, position, new SourceSlice(string, start, offset));
             } else if (Character.isLetter(string.charAt(offset)) || string.charAt(offset) == '_') {
                 // This is an identifier (e.g. main) or keyword (e.g. else)
                 offset++;
@@ -242,28 +283,24 @@ public class Scanner {
                 ) {
                     offset++;
                 }
-                String source = string.substring(start, offset);
-                TokenKind kind = TokenKind.findForFixedSource(source);
-                Position position = new Position(start, offset, string, file);
+                TokenKind kind = TokenKind.findForFixedSource(string, start, offset);
+                Position position = new Position(start, offset, lines, file);
                 if (kind != null) {
                     return new Token(kind, position);
                 } else {
-                    return new Token(TokenKind.IDENTIFIER, position, string.substring(start, offset));
+                    return new Token(TokenKind.IDENTIFIER, position, new SourceSlice(string, start, offset));
                 }
             } else {
                 // This is either invalid or an operator (e.g. +)
-                TokenKind kind = null;
-                for (int i = string.length() - offset; i > 0; i--) {
-                    kind = TokenKind.findForFixedSource(string.substring(offset, offset + i));
-                    if (kind != null) {
-                        offset += i;
-                        Position position = new Position(start, offset, string, file);
-                        return new Token(kind, position, string.substring(start, offset));
-                    }
+                TokenKind kind = TokenKind.findLongestFixedSource(string, offset);
+                if (kind != null) {
+                    offset += kind.getFixedSource().length();
+                    Position position = new Position(start, offset, lines, file);
+                    return new Token(kind, position, kind.getFixedSource());
                 }
                 offset++;
-                Position position = new Position(start, offset, string, file);
-                return new Token(TokenKind.INVALID, position, string.substring(start, offset));
+                Position position = new Position(start, offset, lines, file);
+                return new Token(TokenKind.INVALID, position, new SourceSlice(string, start, offset));
             }
         } else {
             return null;
@@ -316,6 +353,16 @@ public class Scanner {
         return false;
     }
 
+    /**
+     * Return the next {@link Token} without consuming it.
+     * 
+     * @return The next {@link Token} or null at the end of the input
+     */
+    public Token peek() {
+        cacheToken();
+        return nextToken;
+    }
+
     /**
      * Return the next {@link Token}.
      * 
@@ -339,6 +386,18 @@ public class Scanner {
         offset = nextToken.getPosition().getEnd();
     }
 
+    /**
+     * Continue scanning at the given offset, dropping the cached token. This is
+     * used by the incremental parser to skip over the source of a statement that
+     * is reused from a previous tree.
+     * 
+     * @param offset The offset to continue at
+     */
+    void skipTo(int offset) {
+        this.offset = offset;
+        nextToken = null;
+    }
+
     /**
      * Return the next {@link Token} if is is of the given {@link TokenKind}.
      * 
@@ -364,9 +423,9 @@ public class Scanner {
         cacheToken();
         if (nextToken != null) {
             int pos = nextToken.getPosition().getStart();
-            return new Position(pos, pos, string, file);
+            return new Position(pos, pos, lines, file);
         } else {
-            return new Position(offset, offset, string, file);
+            return new Position(offset, offset, lines, file);
         }
     }
 }
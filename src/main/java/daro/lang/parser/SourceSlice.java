@@ -0,0 +1,56 @@
+package daro.lang.parser;
+
+import java.util.Objects;
+
+/**
+ * This class is a view of a part of a {@link CharSequence}. It is used for the
+ * source of the tokens, so that scanning a file does not copy the text of
+ * every token. The characters are only copied if the source of the token is
+ * requested as a {@link String}.
+ *
+ * @author Roland Bernard
+ */
+final class SourceSlice implements CharSequence {
+    private final CharSequence source;
+    private final int start;
+    private final int end;
+
+    /**
+     * Create a new view of the given part of the source.
+     *
+     * @param source The complete source
+     * @param start  The offset of the first character of the view
+     * @param end    The offset after the last character of the view
+     */
+    SourceSlice(CharSequence source, int start, int end) {
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, end - start);
+        return source.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        Objects.checkFromToIndex(start, end, this.end - this.start);
+        return new SourceSlice(source, this.start + start, this.start + end);
+    }
+
+    @Override
+    public String toString() {
+        if (source instanceof String) {
+            return ((String)source).substring(start, end);
+        } else {
+            return new StringBuilder(end - start).append(source, start, end).toString();
+        }
+    }
+}
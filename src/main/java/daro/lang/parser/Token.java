@@ -13,9 +13,11 @@ public class Token {
      */
     private final TokenKind kind;
     /**
-     * This variable stores the source string of the {@link Token}.
+     * This variable stores the source string of the {@link Token}. This is
+     * usually a view into the scanned source, and is only copied if the source
+     * is requested as a {@link String}.
      */
-    private final String source;
+    private final CharSequence source;
     /**
      * This variable stores the source position of the {@link Token}.
      */
@@ -40,7 +42,7 @@ public class Token {
      * @param position The position the token was found at
      * @param source   The source string for the token
      */
-    public Token(TokenKind kind, Position position, String source) {
+    public Token(TokenKind kind, Position position, CharSequence source) {
         if (source == null) {
             throw new IllegalArgumentException("Source string is null");
         } else {
@@ -65,6 +67,16 @@ public class Token {
      * @return The source string of this token
      */
     public String getSource() {
+        return source.toString();
+    }
+
+    /**
+     * Get the source string for this token, without copying it from the scanned
+     * source.
+     * 
+     * @return The source of this token
+     */
+    public CharSequence getSourceSequence() {
         return source;
     }
 
@@ -44,15 +44,51 @@ public enum TokenKind {
      * {@link TokenKind}.
      */
     private static final Map<String, TokenKind> reverseLookup;
+    /**
+     * This variable gets initialized with a trie containing all fixed source
+     * strings. It is used to find the longest fixed source string at some offset
+     * of a string, without creating any substrings.
+     */
+    private static final TrieNode trie;
     static {
         reverseLookup = new HashMap<>();
+        trie = new TrieNode();
         for (TokenKind kind : TokenKind.values()) {
             if (kind.hasFixedSource()) {
                 reverseLookup.put(kind.getFixedSource(), kind);
+                trie.insert(kind.getFixedSource(), kind);
             }
         }
     }
 
+    /**
+     * This class represents a single node of the trie of all fixed source
+     * strings. Only ASCII characters are supported, which is enough for all the
+     * fixed source strings of the language.
+     */
+    private static final class TrieNode {
+        private final TrieNode[] children = new TrieNode[128];
+        private TokenKind kind;
+
+        /**
+         * Insert the given source string into the trie below this node.
+         * 
+         * @param source The fixed source string
+         * @param kind   The kind the string represents
+         */
+        private void insert(String source, TokenKind kind) {
+            TrieNode node = this;
+            for (int i = 0; i < source.length(); i++) {
+                char character = source.charAt(i);
+                if (node.children[character] == null) {
+                    node.children[character] = new TrieNode();
+                }
+                node = node.children[character];
+            }
+            node.kind = kind;
+        }
+    }
+
     /**
      * This member variable stored the fixed source string value if it exists.
      */
@@ -108,4 +144,54 @@ public enum TokenKind {
     public static TokenKind findForFixedSource(String string) {
         return reverseLookup.get(string);
     }
+
+    /**
+     * Finds the {@link TokenKind} with the specified fixed source string, given
+     * as a part of a larger string. No substring is created for the lookup.
+     * 
+     * @param string The string containing the source string
+     * @param start  The offset of the first character of the source string
+     * @param end    The offset after the last character of the source string
+     * @return The {@link TokenKind} withe the specified source string, or null if
+     *         none exists
+     */
+    public static TokenKind findForFixedSource(CharSequence string, int start, int end) {
+        TrieNode node = trie;
+        for (int i = start; i < end; i++) {
+            char character = string.charAt(i);
+            if (character < node.children.length && node.children[character] != null) {
+                node = node.children[character];
+            } else {
+                return null;
+            }
+        }
+        return node.kind;
+    }
+
+    /**
+     * Finds the {@link TokenKind} with the longest fixed source string that
+     * appears in the given string starting at the given offset. The time taken
+     * is proportional only to the length of the longest fixed source string.
+     * 
+     * @param string The string to search in
+     * @param offset The offset at which the fixed source string has to start
+     * @return The {@link TokenKind} with the longest matching fixed source
+     *         string, or null if none exists
+     */
+    public static TokenKind findLongestFixedSource(CharSequence string, int offset) {
+        TokenKind longest = null;
+        TrieNode node = trie;
+        for (int i = offset; i < string.length(); i++) {
+            char character = string.charAt(i);
+            if (character < node.children.length && node.children[character] != null) {
+                node = node.children[character];
+                if (node.kind != null) {
+                    longest = node.kind;
+                }
+            } else {
+                break;
+            }
+        }
+        return longest;
+    }
 }
@@ -0,0 +1,351 @@
+package daro.lang.values;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import daro.lang.interpreter.ExecutionContext;
+import daro.lang.interpreter.InterpreterException;
+import daro.lang.interpreter.Scope;
+import daro.lang.interpreter.VariableLocation;
+
+/**
+ * This class implements the member scope of a {@link DaroArray}. The methods of
+ * arrays are defined only once in a shared prototype and are bound to the
+ * receiving array when they are accessed. The {@code length} member is computed
+ * when it is read. This means that creating an array does not require building
+ * any of its members.
+ *
+ * @author Roland Bernard
+ */
+final class ArrayMemberScope implements Scope {
+    private static final Map<String, Method> PROTOTYPE = new LinkedHashMap<>();
+
+    private final DaroArray array;
+
+    /**
+     * This interface is implemented by the methods inside the array prototype.
+     */
+    private static interface Implementation {
+        /**
+         * Execute the method for the given array.
+         *
+         * @param array   The array the method was called on
+         * @param params  The parameters of the call
+         * @param context The context the method is called in
+         * @return The result of the call
+         */
+        public DaroObject execute(DaroArray array, DaroObject[] params, ExecutionContext context);
+    }
+
+    /**
+     * This class represents a single method inside the array prototype.
+     */
+    private static final class Method {
+        private final Predicate<Integer> parameters;
+        private final Implementation implementation;
+
+        /**
+         * Create a new method accepting the given parameter counts.
+         *
+         * @param parameters     Tests whether the method accepts a parameter count
+         * @param implementation The implementation of the method
+         */
+        private Method(Predicate<Integer> parameters, Implementation implementation) {
+            this.parameters = parameters;
+            this.implementation = implementation;
+        }
+    }
+
+    /**
+     * This {@link DaroFunction} is the result of accessing a method of an array.
+     * It binds a method of the prototype to the receiving array.
+     */
+    private static final class BoundMethod extends DaroFunction {
+        private final DaroArray array;
+        private final Method method;
+
+        /**
+         * Bind the given method to the given array.
+         *
+         * @param array  The receiving array
+         * @param method The method to bind
+         */
+        private BoundMethod(DaroArray array, Method method) {
+            this.array = array;
+            this.method = method;
+        }
+
+        @Override
+        public boolean allowsParamCount(int count) {
+            return method.parameters.test(count);
+        }
+
+        @Override
+        public DaroObject execute(DaroObject[] params, ExecutionContext context) {
+            return method.implementation.execute(array, params, context);
+        }
+
+        @Override
+        public int hashCode() {
+            return (971 * System.identityHashCode(array)) ^ (991 * method.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (object instanceof BoundMethod) {
+                BoundMethod bound = (BoundMethod)object;
+                return array == bound.array && method == bound.method;
+            } else {
+                return false;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "[native function]";
+        }
+    }
+
+    /**
+     * Add a new method to the array prototype.
+     *
+     * @param name           The name of the method
+     * @param parameters     Tests whether the method accepts a parameter count
+     * @param implementation The implementation of the method
+     */
+    private static void define(String name, Predicate<Integer> parameters, Implementation implementation) {
+        PROTOTYPE.put(name, new Method(parameters, implementation));
+    }
+
+    static {
+        define("push", count -> true, (array, params, context) -> {
+            for (DaroObject value : params) {
+                array.pushValue(value);
+            }
+            return null;
+        });
+        define("pop", count -> count == 0, (array, params, context) -> {
+            List<DaroObject> values = array.getValues();
+            if (values.size() > 0) {
+                DaroObject ret = values.get(values.size() - 1);
+                values.remove(values.size() - 1);
+                return ret;
+            } else {
+                return null;
+            }
+        });
+        define("sort", count -> count == 1, (array, params, context) -> {
+            if (params[0] instanceof DaroFunction) {
+                DaroFunction function = (DaroFunction)params[0];
+                if (!function.allowsParamCount(2)) {
+                    throw new InterpreterException("Sorting function must accept two arguments");
+                } else {
+                    array.getValues().sort((a, b) -> {
+                        DaroObject less = function.execute(new DaroObject[] {
+                            a, b
+                        }, context);
+                        DaroObject more = function.execute(new DaroObject[] {
+                            b, a
+                        }, context);
+                        if (less != null && less.isTrue() && more != null && more.isTrue()) {
+                            return 0;
+                        } else if (less != null && less.isTrue()) {
+                            return -1;
+                        } else if (more != null && more.isTrue()) {
+                            return 1;
+                        } else {
+                            return 0;
+                        }
+                    });
+                    return null;
+                }
+            } else {
+                throw new InterpreterException("Sorting comparison must be a function");
+            }
+        });
+        define("forEach", count -> count == 1, (array, params, context) -> {
+            if (params[0] instanceof DaroFunction) {
+                DaroFunction function = (DaroFunction)params[0];
+                if (!function.allowsParamCount(1)) {
+                    throw new InterpreterException("Function must accept one argument");
+                } else {
+                    array.getValues().forEach(a -> function.execute(new DaroObject[] {
+                        a
+                    }, context));
+                    return null;
+                }
+            } else {
+                throw new InterpreterException("Parameter must be a function");
+            }
+        });
+        define("map", count -> count == 1, (array, params, context) -> {
+            if (params[0] instanceof DaroFunction) {
+                DaroFunction function = (DaroFunction)params[0];
+                if (!function.allowsParamCount(1)) {
+                    throw new InterpreterException("Function must accept one argument");
+                } else {
+                    return new DaroArray(array.getValues().stream().map(a -> function.execute(new DaroObject[] {
+                        a
+                    }, context)).filter(a -> a != null).collect(Collectors.toList()));
+                }
+            } else {
+                throw new InterpreterException("Parameter must be a function");
+            }
+        });
+        define("filter", count -> count == 1, (array, params, context) -> {
+            if (params[0] instanceof DaroFunction) {
+                DaroFunction function = (DaroFunction)params[0];
+                if (!function.allowsParamCount(1)) {
+                    throw new InterpreterException("Function must accept one argument");
+                } else {
+                    return new DaroArray(array.getValues().stream().filter(a -> {
+                        DaroObject value = function.execute(new DaroObject[] {
+                            a
+                        }, context);
+                        return value != null && value.isTrue();
+                    }).collect(Collectors.toList()));
+                }
+            } else {
+                throw new InterpreterException("Parameter must be a function");
+            }
+        });
+        define("reduce", count -> count == 1 || count == 2, (array, params, context) -> {
+            if (params[0] instanceof DaroFunction) {
+                DaroFunction function = (DaroFunction)params[0];
+                if (!function.allowsParamCount(2)) {
+                    throw new InterpreterException("Function must accept two argument");
+                } else {
+                    List<DaroObject> values = array.getValues();
+                    DaroObject accumulator;
+                    if (params.length == 1) {
+                        if (values.size() > 0) {
+                            accumulator = values.get(0);
+                        } else {
+                            return null;
+                        }
+                    } else {
+                        accumulator = params[1];
+                    }
+                    for (DaroObject value : values.subList(params.length == 1 ? 1 : 0, values.size())) {
+                        accumulator = function.execute(new DaroObject[] {
+                            accumulator, value
+                        }, context);
+                        if (accumulator == null) {
+                            throw new InterpreterException("Accumulator must not be undefined");
+                        }
+                    }
+                    return accumulator;
+                }
+            } else {
+                throw new InterpreterException("Parameter must be a function");
+            }
+        });
+        define("clone", count -> count == 0, (array, params, context) -> {
+            return new DaroArray(new ArrayList<>(array.getValues()));
+        });
+    }
+
+    /**
+     * Returns a {@link MemberAccessor} reading the member with the given name from
+     * an array. This allows the members of arrays to be accessed without creating
+     * the member scope of the array.
+     *
+     * @param name The name of the member
+     * @return The accessor, or null if arrays have no such member
+     */
+    static MemberAccessor getAccessor(String name) {
+        if (name.equals("length")) {
+            return receiver -> DaroInteger.valueOf(((DaroArray)receiver).getLength());
+        } else {
+            Method method = PROTOTYPE.get(name);
+            if (method != null) {
+                return receiver -> new BoundMethod((DaroArray)receiver, method);
+            } else {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Create the member scope for the given array.
+     *
+     * @param array The array the scope belongs to
+     */
+    ArrayMemberScope(DaroArray array) {
+        this.array = array;
+    }
+
+    @Override
+    public Scope getFinalLevel() {
+        return this;
+    }
+
+    @Override
+    public boolean containsVariable(String name) {
+        return name.equals("length") || PROTOTYPE.containsKey(name);
+    }
+
+    @Override
+    public DaroObject getVariableValue(String name) {
+        if (name.equals("length")) {
+            return DaroInteger.valueOf(array.getLength());
+        } else {
+            Method method = PROTOTYPE.get(name);
+            if (method != null) {
+                return new BoundMethod(array, method);
+            } else {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public Map<String, DaroObject> getCompleteMapping() {
+        Map<String, DaroObject> mapping = new HashMap<>();
+        for (String name : PROTOTYPE.keySet()) {
+            mapping.put(name, getVariableValue(name));
+        }
+        mapping.put("length", getVariableValue("length"));
+        return mapping;
+    }
+
+    @Override
+    public VariableLocation getVariableLocation(String name) {
+        // The members of arrays can not be written to
+        return null;
+    }
+
+    @Override
+    public void reset() {
+        // This scope has no state that could be reset
+    }
+
+    @Override
+    public Scope[] getParents() {
+        return new Scope[0];
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(array);
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (object instanceof ArrayMemberScope) {
+            return array == ((ArrayMemberScope)object).array;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getAsString();
+    }
+}
@@ -0,0 +1,205 @@
+package daro.lang.values;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import daro.lang.ast.*;
+import daro.lang.interpreter.CompiledNode;
+import daro.lang.interpreter.Scope;
+
+/**
+ * This class contains the parts of a class definition that are shared by all
+ * instances of the class. The named functions defined directly inside the body
+ * of the class are the methods of the class. They are taken out of the body
+ * and only bound to an instance when they are first accessed. The remaining
+ * statements of the body initialize the fields of the instance and are executed
+ * for every new instance.
+ * <p>
+ * A function is only used as a method if no other statement of the class body
+ * could define a variable with the same name. Otherwise it is left inside the
+ * body, so that the order in which the statements define the variable does not
+ * change.
+ *
+ * @author Roland Bernard
+ */
+public final class ClassPrototype {
+    private final AstSequence fields;
+    private final AstFunction[] methods;
+    private final Map<String, Integer> indices;
+    private final CompiledNode body;
+    private final CompiledNode[] methodBodies;
+
+    /**
+     * Create the prototype for the given class definition. The created prototype
+     * does not contain any compiled code.
+     *
+     * @param definition The definition of the class
+     */
+    public ClassPrototype(AstClass definition) {
+        AstSequence sequence = definition.getBody().getSequence();
+        Map<String, Integer> definitions = new HashMap<>();
+        boolean dynamic = collectDefinitions(sequence, definitions);
+        List<AstNode> statements = new ArrayList<>();
+        List<AstFunction> functions = new ArrayList<>();
+        for (AstNode statement : sequence.getStatements()) {
+            if (!dynamic && isMethod(statement, definitions)) {
+                functions.add((AstFunction)statement);
+            } else {
+                statements.add(statement);
+            }
+        }
+        this.methods = functions.toArray(new AstFunction[0]);
+        this.indices = new HashMap<>();
+        for (int i = 0; i < methods.length; i++) {
+            indices.put(methods[i].getName(), i);
+        }
+        if (methods.length == 0) {
+            this.fields = sequence;
+        } else {
+            this.fields = new AstSequence(sequence.getPosition(), statements.toArray(new AstNode[0]));
+        }
+        this.body = null;
+        this.methodBodies = new CompiledNode[methods.length];
+    }
+
+    /**
+     * Create a copy of the given prototype using the given compiled code.
+     *
+     * @param prototype    The prototype to copy
+     * @param body         The compiled code of the fields
+     * @param methodBodies The compiled bodies of the methods
+     */
+    private ClassPrototype(ClassPrototype prototype, CompiledNode body, CompiledNode[] methodBodies) {
+        this.fields = prototype.fields;
+        this.methods = prototype.methods;
+        this.indices = prototype.indices;
+        this.body = body;
+        this.methodBodies = methodBodies;
+    }
+
+    /**
+     * Collect the number of times every name is defined by the given node. This
+     * includes declarations of functions and classes, assignments to symbols and
+     * the variables of for loops. Nested functions and classes are not searched,
+     * since they are executed in their own scope.
+     *
+     * @param node        The node to search in
+     * @param definitions The map to count the definitions in
+     * @return true if the node contains statements that define unknown names
+     */
+    private static boolean collectDefinitions(AstNode node, Map<String, Integer> definitions) {
+        if (node instanceof AstFunction) {
+            String name = ((AstFunction)node).getName();
+            if (name != null) {
+                definitions.merge(name, 1, Integer::sum);
+            }
+            return false;
+        } else if (node instanceof AstClass) {
+            String name = ((AstClass)node).getName();
+            if (name != null) {
+                definitions.merge(name, 1, Integer::sum);
+            }
+            return false;
+        } else if (node instanceof AstUse || node instanceof AstFrom) {
+            return true;
+        } else if (node != null) {
+            if (node instanceof AstAssignment && ((AstAssignment)node).getLeft() instanceof AstSymbol) {
+                definitions.merge(((AstSymbol)((AstAssignment)node).getLeft()).getName(), 1, Integer::sum);
+            } else if (node instanceof AstForIn) {
+                definitions.merge(((AstForIn)node).getVariable().getName(), 1, Integer::sum);
+            }
+            boolean dynamic = false;
+            for (AstNode child : node.getChildren()) {
+                dynamic |= collectDefinitions(child, definitions);
+            }
+            return dynamic;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Returns true if the given statement of the class body can be used as a
+     * method of the class.
+     *
+     * @param statement   The statement to test
+     * @param definitions The number of definitions of every name in the body
+     * @return true if the statement is a method, false otherwise
+     */
+    private static boolean isMethod(AstNode statement, Map<String, Integer> definitions) {
+        if (statement instanceof AstFunction) {
+            String name = ((AstFunction)statement).getName();
+            return name != null && !name.equals("this") && definitions.get(name) == 1;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Create a copy of this prototype that uses the given compiled code. The
+     * compiled code must have been compiled from the sequence returned by
+     * {@link #getFields()} and the bodies of the functions returned by
+     * {@link #getMethods()}.
+     *
+     * @param body         The compiled code of the fields
+     * @param methodBodies The compiled bodies of the methods
+     * @return The prototype using the compiled code
+     */
+    public ClassPrototype withCompiledCode(CompiledNode body, CompiledNode[] methodBodies) {
+        return new ClassPrototype(this, body, methodBodies);
+    }
+
+    /**
+     * Returns the statements that have to be executed for initializing the fields
+     * of every new instance.
+     *
+     * @return The statements of the class body without the methods
+     */
+    public AstSequence getFields() {
+        return fields;
+    }
+
+    /**
+     * Returns the compiled code of the statements returned by
+     * {@link #getFields()}, if the class has been compiled.
+     *
+     * @return The compiled code, or null
+     */
+    public CompiledNode getCompiledBody() {
+        return body;
+    }
+
+    /**
+     * Returns the methods of the class.
+     *
+     * @return The method definitions
+     */
+    public AstFunction[] getMethods() {
+        return methods;
+    }
+
+    /**
+     * Returns the index of the method with the given name.
+     *
+     * @param name The name of the method
+     * @return The index of the method, or -1 if there is no such method
+     */
+    public int getIndex(String name) {
+        Integer index = indices.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Create a function for the method at the given index, that executes in the
+     * given instance scope.
+     *
+     * @param index The index of the method
+     * @param scope The scope of the instance
+     * @return The bound method
+     */
+    DaroAstFunction bind(int index, Scope scope) {
+        return new DaroAstFunction(scope, methods[index], methodBodies[index]);
+    }
+}
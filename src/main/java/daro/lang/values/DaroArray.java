@@ -1,15 +1,9 @@
 package daro.lang.values;
 
-import java.math.BigInteger;
 import java.util.AbstractList;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
-import daro.lang.interpreter.ConstantScope;
-import daro.lang.interpreter.InterpreterException;
 import daro.lang.interpreter.Scope;
 
 /**
@@ -19,7 +13,7 @@ import daro.lang.interpreter.Scope;
  */
 public class DaroArray extends DaroObject {
     private final List<DaroObject> values;
-    private final Scope memberScope;
+    private Scope memberScope;
 
     /**
      * Create a new {@link DaroArray} with the values inside the given list.
@@ -28,137 +22,6 @@ public class DaroArray extends DaroObject {
      */
     public DaroArray(List<DaroObject> values) {
         this.values = values;
-        this.memberScope = buildMemberScope();
-    }
-
-    /**
-     * Build the member scope for this array.
-     *
-     * @return The member scope
-     */
-    private Scope buildMemberScope() {
-        Map<String, DaroObject> variables = new HashMap<>();
-        variables.put("push", new DaroLambdaFunction(params -> {
-            for (DaroObject value : params) {
-                pushValue(value);
-            }
-        }));
-        variables.put("pop", new DaroLambdaFunction(0, params -> {
-            if (values.size() > 0) {
-                DaroObject ret = values.get(values.size() - 1);
-                values.remove(values.size() - 1);
-                return ret;
-            } else {
-                return null;
-            }
-        }));
-        variables.put("sort", new DaroLambdaFunction(1, (params, context) -> {
-            if (params[0] instanceof DaroFunction) {
-                DaroFunction function = (DaroFunction)params[0];
-                if (!function.allowsParamCount(2)) {
-                    throw new InterpreterException("Sorting function must accept two arguments");
-                } else {
-                    values.sort((a, b) -> {
-                        DaroObject less = function.execute(new DaroObject[] {
-                            a, b
-                        }, context);
-                        DaroObject more = function.execute(new DaroObject[] {
-                            b, a
-                        }, context);
-                        if (less != null && less.isTrue() && more != null && more.isTrue()) {
-                            return 0;
-                        } else if (less != null && less.isTrue()) {
-                            return -1;
-                        } else if (more != null && more.isTrue()) {
-                            return 1;
-                        } else {
-                            return 0;
-                        }
-                    });
-                }
-            } else {
-                throw new InterpreterException("Sorting comparison must be a function");
-            }
-        }));
-        variables.put("forEach", new DaroLambdaFunction(1, (params, context) -> {
-            if (params[0] instanceof DaroFunction) {
-                DaroFunction function = (DaroFunction)params[0];
-                if (!function.allowsParamCount(1)) {
-                    throw new InterpreterException("Function must accept one argument");
-                } else {
-                    values.forEach(a -> function.execute(new DaroObject[] {
-                        a
-                    }, context));
-                }
-            } else {
-                throw new InterpreterException("Parameter must be a function");
-            }
-        }));
-        variables.put("map", new DaroLambdaFunction(1, (params, context) -> {
-            if (params[0] instanceof DaroFunction) {
-                DaroFunction function = (DaroFunction)params[0];
-                if (!function.allowsParamCount(1)) {
-                    throw new InterpreterException("Function must accept one argument");
-                } else {
-                    return new DaroArray(values.stream().map(a -> function.execute(new DaroObject[] {
-                        a
-                    }, context)).filter(a -> a != null).collect(Collectors.toList()));
-                }
-            } else {
-                throw new InterpreterException("Parameter must be a function");
-            }
-        }));
-        variables.put("filter", new DaroLambdaFunction(1, (params, context) -> {
-            if (params[0] instanceof DaroFunction) {
-                DaroFunction function = (DaroFunction)params[0];
-                if (!function.allowsParamCount(1)) {
-                    throw new InterpreterException("Function must accept one argument");
-                } else {
-                    return new DaroArray(values.stream().filter(a -> {
-                        DaroObject value = function.execute(new DaroObject[] {
-                            a
-                        }, context);
-                        return value != null && value.isTrue();
-                    }).collect(Collectors.toList()));
-                }
-            } else {
-                throw new InterpreterException("Parameter must be a function");
-            }
-        }));
-        variables.put("reduce", new DaroLambdaFunction(count -> count == 1 || count == 2, (params, context) -> {
-            if (params[0] instanceof DaroFunction) {
-                DaroFunction function = (DaroFunction)params[0];
-                if (!function.allowsParamCount(2)) {
-                    throw new InterpreterException("Function must accept two argument");
-                } else {
-                    DaroObject accumulator;
-                    if (params.length == 1) {
-                        if (values.size() > 0) {
-                            accumulator = values.get(0);
-                        } else {
-                            return null;
-                        }
-                    } else {
-                        accumulator = params[1];
-                    }
-                    for (DaroObject value : values.subList(params.length == 1 ? 1 : 0, values.size())) {
-                        accumulator = function.execute(new DaroObject[] {
-                            accumulator, value
-                        }, context);
-                        if (accumulator == null) {
-                            throw new InterpreterException("Accumulator must not be undefined");
-                        }
-                    }
-                    return accumulator;
-                }
-            } else {
-                throw new InterpreterException("Parameter must be a function");
-            }
-        }));
-        variables.put("clone", new DaroLambdaFunction(0, params -> {
-            return new DaroArray(new ArrayList<>(values));
-        }));
-        return new ConstantScope(variables, super.getMemberScope());
     }
 
     /**
@@ -263,14 +126,25 @@ public class DaroArray extends DaroObject {
 
     @Override
     public DaroType getType() {
-        return new DaroTypeArray();
+        return DaroTypeArray.INSTANCE;
     }
 
     @Override
     public Scope getMemberScope() {
-        HashMap<String, DaroObject> variables = new HashMap<>();
-        variables.put("length", new DaroInteger(BigInteger.valueOf(values.size())));
-        return new ConstantScope(variables, memberScope);
+        if (memberScope == null) {
+            memberScope = new ArrayMemberScope(this);
+        }
+        return memberScope;
+    }
+
+    @Override
+    public Object getMemberLayout() {
+        return DaroTypeArray.INSTANCE;
+    }
+
+    @Override
+    public MemberAccessor getMemberAccessor(String name) {
+        return ArrayMemberScope.getAccessor(name);
     }
 
     @Override
@@ -3,13 +3,22 @@ package daro.lang.values;
 import java.util.Arrays;
 import java.util.stream.Collectors;
 
+import daro.lang.ast.AstCall;
 import daro.lang.ast.AstFunction;
 import daro.lang.ast.AstSymbol;
-import daro.lang.interpreter.BlockScope;
+import daro.lang.interpreter.Captures;
+import daro.lang.interpreter.CompiledNode;
 import daro.lang.interpreter.ExecutionContext;
+import daro.lang.interpreter.ExecutionEvent;
+import daro.lang.interpreter.ExecutionMode;
+import daro.lang.interpreter.ExecutionObserver;
 import daro.lang.interpreter.Executor;
+import daro.lang.interpreter.FrameScope;
+import daro.lang.interpreter.FunctionProfile;
+import daro.lang.interpreter.NodeCompiler;
 import daro.lang.interpreter.ReturnException;
 import daro.lang.interpreter.Scope;
+import daro.lang.interpreter.TailCallException;
 
 /**
  * This {@link DaroObject} represents an instance of a function executing from a
@@ -19,7 +28,31 @@ import daro.lang.interpreter.Scope;
  */
 public class DaroAstFunction extends DaroFunction {
     private final Scope scope;
+    private final Scope[] parents;
     private final AstFunction ast;
+    private final String[] names;
+    private final CompiledNode body;
+
+    /**
+     * Create a new function from a scope, ast and the compiled body of the
+     * function. The compiled body is used instead of the ast if the function is
+     * called without any observers. The function will normally be executed either
+     * in the global scope or in a class scope. The scope is trimmed to the parts
+     * that are needed by the function, see {@link Captures}.
+     * 
+     * @param scope The scope to execute the function in
+     * @param ast   The ast that represents the function
+     * @param body  The compiled body of the function, or null
+     */
+    public DaroAstFunction(Scope scope, AstFunction ast, CompiledNode body) {
+        this.scope = Captures.trim(ast, scope);
+        this.parents = new Scope[] {
+            this.scope
+        };
+        this.ast = ast;
+        this.names = Arrays.stream(ast.getParameters()).map(AstSymbol::getName).toArray(String[]::new);
+        this.body = body;
+    }
 
     /**
      * Create a new function from a scope and ast. The function will normally be
@@ -29,8 +62,46 @@ public class DaroAstFunction extends DaroFunction {
      * @param ast   The ast that represents the function
      */
     public DaroAstFunction(Scope scope, AstFunction ast) {
-        this.scope = scope;
-        this.ast = ast;
+        this(scope, ast, null);
+    }
+
+    /**
+     * Returns the scope this function is executed in.
+     * 
+     * @return The scope of the function
+     */
+    public Scope getScope() {
+        return scope;
+    }
+
+    /**
+     * Returns the ast of this function.
+     * 
+     * @return The {@link AstFunction} of the function
+     */
+    public AstFunction getAst() {
+        return ast;
+    }
+
+    /**
+     * Returns the compiled body of this function.
+     * 
+     * @return The compiled body, or null if the function is not compiled
+     */
+    public CompiledNode getCompiledBody() {
+        return body;
+    }
+
+    /**
+     * Returns whether this function will be executed using a compiled body. This
+     * is the case if the function was created by compiled code, or if its
+     * definition has been compiled because it was called often in
+     * {@link ExecutionMode#TIERED} mode.
+     * 
+     * @return true if the function has a compiled body, false otherwise
+     */
+    public boolean isCompiled() {
+        return body != null || ast.getCompiledBody() != null;
     }
 
     @Override
@@ -38,18 +109,159 @@ public class DaroAstFunction extends DaroFunction {
         return ast.getParameters().length == count;
     }
 
-    @Override
-    public DaroObject execute(DaroObject[] params, ExecutionContext context) {
-        BlockScope parameterScope = new BlockScope(scope);
-        AstSymbol[] parameters = ast.getParameters();
-        for (int i = 0; i < params.length && i < parameters.length; i++) {
-            parameterScope.newVariableInFinal(parameters[i].getName(), params[i]);
+    /**
+     * Create the scope for a single invocation of this function. The given array
+     * is used directly to store the parameters and must contain one value for
+     * every parameter of the function.
+     * 
+     * @param arguments The values of the parameters
+     * @return The new scope for the invocation
+     */
+    public FrameScope createFrame(DaroObject[] arguments) {
+        return new FrameScope(names, arguments, parents);
+    }
+
+    /**
+     * Execute the body of this function with the given arguments. Calls in tail
+     * position inside the body are not executed but propagated as a
+     * {@link TailCallException}.
+     * 
+     * @param arguments The parameters of the call, used as the slots of the frame
+     * @param context   The context the function is called in
+     * @param executor  The executor to use for interpreting the body, or null
+     * @return The result of the call
+     */
+    private DaroObject executeBody(DaroObject[] arguments, ExecutionContext context, Executor executor) {
+        FrameScope frame = createFrame(arguments);
+        ExecutionContext innerContext = context.forScope(frame);
+        CompiledNode compiled = null;
+        FunctionProfile profile = null;
+        if (!context.isObserved()) {
+            compiled = body;
+            if (compiled == null && context.getMode() == ExecutionMode.TIERED) {
+                compiled = getTieredBody();
+                if (compiled == null) {
+                    profile = (FunctionProfile)ast.getProfile();
+                    innerContext = innerContext.withProfile(profile);
+                }
+            }
         }
         try {
-            return Executor.execute(context.forScope(parameterScope), ast.getBody());
+            if (compiled != null) {
+                return compiled.execute(innerContext);
+            } else if (executor != null) {
+                return executor.executeIn(innerContext, ast.getBody());
+            } else {
+                return Executor.execute(innerContext, ast.getBody());
+            }
         } catch (ReturnException returned) {
             return returned.getReturnValue();
+        } finally {
+            frame.release();
+            if (profile != null && profile.isHot()) {
+                // The loops of this call made the function hot
+                compileTieredBody();
+            }
+        }
+    }
+
+    /**
+     * Count an invocation of this function in {@link ExecutionMode#TIERED} mode,
+     * and return the compiled body if the function is hot. The profile and the
+     * compiled body are kept on the ast, so that they are shared by all functions
+     * created from the same definition, e.g. closures or bound methods.
+     * Invocations and loop iterations of all of them count towards compiling the
+     * body, and the body is compiled only once.
+     * 
+     * @return The compiled body, or null if the function is not hot yet
+     */
+    private CompiledNode getTieredBody() {
+        if (ast.getCompiledBody() == null) {
+            FunctionProfile profile = (FunctionProfile)ast.getProfile();
+            if (profile == null) {
+                profile = new FunctionProfile();
+                ast.setProfile(profile);
+            }
+            profile.countInvocation();
+            if (profile.isHot()) {
+                compileTieredBody();
+            }
         }
+        return (CompiledNode)ast.getCompiledBody();
+    }
+
+    /**
+     * Compile the body of the definition of this function. All following calls
+     * of functions created from the definition will use the compiled body.
+     */
+    private void compileTieredBody() {
+        if (ast.getCompiledBody() == null) {
+            ast.setCompiledBody(NodeCompiler.compileFunction(ast));
+            ast.setProfile(null);
+        }
+    }
+
+    /**
+     * Execute this function with the given arguments. Unlike
+     * {@link #execute(DaroObject[], ExecutionContext)}, the arguments are not
+     * copied but used directly to store the parameters of the function. The
+     * caller must therefore not use the array after the call. If the body of the
+     * function is interpreted, the given {@link Executor} is reused instead of
+     * creating a new one.
+     * <p>
+     * Calls in tail position are executed in place of the function making them.
+     * If the calls are observed, every one of them is reported as a separate
+     * call. A function that was called in tail position and makes another tail
+     * call is left before the next function is entered, so its call ends with a
+     * value of null.
+     * 
+     * @param arguments The parameters of the call, one for every parameter
+     * @param context   The context the function is called in
+     * @param executor  The executor to reuse, or null
+     * @return The result of the call
+     */
+    public DaroObject call(DaroObject[] arguments, ExecutionContext context, Executor executor) {
+        DaroAstFunction function = this;
+        DaroObject[] params = arguments;
+        AstCall site = null;
+        DaroObject[] observed = null;
+        ExecutionObserver[] observers = null;
+        while (true) {
+            TailCallException next = null;
+            DaroObject result = null;
+            try {
+                result = function.executeBody(params, context, executor);
+            } catch (TailCallException call) {
+                next = call;
+            }
+            if (observers != null) {
+                for (ExecutionObserver observer : observers) {
+                    observer.afterCall(site, function, observed, result, context);
+                }
+            }
+            if (next == null) {
+                return result;
+            } else {
+                // The called function replaces the current one without growing the stack
+                function = next.getFunction();
+                params = next.getParameters();
+                site = next.getCall();
+                observers = context.getObservers(ExecutionEvent.CALL, site);
+                if (observers != null) {
+                    // The observers must not see the parameters being modified
+                    observed = params;
+                    params = params.clone();
+                    for (ExecutionObserver observer : observers) {
+                        observer.beforeCall(site, function, observed, context);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public DaroObject execute(DaroObject[] params, ExecutionContext context) {
+        return call(Arrays.copyOf(params, names.length), context, null);
     }
 
     @Override
@@ -6,6 +6,16 @@ package daro.lang.values;
  * @author Roland Bernard
  */
 public class DaroBoolean extends DaroObject {
+    /**
+     * The shared instance representing true.
+     */
+    public static final DaroBoolean TRUE = new DaroBoolean(true);
+
+    /**
+     * The shared instance representing false.
+     */
+    public static final DaroBoolean FALSE = new DaroBoolean(false);
+
     private final boolean value;
 
     /**
@@ -17,6 +27,18 @@ public class DaroBoolean extends DaroObject {
         this.value = value;
     }
 
+    /**
+     * Returns the shared {@link DaroBoolean} representing the given value. This
+     * should be preferred over the constructor, because it does not allocate a new
+     * object.
+     * 
+     * @param value The value the {@link DaroBoolean} should represent
+     * @return Either {@link #TRUE} or {@link #FALSE}
+     */
+    public static DaroBoolean valueOf(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
     /**
      * Returns the value of this boolean.
      * 
@@ -28,7 +50,7 @@ public class DaroBoolean extends DaroObject {
 
     @Override
     public DaroType getType() {
-        return new DaroTypeBoolean();
+        return DaroTypeBoolean.INSTANCE;
     }
 
     @Override
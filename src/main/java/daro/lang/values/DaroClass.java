@@ -1,16 +1,15 @@
 package daro.lang.values;
 
-import java.util.Map;
 import java.util.Objects;
 
 import daro.lang.ast.AstSequence;
 import daro.lang.interpreter.AbstractScope;
-import daro.lang.interpreter.BlockScope;
-import daro.lang.interpreter.ConstantScope;
+import daro.lang.interpreter.CompiledNode;
 import daro.lang.interpreter.ExecutionContext;
 import daro.lang.interpreter.Executor;
 import daro.lang.interpreter.Scope;
 import daro.lang.interpreter.ScopeInitializer;
+import daro.lang.interpreter.ShapedScope;
 
 /**
  * This {@link DaroObject} represents an instance of a class.
@@ -19,7 +18,9 @@ import daro.lang.interpreter.ScopeInitializer;
  */
 public class DaroClass extends DaroObject {
     private final DaroTypeClass classType;
-    private final BlockScope scope;
+    private final ShapedScope scope;
+    private DaroObject[] methods;
+    private Scope memberScope;
 
     /**
      * Create a new instance of a user defined class. The class is defined in the
@@ -31,8 +32,8 @@ public class DaroClass extends DaroObject {
      */
     public DaroClass(Scope globalScope, ExecutionContext context, DaroTypeClass classType) {
         this.classType = classType;
-        Scope thisScope = new ConstantScope(Map.of("this", this), globalScope);
-        this.scope = new BlockScope(thisScope);
+        Scope thisScope = new PrototypeScope(this, true, globalScope);
+        this.scope = new InstanceScope(this, classType.getShape(), thisScope);
         initialize(context);
     }
 
@@ -49,14 +50,24 @@ public class DaroClass extends DaroObject {
 
     /**
      * Initialize the class by running the code directly inside the body of the
-     * class definition.
+     * class definition. The methods of the class are not part of this code, they
+     * are only bound when they are accessed. The number of fields the instance
+     * ends up with is recorded, so that the next instance allocates them at once.
      * 
      * @param context The surrounding context for this execution
      */
     private void initialize(ExecutionContext context) {
-        AstSequence sequence = classType.getDefinition().getBody().getSequence();
-        ScopeInitializer.initialize(scope, sequence);
-        Executor.execute(context.forScope(scope), sequence);
+        ClassPrototype prototype = classType.getPrototype();
+        CompiledNode body = prototype.getCompiledBody();
+        if (body != null && !context.isObserved()) {
+            body.execute(context.forScope(scope));
+        } else {
+            AstSequence sequence = prototype.getFields();
+            ScopeInitializer.initialize(scope, sequence);
+            // Loops in the class body must not count towards the profile of the caller
+            Executor.execute(context.forScope(scope).withProfile(null), sequence);
+        }
+        classType.getShape().setExpectedSize(scope.getShape().size());
     }
 
     @Override
@@ -64,16 +75,55 @@ public class DaroClass extends DaroObject {
         return classType;
     }
 
+    /**
+     * Returns the method at the given index of the prototype of the class, bound
+     * to this instance. A method is bound only once, the first time it is
+     * accessed.
+     * 
+     * @param index The index of the method inside the prototype
+     * @return The bound method
+     */
+    DaroObject getMethod(int index) {
+        if (methods == null) {
+            methods = new DaroObject[classType.getPrototype().getMethods().length];
+        }
+        if (methods[index] == null) {
+            methods[index] = classType.getPrototype().bind(index, scope);
+        }
+        return methods[index];
+    }
+
     @Override
     public Scope getMemberScope() {
-        AbstractScope result = (AbstractScope)scope.getFinalLevel();
-        result.addParent(super.getMemberScope());
-        return result;
+        if (memberScope == null) {
+            AbstractScope result = (AbstractScope)scope.getFinalLevel();
+            result.addParent(super.getMemberScope());
+            memberScope = result;
+        }
+        return memberScope;
+    }
+
+    @Override
+    public Object getMemberLayout() {
+        return scope.getShape();
+    }
+
+    @Override
+    public MemberAccessor getMemberAccessor(String name) {
+        int index = scope.getShape().getIndex(name);
+        int method = classType.getPrototype().getIndex(name);
+        if (index >= 0) {
+            return receiver -> ((DaroClass)receiver).scope.getSlotValue(index);
+        } else if (method >= 0) {
+            return receiver -> ((DaroClass)receiver).getMethod(method);
+        } else {
+            return null;
+        }
     }
 
     @Override
     public int hashCode() {
-        return (971 * Objects.hashCode(scope)) ^ (991 * Objects.hashCode(classType));
+        return (971 * Objects.hashCode(scope.getFinalLevel())) ^ (991 * Objects.hashCode(classType));
     }
 
     @Override
@@ -11,7 +11,7 @@ public abstract class DaroFunction extends DaroObject {
 
     @Override
     public DaroType getType() {
-        return new DaroTypeFunction();
+        return DaroTypeFunction.INSTANCE;
     }
 
     /**
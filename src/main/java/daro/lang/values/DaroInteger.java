@@ -3,12 +3,29 @@ package daro.lang.values;
 import java.math.BigInteger;
 
 /**
- * This {@link DaroObject} represents an integer value.
+ * This {@link DaroObject} represents an integer value. Values that fit into a
+ * {@code long} are stored as a primitive and all arithmetic on them is done
+ * using overflow checked operations. Only if the result does not fit into a
+ * {@code long} is the value promoted to a {@link BigInteger}. The
+ * representation is always normalized, i.e. a {@link BigInteger} is only used
+ * if the value can not be stored in a {@code long}. Instances for small values
+ * are cached and can be obtained using {@link #valueOf(long)}.
  * 
  * @author Roland Bernard
  */
 public class DaroInteger extends DaroNumber {
-    private final BigInteger value;
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1024;
+    private static final DaroInteger[] CACHE = new DaroInteger[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new DaroInteger(CACHE_LOW + i);
+        }
+    }
+
+    private final long small;
+    private final BigInteger big;
 
     /**
      * Create a new {@link DaroInteger} from the given value.
@@ -16,7 +33,54 @@ public class DaroInteger extends DaroNumber {
      * @param value The value to be stored in the {@link DaroInteger}
      */
     public DaroInteger(BigInteger value) {
-        this.value = value;
+        if (value.bitLength() < Long.SIZE) {
+            this.small = value.longValue();
+            this.big = null;
+        } else {
+            this.small = 0;
+            this.big = value;
+        }
+    }
+
+    /**
+     * Create a new {@link DaroInteger} from the given value.
+     * 
+     * @param value The value to be stored in the {@link DaroInteger}
+     */
+    public DaroInteger(long value) {
+        this.small = value;
+        this.big = null;
+    }
+
+    /**
+     * Returns a {@link DaroInteger} representing the given value. Values in a small
+     * range around zero are cached, so this does not allocate a new object for
+     * them.
+     * 
+     * @param value The value to be stored in the {@link DaroInteger}
+     * @return A {@link DaroInteger} representing the value
+     */
+    public static DaroInteger valueOf(long value) {
+        if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+            return CACHE[(int)value - CACHE_LOW];
+        } else {
+            return new DaroInteger(value);
+        }
+    }
+
+    /**
+     * Returns a {@link DaroInteger} representing the given value. Like
+     * {@link #valueOf(long)} this will return a cached instance for small values.
+     * 
+     * @param value The value to be stored in the {@link DaroInteger}
+     * @return A {@link DaroInteger} representing the value
+     */
+    public static DaroInteger valueOf(BigInteger value) {
+        if (value.bitLength() < Long.SIZE) {
+            return valueOf(value.longValue());
+        } else {
+            return new DaroInteger(value);
+        }
     }
 
     /**
@@ -25,24 +89,301 @@ public class DaroInteger extends DaroNumber {
      * @return The value stored in this object
      */
     public BigInteger getValue() {
-        return value;
+        if (big == null) {
+            return BigInteger.valueOf(small);
+        } else {
+            return big;
+        }
+    }
+
+    /**
+     * Returns whether the value stored inside the {@link DaroInteger} fits into a
+     * {@code long}.
+     * 
+     * @return true if the value fits into a long, false otherwise
+     */
+    public boolean isLong() {
+        return big == null;
+    }
+
+    /**
+     * Returns the value stored inside the {@link DaroInteger} converted to a
+     * {@code long}. Like {@link BigInteger#longValue()} this returns the low-order
+     * bits if the value is too large.
+     * 
+     * @return The value stored in this object as a long
+     */
+    public long longValue() {
+        if (big == null) {
+            return small;
+        } else {
+            return big.longValue();
+        }
+    }
+
+    /**
+     * Returns the value stored inside the {@link DaroInteger} converted to an
+     * {@code int}. Like {@link BigInteger#intValue()} this returns the low-order
+     * bits if the value is too large.
+     * 
+     * @return The value stored in this object as an int
+     */
+    public int intValue() {
+        if (big == null) {
+            return (int)small;
+        } else {
+            return big.intValue();
+        }
+    }
+
+    /**
+     * Returns the sum of this and the given integer.
+     * 
+     * @param other The integer to add
+     * @return The sum of both integers
+     */
+    public DaroInteger add(DaroInteger other) {
+        if (big == null && other.big == null) {
+            long result = small + other.small;
+            if (((small ^ result) & (other.small ^ result)) >= 0) {
+                return valueOf(result);
+            }
+        }
+        return valueOf(getValue().add(other.getValue()));
+    }
+
+    /**
+     * Returns the difference of this and the given integer.
+     * 
+     * @param other The integer to subtract
+     * @return The difference of both integers
+     */
+    public DaroInteger subtract(DaroInteger other) {
+        if (big == null && other.big == null) {
+            long result = small - other.small;
+            if (((small ^ other.small) & (small ^ result)) >= 0) {
+                return valueOf(result);
+            }
+        }
+        return valueOf(getValue().subtract(other.getValue()));
+    }
+
+    /**
+     * Returns the product of this and the given integer.
+     * 
+     * @param other The integer to multiply with
+     * @return The product of both integers
+     */
+    public DaroInteger multiply(DaroInteger other) {
+        if (big == null && other.big == null) {
+            long high = Math.multiplyHigh(small, other.small);
+            long result = small * other.small;
+            if ((high == 0 && result >= 0) || (high == -1 && result < 0)) {
+                return valueOf(result);
+            }
+        }
+        return valueOf(getValue().multiply(other.getValue()));
+    }
+
+    /**
+     * Returns the quotient of this and the given integer, rounded towards zero.
+     * 
+     * @param other The divisor
+     * @return The quotient of both integers
+     */
+    public DaroInteger divide(DaroInteger other) {
+        if (
+            big == null && other.big == null && other.small != 0 && (small != Long.MIN_VALUE || other.small != -1)
+        ) {
+            return valueOf(small / other.small);
+        } else {
+            return valueOf(getValue().divide(other.getValue()));
+        }
+    }
+
+    /**
+     * Returns the remainder of the division of this and the given integer.
+     * 
+     * @param other The divisor
+     * @return The remainder of the division
+     */
+    public DaroInteger remainder(DaroInteger other) {
+        if (big == null && other.big == null && other.small != 0) {
+            return valueOf(small % other.small);
+        } else {
+            return valueOf(getValue().remainder(other.getValue()));
+        }
+    }
+
+    /**
+     * Returns this integer raised to the given power.
+     * 
+     * @param exponent The exponent
+     * @return The result of the exponentiation
+     */
+    public DaroInteger pow(int exponent) {
+        if (big == null && exponent >= 0) {
+            long result = 1;
+            long base = small;
+            int remaining = exponent;
+            try {
+                while (remaining > 0) {
+                    if ((remaining & 1) != 0) {
+                        result = Math.multiplyExact(result, base);
+                    }
+                    remaining >>= 1;
+                    if (remaining > 0) {
+                        base = Math.multiplyExact(base, base);
+                    }
+                }
+                return valueOf(result);
+            } catch (ArithmeticException e) {
+                // The result does not fit into a long. Fall through to the slow path.
+            }
+        }
+        return valueOf(getValue().pow(exponent));
+    }
+
+    /**
+     * Returns this integer shifted to the left by the given number of bits. A
+     * negative distance results in a right shift.
+     * 
+     * @param distance The number of bits to shift
+     * @return The shifted integer
+     */
+    public DaroInteger shiftLeft(int distance) {
+        if (big == null && distance >= 0 && distance < Long.SIZE) {
+            long result = small << distance;
+            if ((result >> distance) == small) {
+                return valueOf(result);
+            }
+        } else if (big == null && distance < 0 && distance > Integer.MIN_VALUE) {
+            return shiftRight(-distance);
+        }
+        return valueOf(getValue().shiftLeft(distance));
+    }
+
+    /**
+     * Returns this integer shifted to the right by the given number of bits. A
+     * negative distance results in a left shift.
+     * 
+     * @param distance The number of bits to shift
+     * @return The shifted integer
+     */
+    public DaroInteger shiftRight(int distance) {
+        if (big == null && distance >= 0) {
+            return valueOf(small >> Math.min(distance, Long.SIZE - 1));
+        } else {
+            return valueOf(getValue().shiftRight(distance));
+        }
+    }
+
+    /**
+     * Returns the bitwise and of this and the given integer.
+     * 
+     * @param other The other operand
+     * @return The result of the operation
+     */
+    public DaroInteger and(DaroInteger other) {
+        if (big == null && other.big == null) {
+            return valueOf(small & other.small);
+        } else {
+            return valueOf(getValue().and(other.getValue()));
+        }
+    }
+
+    /**
+     * Returns the bitwise or of this and the given integer.
+     * 
+     * @param other The other operand
+     * @return The result of the operation
+     */
+    public DaroInteger or(DaroInteger other) {
+        if (big == null && other.big == null) {
+            return valueOf(small | other.small);
+        } else {
+            return valueOf(getValue().or(other.getValue()));
+        }
+    }
+
+    /**
+     * Returns the bitwise xor of this and the given integer.
+     * 
+     * @param other The other operand
+     * @return The result of the operation
+     */
+    public DaroInteger xor(DaroInteger other) {
+        if (big == null && other.big == null) {
+            return valueOf(small ^ other.small);
+        } else {
+            return valueOf(getValue().xor(other.getValue()));
+        }
+    }
+
+    /**
+     * Returns the negation of this integer.
+     * 
+     * @return The negated integer
+     */
+    public DaroInteger negate() {
+        if (big == null && small != Long.MIN_VALUE) {
+            return valueOf(-small);
+        } else {
+            return valueOf(getValue().negate());
+        }
+    }
+
+    /**
+     * Returns the bitwise complement of this integer.
+     * 
+     * @return The complement of the integer
+     */
+    public DaroInteger not() {
+        if (big == null) {
+            return valueOf(~small);
+        } else {
+            return valueOf(big.not());
+        }
+    }
+
+    /**
+     * Compares this integer to the given integer.
+     * 
+     * @param other The integer to compare to
+     * @return A negative number, zero or a positive number if this integer is less
+     *         than, equal to or greater than the given integer
+     */
+    public int compareTo(DaroInteger other) {
+        if (big == null && other.big == null) {
+            return Long.compare(small, other.small);
+        } else {
+            return getValue().compareTo(other.getValue());
+        }
     }
 
     @Override
     public DaroType getType() {
-        return new DaroTypeInteger();
+        return DaroTypeInteger.INSTANCE;
     }
 
     @Override
     public int hashCode() {
-        return value.hashCode();
+        if (big == null) {
+            return Long.hashCode(small);
+        } else {
+            return big.hashCode();
+        }
     }
 
     @Override
     public boolean equals(Object object) {
         if (object instanceof DaroInteger) {
             DaroInteger integer = (DaroInteger)object;
-            return value.equals(integer.getValue());
+            if (big == null) {
+                return integer.big == null && small == integer.small;
+            } else {
+                return big.equals(integer.big);
+            }
         } else {
             return false;
         }
@@ -50,16 +391,24 @@ public class DaroInteger extends DaroNumber {
 
     @Override
     public String toString() {
-        return String.valueOf(value);
+        if (big == null) {
+            return Long.toString(small);
+        } else {
+            return big.toString();
+        }
     }
 
     @Override
     public double doubleValue() {
-        return value.doubleValue();
+        if (big == null) {
+            return small;
+        } else {
+            return big.doubleValue();
+        }
     }
 
     @Override
     public boolean isTrue() {
-        return !value.equals(BigInteger.ZERO);
+        return big != null || small != 0;
     }
 }
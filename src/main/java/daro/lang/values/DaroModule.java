@@ -29,7 +29,7 @@ public class DaroModule extends DaroObject {
 
     @Override
     public DaroType getType() {
-        return new DaroTypeModule();
+        return DaroTypeModule.INSTANCE;
     }
 
     @Override
@@ -65,7 +65,7 @@ public class DaroNativePackage extends DaroObject {
 
     @Override
     public DaroType getType() {
-        return new DaroTypeNativePackage();
+        return DaroTypeNativePackage.INSTANCE;
     }
 
     @Override
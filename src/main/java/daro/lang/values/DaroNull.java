@@ -11,10 +11,14 @@ import daro.lang.interpreter.InterpreterException;
  * @author Roland Bernard
  */
 public class DaroNull extends DaroType {
+    /**
+     * The shared instance of the null object.
+     */
+    public static final DaroNull NULL = new DaroNull();
 
     @Override
     public DaroType getType() {
-        return new DaroNull();
+        return NULL;
     }
 
     @Override
@@ -29,6 +29,31 @@ public abstract class DaroObject {
         return new EmptyScope();
     }
 
+    /**
+     * This function returns an object identifying the member layout of the object.
+     * All objects that return the same layout must return equivalent accessors
+     * from {@link #getMemberAccessor(String)}. Objects that can not be accessed
+     * using a {@link MemberAccessor} return null, which is the default.
+     *
+     * @return The member layout of the object, or null
+     */
+    public Object getMemberLayout() {
+        return null;
+    }
+
+    /**
+     * This function returns a {@link MemberAccessor} reading the member with the
+     * given name. The accessor can be used for all objects with the same member
+     * layout as this object. If no accessor can be created, e.g. because the
+     * object does not have a member layout, null is returned.
+     *
+     * @param name The name of the member
+     * @return An accessor for the member, or null
+     */
+    public MemberAccessor getMemberAccessor(String name) {
+        return null;
+    }
+
     /**
      * This function should return true if the value is considered true for the
      * purpose of conditions in conditional statements. Object that return true for
@@ -28,7 +28,7 @@ public class DaroReal extends DaroNumber {
 
     @Override
     public DaroType getType() {
-        return new DaroTypeReal();
+        return DaroTypeReal.INSTANCE;
     }
 
     @Override
@@ -29,7 +29,7 @@ public class DaroString extends DaroObject {
 
     @Override
     public DaroType getType() {
-        return new DaroTypeString();
+        return DaroTypeString.INSTANCE;
     }
 
     @Override
@@ -6,6 +6,10 @@ import daro.lang.interpreter.ExecutionContext;
 /**
  * This class is the superclass for all user objects in the interpreter that
  * represent a type.
+ * <p>
+ * Types without parameters are immutable and all of their objects compare
+ * equal. Each of them therefore provides a shared {@code INSTANCE} that should
+ * be used instead of allocating a new object every time the type is needed.
  * 
  * @author Roland Bernard
  */
@@ -13,7 +17,7 @@ public abstract class DaroType extends DaroObject {
 
     @Override
     public DaroType getType() {
-        return new DaroTypeType();
+        return DaroTypeType.INSTANCE;
     }
 
     /**
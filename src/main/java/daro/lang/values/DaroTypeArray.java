@@ -14,6 +14,10 @@ import daro.lang.interpreter.InterpreterException;
  * @author Roland Bernard
  */
 public class DaroTypeArray extends DaroType {
+    /**
+     * The shared instance of this type.
+     */
+    public static final DaroTypeArray INSTANCE = new DaroTypeArray();
 
     @Override
     public DaroObject instantiate(ExecutionContext context) {
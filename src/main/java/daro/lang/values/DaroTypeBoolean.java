@@ -12,10 +12,14 @@ import daro.lang.interpreter.InterpreterException;
  * @author Roland Bernard
  */
 public class DaroTypeBoolean extends DaroType {
+    /**
+     * The shared instance of this type.
+     */
+    public static final DaroTypeBoolean INSTANCE = new DaroTypeBoolean();
 
     @Override
     public DaroObject instantiate(ExecutionContext context) {
-        return new DaroBoolean(false);
+        return DaroBoolean.FALSE;
     }
 
     @Override
@@ -28,7 +32,7 @@ public class DaroTypeBoolean extends DaroType {
             AstNode value = initializer.getValues()[0];
             DaroObject object = Executor.execute(context, value);
             if (object != null) {
-                return new DaroBoolean(object.isTrue());
+                return DaroBoolean.valueOf(object.isTrue());
             } else {
                 throw new InterpreterException(value.getPosition(), "Value must not be undefined");
             }
@@ -4,23 +4,44 @@ import daro.lang.ast.AstAssignment;
 import daro.lang.ast.AstClass;
 import daro.lang.ast.AstInitializer;
 import daro.lang.ast.AstNode;
+import daro.lang.interpreter.Captures;
 import daro.lang.interpreter.ExecutionContext;
 import daro.lang.interpreter.Executor;
 import daro.lang.interpreter.InterpreterException;
 import daro.lang.interpreter.LocationEvaluator;
 import daro.lang.interpreter.Scope;
+import daro.lang.interpreter.Shape;
 import daro.lang.interpreter.VariableLocation;
 
 /**
  * This class represents the type for a class instance ({@link DaroClass}). A
  * class is always linked to the scope they are defined in which is used to
- * instantiate the class.
+ * instantiate the class. Only the parts of the scope that are needed by the
+ * class are retained, see {@link Captures}.
  * 
  * @author Roland Bernard
  */
 public class DaroTypeClass extends DaroType {
     private final Scope globalScope;
     private final AstClass definition;
+    private final ClassPrototype prototype;
+    private final Shape shape;
+
+    /**
+     * Create a new class type from the given definition and prototype of the class
+     * inside the given scope. The compiled code of the prototype is used to
+     * initialize instances that are created without any observers.
+     * 
+     * @param globalScope The scope the class is defined in
+     * @param definition  The definition of the class
+     * @param prototype   The prototype of the class
+     */
+    public DaroTypeClass(Scope globalScope, AstClass definition, ClassPrototype prototype) {
+        this.globalScope = Captures.trim(definition, globalScope);
+        this.definition = definition;
+        this.prototype = prototype;
+        this.shape = new Shape();
+    }
 
     /**
      * Create a new class type from the given definition inside the given scope.
@@ -29,8 +50,16 @@ public class DaroTypeClass extends DaroType {
      * @param definition  The definition of the class
      */
     public DaroTypeClass(Scope globalScope, AstClass definition) {
-        this.globalScope = globalScope;
-        this.definition = definition;
+        this(globalScope, definition, new ClassPrototype(definition));
+    }
+
+    /**
+     * Returns the scope this class is instantiated in.
+     * 
+     * @return The scope of the class
+     */
+    public Scope getScope() {
+        return globalScope;
     }
 
     /**
@@ -42,6 +71,24 @@ public class DaroTypeClass extends DaroType {
         return definition;
     }
 
+    /**
+     * Returns the prototype shared by all instances of the class.
+     * 
+     * @return The prototype of the class
+     */
+    ClassPrototype getPrototype() {
+        return prototype;
+    }
+
+    /**
+     * Returns the root {@link Shape} shared by all instances of the class.
+     * 
+     * @return The root shape of the instances
+     */
+    Shape getShape() {
+        return shape;
+    }
+
     @Override
     public DaroObject instantiate(ExecutionContext context) {
         return new DaroClass(globalScope, context, this);
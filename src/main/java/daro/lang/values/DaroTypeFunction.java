@@ -12,6 +12,10 @@ import daro.lang.interpreter.InterpreterException;
  * @author Roland Bernard
  */
 public class DaroTypeFunction extends DaroType {
+    /**
+     * The shared instance of this type.
+     */
+    public static final DaroTypeFunction INSTANCE = new DaroTypeFunction();
 
     @Override
     public DaroObject instantiate(ExecutionContext context) {
@@ -1,7 +1,5 @@
 package daro.lang.values;
 
-import java.math.BigInteger;
-
 import daro.lang.ast.AstInitializer;
 import daro.lang.ast.AstNode;
 import daro.lang.interpreter.ExecutionContext;
@@ -14,10 +12,14 @@ import daro.lang.interpreter.InterpreterException;
  * @author Roland Bernard
  */
 public class DaroTypeInteger extends DaroType {
+    /**
+     * The shared instance of this type.
+     */
+    public static final DaroTypeInteger INSTANCE = new DaroTypeInteger();
 
     @Override
     public DaroObject instantiate(ExecutionContext context) {
-        return new DaroInteger(BigInteger.ZERO);
+        return DaroInteger.valueOf(0);
     }
 
     @Override
@@ -33,7 +35,7 @@ public class DaroTypeInteger extends DaroType {
                 return object;
             } else if (object instanceof DaroNumber) {
                 DaroNumber number = (DaroNumber)object;
-                return new DaroInteger(BigInteger.valueOf((long)number.doubleValue()));
+                return DaroInteger.valueOf((long)number.doubleValue());
             } else if (object != null) {
                 throw new InterpreterException(value.getPosition(), "Value can not be converted to an integer");
             } else {
@@ -16,6 +16,10 @@ import daro.lang.interpreter.Scope;
  * @author Roland Bernard
  */
 public class DaroTypeModule extends DaroType {
+    /**
+     * The shared instance of this type.
+     */
+    public static final DaroTypeModule INSTANCE = new DaroTypeModule();
 
     @Override
     public DaroObject instantiate(ExecutionContext context) {
@@ -11,6 +11,10 @@ import daro.lang.interpreter.InterpreterException;
  * @author Roland Bernard
  */
 public class DaroTypeNativePackage extends DaroType {
+    /**
+     * The shared instance of this type.
+     */
+    public static final DaroTypeNativePackage INSTANCE = new DaroTypeNativePackage();
 
     @Override
     public DaroObject instantiate(ExecutionContext context) {
@@ -12,6 +12,10 @@ import daro.lang.interpreter.InterpreterException;
  * @author Roland Bernard
  */
 public class DaroTypeReal extends DaroType {
+    /**
+     * The shared instance of this type.
+     */
+    public static final DaroTypeReal INSTANCE = new DaroTypeReal();
 
     @Override
     public DaroObject instantiate(ExecutionContext context) {
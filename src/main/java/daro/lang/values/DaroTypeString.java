@@ -12,6 +12,10 @@ import daro.lang.interpreter.InterpreterException;
  * @author Roland Bernard
  */
 public class DaroTypeString extends DaroType {
+    /**
+     * The shared instance of this type.
+     */
+    public static final DaroTypeString INSTANCE = new DaroTypeString();
 
     @Override
     public DaroObject instantiate(ExecutionContext context) {
@@ -12,10 +12,14 @@ import daro.lang.interpreter.InterpreterException;
  * @author Roland Bernard
  */
 public class DaroTypeType extends DaroType {
+    /**
+     * The shared instance of this type.
+     */
+    public static final DaroTypeType INSTANCE = new DaroTypeType();
 
     @Override
     public DaroObject instantiate(ExecutionContext context) {
-        return new DaroNull();
+        return DaroNull.NULL;
     }
 
     @Override
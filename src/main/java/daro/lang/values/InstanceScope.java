@@ -0,0 +1,141 @@
+package daro.lang.values;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import daro.lang.interpreter.BlockScope;
+import daro.lang.interpreter.Scope;
+import daro.lang.interpreter.Shape;
+import daro.lang.interpreter.ShapedScope;
+
+/**
+ * This scope stores the fields of a {@link DaroClass} instance. The final level
+ * of the scope contains, in addition to the fields, the methods of the instance
+ * that are not shadowed by a field. The methods are therefore part of the
+ * members, the equality and the string representation of the instance, even
+ * though they are only bound when they are first accessed.
+ *
+ * @author Roland Bernard
+ */
+final class InstanceScope extends ShapedScope {
+    private final DaroClass instance;
+
+    /**
+     * Creates a new empty scope for the fields of the given instance.
+     *
+     * @param instance The instance the scope belongs to
+     * @param shape    The root shape of the scope
+     * @param parent   The parent scope
+     */
+    InstanceScope(DaroClass instance, Shape shape, Scope ...parent) {
+        super(shape, parent);
+        this.instance = instance;
+    }
+
+    @Override
+    public Scope getFinalLevel() {
+        return new FinalLevel(variables);
+    }
+
+    /**
+     * This is the final level of an {@link InstanceScope}. It shares the fields
+     * with the instance scope, and contains also the methods of the instance.
+     * Writing to a method defines a new field shadowing it.
+     */
+    private final class FinalLevel extends BlockScope {
+
+        /**
+         * Creates a new final level using the given fields.
+         *
+         * @param variables The fields of the instance
+         */
+        private FinalLevel(Map<String, DaroObject> variables) {
+            super(variables);
+        }
+
+        /**
+         * Returns the index of the method with the given name inside the
+         * prototype, or -1 if there is no such method or it is shadowed by a field.
+         *
+         * @param name The name of the method
+         * @return The index of the method
+         */
+        private int getMethodIndex(String name) {
+            if (variables.containsKey(name)) {
+                return -1;
+            } else {
+                return ((DaroTypeClass)instance.getType()).getPrototype().getIndex(name);
+            }
+        }
+
+        /**
+         * Returns the fields and methods of the instance, without any of the
+         * variables in the parent scopes.
+         *
+         * @return The members of the instance
+         */
+        private Map<String, DaroObject> getLocalMapping() {
+            ClassPrototype prototype = ((DaroTypeClass)instance.getType()).getPrototype();
+            Map<String, DaroObject> result = new HashMap<>();
+            for (int i = 0; i < prototype.getMethods().length; i++) {
+                result.put(prototype.getMethods()[i].getName(), instance.getMethod(i));
+            }
+            result.putAll(variables);
+            return result;
+        }
+
+        @Override
+        public Scope getFinalLevel() {
+            return new FinalLevel(variables);
+        }
+
+        @Override
+        protected boolean containsLocalVariable(String name) {
+            return super.containsLocalVariable(name) || getMethodIndex(name) >= 0;
+        }
+
+        @Override
+        protected DaroObject getLocalVariableValue(String name) {
+            int method = getMethodIndex(name);
+            if (method >= 0) {
+                return instance.getMethod(method);
+            } else {
+                return super.getLocalVariableValue(name);
+            }
+        }
+
+        @Override
+        public Map<String, DaroObject> getCompleteMapping() {
+            Map<String, DaroObject> result = new HashMap<>();
+            return safeRecursion(() -> {
+                for (int i = parents.length - 1; i >= 0; i--) {
+                    result.putAll(parents[i].getCompleteMapping());
+                }
+                result.putAll(getLocalMapping());
+                return result;
+            }, result);
+        }
+
+        @Override
+        public int hashCode() {
+            return safeRecursion(() -> {
+                return (971 * Objects.hashCode(getLocalMapping())) ^ (991 * Arrays.hashCode(parents));
+            }, 42);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            return safeRecursion(() -> {
+                if (object instanceof FinalLevel) {
+                    FinalLevel scope = (FinalLevel)object;
+                    return Objects.equals(getLocalMapping(), scope.getLocalMapping())
+                        && Arrays.equals(parents, scope.parents);
+                } else {
+                    return false;
+                }
+            }, this == object);
+        }
+    }
+}
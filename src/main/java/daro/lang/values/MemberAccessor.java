@@ -0,0 +1,21 @@
+package daro.lang.values;
+
+/**
+ * This interface is implemented by objects that read a single member of
+ * objects with a common member layout. Accessors are returned by
+ * {@link DaroObject#getMemberAccessor(String)} and are cached at the places
+ * where members are accessed, so that later accesses to objects of the same
+ * layout do not have to look up the member by name.
+ *
+ * @author Roland Bernard
+ */
+public interface MemberAccessor {
+    /**
+     * Read the member from the given object. The object must have the layout the
+     * accessor was created for.
+     *
+     * @param receiver The object to read the member from
+     * @return The value of the member, or null if it is undefined
+     */
+    public DaroObject getValue(DaroObject receiver);
+}
@@ -0,0 +1,124 @@
+package daro.lang.values;
+
+import java.util.Map;
+
+import daro.lang.interpreter.AbstractScope;
+import daro.lang.interpreter.ConstantScope;
+import daro.lang.interpreter.Scope;
+import daro.lang.interpreter.VariableLocation;
+
+/**
+ * This scope contains the methods of a {@link DaroClass} instance, and, when it
+ * is used as the parent of the instance scope, the {@code this} variable. The
+ * methods are taken from the {@link ClassPrototype} of the class and are bound
+ * to the instance only when they are first accessed. Like a
+ * {@link ConstantScope}, the scope can not be written to. Writing a variable
+ * with the name of a method defines a field in the instance that shadows the
+ * method.
+ *
+ * @author Roland Bernard
+ */
+final class PrototypeScope extends AbstractScope {
+    private final DaroClass instance;
+    private final ClassPrototype prototype;
+    private final boolean withThis;
+
+    /**
+     * Creates a new scope for the methods of the given instance.
+     *
+     * @param instance The instance the methods are bound to
+     * @param withThis Whether the scope should contain the {@code this} variable
+     * @param parent   The parent scope
+     */
+    PrototypeScope(DaroClass instance, boolean withThis, Scope ...parent) {
+        super(Map.of(), parent);
+        this.instance = instance;
+        this.prototype = ((DaroTypeClass)instance.getType()).getPrototype();
+        this.withThis = withThis;
+    }
+
+    @Override
+    public Scope getFinalLevel() {
+        return new PrototypeScope(instance, false);
+    }
+
+    @Override
+    protected boolean containsLocalVariable(String name) {
+        return (withThis && name.equals("this")) || prototype.getIndex(name) >= 0;
+    }
+
+    @Override
+    protected DaroObject getLocalVariableValue(String name) {
+        if (withThis && name.equals("this")) {
+            return instance;
+        } else {
+            return instance.getMethod(prototype.getIndex(name));
+        }
+    }
+
+    @Override
+    protected VariableLocation getLocalVariableLocation(String name) {
+        return null;
+    }
+
+    @Override
+    public Map<String, DaroObject> getCompleteMapping() {
+        Map<String, DaroObject> mapping = super.getCompleteMapping();
+        for (int i = 0; i < prototype.getMethods().length; i++) {
+            mapping.put(prototype.getMethods()[i].getName(), instance.getMethod(i));
+        }
+        if (withThis) {
+            mapping.put("this", instance);
+        }
+        return mapping;
+    }
+
+    @Override
+    public VariableLocation getVariableLocation(String name) {
+        if (containsLocalVariable(name)) {
+            return null;
+        } else {
+            return safeRecursion(() -> {
+                for (Scope parent : parents) {
+                    if (parent.containsVariable(name)) {
+                        // If the variable exists here, it will shadow all later parents
+                        return parent.getVariableLocation(name);
+                    }
+                }
+                for (Scope parent : parents) {
+                    VariableLocation location = parent.getVariableLocation(name);
+                    if (location != null) {
+                        return location;
+                    }
+                }
+                return null;
+            }, null);
+        }
+    }
+
+    @Override
+    public void reset() {
+        safeRecursion(() -> {
+            resetParents();
+            for (Scope parent : parents) {
+                parent.reset();
+            }
+            return null;
+        }, null);
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(instance);
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (object instanceof PrototypeScope) {
+            PrototypeScope scope = (PrototypeScope)object;
+            return instance == scope.instance && withThis == scope.withThis;
+        } else {
+            return false;
+        }
+    }
+}
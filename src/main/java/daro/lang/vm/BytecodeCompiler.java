@@ -0,0 +1,618 @@
+package daro.lang.vm;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import daro.lang.ast.*;
+import daro.lang.interpreter.LiteralPool;
+import daro.lang.interpreter.ScopeInitializer;
+import daro.lang.values.*;
+
+/**
+ * This class is used to compile an ast into {@link Code} that can be executed
+ * by the {@link Machine}. The bodies of functions and classes are compiled into
+ * separate units of code. Like the {@link daro.lang.interpreter.NodeCompiler},
+ * the compiler expects the ast to have been resolved by the
+ * {@link daro.lang.interpreter.VariableResolver}.
+ *
+ * @author Roland Bernard
+ */
+public class BytecodeCompiler implements Visitor<Void> {
+    private final Map<AstNode, Code> units;
+    private final Map<AstClass, ClassPrototype> prototypes;
+    private CodeBuilder builder;
+
+    /**
+     * Create a new {@link BytecodeCompiler}.
+     */
+    public BytecodeCompiler() {
+        this.units = new IdentityHashMap<>();
+        this.prototypes = new IdentityHashMap<>();
+    }
+
+    /**
+     * Compile the given program. Executing the result will first initialize the
+     * scope of the context with the declarations of the program, similar to the
+     * {@link daro.lang.interpreter.ScopeInitializer}, and then execute the
+     * program.
+     *
+     * @param program The program to compile
+     * @return The compiled code
+     */
+    public static Code compileProgram(AstNode program) {
+        return (new BytecodeCompiler()).compileUnit(program, null);
+    }
+
+    /**
+     * Compile the body of the given function. The result has to be executed in
+     * the scope containing the parameters of the function.
+     *
+     * @param function The function to compile
+     * @return The compiled code
+     */
+    public static Code compileFunction(AstFunction function) {
+        return (new BytecodeCompiler()).compileBody(function);
+    }
+
+    /**
+     * Compile the given node into a new unit of code. The code will initialize the
+     * current scope with the declarations of the node.
+     *
+     * @param program    The node to compile
+     * @param parameters The names of the parameters, or null
+     * @return The compiled code
+     */
+    private Code compileUnit(AstNode program, String[] parameters) {
+        CodeBuilder outer = builder;
+        builder = new CodeBuilder(parameters);
+        try {
+            compileDeclarations(program);
+            compile(program);
+            builder.emit(Opcode.END, program);
+            return builder.build();
+        } finally {
+            builder = outer;
+        }
+    }
+
+    /**
+     * Compile the body of the given function, or return the existing code if it
+     * has already been compiled.
+     *
+     * @param function The function to compile
+     * @return The compiled code
+     */
+    private Code compileBody(AstFunction function) {
+        Code code = units.get(function);
+        if (code == null) {
+            AstSymbol[] symbols = function.getParameters();
+            String[] parameters = new String[symbols.length];
+            for (int i = 0; i < symbols.length; i++) {
+                parameters[i] = symbols[i].getName();
+            }
+            code = compileUnit(function.getBody(), parameters);
+            units.put(function, code);
+        }
+        return code;
+    }
+
+    /**
+     * Compile the prototype of the given class, or return the existing prototype
+     * if it has already been compiled.
+     *
+     * @param classNode The class to compile
+     * @return The prototype containing the compiled code
+     */
+    private ClassPrototype compilePrototype(AstClass classNode) {
+        ClassPrototype prototype = prototypes.get(classNode);
+        if (prototype == null) {
+            prototype = new ClassPrototype(classNode);
+            AstFunction[] methods = prototype.getMethods();
+            Code[] bodies = new Code[methods.length];
+            for (int i = 0; i < methods.length; i++) {
+                bodies[i] = compileBody(methods[i]);
+            }
+            prototype = prototype.withCompiledCode(compileUnit(prototype.getFields(), null), bodies);
+            prototypes.put(classNode, prototype);
+        }
+        return prototype;
+    }
+
+    /**
+     * Emit the code for initializing the current scope with the declarations of
+     * the given node.
+     *
+     * @param program The node containing the declarations
+     */
+    private void compileDeclarations(AstNode program) {
+        for (AstNode declaration : ScopeInitializer.getDeclarations(program)) {
+            compile(declaration);
+            builder.emit(Opcode.POP, declaration);
+        }
+    }
+
+    /**
+     * Compile the given {@link AstNode}. The resulting code will push exactly one
+     * value onto the stack.
+     *
+     * @param program The node to compile
+     */
+    public void compile(AstNode program) {
+        if (program != null) {
+            program.accept(this);
+        } else {
+            builder.emit(Opcode.CONST, builder.constant(null), null);
+        }
+    }
+
+    /**
+     * Compile the given {@link AstNode} such that the resulting code throws an
+     * exception if the value is undefined.
+     *
+     * @param program The node to compile
+     */
+    private void require(AstNode program) {
+        compile(program);
+        if (
+            !(program instanceof AstInteger || program instanceof AstReal || program instanceof AstString
+                || program instanceof AstCharacter || program instanceof AstSymbol)
+        ) {
+            builder.emit(Opcode.REQUIRE, program);
+        }
+    }
+
+    /**
+     * This is a utility function for compiling binary operations.
+     *
+     * @param ast    The ast to compile
+     * @param opcode The opcode of the operation
+     */
+    private void compileBinary(AstBinaryNode ast, int opcode) {
+        require(ast.getLeft());
+        require(ast.getRight());
+        builder.emit(opcode, ast);
+    }
+
+    /**
+     * This is a utility function for compiling unary operations.
+     *
+     * @param ast    The ast to compile
+     * @param opcode The opcode of the operation
+     */
+    private void compileUnary(AstUnaryNode ast, int opcode) {
+        require(ast.getOperand());
+        builder.emit(opcode, ast);
+    }
+
+    @Override
+    public Void visit(AstInteger ast) {
+        builder.emit(Opcode.CONST, builder.constant(LiteralPool.valueOf(ast)), ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstReal ast) {
+        builder.emit(Opcode.CONST, builder.constant(LiteralPool.valueOf(ast)), ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstString ast) {
+        builder.emit(Opcode.CONST, builder.constant(LiteralPool.valueOf(ast)), ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstCharacter ast) {
+        builder.emit(Opcode.CONST, builder.constant(LiteralPool.valueOf(ast)), ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstAddition ast) {
+        compileBinary(ast, Opcode.ADD);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstSubtract ast) {
+        compileBinary(ast, Opcode.SUBTRACT);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstMultiply ast) {
+        compileBinary(ast, Opcode.MULTIPLY);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstDivide ast) {
+        compileBinary(ast, Opcode.DIVIDE);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstRemainder ast) {
+        compileBinary(ast, Opcode.REMAINDER);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstShiftLeft ast) {
+        compileBinary(ast, Opcode.SHIFT_LEFT);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstShiftRight ast) {
+        compileBinary(ast, Opcode.SHIFT_RIGHT);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstEqual ast) {
+        compileBinary(ast, Opcode.EQUAL);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstNotEqual ast) {
+        compileBinary(ast, Opcode.NOT_EQUAL);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstLessThan ast) {
+        compileBinary(ast, Opcode.LESS_THAN);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstLessOrEqual ast) {
+        compileBinary(ast, Opcode.LESS_OR_EQUAL);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstMoreThan ast) {
+        compileBinary(ast, Opcode.MORE_THAN);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstMoreOrEqual ast) {
+        compileBinary(ast, Opcode.MORE_OR_EQUAL);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstBitwiseAnd ast) {
+        compileBinary(ast, Opcode.BITWISE_AND);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstBitwiseOr ast) {
+        compileBinary(ast, Opcode.BITWISE_OR);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstBitwiseXor ast) {
+        compileBinary(ast, Opcode.BITWISE_XOR);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstPower ast) {
+        compileBinary(ast, Opcode.POWER);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstAnd ast) {
+        require(ast.getLeft());
+        int jumpFalse = builder.emit(Opcode.JUMP_FALSE, ast);
+        require(ast.getRight());
+        builder.emit(Opcode.TRUTH, ast);
+        int jumpEnd = builder.emit(Opcode.JUMP, ast);
+        builder.patch(jumpFalse, builder.position());
+        builder.emit(Opcode.CONST, builder.constant(DaroBoolean.FALSE), ast);
+        builder.patch(jumpEnd, builder.position());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstOr ast) {
+        require(ast.getLeft());
+        int jumpFalse = builder.emit(Opcode.JUMP_FALSE, ast);
+        builder.emit(Opcode.CONST, builder.constant(DaroBoolean.TRUE), ast);
+        int jumpEnd = builder.emit(Opcode.JUMP, ast);
+        builder.patch(jumpFalse, builder.position());
+        require(ast.getRight());
+        builder.emit(Opcode.TRUTH, ast);
+        builder.patch(jumpEnd, builder.position());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstPositive ast) {
+        compileUnary(ast, Opcode.POSITIVE);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstNegative ast) {
+        compileUnary(ast, Opcode.NEGATIVE);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstBitwiseNot ast) {
+        compileUnary(ast, Opcode.BITWISE_NOT);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstNot ast) {
+        compileUnary(ast, Opcode.NOT);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstReturn ast) {
+        if (ast.getOperand() == null) {
+            builder.emit(Opcode.CONST, builder.constant(null), ast);
+        } else {
+            require(ast.getOperand());
+        }
+        builder.emit(Opcode.RETURN, ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstClass ast) {
+        builder.emit(Opcode.CLASS, builder.constant(compilePrototype(ast)), ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstFunction ast) {
+        builder.emit(Opcode.FUNCTION, builder.constant(compileBody(ast)), ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstBlock ast) {
+        builder.emit(Opcode.ENTER_BLOCK, ast);
+        compileDeclarations(ast.getSequence());
+        compile(ast.getSequence());
+        builder.emit(Opcode.LEAVE_BLOCK, ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstSequence ast) {
+        AstNode[] statements = ast.getStatements();
+        if (statements.length == 0) {
+            builder.emit(Opcode.CONST, builder.constant(null), ast);
+        } else {
+            for (int i = 0; i < statements.length; i++) {
+                if (i != 0) {
+                    builder.emit(Opcode.POP, statements[i - 1]);
+                }
+                compile(statements[i]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compile the given node as the target of the given assignment. The resulting
+     * code will push a {@link daro.lang.interpreter.VariableLocation} or null onto
+     * the stack.
+     *
+     * @param ast        The node to compile
+     * @param assignment The assignment the node is the target of
+     */
+    private void compileLocation(AstNode ast, AstAssignment assignment) {
+        if (ast instanceof AstSymbol) {
+            builder.emit(Opcode.LOCATE, builder.constant(ast), assignment);
+        } else if (ast instanceof AstMember) {
+            compile(((AstMember)ast).getOperand());
+            builder.emit(Opcode.LOCATE_MEMBER, builder.constant(ast), assignment);
+        } else if (ast instanceof AstIndex) {
+            compile(((AstIndex)ast).getLeft());
+            compile(((AstIndex)ast).getRight());
+            builder.emit(Opcode.LOCATE_INDEX, builder.constant(ast), assignment);
+        } else {
+            builder.emit(Opcode.LOCATE_NODE, builder.constant(ast), assignment);
+        }
+    }
+
+    @Override
+    public Void visit(AstAssignment ast) {
+        if (ast.getLeft() instanceof AstSymbol && ((AstSymbol)ast.getLeft()).isResolved()) {
+            require(ast.getRight());
+            builder.emit(Opcode.STORE_SYMBOL, builder.constant(ast.getLeft()), ast);
+        } else {
+            compileLocation(ast.getLeft(), ast);
+            require(ast.getRight());
+            builder.emit(Opcode.STORE, ast);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(AstSymbol ast) {
+        builder.emit(Opcode.LOAD, ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstMember ast) {
+        require(ast.getOperand());
+        builder.emit(Opcode.MEMBER, ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstCall ast) {
+        AstNode[] parameters = ast.getParameters();
+        require(ast.getFunction());
+        builder.emit(Opcode.CHECK_CALL, parameters.length, ast);
+        for (AstNode parameter : parameters) {
+            require(parameter);
+        }
+        builder.emit(ast.isTailCall() ? Opcode.TAIL_CALL : Opcode.CALL, parameters.length, ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstIndex ast) {
+        compileBinary(ast, Opcode.INDEX);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstNew ast) {
+        require(ast.getType());
+        builder.emit(Opcode.NEW, ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstArray ast) {
+        require(ast.getRight());
+        builder.emit(Opcode.CHECK_TYPE, ast);
+        compile(ast.getLeft());
+        builder.emit(Opcode.ARRAY_TYPE, ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstIfElse ast) {
+        require(ast.getCondition());
+        int jumpElse = builder.emit(Opcode.JUMP_FALSE, ast);
+        compile(ast.getIf());
+        int jumpEnd = builder.emit(Opcode.JUMP, ast);
+        builder.patch(jumpElse, builder.position());
+        compile(ast.getElse());
+        builder.patch(jumpEnd, builder.position());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstFor ast) {
+        builder.emit(Opcode.CONST, builder.constant(null), ast);
+        int start = builder.position();
+        require(ast.getCondition());
+        int jumpEnd = builder.emit(Opcode.JUMP_FALSE, ast);
+        builder.emit(Opcode.POP, ast);
+        compile(ast.getBody());
+        builder.emit(Opcode.JUMP, start, ast);
+        builder.patch(jumpEnd, builder.position());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstForIn ast) {
+        String[] names = new String[] {
+            ast.getVariable().getName()
+        };
+        require(ast.getList());
+        builder.emit(Opcode.FOR_IN_BEGIN, builder.constant(names), ast);
+        int next = builder.emit(Opcode.FOR_IN_NEXT, ast);
+        compile(ast.getBody());
+        builder.emit(Opcode.FOR_IN_STORE, ast);
+        builder.emit(Opcode.JUMP, next, ast);
+        builder.patch(next, builder.position());
+        return null;
+    }
+
+    @Override
+    public Void visit(AstInitializer ast) {
+        builder.emit(Opcode.ERROR, ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstUse ast) {
+        compileUnary(ast, Opcode.USE);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstFrom ast) {
+        compileUnary(ast, Opcode.FROM);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstMatch ast) {
+        AstMatchCase[] cases = ast.getCases();
+        int[][] jumps = new int[cases.length][];
+        boolean hasDefault = false;
+        require(ast.getValue());
+        for (int i = 0; i < cases.length && !hasDefault; i++) {
+            AstNode[] values = cases[i].getValues();
+            if (values == null) {
+                jumps[i] = new int[] {
+                    builder.emit(Opcode.JUMP, cases[i])
+                };
+                hasDefault = true;
+            } else {
+                jumps[i] = new int[values.length];
+                for (int j = 0; j < values.length; j++) {
+                    require(values[j]);
+                    jumps[i][j] = builder.emit(Opcode.JUMP_EQUAL, values[j]);
+                }
+            }
+        }
+        List<Integer> ends = new ArrayList<>();
+        if (!hasDefault) {
+            builder.emit(Opcode.POP, ast);
+            builder.emit(Opcode.CONST, builder.constant(null), ast);
+            ends.add(builder.emit(Opcode.JUMP, ast));
+        }
+        for (int i = 0; i < cases.length && jumps[i] != null; i++) {
+            for (int jump : jumps[i]) {
+                builder.patch(jump, builder.position());
+            }
+            builder.emit(Opcode.POP, cases[i]);
+            compile(cases[i].getStatement());
+            ends.add(builder.emit(Opcode.JUMP, cases[i]));
+        }
+        for (int end : ends) {
+            builder.patch(end, builder.position());
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(AstMatchCase ast) {
+        builder.emit(Opcode.ERROR, ast);
+        return null;
+    }
+
+    @Override
+    public Void visit(AstIndexRange ast) {
+        int flags = 0;
+        require(ast.getArray());
+        if (ast.getStart() != null) {
+            require(ast.getStart());
+            builder.emit(Opcode.CHECK_INTEGER, ast.getStart());
+            flags |= 1;
+        }
+        if (ast.getEnd() != null) {
+            require(ast.getEnd());
+            builder.emit(Opcode.CHECK_INTEGER, ast.getEnd());
+            flags |= 2;
+        }
+        builder.emit(Opcode.INDEX_RANGE, flags, ast);
+        return null;
+    }
+}
@@ -0,0 +1,72 @@
+package daro.lang.vm;
+
+import daro.lang.ast.AstNode;
+import daro.lang.interpreter.CompiledNode;
+import daro.lang.interpreter.ExecutionContext;
+import daro.lang.values.DaroObject;
+
+/**
+ * This class represents a unit of compiled bytecode, e.g. the body of a
+ * function, the body of a class or a complete program. Every instruction is
+ * associated with the {@link AstNode} it was compiled from, which is used for
+ * reporting errors. The code can be executed as a {@link CompiledNode}, in
+ * which case it will be executed by a new {@link Machine}.
+ *
+ * @author Roland Bernard
+ */
+public final class Code implements CompiledNode {
+    final int[] instructions;
+    final AstNode[] nodes;
+    final Object[] constants;
+    final String[] parameters;
+
+    /**
+     * Create a new unit of bytecode.
+     *
+     * @param instructions The instructions of the code
+     * @param nodes        The ast nodes associated with the instructions
+     * @param constants    The constants used by the instructions
+     * @param parameters   The names of the parameters, or null if the code is not
+     *                     the body of a function
+     */
+    Code(int[] instructions, AstNode[] nodes, Object[] constants, String[] parameters) {
+        this.instructions = instructions;
+        this.nodes = nodes;
+        this.constants = constants;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Returns the number of instructions in this code.
+     *
+     * @return The length of the code
+     */
+    public int getLength() {
+        return instructions.length;
+    }
+
+    /**
+     * Returns the opcode of the instruction at the given index.
+     *
+     * @param index The index of the instruction
+     * @return The opcode of the instruction
+     */
+    public int getOpcode(int index) {
+        return instructions[index] & 0xff;
+    }
+
+    /**
+     * Returns the operand of the instruction at the given index.
+     *
+     * @param index The index of the instruction
+     * @return The operand of the instruction
+     */
+    public int getOperand(int index) {
+        return instructions[index] >>> 8;
+    }
+
+    @Override
+    public DaroObject execute(ExecutionContext context) {
+        return (new Machine(context)).run(this);
+    }
+}
@@ -0,0 +1,105 @@
+package daro.lang.vm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import daro.lang.ast.AstNode;
+
+/**
+ * This class is used by the {@link BytecodeCompiler} to assemble a single unit
+ * of {@link Code}.
+ *
+ * @author Roland Bernard
+ */
+class CodeBuilder {
+    private final String[] parameters;
+    private final List<Object> constants;
+    private int[] instructions;
+    private AstNode[] nodes;
+    private int length;
+
+    /**
+     * Create a new empty {@link CodeBuilder}.
+     *
+     * @param parameters The names of the parameters, or null
+     */
+    public CodeBuilder(String[] parameters) {
+        this.parameters = parameters;
+        this.constants = new ArrayList<>();
+        this.instructions = new int[32];
+        this.nodes = new AstNode[32];
+        this.length = 0;
+    }
+
+    /**
+     * Append a new instruction to the code.
+     *
+     * @param opcode  The opcode of the instruction
+     * @param operand The operand of the instruction
+     * @param node    The ast node the instruction was compiled from
+     * @return The index of the new instruction
+     */
+    public int emit(int opcode, int operand, AstNode node) {
+        if (length == instructions.length) {
+            instructions = Arrays.copyOf(instructions, 2 * length);
+            nodes = Arrays.copyOf(nodes, 2 * length);
+        }
+        instructions[length] = opcode | (operand << 8);
+        nodes[length] = node;
+        return length++;
+    }
+
+    /**
+     * Append a new instruction without operand to the code.
+     *
+     * @param opcode The opcode of the instruction
+     * @param node   The ast node the instruction was compiled from
+     * @return The index of the new instruction
+     */
+    public int emit(int opcode, AstNode node) {
+        return emit(opcode, 0, node);
+    }
+
+    /**
+     * Add the given value to the constants of the code.
+     *
+     * @param value The value to add
+     * @return The index of the constant
+     */
+    public int constant(Object value) {
+        constants.add(value);
+        return constants.size() - 1;
+    }
+
+    /**
+     * Returns the index the next instruction will be emitted at.
+     *
+     * @return The index of the next instruction
+     */
+    public int position() {
+        return length;
+    }
+
+    /**
+     * Change the operand of the instruction at the given index. This is used to
+     * set the target of forward jumps.
+     *
+     * @param index   The index of the instruction
+     * @param operand The new operand
+     */
+    public void patch(int index, int operand) {
+        instructions[index] = (instructions[index] & 0xff) | (operand << 8);
+    }
+
+    /**
+     * Create the {@link Code} containing all the instructions emitted so far.
+     *
+     * @return The new code
+     */
+    public Code build() {
+        return new Code(
+            Arrays.copyOf(instructions, length), Arrays.copyOf(nodes, length), constants.toArray(), parameters
+        );
+    }
+}
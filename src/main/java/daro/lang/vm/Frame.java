@@ -0,0 +1,99 @@
+package daro.lang.vm;
+
+import daro.lang.interpreter.BlockScope;
+import daro.lang.interpreter.ExecutionContext;
+import daro.lang.interpreter.Scope;
+
+/**
+ * This class represents a single activation record inside the {@link Machine}.
+ * Frames are allocated on the heap, so calls between compiled functions do not
+ * consume any space on the Java stack. Finished frames are reused by later
+ * calls.
+ *
+ * @author Roland Bernard
+ */
+class Frame {
+    Code code;
+    int base;
+    boolean function;
+    int pc;
+    Scope scope;
+    private Scope initial;
+    private ExecutionContext context;
+
+    /**
+     * Create a new {@link Frame} executing the given code.
+     *
+     * @param code     The code to execute
+     * @param scope    The scope to execute in
+     * @param base     The height of the stack at the start of the frame
+     * @param function Whether the frame belongs to a function call
+     */
+    public Frame(Code code, Scope scope, int base, boolean function) {
+        reset(code, scope, base, function);
+    }
+
+    /**
+     * Reinitialize this {@link Frame} to execute the given code. This allows the
+     * {@link Machine} to reuse frames instead of allocating a new one per call.
+     *
+     * @param code     The code to execute
+     * @param scope    The scope to execute in
+     * @param base     The height of the stack at the start of the frame
+     * @param function Whether the frame belongs to a function call
+     */
+    void reset(Code code, Scope scope, int base, boolean function) {
+        this.code = code;
+        this.scope = scope;
+        this.initial = scope;
+        this.base = base;
+        this.function = function;
+        this.pc = 0;
+        this.context = null;
+    }
+
+    /**
+     * Release the variables of the function call executed by this {@link Frame}
+     * that are not retained by a closure, including the variables of the blocks
+     * that have not been left because of a return. This must be called only
+     * after the call has finished.
+     */
+    void release() {
+        if (function) {
+            Scope current = scope;
+            while (current instanceof BlockScope) {
+                ((BlockScope)current).release();
+                if (current == initial || current.getParents().length == 0) {
+                    break;
+                }
+                current = current.getParents()[0];
+            }
+        }
+    }
+
+    /**
+     * Release the references held by this {@link Frame} after it has finished, so
+     * that a frame waiting to be reused does not keep any values alive.
+     */
+    void clear() {
+        this.code = null;
+        this.scope = null;
+        this.initial = null;
+        this.context = null;
+    }
+
+    /**
+     * Returns an {@link ExecutionContext} for the current scope of the frame. The
+     * context is derived from the given context and reused as long as the scope
+     * does not change.
+     *
+     * @param parent The context to derive the context from
+     * @return The context for the current scope
+     */
+    public ExecutionContext getContext(ExecutionContext parent) {
+        if (context == null || context.getScope() != scope) {
+            context = parent.forScope(scope);
+        }
+        return context;
+    }
+}
@@ -0,0 +1,843 @@
+package daro.lang.vm;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import daro.lang.ast.*;
+import daro.lang.interpreter.*;
+import daro.lang.values.*;
+
+/**
+ * This class implements the virtual machine executing the {@link Code} generated
+ * by the {@link BytecodeCompiler}. The machine uses a single value stack and an
+ * explicit stack of {@link Frame}s. Calls between functions that have been
+ * compiled to bytecode are executed inside the same dispatch loop, without
+ * recursion on the Java stack. The recursion depth is therefore not limited by
+ * the size of the Java stack, but by {@link ExecutionContext#getCallDepth()}.
+ *
+ * @author Roland Bernard
+ */
+public class Machine {
+    private final ExecutionContext context;
+    private Object[] stack;
+    private int sp;
+    private Frame[] frames;
+    private int fp;
+    private Frame frame;
+    private Frame[] spare;
+    private int spares;
+
+    /**
+     * This class holds the state of a for-in loop while it is executing.
+     */
+    private static class Iteration {
+        final Scope outer;
+        final FrameScope inner;
+        final DaroArray array;
+        int index;
+        DaroObject result;
+
+        /**
+         * Create a new iteration over the given array.
+         *
+         * @param outer The scope surrounding the loop
+         * @param inner The scope containing the loop variable
+         * @param array The array to iterate over
+         */
+        Iteration(Scope outer, FrameScope inner, DaroArray array) {
+            this.outer = outer;
+            this.inner = inner;
+            this.array = array;
+        }
+    }
+
+    /**
+     * Create a new {@link Machine} for execution in the given context. The context
+     * must not have any observers installed.
+     *
+     * @param context The context to execute in
+     */
+    public Machine(ExecutionContext context) {
+        this.context = context;
+        this.stack = new Object[64];
+        this.frames = new Frame[16];
+        this.spare = new Frame[16];
+    }
+
+    /**
+     * Execute the given code in the scope of the machines context.
+     *
+     * @param code The code to execute
+     * @return The result of the execution
+     */
+    public DaroObject run(Code code) {
+        frame = new Frame(code, context.getScope(), sp, false);
+        int depth = fp;
+        while (true) {
+            try {
+                return dispatch(depth);
+            } catch (ReturnException returned) {
+                if (frame.function) {
+                    leave(returned.getReturnValue());
+                } else {
+                    throw returned;
+                }
+            } catch (Exception | Error error) {
+                AstNode node = frame.code.nodes[frame.pc - 1];
+                if (node == null) {
+                    throw error;
+                } else {
+                    throw Executor.locateException(node, error);
+                }
+            }
+        }
+    }
+
+    /**
+     * Push the given value onto the stack.
+     *
+     * @param value The value to push
+     */
+    private void push(Object value) {
+        if (sp == stack.length) {
+            stack = Arrays.copyOf(stack, 2 * sp);
+        }
+        stack[sp++] = value;
+    }
+
+    /**
+     * Remove the value on top of the stack.
+     *
+     * @return The removed value
+     */
+    private Object pop() {
+        Object value = stack[--sp];
+        stack[sp] = null;
+        return value;
+    }
+
+    /**
+     * Returns the value on top of the stack.
+     *
+     * @return The value on top of the stack
+     */
+    private Object peek() {
+        return stack[sp - 1];
+    }
+
+    /**
+     * Enter a new frame executing the given function. Frame objects of finished
+     * calls are reused, so that a call does not allocate a new frame.
+     *
+     * @param code  The code of the function
+     * @param scope The scope containing the parameters of the call
+     */
+    private void enter(Code code, FrameScope scope) {
+        if (fp + 1 >= context.getCallDepth()) {
+            throw new InterpreterException("Call stack overflow");
+        } else if (fp == frames.length) {
+            frames = Arrays.copyOf(frames, 2 * fp);
+        }
+        frames[fp++] = frame;
+        if (spares > 0) {
+            frame = spare[--spares];
+            spare[spares] = null;
+            frame.reset(code, scope, sp, true);
+        } else {
+            frame = new Frame(code, scope, sp, true);
+        }
+    }
+
+    /**
+     * Replace the current function frame with a new frame executing the given
+     * function. The result of the new frame will be returned to the caller of the
+     * replaced frame. The frame object of the replaced frame is reused.
+     *
+     * @param code  The code of the function
+     * @param scope The scope containing the parameters of the call
+     */
+    private void replace(Code code, FrameScope scope) {
+        while (sp > frame.base) {
+            pop();
+        }
+        frame.release();
+        frame.reset(code, scope, frame.base, true);
+    }
+
+    /**
+     * Leave the current function frame, returning the given value to the caller.
+     * The frame object is kept for reuse by a later call.
+     *
+     * @param value The value to return
+     */
+    private void leave(DaroObject value) {
+        while (sp > frame.base) {
+            pop();
+        }
+        frame.release();
+        frame.clear();
+        if (spares == spare.length) {
+            spare = Arrays.copyOf(spare, 2 * spares);
+        }
+        spare[spares++] = frame;
+        frame = frames[--fp];
+        frames[fp] = null;
+        push(value);
+    }
+
+    /**
+     * This is a utility function for checking the result of a binary operation.
+     *
+     * @param left   The left operand
+     * @param right  The right operand
+     * @param result The result of the operation
+     * @return The result, if the operation was supported
+     */
+    private static DaroObject checkBinary(DaroObject left, DaroObject right, DaroObject result) {
+        if (result != null) {
+            return result;
+        } else {
+            throw Operations.unsupported(left, right);
+        }
+    }
+
+    /**
+     * This is a utility function for checking the result of a unary operation.
+     *
+     * @param value  The operand
+     * @param result The result of the operation
+     * @return The result, if the operation was supported
+     */
+    private static DaroObject checkUnary(DaroObject value, DaroObject result) {
+        if (result != null) {
+            return result;
+        } else {
+            throw Operations.unsupported(value);
+        }
+    }
+
+    /**
+     * Execute instructions until the frame at the given depth finishes.
+     *
+     * @param depth The number of frames below the frame that is run
+     * @return The result of the frame
+     */
+    private DaroObject dispatch(int depth) {
+        while (true) {
+            Frame current = frame;
+            int instruction = current.code.instructions[current.pc++];
+            int operand = instruction >>> 8;
+            switch (instruction & 0xff) {
+                case Opcode.CONST:
+                    push(current.code.constants[operand]);
+                    break;
+                case Opcode.POP:
+                    pop();
+                    break;
+                case Opcode.DUP:
+                    push(peek());
+                    break;
+                case Opcode.REQUIRE:
+                    if (peek() == null) {
+                        throw new InterpreterException(
+                            current.code.nodes[current.pc - 1].getPosition(), "Value must not be undefined"
+                        );
+                    }
+                    break;
+                case Opcode.CHECK_INTEGER:
+                    if (!(peek() instanceof DaroInteger)) {
+                        throw new InterpreterException(
+                            current.code.nodes[current.pc - 1].getPosition(), "Index is not an integer"
+                        );
+                    }
+                    break;
+                case Opcode.LOAD:
+                    push(load((AstSymbol)current.code.nodes[current.pc - 1]));
+                    break;
+                case Opcode.STORE_SYMBOL:
+                    storeSymbol((AstSymbol)current.code.constants[operand], (DaroObject)peek());
+                    break;
+                case Opcode.LOCATE:
+                    push(locate((AstSymbol)current.code.constants[operand]));
+                    break;
+                case Opcode.LOCATE_MEMBER:
+                    push(locateMember((AstMember)current.code.constants[operand], (DaroObject)pop()));
+                    break;
+                case Opcode.LOCATE_INDEX: {
+                    DaroObject index = (DaroObject)pop();
+                    DaroObject array = (DaroObject)pop();
+                    push(locateIndex((AstIndex)current.code.constants[operand], array, index));
+                    break;
+                }
+                case Opcode.LOCATE_NODE: {
+                    AstNode target = (AstNode)current.code.constants[operand];
+                    push(LocationEvaluator.execute(current.getContext(context), target));
+                    break;
+                }
+                case Opcode.STORE: {
+                    DaroObject value = (DaroObject)pop();
+                    VariableLocation location = (VariableLocation)pop();
+                    if (location != null) {
+                        location.storeValue(value);
+                        push(value);
+                    } else {
+                        AstAssignment assignment = (AstAssignment)current.code.nodes[current.pc - 1];
+                        throw new InterpreterException(
+                            assignment.getLeft().getPosition(), "Expression can not be written to"
+                        );
+                    }
+                    break;
+                }
+                case Opcode.ADD: {
+                    DaroObject right = (DaroObject)pop();
+                    DaroObject left = (DaroObject)pop();
+                    push(checkBinary(left, right, Operations.add(left, right)));
+                    break;
+                }
+                case Opcode.SUBTRACT: {
+                    DaroObject right = (DaroObject)pop();
+                    DaroObject left = (DaroObject)pop();
+                    push(checkBinary(left, right, Operations.subtract(left, right)));
+                    break;
+                }
+                case Opcode.MULTIPLY: {
+                    DaroObject right = (DaroObject)pop();
+                    DaroObject left = (DaroObject)pop();
+                    push(checkBinary(left, right, Operations.multiply(left, right)));
+                    break;
+                }
+                case Opcode.DIVIDE: {
+                    DaroObject right = (DaroObject)pop();
+                    DaroObject left = (DaroObject)pop();
+                    push(checkBinary(left, right, Operations.divide(left, right)));
+                    break;
+                }
+                case Opcode.REMAINDER: {
+                    DaroObject right = (DaroObject)pop();
+                    DaroObject left = (DaroObject)pop();
+                    push(checkBinary(left, right, Operations.remainder(left, right)));
+                    break;
+                }
+                case Opcode.POWER: {
+                    DaroObject right = (DaroObject)pop();
+                    DaroObject left = (DaroObject)pop();
+                    push(checkBinary(left, right, Operations.power(left, right)));
+                    break;
+                }
+                case Opcode.SHIFT_LEFT: {
+                    DaroObject right = (DaroObject)pop();
+                    DaroObject left = (DaroObject)pop();
+                    push(checkBinary(left, right, Operations.shiftLeft(left, right)));
+                    break;
+                }
+                case Opcode.SHIFT_RIGHT: {
+                    DaroObject right = (DaroObject)pop();
+                    DaroObject left = (DaroObject)pop();
+                    push(checkBinary(left, right, Operations.shiftRight(left, right)));
+                    break;
+                }
+                case Opcode.EQUAL: {
+                    DaroObject right = (DaroObject)pop();
+                    DaroObject left = (DaroObject)pop();
+                    push(checkBinary(left, right, Operations.equal(left, right)));
+                    break;
+                }
+                case Opcode.NOT_EQUAL: {
+                    DaroObject right = (DaroObject)pop();
+                    DaroObject left = (DaroObject)pop();
+                    push(checkBinary(left, right, Operations.notEqual(left, right)));
+                    break;
+                }
+                case Opcode.LESS_THAN: {
+                    DaroObject right = (DaroObject)pop();
+                    DaroObject left = (DaroObject)pop();
+                    push(checkBinary(left, right, Operations.lessThan(left, right)));
+                    break;
+                }
+                case Opcode.LESS_OR_EQUAL: {
+                    DaroObject right = (DaroObject)pop();
+                    DaroObject left = (DaroObject)pop();
+                    push(checkBinary(left, right, Operations.lessOrEqual(left, right)));
+                    break;
+                }
+                case Opcode.MORE_THAN: {
+                    DaroObject right = (DaroObject)pop();
+                    DaroObject left = (DaroObject)pop();
+                    push(checkBinary(left, right, Operations.moreThan(left, right)));
+                    break;
+                }
+                case Opcode.MORE_OR_EQUAL: {
+                    DaroObject right = (DaroObject)pop();
+                    DaroObject left = (DaroObject)pop();
+                    push(checkBinary(left, right, Operations.moreOrEqual(left, right)));
+                    break;
+                }
+                case Opcode.BITWISE_AND: {
+                    DaroObject right = (DaroObject)pop();
+                    DaroObject left = (DaroObject)pop();
+                    push(checkBinary(left, right, Operations.bitwiseAnd(left, right)));
+                    break;
+                }
+                case Opcode.BITWISE_OR: {
+                    DaroObject right = (DaroObject)pop();
+                    DaroObject left = (DaroObject)pop();
+                    push(checkBinary(left, right, Operations.bitwiseOr(left, right)));
+                    break;
+                }
+                case Opcode.BITWISE_XOR: {
+                    DaroObject right = (DaroObject)pop();
+                    DaroObject left = (DaroObject)pop();
+                    push(checkBinary(left, right, Operations.bitwiseXor(left, right)));
+                    break;
+                }
+                case Opcode.POSITIVE: {
+                    DaroObject value = (DaroObject)pop();
+                    push(checkUnary(value, Operations.positive(value)));
+                    break;
+                }
+                case Opcode.NEGATIVE: {
+                    DaroObject value = (DaroObject)pop();
+                    push(checkUnary(value, Operations.negative(value)));
+                    break;
+                }
+                case Opcode.BITWISE_NOT: {
+                    DaroObject value = (DaroObject)pop();
+                    push(checkUnary(value, Operations.bitwiseNot(value)));
+                    break;
+                }
+                case Opcode.NOT: {
+                    DaroObject value = (DaroObject)pop();
+                    push(checkUnary(value, Operations.not(value)));
+                    break;
+                }
+                case Opcode.TRUTH:
+                    push(DaroBoolean.valueOf(((DaroObject)pop()).isTrue()));
+                    break;
+                case Opcode.JUMP:
+                    current.pc = operand;
+                    break;
+                case Opcode.JUMP_FALSE:
+                    if (!((DaroObject)pop()).isTrue()) {
+                        current.pc = operand;
+                    }
+                    break;
+                case Opcode.JUMP_EQUAL: {
+                    DaroObject comparison = (DaroObject)pop();
+                    if (peek().equals(comparison)) {
+                        current.pc = operand;
+                    }
+                    break;
+                }
+                case Opcode.ENTER_BLOCK:
+                    push(current.scope);
+                    current.scope = new BlockScope(current.scope);
+                    break;
+                case Opcode.LEAVE_BLOCK: {
+                    ((BlockScope)current.scope).release();
+                    Object value = pop();
+                    current.scope = (Scope)pop();
+                    push(value);
+                    break;
+                }
+                case Opcode.FUNCTION: {
+                    AstFunction ast = (AstFunction)current.code.nodes[current.pc - 1];
+                    DaroAstFunction value =
+                        new DaroAstFunction(current.scope, ast, (Code)current.code.constants[operand]);
+                    if (ast.getName() != null) {
+                        current.scope.newVariableInFinal(ast.getName(), value);
+                    }
+                    push(value);
+                    break;
+                }
+                case Opcode.CLASS: {
+                    AstClass ast = (AstClass)current.code.nodes[current.pc - 1];
+                    DaroTypeClass value =
+                        new DaroTypeClass(current.scope, ast, (ClassPrototype)current.code.constants[operand]);
+                    if (ast.getName() != null) {
+                        current.scope.newVariableInFinal(ast.getName(), value);
+                    }
+                    push(value);
+                    break;
+                }
+                case Opcode.MEMBER: {
+                    AstMember ast = (AstMember)current.code.nodes[current.pc - 1];
+                    DaroObject value = MemberCache.getMember(ast, (DaroObject)pop());
+                    if (value == null) {
+                        throw new InterpreterException(
+                            ast.getPosition(), "Member variable `" + ast.getName() + "` is undefined"
+                        );
+                    } else {
+                        push(value);
+                    }
+                    break;
+                }
+                case Opcode.INDEX: {
+                    DaroObject index = (DaroObject)pop();
+                    DaroObject object = (DaroObject)pop();
+                    push(index((AstIndex)current.code.nodes[current.pc - 1], object, index));
+                    break;
+                }
+                case Opcode.INDEX_RANGE: {
+                    DaroObject end = (operand & 2) != 0 ? (DaroObject)pop() : null;
+                    DaroObject start = (operand & 1) != 0 ? (DaroObject)pop() : null;
+                    DaroObject object = (DaroObject)pop();
+                    push(indexRange((AstIndexRange)current.code.nodes[current.pc - 1], object, start, end));
+                    break;
+                }
+                case Opcode.CHECK_TYPE:
+                    if (!(peek() instanceof DaroType)) {
+                        AstArray ast = (AstArray)current.code.nodes[current.pc - 1];
+                        throw new InterpreterException(ast.getRight().getPosition(), "Value is not a type");
+                    }
+                    break;
+                case Opcode.ARRAY_TYPE: {
+                    DaroObject size = (DaroObject)pop();
+                    DaroType type = (DaroType)pop();
+                    if (size == null) {
+                        push(new DaroTypeStrictArray(type));
+                    } else if (size instanceof DaroInteger) {
+                        push(new DaroTypeStrictArray(((DaroInteger)size).intValue(), type));
+                    } else {
+                        AstArray ast = (AstArray)current.code.nodes[current.pc - 1];
+                        throw new InterpreterException(ast.getLeft().getPosition(), "Size is not an integer");
+                    }
+                    break;
+                }
+                case Opcode.NEW: {
+                    AstNew ast = (AstNew)current.code.nodes[current.pc - 1];
+                    DaroObject kind = (DaroObject)pop();
+                    if (kind instanceof DaroType) {
+                        DaroType type = (DaroType)kind;
+                        if (ast.getInitializer() != null) {
+                            push(type.instantiate(current.getContext(context), ast.getInitializer()));
+                        } else {
+                            push(type.instantiate(current.getContext(context)));
+                        }
+                    } else {
+                        throw new InterpreterException(ast.getType().getPosition(), "Value is not a type");
+                    }
+                    break;
+                }
+                case Opcode.CHECK_CALL: {
+                    AstCall ast = (AstCall)current.code.nodes[current.pc - 1];
+                    Object function = peek();
+                    if (!(function instanceof DaroFunction)) {
+                        throw new InterpreterException(ast.getFunction().getPosition(), "Value is not a function");
+                    } else if (!((DaroFunction)function).allowsParamCount(operand)) {
+                        throw new InterpreterException(ast.getFunction().getPosition(), "Wrong number of parameters");
+                    }
+                    break;
+                }
+                case Opcode.CALL: {
+                    DaroObject[] arguments = new DaroObject[operand];
+                    for (int i = operand - 1; i >= 0; i--) {
+                        arguments[i] = (DaroObject)pop();
+                    }
+                    DaroFunction function = (DaroFunction)pop();
+                    if (function instanceof DaroAstFunction) {
+                        DaroAstFunction called = (DaroAstFunction)function;
+                        if (called.getCompiledBody() instanceof Code) {
+                            enter((Code)called.getCompiledBody(), called.createFrame(arguments));
+                        } else {
+                            push(called.call(arguments, current.getContext(context), null));
+                        }
+                    } else {
+                        push(function.execute(arguments, current.getContext(context)));
+                    }
+                    break;
+                }
+                case Opcode.TAIL_CALL: {
+                    DaroObject[] arguments = new DaroObject[operand];
+                    for (int i = operand - 1; i >= 0; i--) {
+                        arguments[i] = (DaroObject)pop();
+                    }
+                    DaroFunction function = (DaroFunction)pop();
+                    if (function instanceof DaroAstFunction) {
+                        DaroAstFunction called = (DaroAstFunction)function;
+                        if (current.function && called.getCompiledBody() instanceof Code) {
+                            replace((Code)called.getCompiledBody(), called.createFrame(arguments));
+                        } else if (!current.function) {
+                            // The call will be executed by the invocation of the enclosing function
+                            AstCall ast = (AstCall)current.code.nodes[current.pc - 1];
+                            throw new TailCallException(ast, called, arguments);
+                        } else {
+                            push(called.call(arguments, current.getContext(context), null));
+                        }
+                    } else {
+                        push(function.execute(arguments, current.getContext(context)));
+                    }
+                    break;
+                }
+                case Opcode.FOR_IN_BEGIN: {
+                    DaroObject list = (DaroObject)pop();
+                    if (list instanceof DaroArray) {
+                        FrameScope inner = new FrameScope((String[])current.code.constants[operand], current.scope);
+                        push(new Iteration(current.scope, inner, (DaroArray)list));
+                    } else {
+                        AstForIn ast = (AstForIn)current.code.nodes[current.pc - 1];
+                        throw new InterpreterException(ast.getList().getPosition(), "Value is not an array");
+                    }
+                    break;
+                }
+                case Opcode.FOR_IN_NEXT: {
+                    Iteration iteration = (Iteration)peek();
+                    if (iteration.index < iteration.array.getLength()) {
+                        iteration.inner.setSlotValue(0, iteration.array.getValueAt(iteration.index));
+                        iteration.index++;
+                        current.scope = iteration.inner;
+                    } else {
+                        current.scope = iteration.outer;
+                        iteration.inner.release();
+                        pop();
+                        push(iteration.result);
+                        current.pc = operand;
+                    }
+                    break;
+                }
+                case Opcode.FOR_IN_STORE: {
+                    DaroObject value = (DaroObject)pop();
+                    ((Iteration)peek()).result = value;
+                    break;
+                }
+                case Opcode.USE: {
+                    DaroObject value = (DaroObject)pop();
+                    if (current.scope instanceof AbstractScope) {
+                        ((AbstractScope)current.scope).addParent(value.getMemberScope());
+                        push(null);
+                    } else {
+                        throw new InterpreterException(
+                            current.code.nodes[current.pc - 1].getPosition(),
+                            "Use can not be used in the surrounding context"
+                        );
+                    }
+                    break;
+                }
+                case Opcode.FROM:
+                    push(from((AstFrom)current.code.nodes[current.pc - 1], (DaroObject)pop()));
+                    break;
+                case Opcode.RETURN: {
+                    DaroObject value = (DaroObject)pop();
+                    if (current.function) {
+                        leave(value);
+                    } else {
+                        throw new ReturnException(current.code.nodes[current.pc - 1].getPosition(), value);
+                    }
+                    break;
+                }
+                case Opcode.END: {
+                    DaroObject value = (DaroObject)pop();
+                    if (fp == depth) {
+                        return value;
+                    } else {
+                        leave(value);
+                    }
+                    break;
+                }
+                case Opcode.ERROR:
+                    throw new InterpreterException(current.code.nodes[current.pc - 1].getPosition(), "Execution error");
+                default:
+                    throw new InterpreterException("Invalid instruction");
+            }
+        }
+    }
+
+    /**
+     * Load the value of the given symbol from the current scope.
+     *
+     * @param ast The symbol to load
+     * @return The value of the symbol
+     */
+    private DaroObject load(AstSymbol ast) {
+        DaroObject value;
+        if (ast.isResolved()) {
+            FrameScope resolved = FrameScope.find(frame.scope, ast.getDepth());
+            if (resolved != null && ast.getSlot() < resolved.getSlotCount()) {
+                value = resolved.getSlotValue(ast.getSlot());
+            } else {
+                value = frame.scope.getVariableValue(ast.getName());
+            }
+        } else {
+            value = frame.scope.getVariableValue(ast.getName());
+        }
+        if (value == null) {
+            throw new InterpreterException(ast.getPosition(), "Variable `" + ast.getName() + "` is undefined");
+        } else {
+            return value;
+        }
+    }
+
+    /**
+     * Store the given value into the given resolved symbol.
+     *
+     * @param ast   The symbol to store into
+     * @param value The value to store
+     */
+    private void storeSymbol(AstSymbol ast, DaroObject value) {
+        FrameScope resolved = FrameScope.find(frame.scope, ast.getDepth());
+        if (resolved != null && ast.getSlot() < resolved.getSlotCount()) {
+            resolved.setSlotValue(ast.getSlot(), value);
+        } else {
+            locate(ast).storeValue(value);
+        }
+    }
+
+    /**
+     * Returns the location of the given symbol in the current scope.
+     *
+     * @param ast The symbol to locate
+     * @return The location of the symbol
+     */
+    private VariableLocation locate(AstSymbol ast) {
+        if (ast.isResolved()) {
+            FrameScope resolved = FrameScope.find(frame.scope, ast.getDepth());
+            if (resolved != null && ast.getSlot() < resolved.getSlotCount()) {
+                return resolved.getSlotLocation(ast.getSlot());
+            }
+        }
+        return frame.scope.getVariableLocation(ast.getName());
+    }
+
+    /**
+     * Returns the location of the given member of the given object.
+     *
+     * @param ast    The member to locate
+     * @param object The object containing the member
+     * @return The location of the member
+     */
+    private static VariableLocation locateMember(AstMember ast, DaroObject object) {
+        if (object == null) {
+            throw new InterpreterException(ast.getOperand().getPosition(), "Can not access member of undefined");
+        } else {
+            return object.getMemberScope().getVariableLocation(ast.getName());
+        }
+    }
+
+    /**
+     * Returns the location of the given element of the given array.
+     *
+     * @param ast   The index expression to locate
+     * @param array The array containing the element
+     * @param index The index of the element
+     * @return The location of the element
+     */
+    private static VariableLocation locateIndex(AstIndex ast, DaroObject array, DaroObject index) {
+        if (index instanceof DaroInteger) {
+            int offset = ((DaroInteger)index).intValue();
+            if (array instanceof DaroArray) {
+                DaroArray cast = (DaroArray)array;
+                if (cast.getLength() == 0) {
+                    throw new InterpreterException(ast.getPosition(), "Index out of bounds");
+                } else {
+                    return value -> {
+                        cast.putValueAt(offset, value);
+                    };
+                }
+            } else {
+                throw new InterpreterException(ast.getLeft().getPosition(), "Value is not an array");
+            }
+        } else {
+            throw new InterpreterException(ast.getRight().getPosition(), "Index is not an integer");
+        }
+    }
+
+    /**
+     * Returns the element of the given array or string at the given index.
+     *
+     * @param ast    The index expression
+     * @param object The array or string
+     * @param index  The index of the element
+     * @return The element at the given index
+     */
+    private static DaroObject index(AstIndex ast, DaroObject object, DaroObject index) {
+        if (index instanceof DaroInteger) {
+            int offset = ((DaroInteger)index).intValue();
+            if (object instanceof DaroArray) {
+                DaroArray array = (DaroArray)object;
+                if (array.getLength() == 0) {
+                    throw new InterpreterException(ast.getPosition(), "Index out of bounds");
+                } else {
+                    return array.getValueAt(offset);
+                }
+            } else if (object instanceof DaroString) {
+                DaroString string = (DaroString)object;
+                int length = string.getValue().length();
+                if (length == 0) {
+                    throw new InterpreterException(ast.getPosition(), "Index out of bounds");
+                } else {
+                    int actualIndex = (offset % length + length) % length;
+                    return new DaroString(string.getValue().substring(actualIndex, actualIndex + 1));
+                }
+            } else {
+                throw new InterpreterException(ast.getLeft().getPosition(), "Value is not an array or string");
+            }
+        } else {
+            throw new InterpreterException(ast.getRight().getPosition(), "Index is not an integer");
+        }
+    }
+
+    /**
+     * Returns the given range of the given array or string.
+     *
+     * @param ast    The index range expression
+     * @param object The array or string
+     * @param start  The start of the range, or null
+     * @param end    The end of the range, or null
+     * @return The elements in the range
+     */
+    private static DaroObject indexRange(AstIndexRange ast, DaroObject object, DaroObject start, DaroObject end) {
+        if (object instanceof DaroArray) {
+            DaroArray array = (DaroArray)object;
+            int index = start != null ? ((DaroInteger)start).intValue() : 0;
+            int stop = end != null ? ((DaroInteger)end).intValue() : array.getLength();
+            if (array.getLength() == 0 && index != stop) {
+                throw new InterpreterException(ast.getPosition(), "Index out of bounds");
+            } else {
+                return new DaroArray(array.subList(index, stop));
+            }
+        } else if (object instanceof DaroString) {
+            DaroString string = (DaroString)object;
+            int index = start != null ? ((DaroInteger)start).intValue() : 0;
+            int stop = end != null ? ((DaroInteger)end).intValue() : string.getValue().length();
+            int length = string.getValue().length();
+            if (length == 0 && index != stop) {
+                throw new InterpreterException(ast.getPosition(), "Index out of bounds");
+            } else {
+                StringBuilder result = new StringBuilder();
+                for (int i = 0; i < Math.abs(stop - index); i++) {
+                    int actualIndex;
+                    if (index <= stop) {
+                        actualIndex = ((index + i) % length + length) % length;
+                    } else {
+                        actualIndex = ((index - i) % length + length) % length;
+                    }
+                    result.append(string.getValue().charAt(actualIndex));
+                }
+                return new DaroString(result.toString());
+            }
+        } else {
+            throw new InterpreterException(ast.getArray().getPosition(), "Value is not an array");
+        }
+    }
+
+    /**
+     * Load the module with the given name.
+     *
+     * @param ast  The from expression
+     * @param name The name of the module
+     * @return The loaded module
+     */
+    private DaroObject from(AstFrom ast, DaroObject name) {
+        if (name instanceof DaroString) {
+            Path path = Path.of(((DaroString)name).getValue());
+            Path importFrom = ast.getPosition().getFile();
+            Executor executor = new Executor(frame.getContext(context));
+            if (importFrom != null && importFrom.getParent() != null) {
+                return executor.executeFile(path, importFrom.getParent());
+            } else {
+                return executor.executeFile(path);
+            }
+        } else {
+            throw new InterpreterException(ast.getPosition(), "Expected a string object");
+        }
+    }
+}
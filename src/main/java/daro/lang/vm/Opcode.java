@@ -0,0 +1,132 @@
+package daro.lang.vm;
+
+/**
+ * This class contains the opcodes of the instructions understood by the
+ * {@link Machine}. An instruction is stored as a single integer, the lowest
+ * eight bits containing the opcode and the remaining bits containing the
+ * operand of the instruction.
+ *
+ * @author Roland Bernard
+ */
+public final class Opcode {
+    /** Push the constant with the index given by the operand. */
+    public static final int CONST = 0;
+    /** Remove the value on top of the stack. */
+    public static final int POP = 1;
+    /** Duplicate the value on top of the stack. */
+    public static final int DUP = 2;
+    /** Throw an exception if the value on top of the stack is undefined. */
+    public static final int REQUIRE = 3;
+    /** Throw an exception if the value on top of the stack is not an integer. */
+    public static final int CHECK_INTEGER = 4;
+    /** Push the value of the variable given by the instructions symbol. */
+    public static final int LOAD = 5;
+    /** Store the value on top of the stack into the instructions symbol. */
+    public static final int STORE_SYMBOL = 6;
+    /** Push the location of the instructions symbol. */
+    public static final int LOCATE = 7;
+    /** Replace the object on top of the stack with the location of a member. */
+    public static final int LOCATE_MEMBER = 8;
+    /** Replace the array and index on top of the stack with their location. */
+    public static final int LOCATE_INDEX = 9;
+    /** Push the location of the instructions node using a location evaluator. */
+    public static final int LOCATE_NODE = 10;
+    /** Store the value on top of the stack into the location below it. */
+    public static final int STORE = 11;
+    /** Add the two values on top of the stack. */
+    public static final int ADD = 12;
+    /** Subtract the two values on top of the stack. */
+    public static final int SUBTRACT = 13;
+    /** Multiply the two values on top of the stack. */
+    public static final int MULTIPLY = 14;
+    /** Divide the two values on top of the stack. */
+    public static final int DIVIDE = 15;
+    /** Compute the remainder of the two values on top of the stack. */
+    public static final int REMAINDER = 16;
+    /** Compute the power of the two values on top of the stack. */
+    public static final int POWER = 17;
+    /** Shift the two values on top of the stack to the left. */
+    public static final int SHIFT_LEFT = 18;
+    /** Shift the two values on top of the stack to the right. */
+    public static final int SHIFT_RIGHT = 19;
+    /** Compare the two values on top of the stack for equality. */
+    public static final int EQUAL = 20;
+    /** Compare the two values on top of the stack for inequality. */
+    public static final int NOT_EQUAL = 21;
+    /** Compare the two values on top of the stack using less than. */
+    public static final int LESS_THAN = 22;
+    /** Compare the two values on top of the stack using less or equal. */
+    public static final int LESS_OR_EQUAL = 23;
+    /** Compare the two values on top of the stack using more than. */
+    public static final int MORE_THAN = 24;
+    /** Compare the two values on top of the stack using more or equal. */
+    public static final int MORE_OR_EQUAL = 25;
+    /** Compute the bitwise and of the two values on top of the stack. */
+    public static final int BITWISE_AND = 26;
+    /** Compute the bitwise or of the two values on top of the stack. */
+    public static final int BITWISE_OR = 27;
+    /** Compute the bitwise xor of the two values on top of the stack. */
+    public static final int BITWISE_XOR = 28;
+    /** Apply the unary plus to the value on top of the stack. */
+    public static final int POSITIVE = 29;
+    /** Negate the value on top of the stack. */
+    public static final int NEGATIVE = 30;
+    /** Compute the bitwise not of the value on top of the stack. */
+    public static final int BITWISE_NOT = 31;
+    /** Compute the logical not of the value on top of the stack. */
+    public static final int NOT = 32;
+    /** Replace the value on top of the stack by its truth value. */
+    public static final int TRUTH = 33;
+    /** Jump to the instruction given by the operand. */
+    public static final int JUMP = 34;
+    /** Remove the value on top of the stack and jump if it is false. */
+    public static final int JUMP_FALSE = 35;
+    /** Remove the value on top of the stack and jump if it equals the one below. */
+    public static final int JUMP_EQUAL = 36;
+    /** Enter a new block scope. */
+    public static final int ENTER_BLOCK = 37;
+    /** Leave the current block scope. */
+    public static final int LEAVE_BLOCK = 38;
+    /** Create a function with the body given by the operand. */
+    public static final int FUNCTION = 39;
+    /** Create a class with the prototype given by the operand. */
+    public static final int CLASS = 40;
+    /** Replace the value on top of the stack by one of its members. */
+    public static final int MEMBER = 41;
+    /** Index into the array or string below the index on top of the stack. */
+    public static final int INDEX = 42;
+    /** Take a range of the array or string below the indices on the stack. */
+    public static final int INDEX_RANGE = 43;
+    /** Throw an exception if the value on top of the stack is not a type. */
+    public static final int CHECK_TYPE = 44;
+    /** Create a strict array type from the size and type on the stack. */
+    public static final int ARRAY_TYPE = 45;
+    /** Instantiate the type on top of the stack. */
+    public static final int NEW = 46;
+    /** Check that the value on top of the stack can be called. */
+    public static final int CHECK_CALL = 47;
+    /** Call the function below the number of arguments given by the operand. */
+    public static final int CALL = 48;
+    /** Start iterating over the array on top of the stack. */
+    public static final int FOR_IN_BEGIN = 49;
+    /** Advance the iteration or jump to the operand if it is finished. */
+    public static final int FOR_IN_NEXT = 50;
+    /** Store the result of the last iteration. */
+    public static final int FOR_IN_STORE = 51;
+    /** Add the member scope of the value on top of the stack to the scope. */
+    public static final int USE = 52;
+    /** Load the module named by the value on top of the stack. */
+    public static final int FROM = 53;
+    /** Return the value on top of the stack from the current function. */
+    public static final int RETURN = 54;
+    /** End the execution of the current code, returning the value on top. */
+    public static final int END = 55;
+    /** Throw an execution error. */
+    public static final int ERROR = 56;
+    /** Like {@link #CALL}, but the function may replace the current frame. */
+    public static final int TAIL_CALL = 57;
+
+    private Opcode() {
+        // This class should not be instantiated
+    }
+}
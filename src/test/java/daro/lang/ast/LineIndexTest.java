@@ -0,0 +1,97 @@
+package daro.lang.ast;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import daro.lang.parser.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LineIndexTest {
+
+    @Test
+    void lineNumbers() {
+        LineIndex lines = new LineIndex("0123\n567\n90123\n567");
+        assertEquals(1, lines.lineFromOffset(0));
+        assertEquals(1, lines.lineFromOffset(4));
+        assertEquals(2, lines.lineFromOffset(5));
+        assertEquals(3, lines.lineFromOffset(10));
+        assertEquals(4, lines.lineFromOffset(18));
+    }
+
+    @Test
+    void columnNumbers() {
+        LineIndex lines = new LineIndex("0123\n567\n90123\n567");
+        assertEquals(1, lines.columnFromOffset(0));
+        assertEquals(5, lines.columnFromOffset(4));
+        assertEquals(1, lines.columnFromOffset(5));
+        assertEquals(2, lines.columnFromOffset(10));
+        assertEquals(4, lines.columnFromOffset(18));
+    }
+
+    @Test
+    void emptyLines() {
+        LineIndex lines = new LineIndex("\n\n\n");
+        assertEquals(3, lines.lineFromOffset(2));
+        assertEquals(4, lines.lineFromOffset(3));
+        assertEquals(1, lines.columnFromOffset(3));
+    }
+
+    @Test
+    void manyLines() {
+        LineIndex lines = new LineIndex("line\n".repeat(5000));
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i + 1, lines.lineFromOffset(5 * i + 2));
+            assertEquals(3, lines.columnFromOffset(5 * i + 2));
+        }
+    }
+
+    @Test
+    void scannerPositionsShareIndex() {
+        Scanner scanner = new Scanner("a\nb");
+        Position first = scanner.next().getPosition();
+        Position second = scanner.next().getPosition();
+        assertSame(first.getLineIndex(), second.getLineIndex());
+        assertSame(first.getLineIndex(), new Position(first, second).getLineIndex());
+        assertEquals(2, second.getLine());
+    }
+
+    @Test
+    void editedIndexMatchesNewIndex() {
+        Random random = new Random(42);
+        String text = "a\nbc\n\ndef\n";
+        LineIndex lines = new LineIndex(text);
+        for (int i = 0; i < 100; i++) {
+            int offset = random.nextInt(text.length() + 1);
+            int removed = random.nextInt(Math.min(4, text.length() - offset) + 1);
+            String inserted = "x\ny\n\nz".substring(random.nextInt(7));
+            text = text.substring(0, offset) + inserted + text.substring(offset + removed);
+            LineIndex edited = lines.edit(text, offset, removed, inserted.length());
+            edited.replacePrevious();
+            LineIndex expected = new LineIndex(text);
+            for (int j = 0; j <= text.length(); j++) {
+                assertEquals(expected.lineFromOffset(j), edited.lineFromOffset(j));
+                assertEquals(expected.columnFromOffset(j), edited.columnFromOffset(j));
+            }
+            lines = edited;
+        }
+    }
+
+    @Test
+    void replacedIndexForwardsToEdit() {
+        LineIndex lines = new LineIndex("ab\ncd");
+        LineIndex edited = lines.edit("ab\n\nxcd", 3, 0, 2);
+        assertEquals(2, lines.lineFromOffset(4));
+        edited.replacePrevious();
+        assertEquals(3, lines.lineFromOffset(4));
+        assertEquals(3, lines.columnFromOffset(4));
+        assertEquals("ab\n\nxcd", lines.getText());
+        assertThrows(IllegalStateException.class, () -> {
+            lines.edit("ab", 0, 4, 0);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            edited.edit("ab", 0, 0, 0);
+        });
+    }
+}
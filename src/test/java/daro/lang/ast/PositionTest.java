@@ -118,4 +118,23 @@ public class PositionTest {
    void columnNumberAtEnd() {
       assertEquals(6, Position.columnFromOffset(14, "0123\n567\n90123\n"));
    }
+
+    @Test
+    void positionsMoveWithEdits() {
+        LineIndex lines = new LineIndex("abc\ndef\nghi");
+        Position before = new Position(0, 3, lines, null);
+        Position inside = new Position(4, 7, lines, null);
+        Position after = new Position(8, 11, lines, null);
+        LineIndex edited = lines.edit("abc\nX\nYZf\nghi", 4, 2, 4);
+        assertEquals(8, after.getStart());
+        edited.replacePrevious();
+        assertEquals(0, before.getStart());
+        assertEquals(3, before.getEnd());
+        assertEquals(4, inside.getStart());
+        assertEquals(9, inside.getEnd());
+        assertEquals(10, after.getStart());
+        assertEquals(13, after.getEnd());
+        assertEquals(4, after.getLine());
+        assertEquals("ghi", after.getText().substring(after.getStart(), after.getEnd()));
+    }
 }
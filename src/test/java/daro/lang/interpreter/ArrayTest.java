@@ -444,4 +444,34 @@ public class ArrayTest {
         interpreter.execute("x = new []real {}");
         assertNull(interpreter.execute("x.reduce(fn (a, b) { a + b })"));
     }
+
+    @Test
+    void lengthFollowsChanges() {
+        interpreter.execute("x = new array { 1, 2 }; y = x");
+        interpreter.execute("x.push(3)");
+        assertEquals(new DaroInteger(BigInteger.valueOf(3)), interpreter.execute("y.length"));
+        interpreter.execute("x.pop(); x.pop()");
+        assertEquals(new DaroInteger(BigInteger.valueOf(1)), interpreter.execute("y.length"));
+    }
+
+    @Test
+    void methodsAreBoundToTheirArray() {
+        interpreter.execute("x = new array { 1 }; y = new array { 2 }; p = x.push");
+        interpreter.execute("p(5)");
+        assertEquals(new DaroInteger(BigInteger.valueOf(2)), interpreter.execute("x.length"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(1)), interpreter.execute("y.length"));
+        assertEquals(new DaroBoolean(true), interpreter.execute("x.push == p"));
+        assertEquals(new DaroBoolean(false), interpreter.execute("y.push == p"));
+    }
+
+    @Test
+    void membersCanNotBeWritten() {
+        interpreter.execute("x = new array { 1 }");
+        assertThrows(InterpreterException.class, () -> {
+            interpreter.execute("x.length = 5");
+        });
+        assertThrows(InterpreterException.class, () -> {
+            interpreter.execute("x.push = 5");
+        });
+    }
 }
@@ -0,0 +1,113 @@
+package daro.lang.interpreter;
+
+import org.junit.jupiter.api.Test;
+
+import daro.lang.values.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+public class BlockScopeTest {
+
+    @Test
+    void variablesAreFoundInDeepChains() {
+        BlockScope root = new BlockScope();
+        root.newVariableInFinal("test", new DaroReal(42));
+        BlockScope scope = root;
+        for (int i = 0; i < 1000; i++) {
+            scope = new BlockScope(scope);
+        }
+        assertEquals(new DaroReal(42), scope.getVariableValue("test"));
+        assertTrue(scope.containsVariable("test"));
+        assertFalse(scope.containsVariable("foo"));
+    }
+
+    @Test
+    void firstParentHasPriority() {
+        BlockScope first = new BlockScope();
+        first.newVariableInFinal("test", new DaroReal(1));
+        BlockScope second = new BlockScope();
+        second.newVariableInFinal("test", new DaroReal(2));
+        BlockScope scope = new BlockScope(new BlockScope(first), second);
+        assertEquals(new DaroReal(1), scope.getVariableValue("test"));
+    }
+
+    @Test
+    void addedParentsAreSearched() {
+        BlockScope parent = new BlockScope();
+        BlockScope scope = new BlockScope(new BlockScope(parent));
+        assertNull(scope.getVariableValue("test"));
+        BlockScope module = new BlockScope();
+        module.newVariableInFinal("test", new DaroReal(42));
+        parent.addParent(module);
+        assertEquals(new DaroReal(42), scope.getVariableValue("test"));
+    }
+
+    @Test
+    void parentsAddedToConnectedScopesAreSearched() {
+        BlockScope parent = new BlockScope();
+        BlockScope scope = new BlockScope(new BlockScope(parent));
+        BlockScope module = new BlockScope(new BlockScope());
+        assertNull(scope.getVariableValue("test"));
+        assertNull(module.getVariableValue("test"));
+        parent.addParent(module);
+        assertNull(scope.getVariableValue("test"));
+        BlockScope other = new BlockScope();
+        other.newVariableInFinal("test", new DaroReal(42));
+        module.addParent(other);
+        assertEquals(new DaroReal(42), scope.getVariableValue("test"));
+        assertEquals(new DaroReal(42), module.getVariableValue("test"));
+    }
+
+    @Test
+    void resetRemovesAddedParents() {
+        BlockScope scope = new BlockScope(new BlockScope());
+        BlockScope module = new BlockScope();
+        module.newVariableInFinal("test", new DaroReal(42));
+        scope.addParent(module);
+        assertEquals(new DaroReal(42), scope.getVariableValue("test"));
+        scope.reset();
+        assertNull(scope.getVariableValue("test"));
+    }
+
+    @Test
+    void circularScopesCanBeSearched() {
+        BlockScope first = new BlockScope();
+        BlockScope second = new BlockScope(first);
+        first.addParent(second);
+        second.newVariableInFinal("test", new DaroReal(42));
+        assertEquals(new DaroReal(42), first.getVariableValue("test"));
+        assertNull(first.getVariableValue("foo"));
+        first.getVariableLocation("foo").storeValue(new DaroReal(12));
+        assertEquals(new DaroReal(12), second.getVariableValue("foo"));
+    }
+
+    @Test
+    void writingExistingVariablesChangesParent() {
+        BlockScope parent = new BlockScope();
+        parent.newVariableInFinal("test", new DaroReal(42));
+        BlockScope scope = new BlockScope(new BlockScope(parent));
+        scope.getVariableLocation("test").storeValue(new DaroReal(12));
+        assertEquals(new DaroReal(12), parent.getVariableValue("test"));
+    }
+
+    @Test
+    void writingConstantsShadowsThem() {
+        ConstantScope constants = new ConstantScope(Map.of("test", new DaroReal(42)));
+        BlockScope parent = new BlockScope(constants);
+        BlockScope scope = new BlockScope(parent);
+        scope.getVariableLocation("test").storeValue(new DaroReal(12));
+        assertEquals(new DaroReal(12), parent.getVariableValue("test"));
+        assertEquals(new DaroReal(42), constants.getVariableValue("test"));
+    }
+
+    @Test
+    void usedModulesAreSearchedInOrder() {
+        Interpreter interpreter = new Interpreter();
+        assertEquals(new DaroInteger(3), interpreter.execute(
+            "class A { x = 1; y = 2 }; class B { y = 3 }; a = new A; b = new B;"
+                + "fn f() { { use b; use a; y } }; f()"
+        ));
+    }
+}
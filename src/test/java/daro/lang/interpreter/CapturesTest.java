@@ -0,0 +1,131 @@
+package daro.lang.interpreter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import daro.lang.ast.*;
+import daro.lang.parser.Parser;
+import daro.lang.values.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CapturesTest {
+    private Interpreter interpreter;
+
+    @BeforeEach
+    void initializeInterpreter() {
+        interpreter = new Interpreter();
+    }
+
+    private static Captures analyze(String source) {
+        AstSequence ast = Parser.parseSourceCode(source);
+        VariableResolver.resolveProgram(ast);
+        return (Captures)((AstFunction)ast.getStatements()[0]).getCaptures();
+    }
+
+    @Test
+    void freeVariablesAreCollected() {
+        Captures captures = analyze("fn foo(a) { b = a + c; for d in e { d + f }; fn g(h) { h + i } }");
+        assertArrayEquals(new String[] { "b", "c", "e", "f", "i" }, captures.getNames());
+        assertArrayEquals(new String[0], captures.getRequired());
+    }
+
+    @Test
+    void variablesAssignedOutsideAreRequired() {
+        AstSequence ast = Parser.parseSourceCode("{ x = 1; f = fn () { x + y }; y = 2 }");
+        VariableResolver.resolveProgram(ast);
+        AstBlock block = (AstBlock)ast.getStatements()[0];
+        AstAssignment assignment = (AstAssignment)block.getStatements()[1];
+        Captures captures = (Captures)((AstFunction)assignment.getRight()).getCaptures();
+        assertArrayEquals(new String[] { "x", "y" }, captures.getRequired());
+    }
+
+    @Test
+    void hoistedNamesPreventTrimming() {
+        AstSequence ast = Parser.parseSourceCode("{ fn f() { g() }; fn g() { 1 } }");
+        VariableResolver.resolveProgram(ast);
+        AstBlock block = (AstBlock)ast.getStatements()[0];
+        assertNull(((AstFunction)block.getStatements()[0]).getCaptures());
+    }
+
+    @Test
+    void loopClosuresDoNotRetainTemporaries() {
+        interpreter.execute(
+            "fns = new array { }; for i in new array { 1, 2, 3 } { tmp = new [100]int; fns.push(fn () { i }) }"
+        );
+        DaroAstFunction function = (DaroAstFunction)interpreter.execute("fns[0]");
+        assertFalse(function.getScope().containsVariable("tmp"));
+        assertTrue(function.getScope().containsVariable("i"));
+        assertEquals(new DaroInteger(3), interpreter.execute("fns[0]()"));
+    }
+
+    @Test
+    void classesDoNotRetainTemporaries() {
+        interpreter.execute("fn make(n) { tmp = new [100]int; class A { v = n } }; A = make(5)");
+        DaroTypeClass type = (DaroTypeClass)interpreter.execute("A");
+        assertFalse(type.getScope().containsVariable("tmp"));
+        assertEquals(new DaroInteger(5), interpreter.execute("(new A).v"));
+    }
+
+    @Test
+    void closuresShareParameters() {
+        interpreter.execute("fn make(n) { tmp = 0; fn () { n += 1; n } }; m = make(1); m()");
+        DaroAstFunction function = (DaroAstFunction)interpreter.execute("m");
+        assertFalse(function.getScope().containsVariable("tmp"));
+        assertEquals(new DaroInteger(3), interpreter.execute("m()"));
+    }
+
+    @Test
+    void retainedBlocksDoNotKeepTemporaries() {
+        interpreter.execute("fn counter() { n = 0; tmp = new [100]int; fn () { n += 1 } }; c = counter()");
+        DaroAstFunction function = (DaroAstFunction)interpreter.execute("c");
+        assertFalse(function.getScope().containsVariable("tmp"));
+        assertEquals(new DaroInteger(1), interpreter.execute("c()"));
+    }
+
+    @Test
+    void unusedParametersAreNotRetained() {
+        interpreter.execute("fn make(n, unused) { fn () { n } }; m = make(1, new [100]int)");
+        DaroAstFunction function = (DaroAstFunction)interpreter.execute("m");
+        assertFalse(function.getScope().containsVariable("unused"));
+        assertEquals(new DaroInteger(1), interpreter.execute("m()"));
+    }
+
+    @Test
+    void closuresCreatedInLoopsShareTheirScope() {
+        interpreter.execute("fns = new array { }; for i in new array { 1, 2 } { fns.push(fn () { i }) }");
+        DaroAstFunction first = (DaroAstFunction)interpreter.execute("fns[0]");
+        DaroAstFunction second = (DaroAstFunction)interpreter.execute("fns[1]");
+        assertSame(first.getScope(), second.getScope());
+    }
+
+    @Test
+    void closuresSeeChangesUntilTheFrameIsLeft() {
+        assertEquals(
+            new DaroInteger(3),
+            interpreter.execute("fn f() { x = 1; g = fn () { x + y }; x = 2; y = 1; tmp = 0; g() }; f()")
+        );
+    }
+
+    @Test
+    void closuresShareLocals() {
+        interpreter.execute("fn counter() { n = 0; fn () { n += 1 } }; c = counter(); c()");
+        assertEquals(new DaroInteger(2), interpreter.execute("c()"));
+    }
+
+    @Test
+    void variablesDefinedLaterAreVisible() {
+        assertEquals(new DaroInteger(5), interpreter.execute("fn f() { { g = fn () { y }; y = 5; g() } }; f()"));
+    }
+
+    @Test
+    void localFunctionsCallEachOther() {
+        assertEquals(new DaroInteger(1), interpreter.execute("{ fn f() { g() }; fn g() { 1 }; f() }"));
+    }
+
+    @Test
+    void localsOfClosuresStayLocal() {
+        assertEquals(new DaroInteger(6), interpreter.execute("fn f() { { g = fn (x) { y = x * 2; y }; g(3) } }; f()"));
+        assertThrows(InterpreterException.class, () -> interpreter.execute("y"));
+    }
+}
@@ -7,6 +7,9 @@ import daro.lang.values.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.math.BigInteger;
+import java.util.Set;
+
 public class ClassTest {
     private Interpreter interpreter;
 
@@ -84,4 +87,73 @@ public class ClassTest {
             interpreter.execute("().this = 0");
         });
     }
+
+    @Test
+    void methodsAccessTheInstance() {
+        interpreter.execute("class A { x = 2; fn get() { x + twice() }; fn twice() { 2 * this.x } }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(6)), interpreter.execute("(new A).get()"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(15)), interpreter.execute("(new A { x = 5 }).get()"));
+    }
+
+    @Test
+    void fieldsCanUseMethods() {
+        interpreter.execute("class A { x = init(); fn init() { 42 } }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(42)), interpreter.execute("(new A).x"));
+    }
+
+    @Test
+    void methodsAreBoundOnce() {
+        interpreter.execute("class A { fn get() { 1 } }; a = new A; b = new A");
+        assertSame(interpreter.execute("a.get"), interpreter.execute("a.get"));
+        assertNotSame(interpreter.execute("a.get"), interpreter.execute("b.get"));
+    }
+
+    @Test
+    void methodsCanBeShadowed() {
+        interpreter.execute("class A { x = 1; fn get() { x }; fn replace() { get = 7 } }; a = new A; b = new A");
+        interpreter.execute("a.replace(); b.get = fn () { 9 }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(7)), interpreter.execute("a.get"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(9)), interpreter.execute("b.get()"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(1)), interpreter.execute("(new A).get()"));
+    }
+
+    @Test
+    void methodsCaptureTheDefiningFunction() {
+        interpreter.execute("fn make(n) { class A { fn get() { n } }; return new A }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(3)), interpreter.execute("make(3).get()"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(4)), interpreter.execute("make(4).get()"));
+    }
+
+    @Test
+    void memberAccessDoesNotGrowTheScope() {
+        DaroObject object = interpreter.execute("new class { x = 1; fn get() { x } }");
+        AbstractScope scope = (AbstractScope)object.getMemberScope();
+        for (int i = 0; i < 10; i++) {
+            object.getMemberScope().getVariableValue("get");
+        }
+        assertSame(scope, object.getMemberScope());
+        assertEquals(1, scope.getParents().length);
+        assertTrue(scope.containsVariable("get"));
+        assertFalse(scope.containsVariable("this"));
+    }
+
+    @Test
+    void instancesWithMethods() {
+        interpreter.execute("class A { x = 1; fn m() { x } }; a = new A");
+        assertEquals(new DaroBoolean(false), interpreter.execute("new A == new A"));
+        assertEquals(new DaroBoolean(true), interpreter.execute("a == a"));
+        assertEquals(new DaroBoolean(true), interpreter.execute("class B { x = 1 }; new B == new B"));
+        String string = interpreter.execute("a").toString();
+        assertTrue(string.startsWith("class A {"));
+        assertTrue(string.contains("x = 1"));
+        assertTrue(string.contains("m = fn m()"));
+    }
+
+    @Test
+    void memberScopeContainsMethods() {
+        DaroObject object = interpreter.execute("new class { x = 1; fn get() { x } }");
+        Scope members = object.getMemberScope().getFinalLevel();
+        assertEquals(Set.of("x", "get"), members.getCompleteMapping().keySet());
+        assertSame(object.getMemberScope().getVariableValue("get"), members.getVariableValue("get"));
+    }
 }
@@ -5,12 +5,16 @@ import org.junit.jupiter.api.Test;
 
 import daro.lang.ast.AstAddition;
 import daro.lang.ast.AstAssignment;
+import daro.lang.ast.AstFor;
 import daro.lang.ast.AstNode;
 import daro.lang.ast.AstSymbol;
 import daro.lang.values.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public class ExecutionObserverTest {
     private Interpreter interpreter;
     private TestObserver observer;
@@ -211,4 +215,88 @@ public class ExecutionObserverTest {
         interpreter.execute("fn run(n) { if n > 0 { run(n - 1) } }; run(2);", observers);
         assertEquals(6, observer.calls);
     }
+
+    @Test
+    void returnsAreNotExceptions() {
+        interpreter.execute("fn run(n) { if n > 0 { return run(n - 1) }; return n }; run(2);", observers);
+        assertEquals(0, observer.exceptions);
+    }
+
+    @Test
+    void onlySubscribedEventsAreObserved() {
+        TestObserver calls = new TestObserver() {
+            @Override
+            public Set<ExecutionEvent> getEvents() {
+                return EnumSet.of(ExecutionEvent.CALL);
+            }
+        };
+        interpreter.execute("fn run(n) { a = n + 1 }; run(2);", calls);
+        assertEquals(2, calls.calls);
+        assertEquals(0, calls.assignments);
+        assertEquals(0, calls.additions);
+        assertEquals(0, calls.localization);
+    }
+
+    @Test
+    void onlySubscribedNodeTypesAreObserved() {
+        TestObserver additions = new TestObserver() {
+            @Override
+            public Set<Class<? extends AstNode>> getNodeTypes() {
+                return Set.of(AstAddition.class);
+            }
+        };
+        interpreter.execute("a = 1 + 2; b = a + 3", additions);
+        assertEquals(4, additions.additions);
+        assertEquals(0, additions.assignments);
+        assertEquals(0, additions.localization);
+    }
+
+    @Test
+    void countIterations() {
+        int[] iterations = new int[1];
+        ExecutionObserver loops = new ExecutionObserver() {
+            @Override
+            public Set<ExecutionEvent> getEvents() {
+                return EnumSet.of(ExecutionEvent.ITERATION);
+            }
+
+            @Override
+            public void onIteration(AstNode node, ExecutionContext context) {
+                if (node instanceof AstFor) {
+                    iterations[0]++;
+                }
+            }
+        };
+        interpreter.execute("i = 0; for i < 5 { i += 1 }; for j in new array { 1, 2 } { }", loops);
+        assertEquals(5, iterations[0]);
+    }
+
+    @Test
+    void observedParametersAreNotModified() {
+        DaroObject[] seen = new DaroObject[1];
+        ExecutionObserver calls = new ExecutionObserver() {
+            @Override
+            public void afterCall(
+                AstNode node, DaroFunction function, DaroObject[] params, DaroObject value, ExecutionContext context
+            ) {
+                seen[0] = params[0];
+            }
+        };
+        interpreter.execute("fn inc(n) { n += 1 }; inc(1)", calls);
+        assertEquals(new DaroInteger(1), seen[0]);
+    }
+
+    @Test
+    void observersWithoutEventsKeepTailCalls() {
+        ExecutionObserver nothing = new ExecutionObserver() {
+            @Override
+            public Set<ExecutionEvent> getEvents() {
+                return EnumSet.noneOf(ExecutionEvent.class);
+            }
+        };
+        assertEquals(
+            new DaroInteger(0),
+            interpreter.execute("fn loop(n) { if n == 0 { 0 } else { loop(n - 1) } }; loop(200000)", nothing)
+        );
+    }
 }
@@ -3,11 +3,14 @@ package daro.lang.interpreter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import daro.lang.ast.AstNode;
 import daro.lang.values.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.math.BigInteger;
+import java.util.EnumSet;
+import java.util.Set;
 
 public class FunctionTest {
     private Interpreter interpreter;
@@ -53,6 +56,67 @@ public class FunctionTest {
         assertEquals(new DaroInteger(BigInteger.valueOf(6765)), interpreter.execute("fib(20)"));
     }
 
+    @Test
+    void deepTailRecursion() {
+        interpreter.execute("fn count(n, acc) { if n == 0 { acc } else { count(n - 1, acc + 1) } }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(200000)), interpreter.execute("count(200000, 0)"));
+    }
+
+    @Test
+    void deepTailRecursionWithReturn() {
+        interpreter.execute("fn count(n, acc) { for n > 0 { return count(n - 1, acc + 2) }; return acc }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(400000)), interpreter.execute("count(200000, 0)"));
+    }
+
+    @Test
+    void deepMutualTailRecursion() {
+        interpreter.execute("fn even(n) { match n { 0: true; default: odd(n - 1) } }");
+        interpreter.execute("fn odd(n) { match n { 0: false; default: even(n - 1) } }");
+        assertEquals(DaroBoolean.TRUE, interpreter.execute("even(200000)"));
+        assertEquals(DaroBoolean.FALSE, interpreter.execute("odd(200000)"));
+    }
+
+    @Test
+    void deepTailRecursionWithObserver() {
+        int[] calls = new int[3];
+        ExecutionObserver observer = new ExecutionObserver() {
+            @Override
+            public Set<ExecutionEvent> getEvents() {
+                return EnumSet.of(ExecutionEvent.CALL, ExecutionEvent.ITERATION);
+            }
+
+            @Override
+            public void beforeCall(AstNode node, DaroFunction function, DaroObject[] params, ExecutionContext context) {
+                calls[0]++;
+                calls[2] = Math.max(calls[2], calls[0] - calls[1]);
+            }
+
+            @Override
+            public void afterCall(
+                AstNode node, DaroFunction function, DaroObject[] params, DaroObject value, ExecutionContext context
+            ) {
+                calls[1]++;
+            }
+        };
+        interpreter.execute("fn count(n, acc) { if n == 0 { acc } else { count(n - 1, acc + 1) } }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(200000)), interpreter.execute("count(200000, 0)", observer));
+        assertEquals(200001, calls[0]);
+        assertEquals(200001, calls[1]);
+        assertEquals(2, calls[2]);
+    }
+
+    @Test
+    void tailCallToNativeFunction() {
+        interpreter.execute("fn test(a) { a.pop() }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(3)), interpreter.execute("test(new array { 1, 2, 3 })"));
+    }
+
+    @Test
+    void tailCallInsideArgumentsIsNotTail() {
+        interpreter.execute("fn id(n) { n }; fn sum(n) { if n == 0 { 0 } else { id(n + sum(n - 1)) } }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(55)), interpreter.execute("sum(10)"));
+    }
+
     @Test
     void returnValue() {
         interpreter.execute("fn test(n) { if n == 0 { return 5 }; return 0 }");
@@ -67,6 +131,21 @@ public class FunctionTest {
         assertEquals(new DaroInteger(BigInteger.valueOf(0)), interpreter.execute("test(1)"));
     }
 
+    @Test
+    void returnFromNestedStatements() {
+        interpreter.execute(
+            "fn test(a) { for x in a { for true { match x { 1: { return 10 }; default: if x > 5 { return x } } } }; 0 }"
+        );
+        assertEquals(new DaroInteger(BigInteger.valueOf(10)), interpreter.execute("test(new array { 1, 2 })"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(7)), interpreter.execute("test(new array { 7, 1 })"));
+    }
+
+    @Test
+    void returnInsideRecursion() {
+        interpreter.execute("fn fib(n) { if n <= 1 { return n }; return fib(n - 2) + fib(n - 1) }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(6765)), interpreter.execute("fib(20)"));
+    }
+
     @Test
     void invalidReturn() {
         assertThrows(InterpreterException.class, () -> {
@@ -96,4 +175,41 @@ public class FunctionTest {
             interpreter.execute("new function { 5 }");
         });
     }
+
+    @Test
+    void closuresKeepTheirParameters() {
+        interpreter.execute("fn adder(n) { fn (x) { x + n } }; a = adder(1); b = adder(10)");
+        assertEquals(new DaroInteger(BigInteger.valueOf(3)), interpreter.execute("a(2)"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(12)), interpreter.execute("b(2)"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(11)), interpreter.execute("adder(5)(6)"));
+    }
+
+    @Test
+    void writingParametersDoesNotAffectTheCaller() {
+        interpreter.execute("fn inc(n) { n += 1; n }; x = 5");
+        assertEquals(new DaroInteger(BigInteger.valueOf(6)), interpreter.execute("inc(x)"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(5)), interpreter.execute("x"));
+    }
+
+    @Test
+    void callbacksOfArrayMethods() {
+        interpreter.execute("a = new array { 1, 2, 3, 4 }");
+        assertEquals(
+            new DaroInteger(BigInteger.valueOf(20)),
+            interpreter.execute("a.map(fn (x) { 2 * x }).reduce(fn (s, x) { s + x })")
+        );
+        assertEquals(
+            new DaroInteger(BigInteger.valueOf(2)),
+            interpreter.execute("a.filter(fn (x) { x % 2 == 0 }).length")
+        );
+    }
+
+    @Test
+    void manySequentialCalls() {
+        interpreter.execute("fn depth(n) { if n > 0 { 1 + depth(n - 1) } else { 0 } }; s = 0; i = 0");
+        assertEquals(
+            new DaroInteger(BigInteger.valueOf(5050)),
+            interpreter.execute("for i < 100 { i += 1; s += depth(i) }; s")
+        );
+    }
 }
@@ -210,4 +210,76 @@ public class IntegerTest {
         interpreter.execute("x = 0b100100; x ^= 0b001110");
         assertEquals(new DaroInteger(BigInteger.valueOf(42)), interpreter.execute("x"));
     }
+
+    @Test
+    void additionOverflow() {
+        assertEquals(
+            new DaroInteger(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE)),
+            interpreter.execute("9223372036854775807 + 1")
+        );
+    }
+
+    @Test
+    void subtractionOverflow() {
+        assertEquals(
+            new DaroInteger(BigInteger.valueOf(Long.MIN_VALUE).subtract(BigInteger.ONE)),
+            interpreter.execute("-9223372036854775807 - 2")
+        );
+    }
+
+    @Test
+    void multiplicationOverflow() {
+        assertEquals(
+            new DaroInteger(BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.valueOf(3))),
+            interpreter.execute("9223372036854775807 * 3")
+        );
+    }
+
+    @Test
+    void negationOverflow() {
+        assertEquals(
+            new DaroInteger(BigInteger.valueOf(Long.MIN_VALUE).negate()),
+            interpreter.execute("-(-9223372036854775807 - 1)")
+        );
+    }
+
+    @Test
+    void divisionOverflow() {
+        assertEquals(
+            new DaroInteger(BigInteger.valueOf(Long.MIN_VALUE).negate()),
+            interpreter.execute("(-9223372036854775807 - 1) / -1")
+        );
+    }
+
+    @Test
+    void powerOverflow() {
+        assertEquals(new DaroInteger(BigInteger.valueOf(3).pow(50)), interpreter.execute("3 ** 50"));
+    }
+
+    @Test
+    void shiftLeftOverflow() {
+        assertEquals(new DaroInteger(BigInteger.valueOf(5).shiftLeft(70)), interpreter.execute("5 << 70"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(-5).shiftLeft(62)), interpreter.execute("-5 << 62"));
+    }
+
+    @Test
+    void promotedValuesAreDemoted() {
+        assertEquals(
+            new DaroInteger(BigInteger.valueOf(42)),
+            interpreter.execute("(9223372036854775807 + 43) - 9223372036854775808")
+        );
+        assertEquals(new DaroInteger(42), interpreter.execute("(9223372036854775807 * 2) / 9223372036854775807 * 21"));
+    }
+
+    @Test
+    void comparePromotedValues() {
+        assertEquals(new DaroBoolean(true), interpreter.execute("9223372036854775807 < 9223372036854775807 + 1"));
+        assertEquals(new DaroBoolean(true), interpreter.execute("9223372036854775808 == 9223372036854775807 + 1"));
+    }
+
+    @Test
+    void literalValueShared() {
+        interpreter.execute("fn foo() { 123456789 }");
+        assertSame(interpreter.execute("foo()"), interpreter.execute("foo()"));
+    }
 }
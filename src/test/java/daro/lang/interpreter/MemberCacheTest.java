@@ -0,0 +1,109 @@
+package daro.lang.interpreter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import daro.lang.ast.AstMember;
+import daro.lang.values.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.List;
+
+public class MemberCacheTest {
+    private Interpreter interpreter;
+
+    @BeforeEach
+    void initializeInterpreter() {
+        interpreter = new Interpreter();
+    }
+
+    @Test
+    void monomorphicAccess() {
+        interpreter.execute("class A { x = 2; fn get() { x } }; fn read(o) { o.x + o.get() }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(4)), interpreter.execute("read(new A)"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(10)), interpreter.execute("read(new A { x = 5 })"));
+    }
+
+    @Test
+    void polymorphicAccess() {
+        interpreter.execute("class A { fn get() { 1 } }; class B { fn get() { 2 } }; class C { fn get() { 3 } }");
+        interpreter.execute("objects = new array { new A, new B, new C, new B }");
+        assertEquals(
+            new DaroInteger(BigInteger.valueOf(8)),
+            interpreter.execute("s = 0; for o in objects { s += o.get() }; s")
+        );
+    }
+
+    @Test
+    void arraysAndClassesAtTheSameSite() {
+        interpreter.execute("class C { length = 7 }; fn len(o) { o.length }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(3)), interpreter.execute("len(new array { 1, 2, 3 })"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(7)), interpreter.execute("len(new C)"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(0)), interpreter.execute("len(new array { })"));
+    }
+
+    @Test
+    void arrayMethodsAreBound() {
+        interpreter.execute("fn add(a, v) { a.push(v) }; a = new array { }; b = new array { }");
+        interpreter.execute("add(a, 1); add(b, 2); add(a, 3)");
+        assertEquals(new DaroInteger(BigInteger.valueOf(2)), interpreter.execute("a.length"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(1)), interpreter.execute("b.length"));
+    }
+
+    @Test
+    void initializersCanAddMembers() {
+        interpreter.execute("class A { x = 1 }; fn y(o) { o.y }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(2)), interpreter.execute("y(new A { y = 2 })"));
+        assertThrows(InterpreterException.class, () -> {
+            interpreter.execute("y(new A)");
+        });
+    }
+
+    @Test
+    void undefinedMembersAreErrors() {
+        interpreter.execute("class A { x = 1 }; fn z(o) { o.z }");
+        for (int i = 0; i < 2; i++) {
+            assertThrows(InterpreterException.class, () -> {
+                interpreter.execute("z(new A)");
+            });
+        }
+        assertThrows(InterpreterException.class, () -> {
+            interpreter.execute("z(new array { })");
+        });
+    }
+
+    @Test
+    void megamorphicAccess() {
+        StringBuilder source = new StringBuilder("objects = new array { }");
+        for (int i = 0; i < 2 * MemberCache.MAX_ENTRIES; i++) {
+            source.append("; objects.push(new class { x = " + i + " })");
+        }
+        interpreter.execute(source.toString());
+        assertEquals(
+            new DaroInteger(BigInteger.valueOf(MemberCache.MAX_ENTRIES * (2 * MemberCache.MAX_ENTRIES - 1))),
+            interpreter.execute("s = 0; for o in objects { s += o.x }; s")
+        );
+    }
+
+    @Test
+    void cacheSizeIsLimited() {
+        MemberCache cache = new MemberCache("x");
+        for (int i = 0; i < 2 * MemberCache.MAX_ENTRIES; i++) {
+            DaroObject object = interpreter.execute("new class { x = " + i + " }");
+            assertEquals(new DaroInteger(BigInteger.valueOf(i)), cache.getValue(object));
+            assertEquals(new DaroInteger(BigInteger.valueOf(i)), cache.getValue(object));
+        }
+        assertEquals(MemberCache.MAX_ENTRIES, cache.getSize());
+    }
+
+    @Test
+    void cacheIsStoredOnTheNode() {
+        AstMember ast = new AstMember(null, null, "length");
+        DaroArray array = new DaroArray(List.of(DaroNull.NULL));
+        assertEquals(new DaroInteger(BigInteger.valueOf(1)), MemberCache.getMember(ast, array));
+        assertSame(MemberCache.forNode(ast), ast.getCache());
+        assertEquals(1, MemberCache.forNode(ast).getSize());
+    }
+}
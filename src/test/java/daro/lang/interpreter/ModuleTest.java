@@ -2,7 +2,9 @@ package daro.lang.interpreter;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import daro.lang.parser.MappedSource;
 import daro.lang.values.DaroInteger;
 import daro.lang.values.DaroNativeObject;
 import daro.lang.values.DaroReal;
@@ -11,9 +13,12 @@ import daro.lang.values.DaroTypeModule;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.File;
+import java.io.IOException;
 import java.math.BigInteger;
 import java.net.URLDecoder;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class ModuleTest {
     private Interpreter interpreter;
@@ -106,4 +111,17 @@ public class ModuleTest {
         assertEquals(new DaroInteger(BigInteger.valueOf(42)), interpreter.execute("x"));
         assertEquals(new DaroInteger(BigInteger.valueOf(12)), interpreter.execute("y"));
     }
+
+    @Test
+    void loadLargeFile(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("table.daro");
+        StringBuilder source = new StringBuilder("table = new array {\n");
+        for (int i = 0; source.length() < MappedSource.MAPPING_THRESHOLD; i++) {
+            source.append("    ").append(i * i).append(",\n");
+        }
+        source.append("}\n");
+        Files.writeString(file, source);
+        interpreter.execute("use from \"" + file.toString().replace("\\", "/") + "\"");
+        assertEquals(new DaroInteger(BigInteger.valueOf(10_000)), interpreter.execute("table[100]"));
+    }
 }
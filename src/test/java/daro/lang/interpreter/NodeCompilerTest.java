@@ -0,0 +1,93 @@
+package daro.lang.interpreter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import daro.lang.ast.AstNode;
+import daro.lang.values.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+
+public class NodeCompilerTest {
+    private Interpreter interpreter;
+
+    @BeforeEach
+    void initializeInterpreter() {
+        interpreter = new Interpreter(ExecutionMode.COMPILED);
+    }
+
+    @Test
+    void modeIsSelected() {
+        assertEquals(ExecutionMode.COMPILED, interpreter.getContext().getMode());
+        assertEquals(ExecutionMode.INTERPRETED, interpreter.getContext().withMode(ExecutionMode.INTERPRETED).getMode());
+    }
+
+    @Test
+    void arithmetic() {
+        assertEquals(new DaroInteger(BigInteger.valueOf(42)), interpreter.execute("2 * (3 + 18)"));
+        assertEquals(new DaroReal(2.5), interpreter.execute("5 / 2.0"));
+        assertEquals(new DaroString("a1"), interpreter.execute("\"a\" + 1"));
+    }
+
+    @Test
+    void hoistedRecursiveFunction() {
+        assertEquals(
+            new DaroInteger(BigInteger.valueOf(55)),
+            interpreter.execute("x = fib(10); fn fib(n) { if n < 2 { n } else { fib(n - 1) + fib(n - 2) } }; x")
+        );
+    }
+
+    @Test
+    void hoistedInsideBlock() {
+        assertEquals(
+            new DaroInteger(BigInteger.valueOf(42)), interpreter.execute("if true { x = foo(); fn foo() { 42 }; x }")
+        );
+    }
+
+    @Test
+    void returnFromLoop() {
+        interpreter.execute("fn find(a, v) { i = 0; for x in a { if x == v { return i }; i = i + 1 }; -1 }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(2)), interpreter.execute("find(new array { 5, 6, 7 }, 7)"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(-1)), interpreter.execute("find(new array { 5, 6, 7 }, 8)"));
+    }
+
+    @Test
+    void classMethods() {
+        interpreter.execute("class Counter { n = 0; fn inc() { n = n + 1 } }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(2)), interpreter.execute("c = new Counter; c.inc(); c.inc()"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(5)), interpreter.execute("c.n = 5; c.n"));
+    }
+
+    @Test
+    void indexAssignment() {
+        assertEquals("[1, 42, 3]", interpreter.execute("a = new array { 1, 2, 3 }; a[1] = 42; a").toString());
+    }
+
+    @Test
+    void errorPositionMatchesExecutor() {
+        String source = "fn foo(a) { a - \"b\" }; foo(1)";
+        InterpreterException compiled = assertThrows(InterpreterException.class, () -> {
+            interpreter.execute(source);
+        });
+        InterpreterException interpreted = assertThrows(InterpreterException.class, () -> {
+            new Interpreter(ExecutionMode.INTERPRETED).execute(source);
+        });
+        assertEquals(interpreted.getMessage(), compiled.getMessage());
+        assertEquals(interpreted.getPosition(), compiled.getPosition());
+    }
+
+    @Test
+    void observersFallBackToExecutor() {
+        int[] count = new int[1];
+        interpreter.execute("fn foo() { 42 }");
+        interpreter.execute("foo()", new ExecutionObserver() {
+            @Override
+            public void beforeExecution(AstNode node, ExecutionContext context) {
+                count[0]++;
+            }
+        });
+        assertTrue(count[0] > 2);
+    }
+}
@@ -0,0 +1,55 @@
+package daro.lang.interpreter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import daro.lang.ast.*;
+import daro.lang.parser.Parser;
+import daro.lang.values.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+
+public class ScopeInitializerTest {
+    private Interpreter interpreter;
+
+    @BeforeEach
+    void initializeInterpreter() {
+        interpreter = new Interpreter();
+    }
+
+    @Test
+    void declarationsAreCollectedInOrder() {
+        AstNode program =
+            Parser.parseSourceCode("fn a() { fn x() { } }; x = class b { }; if 1 fn c() { }; { fn d() { } }");
+        AstNode[] declarations = ScopeInitializer.getDeclarations(program);
+        assertEquals(3, declarations.length);
+        assertEquals("a", ((AstFunction)declarations[0]).getName());
+        assertEquals("b", ((AstClass)declarations[1]).getName());
+        assertEquals("c", ((AstFunction)declarations[2]).getName());
+    }
+
+    @Test
+    void declarationsAreCached() {
+        AstNode program = Parser.parseSourceCode("fn a() { }");
+        assertSame(ScopeInitializer.getDeclarations(program), ScopeInitializer.getDeclarations(program));
+        AstBlock block = new AstBlock(null, new AstNode[0]);
+        assertSame(block.getSequence(), block.getSequence());
+    }
+
+    @Test
+    void blocksAreInitializedOnEveryEntry() {
+        interpreter.execute("s = 0; i = 0; for i < 3 { s += f(i); fn f(x) { x * i } ; i += 1 }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(5)), interpreter.execute("s"));
+        assertThrows(InterpreterException.class, () -> {
+            interpreter.execute("f(1)");
+        });
+    }
+
+    @Test
+    void functionsCaptureTheirBlock() {
+        interpreter.execute("fs = new array { }; for i in new array { 1, 2 } { j = i; fs.push(g); fn g() { j } }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(3)), interpreter.execute("fs[0]() + fs[1]()"));
+    }
+}
@@ -0,0 +1,114 @@
+package daro.lang.interpreter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import daro.lang.values.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.Map;
+
+public class ShapedScopeTest {
+    private Interpreter interpreter;
+
+    @BeforeEach
+    void initializeInterpreter() {
+        interpreter = new Interpreter();
+    }
+
+    @Test
+    void transitionsAreShared() {
+        Shape root = new Shape();
+        ShapedScope first = new ShapedScope(root);
+        ShapedScope second = new ShapedScope(root);
+        first.newVariableInFinal("x", DaroNull.NULL);
+        first.newVariableInFinal("y", DaroNull.NULL);
+        second.newVariableInFinal("x", DaroNull.NULL);
+        assertNotSame(first.getShape(), second.getShape());
+        second.newVariableInFinal("y", DaroNull.NULL);
+        assertSame(first.getShape(), second.getShape());
+    }
+
+    @Test
+    void expectedSizeIsRecorded() {
+        Shape root = new Shape();
+        assertEquals(0, root.getExpectedSize());
+        assertEquals(2, root.withVariable("x").withVariable("y").getExpectedSize());
+        root.setExpectedSize(3);
+        assertEquals(3, root.getExpectedSize());
+        ShapedScope scope = new ShapedScope(root);
+        for (int i = 0; i < 10; i++) {
+            scope.newVariableInFinal("x" + i, new DaroInteger(BigInteger.valueOf(i)));
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals(new DaroInteger(BigInteger.valueOf(i)), scope.getVariableValue("x" + i));
+        }
+    }
+
+    @Test
+    void instancesRecordTheirSize() {
+        interpreter.execute("class A { x = 1; y = 2; z = x + y }; a = new A");
+        DaroClass instance = (DaroClass)interpreter.execute("a");
+        assertEquals(3, ((Shape)instance.getMemberLayout()).size());
+        assertEquals(3, ((Shape)instance.getMemberLayout()).getRoot().getExpectedSize());
+    }
+
+    @Test
+    void orderMatters() {
+        Shape root = new Shape();
+        assertNotSame(root.withVariable("x").withVariable("y"), root.withVariable("y").withVariable("x"));
+        assertEquals(1, root.withVariable("y").withVariable("x").getIndex("x"));
+        assertEquals(-1, root.withVariable("y").getIndex("x"));
+    }
+
+    @Test
+    void writesDoNotChangeTheShape() {
+        ShapedScope scope = new ShapedScope(new Shape());
+        scope.newVariableInFinal("x", new DaroInteger(BigInteger.valueOf(1)));
+        Shape shape = scope.getShape();
+        scope.getVariableLocation("x").storeValue(new DaroInteger(BigInteger.valueOf(2)));
+        assertSame(shape, scope.getShape());
+        assertEquals(new DaroInteger(BigInteger.valueOf(2)), scope.getSlotValue(shape.getIndex("x")));
+    }
+
+    @Test
+    void behavesLikeABlockScope() {
+        ShapedScope scope = new ShapedScope(new Shape(), new BlockScope());
+        scope.newVariableInFinal("a", new DaroInteger(BigInteger.valueOf(1)));
+        scope.newVariableInFinal("b", new DaroInteger(BigInteger.valueOf(2)));
+        assertTrue(scope.containsVariable("a"));
+        assertFalse(scope.containsVariable("c"));
+        assertEquals(
+            Map.of("a", new DaroInteger(BigInteger.valueOf(1)), "b", new DaroInteger(BigInteger.valueOf(2))),
+            scope.getCompleteMapping()
+        );
+        BlockScope block = new BlockScope(new BlockScope());
+        block.newVariableInFinal("a", new DaroInteger(BigInteger.valueOf(1)));
+        block.newVariableInFinal("b", new DaroInteger(BigInteger.valueOf(2)));
+        assertEquals(block, scope);
+        scope.reset();
+        assertFalse(scope.containsVariable("a"));
+        assertEquals(0, scope.getShape().size());
+    }
+
+    @Test
+    void instancesShareShapes() {
+        interpreter.execute("class Point { x = 0; y = 0 }; fn sum(p) { p.x + p.y }");
+        interpreter.execute("points = new array { }; i = 0; for i < 100 { points.push(new Point { x = i }); i += 1 }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(0)), interpreter.execute("sum(points[0])"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(7)), interpreter.execute("sum(new Point { y = 7 })"));
+    }
+
+    @Test
+    void fieldsCanBeAddedDynamically() {
+        interpreter.execute("class Point { x = 1; y = 2 }; fn z(p) { p.z }; p = new Point { z = 3 }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(3)), interpreter.execute("z(p)"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(2)), interpreter.execute("p.y"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(9)), interpreter.execute("p.z = 9; z(p)"));
+        assertThrows(InterpreterException.class, () -> {
+            interpreter.execute("z(new Point)");
+        });
+    }
+}
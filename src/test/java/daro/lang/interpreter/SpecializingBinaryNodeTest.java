@@ -0,0 +1,100 @@
+package daro.lang.interpreter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import daro.lang.values.*;
+
+import daro.lang.ast.AstBinaryNode;
+import daro.lang.ast.AstSequence;
+import daro.lang.parser.Parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpecializingBinaryNodeTest {
+    private DaroObject[] operands;
+    private SpecializingBinaryNode node;
+
+    @BeforeEach
+    void initializeNode() {
+        operands = new DaroObject[2];
+        node = new SpecializingBinaryNode(null, context -> operands[0], context -> operands[1], BinaryOperation.ADD);
+    }
+
+    private DaroObject execute(DaroObject left, DaroObject right) {
+        operands[0] = left;
+        operands[1] = right;
+        return node.execute(null);
+    }
+
+    @Test
+    void nodesAreInitiallyNotSpecialized() {
+        assertEquals(BinaryOperation.Specialization.NONE, node.getSpecialization());
+    }
+
+    @Test
+    void specializeForIntegers() {
+        assertEquals(new DaroInteger(3), execute(new DaroInteger(1), new DaroInteger(2)));
+        assertEquals(BinaryOperation.Specialization.INTEGER, node.getSpecialization());
+        assertEquals(new DaroInteger(7), execute(new DaroInteger(3), new DaroInteger(4)));
+        assertEquals(BinaryOperation.Specialization.INTEGER, node.getSpecialization());
+    }
+
+    @Test
+    void specializeForReals() {
+        assertEquals(new DaroReal(3.5), execute(new DaroReal(1.5), new DaroReal(2)));
+        assertEquals(BinaryOperation.Specialization.REAL, node.getSpecialization());
+    }
+
+    @Test
+    void mixedOperandsAreGeneric() {
+        assertEquals(new DaroReal(3.5), execute(new DaroInteger(1), new DaroReal(2.5)));
+        assertEquals(BinaryOperation.Specialization.GENERIC, node.getSpecialization());
+    }
+
+    @Test
+    void changingTypesDespecialize() {
+        execute(new DaroInteger(1), new DaroInteger(2));
+        assertEquals(new DaroString("a1"), execute(new DaroString("a"), new DaroInteger(1)));
+        assertEquals(BinaryOperation.Specialization.GENERIC, node.getSpecialization());
+        assertEquals(new DaroInteger(3), execute(new DaroInteger(1), new DaroInteger(2)));
+        assertEquals(new DaroReal(3.5), execute(new DaroReal(1.5), new DaroReal(2)));
+    }
+
+    @Test
+    void compiledFunctionsAcceptChangingTypes() {
+        Interpreter interpreter = new Interpreter(ExecutionMode.COMPILED);
+        interpreter.execute("fn f(a, b) { if a < b { a * b } else { a - b } }");
+        assertEquals(new DaroInteger(6), interpreter.execute("f(2, 3)"));
+        assertEquals(new DaroReal(1.5), interpreter.execute("f(3.5, 2)"));
+        assertEquals(new DaroReal(0.5), interpreter.execute("f(1.0, 0.5)"));
+        assertEquals(new DaroInteger(-12), interpreter.execute("f(-3, 4)"));
+        assertThrows(InterpreterException.class, () -> interpreter.execute("f(\"a\", \"b\")"));
+    }
+
+    @Test
+    void interpretedFunctionsAcceptChangingTypes() {
+        Interpreter interpreter = new Interpreter(ExecutionMode.INTERPRETED);
+        interpreter.execute("fn f(a, b) { if a < b { a * b } else { a - b } }");
+        assertEquals(new DaroInteger(6), interpreter.execute("f(2, 3)"));
+        assertEquals(new DaroReal(1.5), interpreter.execute("f(3.5, 2)"));
+        assertEquals(new DaroReal(0.5), interpreter.execute("f(1.0, 0.5)"));
+        assertEquals(new DaroInteger(-12), interpreter.execute("f(-3, 4)"));
+        assertThrows(InterpreterException.class, () -> interpreter.execute("f(\"a\", \"b\")"));
+    }
+
+    @Test
+    void interpretedNodesAreSpecialized() {
+        AstSequence program = Parser.parseSourceCode("a + b");
+        AstBinaryNode addition = (AstBinaryNode)program.getStatements()[0];
+        Scope scope = new BlockScope(new RootScope());
+        ExecutionContext context = new ExecutionContext(scope, null);
+        scope.newVariableInFinal("a", new DaroInteger(1));
+        scope.newVariableInFinal("b", new DaroInteger(2));
+        assertEquals(new DaroInteger(3), Executor.execute(context, program));
+        assertEquals(BinaryOperation.Specialization.INTEGER, addition.getSpecialization());
+        scope.newVariableInFinal("b", new DaroReal(2));
+        assertEquals(new DaroReal(3), Executor.execute(context, program));
+        assertEquals(BinaryOperation.Specialization.GENERIC, addition.getSpecialization());
+    }
+}
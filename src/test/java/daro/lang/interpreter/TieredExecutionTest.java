@@ -0,0 +1,118 @@
+package daro.lang.interpreter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import daro.lang.ast.AstFor;
+import daro.lang.ast.AstNode;
+import daro.lang.ast.AstSequence;
+import daro.lang.parser.Parser;
+import daro.lang.values.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+
+public class TieredExecutionTest {
+    private Interpreter interpreter;
+
+    @BeforeEach
+    void initializeInterpreter() {
+        interpreter = new Interpreter(ExecutionMode.TIERED);
+    }
+
+    @Test
+    void coldFunctionIsInterpreted() {
+        interpreter.execute("fn foo(a) { a + 1 }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(42)), interpreter.execute("foo(41)"));
+        if (FunctionProfile.DEFAULT_THRESHOLD > 1) {
+            assertFalse(((DaroAstFunction)interpreter.execute("foo")).isCompiled());
+        }
+    }
+
+    @Test
+    void hotFunctionIsCompiled() {
+        interpreter.execute("fn foo(a) { a + 1 }");
+        interpreter.execute("i = 0; for i < " + FunctionProfile.DEFAULT_THRESHOLD + " { i = foo(i) }");
+        assertTrue(((DaroAstFunction)interpreter.execute("foo")).isCompiled());
+        assertEquals(new DaroInteger(BigInteger.valueOf(42)), interpreter.execute("foo(41)"));
+    }
+
+    @Test
+    void loopIterationsCount() {
+        interpreter.execute("fn count(n) { i = 0; for i < n { i = i + 1 }; i }");
+        interpreter.execute("count(" + FunctionProfile.DEFAULT_THRESHOLD + ")");
+        assertTrue(((DaroAstFunction)interpreter.execute("count")).isCompiled());
+        assertEquals(new DaroInteger(BigInteger.valueOf(10)), interpreter.execute("count(10)"));
+    }
+
+    @Test
+    void compiledClosures() {
+        interpreter.execute("fn adder(a) { fn (b) { a + b } }");
+        interpreter.execute("for i in new array { 1, 2, 3 } { adder(i)(i) }");
+        interpreter.execute("i = 0; for i < " + FunctionProfile.DEFAULT_THRESHOLD + " { adder(i); i = i + 1 }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(42)), interpreter.execute("adder(40)(2)"));
+    }
+
+    @Test
+    void closuresShareTheirProfile() {
+        interpreter.execute("fn adder(a) { fn (b) { a + b } }");
+        interpreter.execute("i = 0; for i < " + FunctionProfile.DEFAULT_THRESHOLD + " { i = adder(i)(1) }");
+        assertTrue(((DaroAstFunction)interpreter.execute("adder(1)")).isCompiled());
+    }
+
+    @Test
+    void hotLoopsContinueCompiled() {
+        AstSequence program = Parser.parseSourceCode(
+            "i = 0; for i < " + (FunctionProfile.DEFAULT_THRESHOLD + 10) + " { i = i + 1 }; i"
+        );
+        VariableResolver.resolveProgram(program);
+        Scope scope = new BlockScope(new RootScope());
+        ExecutionContext context = new ExecutionContext(scope, null).withMode(ExecutionMode.TIERED);
+        assertEquals(
+            new DaroInteger(BigInteger.valueOf(FunctionProfile.DEFAULT_THRESHOLD + 10)),
+            Executor.execute(context, program)
+        );
+        assertNotNull(((AstFor)program.getStatements()[1]).getCompiledBody());
+    }
+
+    @Test
+    void classBodiesDoNotCountForTheCaller() {
+        interpreter.execute(
+            "class A { i = 0; for i < " + FunctionProfile.DEFAULT_THRESHOLD + " { i = i + 1 } };"
+                + "fn make() { new A }; make()"
+        );
+        if (FunctionProfile.DEFAULT_THRESHOLD > 1) {
+            assertFalse(((DaroAstFunction)interpreter.execute("make")).isCompiled());
+        }
+        assertEquals(
+            new DaroInteger(BigInteger.valueOf(FunctionProfile.DEFAULT_THRESHOLD)), interpreter.execute("make().i")
+        );
+    }
+
+    @Test
+    void observersPreventCompilation() {
+        interpreter.execute("fn foo(a) { a + 1 }");
+        interpreter.execute(
+            "i = 0; for i < " + FunctionProfile.DEFAULT_THRESHOLD + " { i = foo(i) }", new ExecutionObserver() {
+                @Override
+                public void beforeExecution(AstNode node, ExecutionContext context) {
+                    // Do nothing
+                }
+            }
+        );
+        assertFalse(((DaroAstFunction)interpreter.execute("foo")).isCompiled());
+    }
+
+    @Test
+    void profileCountsTowardsThreshold() {
+        FunctionProfile profile = new FunctionProfile(3);
+        profile.countInvocation();
+        profile.countBackEdge();
+        assertFalse(profile.isHot());
+        profile.countBackEdge();
+        assertTrue(profile.isHot());
+        assertEquals(1, profile.getInvocations());
+        assertEquals(2, profile.getBackEdges());
+    }
+}
@@ -0,0 +1,145 @@
+package daro.lang.interpreter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import daro.lang.ast.*;
+import daro.lang.parser.Parser;
+import daro.lang.values.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+
+public class VariableResolverTest {
+    private Interpreter interpreter;
+
+    @BeforeEach
+    void initializeInterpreter() {
+        interpreter = new Interpreter();
+    }
+
+    @Test
+    void parametersAreResolved() {
+        AstSequence ast = Parser.parseSourceCode("fn foo(a, b) { a + b }");
+        VariableResolver.resolveProgram(ast);
+        AstFunction function = (AstFunction)ast.getStatements()[0];
+        AstAddition addition = (AstAddition)function.getBody().getStatements()[0];
+        AstSymbol a = (AstSymbol)addition.getLeft();
+        AstSymbol b = (AstSymbol)addition.getRight();
+        assertTrue(a.isResolved());
+        assertEquals(0, a.getDepth());
+        assertEquals(0, a.getSlot());
+        assertEquals(0, b.getDepth());
+        assertEquals(1, b.getSlot());
+    }
+
+    @Test
+    void globalsAreNotResolved() {
+        AstSequence ast = Parser.parseSourceCode("x = 5; x");
+        VariableResolver.resolveProgram(ast);
+        assertFalse(((AstSymbol)ast.getStatements()[1]).isResolved());
+    }
+
+    @Test
+    void closureParameterDepth() {
+        AstSequence ast = Parser.parseSourceCode("fn foo(a) { fn (b) { a } }");
+        VariableResolver.resolveProgram(ast);
+        AstFunction outer = (AstFunction)ast.getStatements()[0];
+        AstFunction inner = (AstFunction)outer.getBody().getStatements()[0];
+        AstSymbol a = (AstSymbol)inner.getBody().getStatements()[0];
+        assertEquals(1, a.getDepth());
+        assertEquals(0, a.getSlot());
+    }
+
+    @Test
+    void closureReadsParameter() {
+        interpreter.execute("fn adder(a) { fn (b) { a + b } }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(42)), interpreter.execute("adder(40)(2)"));
+    }
+
+    @Test
+    void closureWritesParameter() {
+        interpreter.execute("fn counter(n) { fn () { n = n + 1; n } }");
+        interpreter.execute("c = counter(40); c()");
+        assertEquals(new DaroInteger(BigInteger.valueOf(42)), interpreter.execute("c()"));
+    }
+
+    @Test
+    void parameterShadowedByDefinition() {
+        interpreter.execute("fn foo(n) { fn n() { 42 }; n() }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(42)), interpreter.execute("foo(5)"));
+    }
+
+    @Test
+    void parameterShadowedByNestedDefinition() {
+        interpreter.execute("fn foo(n) { if true { fn n() { 42 }; n() } }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(42)), interpreter.execute("foo(5)"));
+    }
+
+    @Test
+    void parameterWrittenInsideBlock() {
+        interpreter.execute("fn foo(n) { if true { n = 42 }; n }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(42)), interpreter.execute("foo(5)"));
+    }
+
+    @Test
+    void duplicateParameters() {
+        interpreter.execute("fn foo(a, a) { a }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(2)), interpreter.execute("foo(1, 2)"));
+    }
+
+    @Test
+    void classInitializerDoesNotWriteParameter() {
+        interpreter.execute("fn foo(x) { c = new class { y = 0; fn get() { x } } { x = 42 }; new array { x, c.get() } }");
+        assertEquals("[5, 42]", interpreter.execute("foo(5)").toString());
+    }
+
+    @Test
+    void forInVariable() {
+        interpreter.execute("fn sum(a) { s = 0; for x in a { s = s + x }; s }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(42)), interpreter.execute("sum(new array { 10, 12, 20 })"));
+    }
+
+    @Test
+    void forInVariableInsideFunction() {
+        interpreter.execute("fn test(a) { for x in a { a = x }; a }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(3)), interpreter.execute("test(new array { 1, 2, 3 })"));
+    }
+
+    @Test
+    void slotsAreVisibleInScope() {
+        FrameScope frame = new FrameScope(new String[] {
+            "a"
+        }, new DaroObject[] {
+            new DaroReal(1.5)
+        });
+        assertEquals(new DaroReal(1.5), frame.getVariableValue("a"));
+        assertTrue(frame.containsVariable("a"));
+        assertEquals(new DaroReal(1.5), frame.getCompleteMapping().get("a"));
+    }
+
+    @Test
+    void frameFinalLevelWritesSlots() {
+        FrameScope frame = new FrameScope(new String[] {
+            "a"
+        }, new BlockScope());
+        frame.newVariableInFinal("a", new DaroReal(1.5));
+        frame.newVariableInFinal("b", new DaroReal(2.5));
+        assertEquals(new DaroReal(1.5), frame.getSlotValue(0));
+        assertEquals(new DaroReal(2.5), frame.getVariableValue("b"));
+    }
+
+    @Test
+    void reusedCallIsNoLongerTailCall() {
+        AstSequence ast = Parser.parseSourceCode("fn foo() { bar(); }");
+        VariableResolver.resolveProgram(ast);
+        AstFunction function = (AstFunction)ast.getStatements()[0];
+        AstCall call = (AstCall)function.getBody().getStatements()[0];
+        assertTrue(call.isTailCall());
+        AstSequence edited = Parser.reparseSourceCode(ast, 18, 0, "1 ");
+        VariableResolver.resolveProgram(edited);
+        assertSame(call, ((AstFunction)edited.getStatements()[0]).getBody().getStatements()[0]);
+        assertFalse(call.isTailCall());
+    }
+}
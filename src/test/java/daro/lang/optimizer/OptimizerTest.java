@@ -0,0 +1,122 @@
+package daro.lang.optimizer;
+
+import org.junit.jupiter.api.Test;
+
+import daro.lang.ast.*;
+import daro.lang.interpreter.Interpreter;
+import daro.lang.interpreter.InterpreterException;
+import daro.lang.parser.Parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OptimizerTest {
+
+    private static AstNode optimize(String source) {
+        return Optimizer.optimizeProgram(Parser.parseSourceCode(source));
+    }
+
+    private static AstNode parse(String source) {
+        return Parser.parseSourceCode(source);
+    }
+
+    @Test
+    void foldArithmetic() {
+        assertEquals(parse("x = 7"), optimize("x = 1 + 2 * 3"));
+        assertEquals(parse("x = 2.5"), optimize("x = 5 / 2.0"));
+        assertEquals(parse("x = 3 + y"), optimize("x = 1 + 2 + y"));
+        assertEquals(parse("x = y + 1 + 2"), optimize("x = y + 1 + 2"));
+    }
+
+    @Test
+    void foldNegativeLiterals() {
+        assertEquals(new AstSequence(null, new AstNode[] {
+            new AstInteger(null, -5)
+        }), optimize("-5"));
+    }
+
+    @Test
+    void foldStrings() {
+        assertEquals(parse("x = \"a1\""), optimize("x = \"a\" + 1"));
+    }
+
+    @Test
+    void foldInsideFunctions() {
+        assertEquals(parse("fn foo(a) { a + 6 }"), optimize("fn foo(a) { a + 2 * 3 }"));
+    }
+
+    @Test
+    void failingExpressionsAreKept() {
+        assertEquals(parse("x = 1 / 0"), optimize("x = 1 / 0"));
+        assertEquals(parse("x = 1 - \"a\""), optimize("x = 1 - \"a\""));
+    }
+
+    @Test
+    void largeResultsAreNotComputed() {
+        assertEquals(parse("x = 2 ** 100000"), optimize("x = 2 ** 100000"));
+        assertEquals(parse("x = 1 << 100000"), optimize("x = 1 << 100000"));
+        assertEquals(parse("x = 1024"), optimize("x = 2 ** 10"));
+    }
+
+    @Test
+    void booleanSymbolsAreNotConstant() {
+        assertEquals(parse("if true { a } else { b }"), optimize("if true { a } else { b }"));
+    }
+
+    @Test
+    void removeDeadBranches() {
+        assertEquals(parse("{ a }"), optimize("if 1 < 2 { a } else { b }"));
+        assertEquals(parse("{ b }"), optimize("if 1 > 2 && x { a } else { b }"));
+        assertEquals(new AstSequence(null, new AstNode[] {
+            new AstSequence(null, new AstNode[0])
+        }), optimize("if 0 { a }"));
+    }
+
+    @Test
+    void keepBranchesWithDeclarations() {
+        assertEquals(parse("if 0 fn foo() { }"), optimize("if 1 > 2 fn foo() { }"));
+    }
+
+    @Test
+    void removeDeadLoops() {
+        assertEquals(new AstSequence(null, new AstNode[] {
+            new AstSequence(null, new AstNode[0])
+        }), optimize("for 1 > 2 { a }"));
+        assertEquals(parse("for 1 { a }"), optimize("for 1 < 2 { a }"));
+    }
+
+    @Test
+    void selectMatchCases() {
+        assertEquals(parse("b"), optimize("match 2 { 1: a; 2, 3: b; default: c }"));
+        assertEquals(parse("c"), optimize("match 1 + 4 { 1: a; 2, 3: b; default: c }"));
+        assertEquals(new AstSequence(null, new AstNode[] {
+            new AstSequence(null, new AstNode[0])
+        }), optimize("match 5 { 1: a; 2: b }"));
+    }
+
+    @Test
+    void keepUndecidableMatches() {
+        assertEquals(parse("match 1 { x: a; 1: b }"), optimize("match 1 { x: a; 1: b }"));
+        assertEquals(parse("match x { 1: a; 3: b }"), optimize("match x { 1: a; 1 + 2: b }"));
+    }
+
+    @Test
+    void simplifyUnaryOperations() {
+        assertEquals(parse("a * b"), optimize("+(a * b)"));
+        assertEquals(parse("+a"), optimize("+a"));
+        assertEquals(parse("a - b"), optimize("-(-(a - b))"));
+        assertEquals(parse("-(-a)"), optimize("-(-a)"));
+        assertEquals(parse("a & b"), optimize("~(~(a & b))"));
+        assertEquals(parse("a < b"), optimize("!(!(a < b))"));
+        assertEquals(parse("!(!a)"), optimize("!(!a)"));
+    }
+
+    @Test
+    void errorPositionsAreKept() {
+        Interpreter interpreter = new Interpreter();
+        String source = "x = 2 ** 3 + (1 / 0)";
+        InterpreterException error = assertThrows(InterpreterException.class, () -> {
+            interpreter.execute(source);
+        });
+        assertEquals(source.indexOf("1 / 0"), error.getPosition().getStart());
+    }
+}
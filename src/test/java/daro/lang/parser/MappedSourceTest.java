@@ -0,0 +1,99 @@
+package daro.lang.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import daro.lang.ast.AstSequence;
+import daro.lang.ast.Position;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class MappedSourceTest {
+    @TempDir
+    Path directory;
+
+    private Path write(String content) throws IOException {
+        Path file = directory.resolve("test.daro");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    @Test
+    void asciiFilesAreNotCopied() throws IOException {
+        CharSequence source = MappedSource.map(write("a = 12\nb = a"));
+        assertTrue(source instanceof MappedSource);
+        assertEquals(12, source.length());
+        assertEquals('=', source.charAt(2));
+        assertEquals("a = 12\nb = a", source.toString());
+        assertEquals("12", source.subSequence(4, 6).toString());
+        assertEquals('b', source.subSequence(7, 12).charAt(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> source.charAt(12));
+        assertThrows(IndexOutOfBoundsException.class, () -> source.subSequence(4, 13));
+    }
+
+    @Test
+    void otherFilesAreDecoded() throws IOException {
+        CharSequence source = MappedSource.map(write("s = \"äöü\""));
+        assertEquals("s = \"äöü\"", source.toString());
+    }
+
+    @Test
+    void otherFilesAreNotCopied() throws IOException {
+        String content = "a = \"\ud83d\ude00\"\n".repeat(1000) + "b = \"äöü\"";
+        CharSequence source = MappedSource.map(write(content));
+        assertTrue(source instanceof MappedSource);
+        assertEquals(content.length(), source.length());
+        assertEquals('ü', source.charAt(content.length() - 2));
+        assertEquals('\ude00', source.charAt(6));
+        assertEquals('\ud83d', source.charAt(5));
+        for (int i = content.length() - 1; i >= 0; i -= 7) {
+            assertEquals(content.charAt(i), source.charAt(i));
+        }
+        assertEquals(content.substring(3000, 5000), source.subSequence(3000, 5000).toString());
+        assertEquals(content.substring(6, 9), source.subSequence(6, 9).toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> source.charAt(content.length()));
+    }
+
+    @Test
+    void invalidFilesAreRejected() throws IOException {
+        Path file = directory.resolve("invalid.daro");
+        Files.write(file, new byte[] { 'a', (byte)0xff, 'b' });
+        assertThrows(IOException.class, () -> MappedSource.map(file));
+        Files.write(file, new byte[] { 'a', (byte)0xc3 });
+        assertThrows(IOException.class, () -> MappedSource.map(file));
+        Files.write(file, new byte[] { (byte)0xe0, (byte)0x80, (byte)0x80 });
+        assertThrows(IOException.class, () -> MappedSource.map(file));
+        Files.write(file, new byte[] { (byte)0xed, (byte)0xa0, (byte)0x80 });
+        assertThrows(IOException.class, () -> MappedSource.map(file));
+    }
+
+    @Test
+    void emptyFiles() throws IOException {
+        CharSequence source = MappedSource.map(write(""));
+        assertEquals(0, source.length());
+        assertEquals(0, Parser.parseSourceCode(source).getStatements().length);
+    }
+
+    @Test
+    void smallFilesAreRead() throws IOException {
+        assertTrue(MappedSource.read(write("a = 12")) instanceof String);
+    }
+
+    @Test
+    void parseMappedSource() throws IOException {
+        String content = "fn f(x) {\n    x * 2\n}\n// Comment\ny = f(\"test\")";
+        Path file = write(content);
+        CharSequence source = MappedSource.map(file);
+        AstSequence ast = Parser.parseSourceCode(source, file);
+        assertEquals(Parser.parseSourceCode(content), ast);
+        Position position = ast.getStatements()[1].getPosition();
+        assertEquals(5, position.getLine());
+        assertSame(source, position.getSource());
+        assertEquals(file + ":5:1..5:13", position.toString());
+    }
+}
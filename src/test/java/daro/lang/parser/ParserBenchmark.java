@@ -0,0 +1,50 @@
+package daro.lang.parser;
+
+/**
+ * This class is a simple benchmark for the throughput of the {@link Scanner}
+ * and {@link Parser}. It is not executed as part of the tests, but can be run
+ * manually using its main method. The source code that is parsed is generated
+ * by repeating a small program that contains most of the syntax of the
+ * language. After compiling the tests with {@code mvn test-compile}, run it
+ * using:
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes daro.lang.parser.ParserBenchmark [repeat] [rounds]
+ * </pre>
+ *
+ * The first half of the rounds is used to warm up the JVM, the average of the
+ * second half is printed at the end.
+ *
+ * @author Roland Bernard
+ */
+public class ParserBenchmark {
+    private static final String UNIT = "fn fib(n) { if n <= 1 { n } else { fib(n - 1) + fib(n - 2) } };\n"
+        + "x = new [10]int { 1, 2, 3 }; for i in x { y += i << 2 | 1 && !z[i].w };\n"
+        + "class A { v = 'c'; s = \"str\"; fn f(a, b) { match a { 1, 2: b; default: -a ** 2 % 7 } } };\n";
+
+    /**
+     * Parse the generated source repeatedly and print the throughput of every
+     * round. The first argument can be used to specify the number of times the
+     * program is repeated in the source, the second the number of rounds.
+     *
+     * @param args The command line arguments
+     */
+    public static void main(String[] args) {
+        int repeat = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        String source = UNIT.repeat(repeat);
+        double megabytes = source.length() / 1e6;
+        long total = 0;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            Parser.parseSourceCode(source);
+            long time = System.nanoTime() - start;
+            if (i >= rounds / 2) {
+                total += time;
+            }
+            System.out.printf("Round %d: %.2f ms (%.2f MB/s)%n", i, time / 1e6, megabytes / (time / 1e9));
+        }
+        double average = (double)total / (rounds - rounds / 2);
+        System.out.printf("Average: %.2f ms (%.2f MB/s)%n", average / 1e6, megabytes / (average / 1e9));
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.math.BigInteger;
+import java.util.Random;
 
 public class ParserTest {
 
@@ -966,5 +967,217 @@ public class ParserTest {
             Parser.parseSourceCode("match x { 1: foo(); ");
         });
     }
-}
 
+    @Test
+    void mixedPrecedenceExpression() {
+        AstNode ast = Parser.parseSourceCode("a || b && c == d | e ^ f & g >> h - i % j ** k");
+        assertEquals(
+            Parser.parseSourceCode("a || (b && (c == (d | (e ^ (f & (g >> (h - (i % (j ** k)))))))))"), ast
+        );
+    }
+
+    @Test
+    void longOperatorChainsAreLeftAssociative() {
+        AstNode ast = Parser.parseSourceCode("1" + " - 1".repeat(10_000));
+        AstNode node = ((AstSequence)ast).getStatements()[0];
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(node instanceof AstSubtract);
+            assertEquals(new AstInteger(null, 1), ((AstSubtract)node).getRight());
+            node = ((AstSubtract)node).getLeft();
+        }
+        assertEquals(new AstInteger(null, 1), node);
+    }
+
+    @Test
+    void missingRightOperandPosition() {
+        ParsingException exception = assertThrows(ParsingException.class, () -> {
+            Parser.parseSourceCode("a * b + ");
+        });
+        assertEquals(0, exception.getPosition().getStart());
+        assertEquals(7, exception.getPosition().getEnd());
+    }
+
+    @Test
+    void reparseInsertion() {
+        String source = "a = 1\nfn f(x) { x * 2 }\nb = f(a)\nc = b + 1";
+        AstSequence previous = Parser.parseSourceCode(source);
+        AstSequence ast = Parser.reparseSourceCode(previous, source.indexOf("x *"), 1, "(x + 1)");
+        String edited = "a = 1\nfn f(x) { (x + 1) * 2 }\nb = f(a)\nc = b + 1";
+        assertEquals(Parser.parseSourceCode(edited), ast);
+        assertEquals(edited, ast.getPosition().getText());
+        AstNode last = ast.getStatements()[3];
+        assertEquals(edited.indexOf("c = b"), last.getPosition().getStart());
+        assertEquals(edited.length(), last.getPosition().getEnd());
+        assertEquals(4, last.getPosition().getLine());
+        assertSame(ast.getPosition().getLineIndex(), ast.getStatements()[0].getPosition().getLineIndex());
+        assertSame(ast.getPosition().getLineIndex(), last.getPosition().getLineIndex());
+    }
+
+    @Test
+    void reparseMergingStatements() {
+        AstSequence previous = Parser.parseSourceCode("a = 1\nb\n!c\nd");
+        AstSequence ast = Parser.reparseSourceCode(previous, 9, 0, "=");
+        assertEquals(Parser.parseSourceCode("a = 1\nb\n!=c\nd"), ast);
+        assertEquals(3, ast.getStatements().length);
+    }
+
+    @Test
+    void reparseParenthesis() {
+        AstSequence previous = Parser.parseSourceCode("x; (a)");
+        assertThrows(ParsingException.class, () -> {
+            Parser.reparseSourceCode(previous, 3, 1, "");
+        });
+    }
+
+    @Test
+    void reparseSyntaxError() {
+        AstSequence previous = Parser.parseSourceCode("a = 1; b = 2; c = 3");
+        ParsingException exception = assertThrows(ParsingException.class, () -> {
+            Parser.reparseSourceCode(previous, 11, 1, "");
+        });
+        assertEquals("Expected an expression after `=`", exception.getMessage());
+        assertEquals(7, exception.getPosition().getStart());
+    }
+
+    @Test
+    void reparseToEmpty() {
+        AstSequence previous = Parser.parseSourceCode("a = 1");
+        AstSequence ast = Parser.reparseSourceCode(previous, 0, 5, "");
+        assertEquals(0, ast.getStatements().length);
+        assertEquals("", ast.getPosition().getText());
+        assertEquals(Parser.parseSourceCode("b"), Parser.reparseSourceCode(ast, 0, 0, "b"));
+    }
+
+    @Test
+    void reparseInvalidEdit() {
+        AstSequence previous = Parser.parseSourceCode("a = 1");
+        assertThrows(IllegalArgumentException.class, () -> {
+            Parser.reparseSourceCode(previous, 3, 5, "");
+        });
+    }
+
+    @Test
+    void reparseKeepsStatements() {
+        String source = "a = 1\nfn f(x) {\n    y = x * 2\n    z = y + 1\n    z\n}\nb = f(a)";
+        AstSequence previous = Parser.parseSourceCode(source);
+        AstNode[] old = previous.getStatements();
+        AstNode[] body = ((AstFunction)old[1]).getBody().getStatements();
+        AstSequence ast = Parser.reparseSourceCode(previous, source.indexOf("y + 1"), 1, "(y - 3)");
+        assertSame(old[0], ast.getStatements()[0]);
+        assertNotSame(old[1], ast.getStatements()[1]);
+        assertSame(old[2], ast.getStatements()[2]);
+        AstNode[] statements = ((AstFunction)ast.getStatements()[1]).getBody().getStatements();
+        assertSame(body[0], statements[0]);
+        assertNotSame(body[1], statements[1]);
+        assertSame(body[2], statements[2]);
+        String edited = ast.getPosition().getText();
+        assertEquals(edited.lastIndexOf("z"), statements[2].getPosition().getStart());
+        assertEquals(edited.indexOf("b ="), old[2].getPosition().getStart());
+        assertEquals(7, old[2].getPosition().getLine());
+        assertEquals(Parser.parseSourceCode(edited), ast);
+    }
+
+    @Test
+    void reparseFailureKeepsPrevious() {
+        String source = "a = 1; b = 2; c = 3";
+        AstSequence previous = Parser.parseSourceCode(source);
+        AstNode last = previous.getStatements()[2];
+        assertThrows(ParsingException.class, () -> {
+            Parser.reparseSourceCode(previous, 11, 1, "");
+        });
+        assertEquals(14, last.getPosition().getStart());
+        assertEquals(source, last.getPosition().getText());
+        AstSequence ast = Parser.reparseSourceCode(previous, 11, 1, "42");
+        assertEquals(Parser.parseSourceCode("a = 1; b = 42; c = 3"), ast);
+        assertSame(last, ast.getStatements()[2]);
+        assertEquals(15, last.getPosition().getStart());
+    }
+
+    @Test
+    void reparseEditedSource() {
+        String source = "fn f() {\n    1\n}\nf()";
+        AstSequence previous = Parser.parseSourceCode(source);
+        String edited = "fn f() {\n    1 + 2\n}\nf()";
+        AstSequence ast = Parser.reparseSourceCode(previous, edited, 14, 0, 4);
+        assertEquals(Parser.parseSourceCode(edited), ast);
+        assertSame(edited, ast.getPosition().getSource());
+        assertThrows(IllegalArgumentException.class, () -> {
+            Parser.reparseSourceCode(ast, edited, 0, 1, 0);
+        });
+    }
+
+    /**
+     * Assert that the positions of all nodes in the given trees are equal.
+     * 
+     * @param expected The expected tree
+     * @param actual   The actual tree
+     */
+    private static void assertPositionsEqual(AstNode expected, AstNode actual) {
+        if (expected != null) {
+            assertEquals(expected.getPosition().getStart(), actual.getPosition().getStart());
+            assertEquals(expected.getPosition().getEnd(), actual.getPosition().getEnd());
+            assertEquals(expected.getPosition().getLine(), actual.getPosition().getLine());
+            assertEquals(expected.getPosition().getText(), actual.getPosition().getText());
+            AstNode[] expectedChildren = expected.getChildren();
+            AstNode[] actualChildren = actual.getChildren();
+            assertEquals(expectedChildren.length, actualChildren.length);
+            for (int i = 0; i < expectedChildren.length; i++) {
+                assertPositionsEqual(expectedChildren[i], actualChildren[i]);
+            }
+        }
+    }
+
+    @Test
+    void reparseRandomEdits() {
+        String[] insertions = {
+            ";", "\n", " ", "x", "1", " + 1", "(", ")", "{", "}", "fn g(a) { a * 2 }\n", "// comment\n", "\"str\"",
+            "if x { y } else { z }\n", "/* a */", "return ", "class C { n = 1 }\n", "!", "=", "f(", "[1, 2]"
+        };
+        Random random = new Random(42);
+        String text = "a = 1\nfn f(x) {\n    y = x * 2\n    if y > 3 {\n        y = y - 1\n    }\n    y\n}\n"
+            + "class A {\n    v = f(a)\n    fn get() { v }\n}\nb = (f(a) + 2)\nfor i in list { print(i) }\n";
+        AstSequence tree = Parser.parseSourceCode(text);
+        for (int i = 0; i < 2000; i++) {
+            int offset = random.nextInt(text.length() + 1);
+            int removed = random.nextInt(4) == 0 ? Math.min(random.nextInt(6), text.length() - offset) : 0;
+            String inserted = removed > 0 && random.nextBoolean() ? "" : insertions[random.nextInt(insertions.length)];
+            String edited = text.substring(0, offset) + inserted + text.substring(offset + removed);
+            AstSequence expected;
+            try {
+                expected = Parser.parseSourceCode(edited);
+            } catch (ParsingException error) {
+                ParsingException actual = assertThrows(ParsingException.class, () -> {
+                    Parser.parseSourceCode(edited);
+                });
+                AstSequence previous = tree;
+                ParsingException incremental = assertThrows(ParsingException.class, () -> {
+                    Parser.reparseSourceCode(previous, edited, offset, removed, inserted.length());
+                });
+                assertEquals(actual.getMessage(), incremental.getMessage());
+                assertEquals(actual.getPosition().getStart(), incremental.getPosition().getStart());
+                assertEquals(actual.getPosition().getEnd(), incremental.getPosition().getEnd());
+                continue;
+            }
+            tree = Parser.reparseSourceCode(tree, edited, offset, removed, inserted.length());
+            text = edited;
+            assertEquals(expected, tree);
+            assertPositionsEqual(expected, tree);
+        }
+    }
+
+    @Test
+    void largeIntegerLiterals() {
+        assertEquals(
+            new BigInteger("123456789012345678901234567890"),
+            ((AstInteger)Parser.parseSourceCode("123456789012345678901234567890").getStatements()[0]).getValue()
+        );
+        assertEquals(
+            new BigInteger("ffffffffffffffffff", 16),
+            ((AstInteger)Parser.parseSourceCode("0xffffffffffffffffff").getStatements()[0]).getValue()
+        );
+        assertEquals(
+            BigInteger.valueOf(Long.MAX_VALUE),
+            ((AstInteger)Parser.parseSourceCode("0x7fffffffffffffff").getStatements()[0]).getValue()
+        );
+    }
+}
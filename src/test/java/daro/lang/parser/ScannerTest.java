@@ -493,4 +493,31 @@ public class ScannerTest {
         scanner.next();
         assertEquals(new Position(5, 5, code), scanner.getPosition());
     }
+
+    @Test
+    void longestOperatorIsMatched() {
+        Scanner scanner = new Scanner("<<= << <= < ||= || |= |.");
+        assertEquals(TokenKind.SHIFT_LEFT_ASSIGN, scanner.next().getKind());
+        assertEquals(TokenKind.SHIFT_LEFT, scanner.next().getKind());
+        assertEquals(TokenKind.LESS_EQUAL, scanner.next().getKind());
+        assertEquals(TokenKind.LESS, scanner.next().getKind());
+        assertEquals(TokenKind.DOUBLE_PIPE_ASSIGN, scanner.next().getKind());
+        assertEquals(TokenKind.DOUBLE_PIPE, scanner.next().getKind());
+        assertEquals(TokenKind.PIPE_ASSIGN, scanner.next().getKind());
+        assertEquals(TokenKind.PIPE, scanner.next().getKind());
+        assertEquals(TokenKind.DOT, scanner.next().getKind());
+        assertFalse(scanner.hasNext());
+    }
+
+    @Test
+    void longOperatorSequences() {
+        String code = "+-*/".repeat(250_000) + "@";
+        Scanner scanner = new Scanner(code);
+        for (int i = 0; i < 1_000_000; i++) {
+            assertTrue(scanner.hasNext());
+            scanner.next();
+        }
+        assertEquals(TokenKind.INVALID, scanner.next().getKind());
+        assertFalse(scanner.hasNext());
+    }
 }
@@ -44,4 +44,12 @@ public class TokenKindTest {
         TokenKind kind = TokenKind.findForFixedSource("main");
         assertNull(kind);
     }
+
+    @Test
+    void findFixedSourceInString() {
+        assertEquals(TokenKind.ELSE, TokenKind.findForFixedSource("x else y", 2, 6));
+        assertNull(TokenKind.findForFixedSource("x else y", 2, 5));
+        assertNull(TokenKind.findForFixedSource("elseif", 0, 6));
+        assertNull(TokenKind.findForFixedSource("äöü", 0, 3));
+    }
 }
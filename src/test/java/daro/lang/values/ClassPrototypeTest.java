@@ -0,0 +1,35 @@
+package daro.lang.values;
+
+import org.junit.jupiter.api.Test;
+
+import daro.lang.ast.*;
+import daro.lang.parser.Parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClassPrototypeTest {
+
+    private static ClassPrototype prototype(String source) {
+        AstSequence program = Parser.parseSourceCode(source);
+        return new ClassPrototype((AstClass)program.getStatements()[0]);
+    }
+
+    @Test
+    void methodsAreSeparated() {
+        ClassPrototype prototype = prototype("class A { x = 1; fn get() { x }; fn set(v) { x = v } }");
+        assertEquals(2, prototype.getMethods().length);
+        assertEquals(0, prototype.getIndex("get"));
+        assertEquals(1, prototype.getIndex("set"));
+        assertEquals(-1, prototype.getIndex("x"));
+        assertEquals(1, prototype.getFields().getStatements().length);
+    }
+
+    @Test
+    void redefinedFunctionsAreNotMethods() {
+        assertEquals(0, prototype("class A { get = 5; fn get() { 1 } }").getMethods().length);
+        assertEquals(0, prototype("class A { fn get() { 1 }; fn get(a) { a } }").getMethods().length);
+        assertEquals(0, prototype("class A { for get in new array { 1 } { }; fn get() { 1 } }").getMethods().length);
+        assertEquals(0, prototype("class A { use foo; fn get() { 1 } }").getMethods().length);
+        assertEquals(1, prototype("class A { fn get() { get = 5 } }").getMethods().length);
+    }
+}
@@ -62,4 +62,11 @@ public class UserBooleanTest {
         DaroBoolean object = new DaroBoolean(true);
         assertEquals("true", object.toString());
     }
+
+    @Test
+    void valueOfShared() {
+        assertSame(DaroBoolean.TRUE, DaroBoolean.valueOf(true));
+        assertSame(DaroBoolean.FALSE, DaroBoolean.valueOf(false));
+        assertEquals(new DaroBoolean(true), DaroBoolean.valueOf(true));
+    }
 }
@@ -0,0 +1,40 @@
+package daro.lang.values;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+
+public class UserIntegerTest {
+
+    @Test
+    void smallValuesShared() {
+        assertSame(DaroInteger.valueOf(42), DaroInteger.valueOf(42));
+        assertSame(DaroInteger.valueOf(-1), DaroInteger.valueOf(BigInteger.ONE.negate()));
+    }
+
+    @Test
+    void cachedEqualsAllocated() {
+        assertEquals(new DaroInteger(42), DaroInteger.valueOf(42));
+        assertEquals(new DaroInteger(BigInteger.valueOf(42)), DaroInteger.valueOf(42));
+        assertEquals(new DaroInteger(1L << 40), DaroInteger.valueOf(1L << 40));
+    }
+
+    @Test
+    void bigValuesNormalized() {
+        DaroInteger big = new DaroInteger(BigInteger.TWO.pow(70));
+        assertFalse(big.isLong());
+        assertTrue(new DaroInteger(BigInteger.valueOf(Long.MIN_VALUE)).isLong());
+        DaroInteger other = new DaroInteger(BigInteger.TWO.pow(70).subtract(BigInteger.valueOf(7)));
+        assertTrue(big.subtract(other).isLong());
+        assertEquals(DaroInteger.valueOf(7), big.subtract(other));
+    }
+
+    @Test
+    void typesShared() {
+        assertSame(DaroInteger.valueOf(1).getType(), DaroInteger.valueOf(2).getType());
+        assertSame(DaroBoolean.TRUE.getType(), DaroBoolean.FALSE.getType());
+        assertEquals(new DaroTypeInteger(), DaroTypeInteger.INSTANCE);
+    }
+}
@@ -0,0 +1,124 @@
+package daro.lang.vm;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import daro.lang.ast.AstNode;
+import daro.lang.interpreter.*;
+import daro.lang.values.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+
+public class MachineTest {
+    private Interpreter interpreter;
+
+    @BeforeEach
+    void initializeInterpreter() {
+        interpreter = new Interpreter(ExecutionMode.BYTECODE);
+    }
+
+    @Test
+    void simpleExpression() {
+        assertEquals(new DaroInteger(BigInteger.valueOf(42)), interpreter.execute("(1 + 2) * 14"));
+    }
+
+    @Test
+    void functionIsCompiledToBytecode() {
+        interpreter.execute("fn foo(a) { a + 1 }");
+        DaroAstFunction function = (DaroAstFunction)interpreter.execute("foo");
+        assertTrue(function.getCompiledBody() instanceof Code);
+        assertEquals(new DaroInteger(BigInteger.valueOf(42)), interpreter.execute("foo(41)"));
+    }
+
+    @Test
+    void deepRecursion() {
+        interpreter.execute("fn sum(n) { if n == 0 { 0 } else { n + sum(n - 1) } }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(50005000)), interpreter.execute("sum(10000)"));
+    }
+
+    @Test
+    void deepRecursionWithReturn() {
+        interpreter.execute("fn count(n) { if n == 0 { return 0 }; return 1 + count(n - 1) }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(50000)), interpreter.execute("count(50000)"));
+    }
+
+    @Test
+    void callDepthIsConfigurable() {
+        Interpreter deep = new Interpreter(interpreter.getContext().withCallDepth(1 << 20));
+        deep.execute("fn count(n) { if n == 0 { 0 } else { 1 + count(n - 1) } }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(200000)), deep.execute("count(200000)"));
+    }
+
+    @Test
+    void callDepthIsLimited() {
+        Interpreter shallow = new Interpreter(interpreter.getContext().withCallDepth(100));
+        shallow.execute("fn count(n) { if n == 0 { 0 } else { 1 + count(n - 1) } }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(50)), shallow.execute("count(50)"));
+        assertThrows(InterpreterException.class, () -> {
+            shallow.execute("count(500)");
+        });
+    }
+
+    @Test
+    void returnFromLoop() {
+        interpreter.execute("fn find(a, x) { for v in a { if v == x { return v * 2 } }; 0 }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(42)), interpreter.execute("find(new array { 1, 21, 3 }, 21)"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(0)), interpreter.execute("find(new array { 1, 2, 3 }, 5)"));
+    }
+
+    @Test
+    void closures() {
+        interpreter.execute("fn adder(a) { fn (b) { a + b } }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(42)), interpreter.execute("adder(40)(2)"));
+    }
+
+    @Test
+    void nativeCallback() {
+        interpreter.execute("x = new array { 1, 2, 3 }");
+        assertEquals(
+            new DaroInteger(BigInteger.valueOf(6)),
+            interpreter.execute("x.reduce(fn (a, b) { a + b })")
+        );
+    }
+
+    @Test
+    void classes() {
+        interpreter.execute("class Foo { x = 1; fn inc() { x = x + 1; return x } }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(3)), interpreter.execute("f = new Foo; f.inc(); f.inc()"));
+    }
+
+    @Test
+    void match() {
+        interpreter.execute("fn test(x) { match x { 1, 2 : 5; 3 : 7; default : 9 } }");
+        assertEquals(new DaroInteger(BigInteger.valueOf(5)), interpreter.execute("test(2)"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(7)), interpreter.execute("test(3)"));
+        assertEquals(new DaroInteger(BigInteger.valueOf(9)), interpreter.execute("test(4)"));
+    }
+
+    @Test
+    void errorsArePositioned() {
+        interpreter.execute("fn foo(a) { a + bar }");
+        InterpreterException exception = assertThrows(InterpreterException.class, () -> {
+            interpreter.execute("foo(1)");
+        });
+        assertEquals("Variable `bar` is undefined", exception.getMessage());
+        assertNotNull(exception.getPosition());
+    }
+
+    @Test
+    void observersFallBackToExecutor() {
+        interpreter.execute("fn foo(a) { a + 1 }");
+        int[] count = new int[1];
+        assertEquals(
+            new DaroInteger(BigInteger.valueOf(42)), interpreter.execute("foo(41)", new ExecutionObserver() {
+                @Override
+                public void beforeExecution(AstNode node, ExecutionContext context) {
+                    count[0]++;
+                }
+            })
+        );
+        assertTrue(count[0] > 0);
+    }
+}